@@ -1,10 +1,17 @@
 package io.odpf.firehose.config;
 
+import io.odpf.firehose.config.converter.BlobSinkLocalFileWriterBufferTypeConverter;
 import io.odpf.firehose.config.converter.BlobSinkLocalFileWriterTypeConverter;
 import io.odpf.firehose.config.converter.BlobSinkFilePartitionTypeConverter;
+import io.odpf.firehose.config.converter.BlobSinkParquetCompressionCodecConverter;
+import io.odpf.firehose.config.converter.BlobSinkParquetWriterVersionConverter;
 import io.odpf.firehose.config.converter.BlobStorageTypeConverter;
 import io.odpf.firehose.sink.common.blobstorage.BlobStorageType;
 import io.odpf.firehose.sink.blob.Constants;
+import org.apache.parquet.column.ParquetProperties;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+
+import java.util.List;
 
 public interface BlobSinkConfig extends AppConfig {
 
@@ -22,6 +29,31 @@ public interface BlobSinkConfig extends AppConfig {
     @ConverterClass(BlobSinkLocalFileWriterTypeConverter.class)
     Constants.WriterType getLocalFileWriterType();
 
+    @Key("SINK_BLOB_LOCAL_FILE_WRITER_COMPRESSION_ENABLE")
+    @DefaultValue("true")
+    boolean getLocalFileWriterCompressionEnable();
+
+    @Key("SINK_BLOB_LOCAL_FILE_WRITER_BUFFER_TYPE")
+    @DefaultValue("disk")
+    @ConverterClass(BlobSinkLocalFileWriterBufferTypeConverter.class)
+    Constants.WriterBufferType getLocalFileWriterBufferType();
+
+    @Key("SINK_BLOB_LOCAL_FILE_WRITER_MEMORY_BUFFER_MAX_BYTES")
+    @DefaultValue("268435456")
+    long getLocalFileWriterMemoryBufferMaxBytes();
+
+    @Key("SINK_BLOB_LOCAL_FILE_WRITER_MEMORY_BUFFER_CHUNK_SIZE_BYTES")
+    @DefaultValue("1048576")
+    int getLocalFileWriterMemoryBufferChunkSizeBytes();
+
+    @Key("SINK_BLOB_LOCAL_FILE_WRITER_MAX_OPEN_FILES")
+    @DefaultValue("0")
+    int getLocalFileWriterMaxOpenFiles();
+
+    @Key("SINK_BLOB_LOCAL_FILE_WRITER_MAX_BUFFERED_BYTES")
+    @DefaultValue("0")
+    long getLocalFileWriterMaxBufferedBytes();
+
     @Key("SINK_BLOB_LOCAL_FILE_WRITER_PARQUET_BLOCK_SIZE")
     @DefaultValue("134217728")
     int getLocalFileWriterParquetBlockSize();
@@ -30,6 +62,29 @@ public interface BlobSinkConfig extends AppConfig {
     @DefaultValue("1048576")
     int getLocalFileWriterParquetPageSize();
 
+    @Key("SINK_BLOB_LOCAL_FILE_WRITER_PARQUET_COMPRESSION_CODEC")
+    @DefaultValue("GZIP")
+    @ConverterClass(BlobSinkParquetCompressionCodecConverter.class)
+    CompressionCodecName getLocalFileWriterParquetCompressionCodec();
+
+    @Key("SINK_BLOB_LOCAL_FILE_WRITER_PARQUET_DICTIONARY_ENCODING_ENABLE")
+    @DefaultValue("true")
+    boolean getLocalFileWriterParquetDictionaryEncodingEnable();
+
+    @Key("SINK_BLOB_LOCAL_FILE_WRITER_PARQUET_DICTIONARY_ENCODING_DISABLED_COLUMNS")
+    @Separator(",")
+    @DefaultValue("")
+    List<String> getLocalFileWriterParquetDictionaryEncodingDisabledColumns();
+
+    @Key("SINK_BLOB_LOCAL_FILE_WRITER_PARQUET_WRITER_VERSION")
+    @DefaultValue("v1")
+    @ConverterClass(BlobSinkParquetWriterVersionConverter.class)
+    ParquetProperties.WriterVersion getLocalFileWriterParquetWriterVersion();
+
+    @Key("SINK_BLOB_LOCAL_FILE_WRITER_PARQUET_RAW_WRITE_ENABLE")
+    @DefaultValue("false")
+    boolean getLocalFileWriterParquetRawWriteEnable();
+
     @Key("SINK_BLOB_OUTPUT_KAFKA_METADATA_COLUMN_NAME")
     @DefaultValue("")
     String getOutputKafkaMetadataColumnName();
@@ -46,6 +101,18 @@ public interface BlobSinkConfig extends AppConfig {
     @DefaultValue("268435456")
     long getLocalFileRotationMaxSizeBytes();
 
+    @Key("SINK_BLOB_LOCAL_FILE_MANIFEST_ENABLE")
+    @DefaultValue("false")
+    boolean getLocalFileManifestEnable();
+
+    @Key("SINK_BLOB_LOCAL_FILE_ROTATION_WATERMARK_ENABLE")
+    @DefaultValue("false")
+    boolean getLocalFileRotationWatermarkEnable();
+
+    @Key("SINK_BLOB_LOCAL_FILE_ROTATION_WATERMARK_ALLOWED_LATENESS_MS")
+    @DefaultValue("600000")
+    long getLocalFileRotationWatermarkAllowedLatenessMS();
+
     @Key("SINK_BLOB_FILE_PARTITION_PROTO_TIMESTAMP_FIELD_NAME")
     String getFilePartitionProtoTimestampFieldName();
 
@@ -65,4 +132,27 @@ public interface BlobSinkConfig extends AppConfig {
     @Key("SINK_BLOB_FILE_PARTITION_TIME_HOUR_PREFIX")
     @DefaultValue("hr=")
     String getFilePartitionTimeHourPrefix();
+
+    @Key("SINK_BLOB_FILE_PARTITION_TEMPLATE")
+    String getFilePartitionTemplate();
+
+    @Key("SINK_BLOB_COMPACTION_ENABLE")
+    @DefaultValue("false")
+    boolean getCompactionEnable();
+
+    @Key("SINK_BLOB_COMPACTION_INTERVAL_MS")
+    @DefaultValue("300000")
+    long getCompactionIntervalMS();
+
+    @Key("SINK_BLOB_COMPACTION_DELAY_MS")
+    @DefaultValue("7200000")
+    long getCompactionDelayMS();
+
+    @Key("SINK_BLOB_COMPACTION_SMALL_FILE_MAX_SIZE_BYTES")
+    @DefaultValue("33554432")
+    long getCompactionSmallFileMaxSizeBytes();
+
+    @Key("SINK_BLOB_COMPACTION_TARGET_FILE_SIZE_BYTES")
+    @DefaultValue("268435456")
+    long getCompactionTargetFileSizeBytes();
 }
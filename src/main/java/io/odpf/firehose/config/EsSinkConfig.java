@@ -43,6 +43,10 @@ public interface EsSinkConfig extends AppConfig {
     @DefaultValue("true")
     Boolean isSinkEsPreserveProtoFieldNamesEnable();
 
+    @Key("SINK_ES_UPSERT_COLLAPSE_ENABLE")
+    @DefaultValue("false")
+    Boolean isSinkEsUpsertCollapseEnable();
+
     @Key("SINK_ES_ROUTING_KEY_NAME")
     String getSinkEsRoutingKeyName();
 }
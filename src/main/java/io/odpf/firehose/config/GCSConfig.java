@@ -67,6 +67,11 @@ public interface GCSConfig extends Config {
     @Key("${GCS_TYPE}_GCS_RETRY_RPC_MAX_TIMEOUT_MS")
     @DefaultValue("5000")
     Long getGCSRetryRPCMaxTimeoutMS();
-}
-
 
+    /**
+     * @return Size of the chunks files are uploaded in, must be a multiple of 256 KiB.
+     */
+    @Key("${GCS_TYPE}_GCS_UPLOAD_CHUNK_SIZE_BYTES")
+    @DefaultValue("8388608")
+    Integer getGCSUploadChunkSizeBytes();
+}
@@ -1,5 +1,9 @@
 package io.odpf.firehose.config;
 
+import io.odpf.firehose.config.converter.GrpcSinkLoadBalancingPolicyConverter;
+import io.odpf.firehose.config.converter.GrpcSinkMethodTypeConverter;
+import io.odpf.firehose.config.enums.GrpcSinkLoadBalancingPolicy;
+import io.odpf.firehose.config.enums.GrpcSinkMethodType;
 import org.aeonbits.owner.Config;
 
 
@@ -11,10 +15,67 @@ public interface GrpcSinkConfig extends AppConfig {
     @Config.Key("SINK_GRPC_SERVICE_PORT")
     Integer getSinkGrpcServicePort();
 
+    @Config.Key("SINK_GRPC_SERVICE_TARGETS")
+    @Config.DefaultValue("")
+    String getSinkGrpcServiceTargets();
+
+    @Config.Key("SINK_GRPC_CHANNEL_POOL_SIZE")
+    @Config.DefaultValue("1")
+    Integer getSinkGrpcChannelPoolSize();
+
+    @Config.Key("SINK_GRPC_LOAD_BALANCING_POLICY")
+    @Config.DefaultValue("ROUND_ROBIN")
+    @Config.ConverterClass(GrpcSinkLoadBalancingPolicyConverter.class)
+    GrpcSinkLoadBalancingPolicy getSinkGrpcLoadBalancingPolicy();
+
     @Config.Key("SINK_GRPC_METHOD_URL")
     String getSinkGrpcMethodUrl();
 
     @Config.Key("SINK_GRPC_RESPONSE_SCHEMA_PROTO_CLASS")
     String getSinkGrpcResponseSchemaProtoClass();
 
+    @Config.Key("SINK_GRPC_METHOD_TYPE")
+    @Config.DefaultValue("UNARY")
+    @Config.ConverterClass(GrpcSinkMethodTypeConverter.class)
+    GrpcSinkMethodType getSinkGrpcMethodType();
+
+    @Config.Key("SINK_GRPC_STREAMING_RESPONSE_SCHEMA_PROTO_CLASS")
+    String getSinkGrpcStreamingResponseSchemaProtoClass();
+
+    @Config.Key("SINK_GRPC_STREAMING_RESPONSE_FIELD")
+    @Config.DefaultValue("responses")
+    String getSinkGrpcStreamingResponseField();
+
+    @Config.Key("SINK_GRPC_CIRCUIT_BREAKER_ENABLE")
+    @Config.DefaultValue("false")
+    Boolean isSinkGrpcCircuitBreakerEnable();
+
+    @Config.Key("SINK_GRPC_CIRCUIT_BREAKER_FAILURE_RATE_THRESHOLD")
+    @Config.DefaultValue("50")
+    Integer getSinkGrpcCircuitBreakerFailureRateThreshold();
+
+    @Config.Key("SINK_GRPC_CIRCUIT_BREAKER_SLIDING_WINDOW_SIZE")
+    @Config.DefaultValue("20")
+    Integer getSinkGrpcCircuitBreakerSlidingWindowSize();
+
+    @Config.Key("SINK_GRPC_CIRCUIT_BREAKER_OPEN_DURATION_MS")
+    @Config.DefaultValue("30000")
+    Long getSinkGrpcCircuitBreakerOpenDurationMs();
+
+    @Config.Key("SINK_GRPC_CIRCUIT_BREAKER_HALF_OPEN_PERMITTED_CALLS")
+    @Config.DefaultValue("1")
+    Integer getSinkGrpcCircuitBreakerHalfOpenPermittedCalls();
+
+    @Config.Key("SINK_GRPC_HEDGING_ENABLE")
+    @Config.DefaultValue("false")
+    Boolean isSinkGrpcHedgingEnable();
+
+    @Config.Key("SINK_GRPC_HEDGING_MIN_DELAY_MS")
+    @Config.DefaultValue("100")
+    Long getSinkGrpcHedgingMinDelayMs();
+
+    @Config.Key("SINK_GRPC_MAX_IN_FLIGHT")
+    @Config.DefaultValue("100")
+    Integer getSinkGrpcMaxInFlight();
+
 }
@@ -74,6 +74,14 @@ public interface HttpSinkConfig extends AppConfig {
     @DefaultValue("scope")
     String getSinkHttpOAuth2Scope();
 
+    @Key("SINK_HTTP_OAUTH2_BACKGROUND_REFRESH_ENABLE")
+    @DefaultValue("true")
+    Boolean isSinkHttpOAuth2BackgroundRefreshEnable();
+
+    @Key("SINK_HTTP_OAUTH2_REFRESH_AHEAD_SECONDS")
+    @DefaultValue("120")
+    Long getSinkHttpOAuth2RefreshAheadSeconds();
+
     @Key("SINK_HTTP_JSON_BODY_TEMPLATE")
     @DefaultValue("")
     String getSinkHttpJsonBodyTemplate();
@@ -90,4 +98,32 @@ public interface HttpSinkConfig extends AppConfig {
     @DefaultValue("true")
     Boolean getSinkHttpDeleteBodyEnable();
 
+    @Key("SINK_HTTP_CIRCUIT_BREAKER_ENABLE")
+    @DefaultValue("false")
+    Boolean isSinkHttpCircuitBreakerEnable();
+
+    @Key("SINK_HTTP_CIRCUIT_BREAKER_FAILURE_RATE_THRESHOLD")
+    @DefaultValue("50")
+    Integer getSinkHttpCircuitBreakerFailureRateThreshold();
+
+    @Key("SINK_HTTP_CIRCUIT_BREAKER_SLIDING_WINDOW_SIZE")
+    @DefaultValue("20")
+    Integer getSinkHttpCircuitBreakerSlidingWindowSize();
+
+    @Key("SINK_HTTP_CIRCUIT_BREAKER_OPEN_DURATION_MS")
+    @DefaultValue("30000")
+    Long getSinkHttpCircuitBreakerOpenDurationMs();
+
+    @Key("SINK_HTTP_CIRCUIT_BREAKER_HALF_OPEN_PERMITTED_CALLS")
+    @DefaultValue("1")
+    Integer getSinkHttpCircuitBreakerHalfOpenPermittedCalls();
+
+    @Key("SINK_HTTP_HEDGING_ENABLE")
+    @DefaultValue("false")
+    Boolean isSinkHttpHedgingEnable();
+
+    @Key("SINK_HTTP_HEDGING_MIN_DELAY_MS")
+    @DefaultValue("100")
+    Long getSinkHttpHedgingMinDelayMs();
+
 }
@@ -1,5 +1,8 @@
 package io.odpf.firehose.config;
 
+import io.odpf.firehose.config.converter.JdbcSinkWriteModeConverter;
+import io.odpf.firehose.config.enums.JdbcSinkWriteMode;
+
 public interface JdbcSinkConfig extends AppConfig {
 
     @Key("SINK_JDBC_URL")
@@ -29,4 +32,25 @@ public interface JdbcSinkConfig extends AppConfig {
 
     @Key("SINK_JDBC_CONNECTION_POOL_MIN_IDLE")
     Integer getSinkJdbcConnectionPoolMinIdle();
+
+    @Key("SINK_JDBC_WRITE_MODE")
+    @DefaultValue("QUERY_STRING")
+    @ConverterClass(JdbcSinkWriteModeConverter.class)
+    JdbcSinkWriteMode getSinkJdbcWriteMode();
+
+    @Key("SINK_JDBC_UPSERT_COLLAPSE_ENABLE")
+    @DefaultValue("false")
+    Boolean isSinkJdbcUpsertCollapseEnable();
+
+    @Key("SINK_JDBC_SHARD_COUNT")
+    @DefaultValue("1")
+    Integer getSinkJdbcShardCount();
+
+    @Key("SINK_JDBC_FAILURE_ISOLATION_ENABLE")
+    @DefaultValue("false")
+    Boolean isSinkJdbcFailureIsolationEnable();
+
+    @Key("SINK_JDBC_OFFSETS_TABLE_NAME")
+    @DefaultValue("")
+    String getSinkJdbcOffsetsTableName();
 }
@@ -0,0 +1,22 @@
+package io.odpf.firehose.config;
+
+import io.odpf.firehose.config.converter.LocalFileSystemFsyncTypeConverter;
+import io.odpf.firehose.sink.common.blobstorage.local.LocalFileSystemStorage;
+import org.aeonbits.owner.Config;
+
+/**
+ * LOCAL_TYPE needs to be set as SINK_BLOB or DLQ.
+ */
+public interface LocalFileSystemStorageConfig extends Config {
+
+    @Key("${LOCAL_TYPE}_LOCAL_STORAGE_DIRECTORY")
+    String getLocalStorageDirectory();
+
+    /**
+     * @return What is synced to the disk before a stored object is reported as stored.
+     */
+    @Key("${LOCAL_TYPE}_LOCAL_STORAGE_FSYNC_TYPE")
+    @DefaultValue("FILE_AND_DIRECTORY")
+    @ConverterClass(LocalFileSystemFsyncTypeConverter.class)
+    LocalFileSystemStorage.FsyncType getLocalStorageFsyncType();
+}
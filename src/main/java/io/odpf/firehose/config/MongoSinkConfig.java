@@ -52,6 +52,10 @@ public interface MongoSinkConfig extends AppConfig {
     @DefaultValue("false")
     Boolean isSinkMongoModeUpdateOnlyEnable();
 
+    @Key("SINK_MONGO_UPSERT_COLLAPSE_ENABLE")
+    @DefaultValue("false")
+    Boolean isSinkMongoUpsertCollapseEnable();
+
     @Key("SINK_MONGO_SERVER_SELECT_TIMEOUT_MS")
     @DefaultValue("30000")
     int getSinkMongoServerSelectTimeoutMs();
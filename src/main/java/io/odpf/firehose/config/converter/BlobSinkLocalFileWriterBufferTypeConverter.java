@@ -0,0 +1,13 @@
+package io.odpf.firehose.config.converter;
+
+import io.odpf.firehose.sink.blob.Constants;
+import org.aeonbits.owner.Converter;
+
+import java.lang.reflect.Method;
+
+public class BlobSinkLocalFileWriterBufferTypeConverter implements Converter<Constants.WriterBufferType> {
+    @Override
+    public Constants.WriterBufferType convert(Method method, String input) {
+        return Constants.WriterBufferType.valueOf(input.toUpperCase());
+    }
+}
@@ -0,0 +1,26 @@
+package io.odpf.firehose.config.converter;
+
+import org.aeonbits.owner.Converter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+
+import java.lang.reflect.Method;
+import java.util.EnumSet;
+import java.util.Set;
+
+public class BlobSinkParquetCompressionCodecConverter implements Converter<CompressionCodecName> {
+    private static final Set<CompressionCodecName> SUPPORTED_CODECS = EnumSet.of(
+            CompressionCodecName.UNCOMPRESSED,
+            CompressionCodecName.SNAPPY,
+            CompressionCodecName.GZIP,
+            CompressionCodecName.ZSTD,
+            CompressionCodecName.LZ4);
+
+    @Override
+    public CompressionCodecName convert(Method method, String input) {
+        CompressionCodecName codec = CompressionCodecName.valueOf(input.toUpperCase());
+        if (!SUPPORTED_CODECS.contains(codec)) {
+            throw new IllegalArgumentException("Unsupported parquet compression codec " + input + ", supported codecs are " + SUPPORTED_CODECS);
+        }
+        return codec;
+    }
+}
@@ -0,0 +1,13 @@
+package io.odpf.firehose.config.converter;
+
+import org.aeonbits.owner.Converter;
+import org.apache.parquet.column.ParquetProperties;
+
+import java.lang.reflect.Method;
+
+public class BlobSinkParquetWriterVersionConverter implements Converter<ParquetProperties.WriterVersion> {
+    @Override
+    public ParquetProperties.WriterVersion convert(Method method, String input) {
+        return ParquetProperties.WriterVersion.fromString(input.toLowerCase());
+    }
+}
@@ -0,0 +1,14 @@
+package io.odpf.firehose.config.converter;
+
+import io.odpf.firehose.config.enums.GrpcSinkLoadBalancingPolicy;
+import org.aeonbits.owner.Converter;
+
+import java.lang.reflect.Method;
+
+
+public class GrpcSinkLoadBalancingPolicyConverter implements Converter<GrpcSinkLoadBalancingPolicy> {
+    @Override
+    public GrpcSinkLoadBalancingPolicy convert(Method method, String input) {
+        return GrpcSinkLoadBalancingPolicy.valueOf(input.toUpperCase());
+    }
+}
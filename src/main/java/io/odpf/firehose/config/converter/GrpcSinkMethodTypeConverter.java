@@ -0,0 +1,14 @@
+package io.odpf.firehose.config.converter;
+
+import io.odpf.firehose.config.enums.GrpcSinkMethodType;
+import org.aeonbits.owner.Converter;
+
+import java.lang.reflect.Method;
+
+
+public class GrpcSinkMethodTypeConverter implements Converter<GrpcSinkMethodType> {
+    @Override
+    public GrpcSinkMethodType convert(Method method, String input) {
+        return GrpcSinkMethodType.valueOf(input.toUpperCase());
+    }
+}
@@ -0,0 +1,14 @@
+package io.odpf.firehose.config.converter;
+
+import io.odpf.firehose.config.enums.JdbcSinkWriteMode;
+import org.aeonbits.owner.Converter;
+
+import java.lang.reflect.Method;
+
+
+public class JdbcSinkWriteModeConverter implements Converter<JdbcSinkWriteMode> {
+    @Override
+    public JdbcSinkWriteMode convert(Method method, String input) {
+        return JdbcSinkWriteMode.valueOf(input.toUpperCase());
+    }
+}
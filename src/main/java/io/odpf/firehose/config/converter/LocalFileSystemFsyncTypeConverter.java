@@ -0,0 +1,13 @@
+package io.odpf.firehose.config.converter;
+
+import io.odpf.firehose.sink.common.blobstorage.local.LocalFileSystemStorage;
+import org.aeonbits.owner.Converter;
+
+import java.lang.reflect.Method;
+
+public class LocalFileSystemFsyncTypeConverter implements Converter<LocalFileSystemStorage.FsyncType> {
+    @Override
+    public LocalFileSystemStorage.FsyncType convert(Method method, String input) {
+        return LocalFileSystemStorage.FsyncType.valueOf(input.toUpperCase());
+    }
+}
@@ -0,0 +1,6 @@
+package io.odpf.firehose.config.enums;
+
+public enum GrpcSinkLoadBalancingPolicy {
+    ROUND_ROBIN,
+    LEAST_OUTSTANDING
+}
@@ -0,0 +1,6 @@
+package io.odpf.firehose.config.enums;
+
+public enum GrpcSinkMethodType {
+    UNARY,
+    CLIENT_STREAMING
+}
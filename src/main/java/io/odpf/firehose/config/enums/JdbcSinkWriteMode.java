@@ -0,0 +1,7 @@
+package io.odpf.firehose.config.enums;
+
+public enum JdbcSinkWriteMode {
+    QUERY_STRING,
+    PREPARED_STATEMENT,
+    COPY
+}
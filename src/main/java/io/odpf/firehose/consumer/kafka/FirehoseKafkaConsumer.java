@@ -29,6 +29,7 @@ public class FirehoseKafkaConsumer implements AutoCloseable {
     private final Consumer<byte[], byte[]> kafkaConsumer;
     private final KafkaConsumerConfig consumerConfig;
     private final FirehoseInstrumentation firehoseInstrumentation;
+    private final SinkOffsetStore sinkOffsetStore;
     private final Map<TopicPartition, OffsetAndMetadata> committedOffsets = new ConcurrentHashMap<>();
 
     /**
@@ -39,9 +40,23 @@ public class FirehoseKafkaConsumer implements AutoCloseable {
      * @param firehoseInstrumentation Contain logging and metrics collection
      */
     public FirehoseKafkaConsumer(Consumer<byte[], byte[]> kafkaConsumer, KafkaConsumerConfig config, FirehoseInstrumentation firehoseInstrumentation) {
+        this(kafkaConsumer, config, firehoseInstrumentation, null);
+    }
+
+    /**
+     * A Constructor.
+     *
+     * @param kafkaConsumer           {@see KafkaConsumer}
+     * @param config                  Consumer configuration.
+     * @param firehoseInstrumentation Contain logging and metrics collection
+     * @param sinkOffsetStore         the offsets stored by the sink, closed with the consumer, or null
+     */
+    public FirehoseKafkaConsumer(Consumer<byte[], byte[]> kafkaConsumer, KafkaConsumerConfig config, FirehoseInstrumentation firehoseInstrumentation,
+                                 SinkOffsetStore sinkOffsetStore) {
         this.kafkaConsumer = kafkaConsumer;
         this.consumerConfig = config;
         this.firehoseInstrumentation = firehoseInstrumentation;
+        this.sinkOffsetStore = sinkOffsetStore;
     }
 
     /**
@@ -70,6 +85,14 @@ public class FirehoseKafkaConsumer implements AutoCloseable {
         } catch (Exception e) {
             firehoseInstrumentation.captureNonFatalError("firehose_error_event", e, "Exception while closing consumer");
         }
+        if (sinkOffsetStore == null) {
+            return;
+        }
+        try {
+            sinkOffsetStore.close();
+        } catch (Exception e) {
+            firehoseInstrumentation.captureNonFatalError("firehose_error_event", e, "Exception while closing sink offset store");
+        }
     }
 
     public void commit() {
@@ -0,0 +1,33 @@
+package io.odpf.firehose.consumer.kafka;
+
+import org.apache.kafka.common.TopicPartition;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Offsets which a sink stores atomically with the data it writes.
+ * The consumer resumes assigned partitions from them instead of the offsets committed to kafka.
+ */
+public interface SinkOffsetStore extends Closeable {
+
+    /**
+     * Get the offsets to resume the partitions from.
+     *
+     * @param partitions the assigned partitions
+     * @return the next offset to consume of each partition the sink has stored an offset for
+     * @throws IOException when the offsets cannot be read
+     */
+    Map<TopicPartition, Long> getNextOffsets(Collection<TopicPartition> partitions) throws IOException;
+
+    /**
+     * Release what the store holds to read the offsets. The consumer closes the store when it closes.
+     *
+     * @throws IOException when the store cannot be closed
+     */
+    @Override
+    default void close() throws IOException {
+    }
+}
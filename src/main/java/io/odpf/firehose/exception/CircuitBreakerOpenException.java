@@ -0,0 +1,12 @@
+package io.odpf.firehose.exception;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a call is rejected because the circuit breaker is open.
+ */
+public class CircuitBreakerOpenException extends IOException {
+    public CircuitBreakerOpenException(String message) {
+        super(message);
+    }
+}
@@ -7,10 +7,20 @@ public class BlobStorageMetrics {
     public static final String LOCAL_FILE_RECORDS_TOTAL = Metrics.APPLICATION_PREFIX + Metrics.SINK_PREFIX + Metrics.BLOB_SINK_PREFIX + "local_file_records_total";
     public static final String LOCAL_FILE_CLOSING_TIME_MILLISECONDS = Metrics.APPLICATION_PREFIX + Metrics.SINK_PREFIX + Metrics.BLOB_SINK_PREFIX + "local_file_closing_time_milliseconds";
     public static final String LOCAL_FILE_SIZE_BYTES = Metrics.APPLICATION_PREFIX + Metrics.SINK_PREFIX + Metrics.BLOB_SINK_PREFIX + "local_file_size_bytes";
+    public static final String LOCAL_FILE_MEMORY_BUFFER_USED_BYTES = Metrics.APPLICATION_PREFIX + Metrics.SINK_PREFIX + Metrics.BLOB_SINK_PREFIX + "local_file_memory_buffer_used_bytes";
+    public static final String LOCAL_FILE_SPILL_TOTAL = Metrics.APPLICATION_PREFIX + Metrics.SINK_PREFIX + Metrics.BLOB_SINK_PREFIX + "local_file_spill_total";
+    public static final String LOCAL_FILE_BUFFERED_BYTES = Metrics.APPLICATION_PREFIX + Metrics.SINK_PREFIX + Metrics.BLOB_SINK_PREFIX + "local_file_buffered_bytes";
+    public static final String LOCAL_FILE_EARLY_ROTATION_TOTAL = Metrics.APPLICATION_PREFIX + Metrics.SINK_PREFIX + Metrics.BLOB_SINK_PREFIX + "local_file_early_rotation_total";
     public static final String FILE_UPLOAD_TIME_MILLISECONDS = Metrics.APPLICATION_PREFIX + Metrics.SINK_PREFIX + Metrics.BLOB_SINK_PREFIX + "remote_file_upload_time_milliseconds";
     public static final String FILE_UPLOAD_TOTAL = Metrics.APPLICATION_PREFIX + Metrics.SINK_PREFIX + Metrics.BLOB_SINK_PREFIX + "remote_file_upload_total";
     public static final String FILE_UPLOAD_BYTES = Metrics.APPLICATION_PREFIX + Metrics.SINK_PREFIX + Metrics.BLOB_SINK_PREFIX + "remote_file_upload_bytes";
     public static final String FILE_UPLOAD_RECORDS_TOTAL = Metrics.APPLICATION_PREFIX + Metrics.SINK_PREFIX + Metrics.BLOB_SINK_PREFIX + "remote_file_upload_records_total";
+    public static final String FILE_UPLOAD_THROUGHPUT_BYTES_PER_SECOND = Metrics.APPLICATION_PREFIX + Metrics.SINK_PREFIX + Metrics.BLOB_SINK_PREFIX + "remote_file_upload_throughput_bytes_per_second";
+    public static final String COMPACTION_TOTAL = Metrics.APPLICATION_PREFIX + Metrics.SINK_PREFIX + Metrics.BLOB_SINK_PREFIX + "remote_file_compaction_total";
+    public static final String COMPACTION_FILES_TOTAL = Metrics.APPLICATION_PREFIX + Metrics.SINK_PREFIX + Metrics.BLOB_SINK_PREFIX + "remote_file_compaction_files_total";
+    public static final String COMPACTION_BYTES = Metrics.APPLICATION_PREFIX + Metrics.SINK_PREFIX + Metrics.BLOB_SINK_PREFIX + "remote_file_compaction_bytes";
+    public static final String COMPACTION_TIME_MILLISECONDS = Metrics.APPLICATION_PREFIX + Metrics.SINK_PREFIX + Metrics.BLOB_SINK_PREFIX + "remote_file_compaction_time_milliseconds";
 
     public static final String BLOB_STORAGE_ERROR_TYPE_TAG = "error_type";
+    public static final String ROTATION_REASON_TAG = "reason";
 }
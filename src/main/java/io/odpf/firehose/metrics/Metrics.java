@@ -12,6 +12,7 @@ public class Metrics {
     public static final String SINK_PREFIX = "sink_";
     public static final String HTTP_SINK_PREFIX = "http_";
     public static final String BLOB_SINK_PREFIX = "blob_";
+    public static final String GRPC_SINK_PREFIX = "grpc_";
 
     public static final String MONGO_SINK_PREFIX = "mongo_";
 
@@ -41,8 +42,13 @@ public class Metrics {
     public static final String SINK_MESSAGES_TOTAL = APPLICATION_PREFIX + SINK_PREFIX + "messages_total";
     public static final String SINK_RESPONSE_TIME_MILLISECONDS = APPLICATION_PREFIX + SINK_PREFIX + "response_time_milliseconds";
     public static final String SINK_MESSAGES_DROP_TOTAL = APPLICATION_PREFIX + SINK_PREFIX + "messages_drop_total";
+    public static final String SINK_MESSAGES_COLLAPSED_TOTAL = APPLICATION_PREFIX + SINK_PREFIX + "messages_collapsed_total";
     public static final String SINK_HTTP_RESPONSE_CODE_TOTAL = APPLICATION_PREFIX + SINK_PREFIX + HTTP_SINK_PREFIX + "response_code_total";
+    public static final String SINK_HTTP_OAUTH2_TOKEN_REFRESH_MILLISECONDS = APPLICATION_PREFIX + SINK_PREFIX + HTTP_SINK_PREFIX + "oauth2_token_refresh_milliseconds";
     public static final String SINK_PUSH_BATCH_SIZE_TOTAL = APPLICATION_PREFIX + SINK_PREFIX + "push_batch_size_total";
+    public static final String SINK_CIRCUIT_BREAKER_TRANSITION_TOTAL = APPLICATION_PREFIX + SINK_PREFIX + "circuit_breaker_transition_total";
+    public static final String SINK_HEDGED_REQUESTS_TOTAL = APPLICATION_PREFIX + SINK_PREFIX + "hedged_requests_total";
+    public static final String SINK_GRPC_CHANNEL_IN_FLIGHT_CALLS = APPLICATION_PREFIX + SINK_PREFIX + GRPC_SINK_PREFIX + "channel_in_flight_calls";
 
     // MONGO SINK MEASUREMENTS
     public static final String SINK_MONGO_INSERTED_TOTAL = APPLICATION_PREFIX + SINK_PREFIX + MONGO_SINK_PREFIX + "inserted_total";
@@ -0,0 +1,42 @@
+package io.odpf.firehose.proto;
+
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Message;
+import lombok.Getter;
+
+/**
+ * Reads a mapped field from a message by following its descriptor path through the nested messages.
+ */
+public class ProtoFieldAccessor {
+    @Getter
+    private final String name;
+    private final Descriptors.FieldDescriptor[] path;
+
+    ProtoFieldAccessor(String name, Descriptors.FieldDescriptor[] path) {
+        this.name = name;
+        this.path = path;
+    }
+
+    /**
+     * The descriptor of the field read by this accessor.
+     *
+     * @return the field descriptor
+     */
+    public Descriptors.FieldDescriptor getFieldDescriptor() {
+        return path[path.length - 1];
+    }
+
+    /**
+     * Read the field from the message.
+     *
+     * @param message the message of the descriptor the accessor is compiled for
+     * @return the value of the field
+     */
+    public Object getValue(Message message) {
+        Message current = message;
+        for (int i = 0; i < path.length - 1; i++) {
+            current = (Message) current.getField(path[i]);
+        }
+        return current.getField(path[path.length - 1]);
+    }
+}
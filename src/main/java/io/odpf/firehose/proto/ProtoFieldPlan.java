@@ -0,0 +1,92 @@
+package io.odpf.firehose.proto;
+
+import com.google.protobuf.Descriptors;
+import io.odpf.firehose.exception.ConfigurationException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Accessors of the fields of a proto index mapping, compiled once for a message descriptor.
+ * <p>
+ * A mapping maps proto field numbers to names, or to the mapping of a nested message.
+ * Compiling it resolves every field number to its descriptor up front and flattens the nested mappings,
+ * so reading the fields of a message needs no lookups.
+ */
+public class ProtoFieldPlan {
+
+    private final Descriptors.Descriptor descriptor;
+    private final ProtoFieldAccessor[] accessors;
+
+    private ProtoFieldPlan(Descriptors.Descriptor descriptor, ProtoFieldAccessor[] accessors) {
+        this.descriptor = descriptor;
+        this.accessors = accessors;
+    }
+
+    /**
+     * Compile the proto index mapping for the descriptor.
+     *
+     * @param descriptor        the descriptor of the messages
+     * @param protoIndexMapping the proto index mapping
+     * @return the plan
+     */
+    public static ProtoFieldPlan compile(Descriptors.Descriptor descriptor, Properties protoIndexMapping) {
+        List<ProtoFieldAccessor> accessors = new ArrayList<>();
+        compile(descriptor, protoIndexMapping, new Descriptors.FieldDescriptor[0], accessors);
+        return new ProtoFieldPlan(descriptor, accessors.toArray(new ProtoFieldAccessor[0]));
+    }
+
+    private static void compile(Descriptors.Descriptor descriptor, Properties protoIndexMapping, Descriptors.FieldDescriptor[] parentPath,
+                                List<ProtoFieldAccessor> accessors) {
+        for (Object key : protoIndexMapping.keySet()) {
+            Descriptors.FieldDescriptor fieldDescriptor = descriptor.findFieldByNumber(Integer.parseInt((String) key));
+            if (fieldDescriptor == null) {
+                throw new ConfigurationException(String.format("field number %s not found in %s", key, descriptor.getFullName()));
+            }
+            Descriptors.FieldDescriptor[] path = Arrays.copyOf(parentPath, parentPath.length + 1);
+            path[parentPath.length] = fieldDescriptor;
+            Object mapping = protoIndexMapping.get(key);
+            if (mapping instanceof String) {
+                accessors.add(new ProtoFieldAccessor((String) mapping, path));
+            } else if (mapping instanceof Properties) {
+                if (fieldDescriptor.getJavaType() != Descriptors.FieldDescriptor.JavaType.MESSAGE || fieldDescriptor.isRepeated()) {
+                    throw new ConfigurationException(String.format("could not handle mapping of %s, only message fields can have nested mappings", fieldDescriptor.getFullName()));
+                }
+                compile(fieldDescriptor.getMessageType(), (Properties) mapping, path, accessors);
+            } else {
+                throw new ConfigurationException("column can either be properties or string");
+            }
+        }
+    }
+
+    /**
+     * Whether the plan is compiled for the descriptor.
+     *
+     * @param messageDescriptor the descriptor of a message
+     * @return true if the accessors can read the message
+     */
+    public boolean isCompiledFor(Descriptors.Descriptor messageDescriptor) {
+        return descriptor == messageDescriptor;
+    }
+
+    /**
+     * Number of accessors.
+     *
+     * @return the number of mapped fields
+     */
+    public int size() {
+        return accessors.length;
+    }
+
+    /**
+     * Get the accessor at the position.
+     *
+     * @param position the position
+     * @return the accessor
+     */
+    public ProtoFieldAccessor get(int position) {
+        return accessors[position];
+    }
+}
@@ -1,25 +1,26 @@
 package io.odpf.firehose.proto;
 
 
-import io.odpf.firehose.sink.jdbc.JdbcMapper;
+import io.odpf.firehose.sink.jdbc.field.JdbcFieldFactory;
+import com.google.protobuf.Descriptors;
 import com.google.protobuf.DynamicMessage;
 import com.google.protobuf.InvalidProtocolBufferException;
-import com.google.protobuf.Message;
 import io.odpf.stencil.Parser;
-import org.apache.http.util.Asserts;
 
-import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.function.Function;
 
 /**
  * Utility class to map fields in protobuf format to corresponding fields of a table in database.
+ * The mapping is compiled once per message descriptor into field accessors, each with the conversion of its values.
  */
 public class ProtoToFieldMapper {
 
     private final Parser protoParser;
     private final Properties protoIndexToFieldMapping;
+    private volatile CompiledMapping compiledMapping;
 
     /**
      * Instantiates a new Proto to field mapper.
@@ -46,24 +47,34 @@ public class ProtoToFieldMapper {
         } catch (InvalidProtocolBufferException e) {
             throw new IllegalArgumentException(e);
         }
+        CompiledMapping mapping = getCompiledMapping(dynamicMessage.getDescriptorForType());
         Map<String, Object> columnToValueMap = new HashMap<>();
-        updateMapping(dynamicMessage, protoIndexToFieldMapping, columnToValueMap);
+        for (int i = 0; i < mapping.plan.size(); i++) {
+            ProtoFieldAccessor accessor = mapping.plan.get(i);
+            columnToValueMap.put(accessor.getName(), mapping.converters[i].apply(accessor.getValue(dynamicMessage)));
+        }
         return columnToValueMap;
     }
 
-    private void updateMapping(Message message, Properties protoToDbMapping, Map<String, Object> columnToValueMap) {
-        Enumeration<Object> keys = protoToDbMapping.keys();
-        while (keys.hasMoreElements()) {
-            String key = (String) keys.nextElement();
-            JdbcMapper jdbcMapper = new JdbcMapper(key, message, protoToDbMapping).initialize();
-            Object column = jdbcMapper.getColumn();
-            if (column instanceof String) {
-                columnToValueMap = jdbcMapper.add(columnToValueMap);
-            } else if (column instanceof Properties) {
-                Asserts.check(jdbcMapper.getColumnValue() instanceof Message, "could not handle mapping");
-                updateMapping((Message) jdbcMapper.getColumnValue(), (Properties) column, columnToValueMap);
-            } else {
-                throw new RuntimeException("column can either be properties or string");
+    private CompiledMapping getCompiledMapping(Descriptors.Descriptor descriptor) {
+        CompiledMapping mapping = compiledMapping;
+        if (mapping == null || !mapping.plan.isCompiledFor(descriptor)) {
+            mapping = new CompiledMapping(ProtoFieldPlan.compile(descriptor, protoIndexToFieldMapping));
+            compiledMapping = mapping;
+        }
+        return mapping;
+    }
+
+    private static class CompiledMapping {
+        private final ProtoFieldPlan plan;
+        private final Function<Object, Object>[] converters;
+
+        @SuppressWarnings("unchecked")
+        CompiledMapping(ProtoFieldPlan plan) {
+            this.plan = plan;
+            this.converters = new Function[plan.size()];
+            for (int i = 0; i < plan.size(); i++) {
+                converters[i] = JdbcFieldFactory.getColumnConverter(plan.get(i).getFieldDescriptor());
             }
         }
     }
@@ -15,10 +15,12 @@ import io.odpf.depot.redis.RedisSinkFactory;
 import io.odpf.firehose.config.KafkaConsumerConfig;
 import io.odpf.firehose.config.enums.SinkType;
 import io.odpf.firehose.consumer.kafka.OffsetManager;
+import io.odpf.firehose.consumer.kafka.SinkOffsetStore;
 import io.odpf.firehose.exception.ConfigurationException;
 import io.odpf.firehose.metrics.FirehoseInstrumentation;
 import io.odpf.firehose.sink.bigquery.BigquerySinkUtils;
 import io.odpf.firehose.sink.blob.BlobSinkFactory;
+import io.odpf.firehose.sink.blob.writer.local.LocalFileManifest;
 import io.odpf.firehose.sink.elasticsearch.EsSinkFactory;
 import io.odpf.firehose.sink.grpc.GrpcSinkFactory;
 import io.odpf.firehose.sink.http.HttpSinkFactory;
@@ -41,6 +43,7 @@ public class SinkFactory {
     private BigTableSinkFactory bigTableSinkFactory;
     private LogSinkFactory logSinkFactory;
     private RedisSinkFactory redisSinkFactory;
+    private LocalFileManifest blobLocalFileManifest;
     private final Map<String, String> config;
 
     public SinkFactory(KafkaConsumerConfig kafkaConsumerConfig,
@@ -66,9 +69,11 @@ public class SinkFactory {
             case ELASTICSEARCH:
             case GRPC:
             case PROMETHEUS:
-            case BLOB:
             case MONGODB:
                 return;
+            case BLOB:
+                blobLocalFileManifest = BlobSinkFactory.createLocalFileManifest(config, statsDReporter);
+                return;
             case LOG:
                 logSinkFactory = new LogSinkFactory(config, statsDReporter);
                 logSinkFactory.init();
@@ -98,6 +103,21 @@ public class SinkFactory {
         }
     }
 
+    /**
+     * The store of offsets which the sink writes with the data, to resume partitions from.
+     *
+     * @return the offset store, or null when the sink does not store offsets
+     */
+    public SinkOffsetStore getSinkOffsetStore() {
+        if (kafkaConsumerConfig.getSinkType() == SinkType.JDBC) {
+            return JdbcSinkFactory.createOffsetStore(config, statsDReporter);
+        }
+        if (kafkaConsumerConfig.getSinkType() == SinkType.BLOB) {
+            return blobLocalFileManifest;
+        }
+        return null;
+    }
+
     public Sink getSink() {
         SinkType sinkType = kafkaConsumerConfig.getSinkType();
         firehoseInstrumentation.logInfo("Sink Type: {}", sinkType);
@@ -119,7 +139,7 @@ public class SinkFactory {
             case PROMETHEUS:
                 return PromSinkFactory.create(config, statsDReporter, stencilClient);
             case BLOB:
-                return BlobSinkFactory.create(config, offsetManager, statsDReporter, stencilClient);
+                return BlobSinkFactory.create(config, offsetManager, statsDReporter, stencilClient, blobLocalFileManifest);
             case BIGQUERY:
                 return new GenericOdpfSink(new FirehoseInstrumentation(statsDReporter, BigQuerySink.class), sinkType.name(), bigQuerySinkFactory.create());
             case BIGTABLE:
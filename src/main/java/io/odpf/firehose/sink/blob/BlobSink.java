@@ -13,6 +13,7 @@ import io.odpf.firehose.sink.AbstractSink;
 import io.odpf.firehose.sink.blob.message.MessageDeSerializer;
 import io.odpf.firehose.sink.blob.message.Record;
 import io.odpf.firehose.sink.blob.writer.WriterOrchestrator;
+import io.odpf.firehose.sink.blob.writer.local.LocalFileManifest;
 
 import java.io.IOException;
 import java.sql.SQLException;
@@ -27,14 +28,21 @@ public class BlobSink extends AbstractSink {
     private final WriterOrchestrator writerOrchestrator;
     private final OffsetManager offsetManager;
     private final MessageDeSerializer messageDeSerializer;
+    private final LocalFileManifest localFileManifest;
 
     private List<Message> messages;
 
     public BlobSink(FirehoseInstrumentation firehoseInstrumentation, String sinkType, OffsetManager offsetManager, WriterOrchestrator writerOrchestrator, MessageDeSerializer messageDeSerializer) {
+        this(firehoseInstrumentation, sinkType, offsetManager, writerOrchestrator, messageDeSerializer, null);
+    }
+
+    public BlobSink(FirehoseInstrumentation firehoseInstrumentation, String sinkType, OffsetManager offsetManager, WriterOrchestrator writerOrchestrator, MessageDeSerializer messageDeSerializer,
+                    LocalFileManifest localFileManifest) {
         super(firehoseInstrumentation, sinkType);
         this.offsetManager = offsetManager;
         this.writerOrchestrator = writerOrchestrator;
         this.messageDeSerializer = messageDeSerializer;
+        this.localFileManifest = localFileManifest;
     }
 
     @Override
@@ -65,6 +73,9 @@ public class BlobSink extends AbstractSink {
             }
         }
         offsetManager.addOffsetToBatch(fileToMessages);
+        if (localFileManifest != null) {
+            localFileManifest.recordBatch(fileToMessages, failedMessages);
+        }
         return failedMessages;
     }
 
@@ -3,7 +3,10 @@ package io.odpf.firehose.sink.blob;
 import com.google.protobuf.Descriptors;
 import io.odpf.depot.metrics.StatsDReporter;
 import io.odpf.firehose.config.BlobSinkConfig;
+import io.odpf.firehose.config.KafkaConsumerConfig;
+import io.odpf.firehose.config.enums.KafkaConsumerMode;
 import io.odpf.firehose.consumer.kafka.OffsetManager;
+import io.odpf.firehose.exception.ConfigurationException;
 import io.odpf.firehose.metrics.FirehoseInstrumentation;
 import io.odpf.firehose.sink.Sink;
 import io.odpf.firehose.sink.blob.message.MessageDeSerializer;
@@ -11,15 +14,21 @@ import io.odpf.firehose.sink.blob.proto.KafkaMetadataProtoMessage;
 import io.odpf.firehose.sink.blob.proto.KafkaMetadataProtoMessageUtils;
 import io.odpf.firehose.sink.blob.proto.NestedKafkaMetadataProtoMessage;
 import io.odpf.firehose.sink.blob.writer.WriterOrchestrator;
+import io.odpf.firehose.sink.blob.writer.local.LocalFileManifest;
+import io.odpf.firehose.sink.blob.writer.local.LocalFileWriterFailedException;
 import io.odpf.firehose.sink.blob.writer.local.LocalStorage;
 import io.odpf.firehose.sink.blob.writer.local.policy.SizeBasedRotatingPolicy;
 import io.odpf.firehose.sink.blob.writer.local.policy.TimeBasedRotatingPolicy;
+import io.odpf.firehose.sink.blob.writer.local.policy.WatermarkRotatingPolicy;
 import io.odpf.firehose.sink.blob.writer.local.policy.WriterPolicy;
 import io.odpf.firehose.sink.common.blobstorage.BlobStorage;
 import io.odpf.firehose.sink.common.blobstorage.BlobStorageFactory;
 import io.odpf.stencil.client.StencilClient;
 import org.aeonbits.owner.ConfigFactory;
-
+import org.apache.hadoop.util.NativeCodeLoader;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -27,9 +36,12 @@ import java.util.Map;
 
 public class BlobSinkFactory {
 
-    public static Sink create(Map<String, String> configuration, OffsetManager offsetManager, StatsDReporter statsDReporter, StencilClient stencilClient) {
+    public static Sink create(Map<String, String> configuration, OffsetManager offsetManager, StatsDReporter statsDReporter, StencilClient stencilClient,
+                              LocalFileManifest localFileManifest) {
         BlobSinkConfig sinkConfig = ConfigFactory.create(BlobSinkConfig.class, configuration);
-        LocalStorage localStorage = getLocalFileWriterWrapper(sinkConfig, stencilClient, statsDReporter);
+        validateMaxBufferedBytes(sinkConfig);
+        validateParquetCompressionCodec(sinkConfig);
+        LocalStorage localStorage = getLocalFileWriterWrapper(sinkConfig, stencilClient, statsDReporter, localFileManifest);
         BlobStorage sinkBlobStorage = createSinkObjectStorage(sinkConfig, new HashMap<>(configuration));
         WriterOrchestrator writerOrchestrator = new WriterOrchestrator(sinkConfig, localStorage, sinkBlobStorage, statsDReporter);
         MessageDeSerializer messageDeSerializer = new MessageDeSerializer(sinkConfig, stencilClient);
@@ -38,7 +50,72 @@ public class BlobSinkFactory {
                 sinkConfig.getSinkType().toString(),
                 offsetManager,
                 writerOrchestrator,
-                messageDeSerializer);
+                messageDeSerializer,
+                localFileManifest);
+    }
+
+    /**
+     * Create the manifest of the local files and recover the files of the previous run.
+     * The files of a sink are only recoverable when it is the only sink writing to the local directory,
+     * and when they are written to the local disk.
+     *
+     * @param configuration  the configuration
+     * @param statsDReporter the stats d reporter
+     * @return the manifest, or null when it is not enabled
+     */
+    public static LocalFileManifest createLocalFileManifest(Map<String, String> configuration, StatsDReporter statsDReporter) {
+        BlobSinkConfig sinkConfig = ConfigFactory.create(BlobSinkConfig.class, configuration);
+        if (!sinkConfig.getLocalFileManifestEnable()) {
+            return null;
+        }
+        KafkaConsumerConfig kafkaConsumerConfig = ConfigFactory.create(KafkaConsumerConfig.class, configuration);
+        if (kafkaConsumerConfig.getSourceKafkaConsumerMode() != KafkaConsumerMode.SYNC
+                || sinkConfig.getLocalFileWriterBufferType() != Constants.WriterBufferType.DISK) {
+            throw new ConfigurationException("SINK_BLOB_LOCAL_FILE_MANIFEST_ENABLE requires the SYNC consumer mode and the DISK buffer type");
+        }
+        LocalFileManifest localFileManifest = new LocalFileManifest(
+                Paths.get(sinkConfig.getLocalDirectory()),
+                sinkConfig.getLocalFileWriterType(),
+                new FirehoseInstrumentation(statsDReporter, LocalFileManifest.class));
+        try {
+            localFileManifest.recover();
+        } catch (IOException e) {
+            throw new LocalFileWriterFailedException(e);
+        }
+        return localFileManifest;
+    }
+
+    /**
+     * Only parquet files buffer records in memory, the other writers stream them to the file through a small fixed size buffer.
+     */
+    private static void validateMaxBufferedBytes(BlobSinkConfig sinkConfig) {
+        if (sinkConfig.getLocalFileWriterMaxBufferedBytes() > 0 && sinkConfig.getLocalFileWriterType() != Constants.WriterType.PARQUET) {
+            throw new ConfigurationException("SINK_BLOB_LOCAL_FILE_WRITER_MAX_BUFFERED_BYTES is only supported with the PARQUET writer type");
+        }
+    }
+
+    /**
+     * Parquet 1.11 compresses ZSTD and LZ4 through the native hadoop codecs, which would otherwise only fail when the first file is written.
+     */
+    private static void validateParquetCompressionCodec(BlobSinkConfig sinkConfig) {
+        if (sinkConfig.getLocalFileWriterType() != Constants.WriterType.PARQUET) {
+            return;
+        }
+        CompressionCodecName codec = sinkConfig.getLocalFileWriterParquetCompressionCodec();
+        boolean nativeCodecLoaded;
+        switch (codec) {
+            case ZSTD:
+                nativeCodecLoaded = NativeCodeLoader.isNativeCodeLoaded() && NativeCodeLoader.buildSupportsZstd();
+                break;
+            case LZ4:
+                nativeCodecLoaded = NativeCodeLoader.isNativeCodeLoaded();
+                break;
+            default:
+                return;
+        }
+        if (!nativeCodecLoaded) {
+            throw new ConfigurationException("SINK_BLOB_LOCAL_FILE_WRITER_PARQUET_COMPRESSION_CODEC " + codec + " needs the native hadoop libraries, which are not loaded");
+        }
     }
 
     private static Descriptors.Descriptor getMetadataMessageDescriptor(BlobSinkConfig sinkConfig) {
@@ -49,18 +126,23 @@ public class BlobSinkFactory {
 
     }
 
-    private static LocalStorage getLocalFileWriterWrapper(BlobSinkConfig sinkConfig, StencilClient stencilClient, StatsDReporter statsDReporter) {
+    private static LocalStorage getLocalFileWriterWrapper(BlobSinkConfig sinkConfig, StencilClient stencilClient, StatsDReporter statsDReporter,
+                                                          LocalFileManifest localFileManifest) {
         Descriptors.Descriptor outputMessageDescriptor = stencilClient.get(sinkConfig.getInputSchemaProtoClass());
         Descriptors.Descriptor metadataMessageDescriptor = getMetadataMessageDescriptor(sinkConfig);
         List<WriterPolicy> writerPolicies = new ArrayList<>();
         writerPolicies.add(new TimeBasedRotatingPolicy(sinkConfig.getLocalFileRotationDurationMS()));
         writerPolicies.add(new SizeBasedRotatingPolicy(sinkConfig.getLocalFileRotationMaxSizeBytes()));
+        if (sinkConfig.getLocalFileRotationWatermarkEnable()) {
+            writerPolicies.add(new WatermarkRotatingPolicy(sinkConfig, sinkConfig.getLocalFileRotationWatermarkAllowedLatenessMS()));
+        }
         return new LocalStorage(
                 sinkConfig,
                 outputMessageDescriptor,
                 metadataMessageDescriptor.getFields(),
                 writerPolicies,
-                new FirehoseInstrumentation(statsDReporter, LocalStorage.class));
+                new FirehoseInstrumentation(statsDReporter, LocalStorage.class),
+                localFileManifest);
     }
 
     public static BlobStorage createSinkObjectStorage(BlobSinkConfig sinkConfig, Map<String, String> configuration) {
@@ -71,6 +153,9 @@ public class BlobSinkFactory {
             case S3:
                 configuration.put("S3_TYPE", "SINK_BLOB");
                 break;
+            case LOCAL:
+                configuration.put("LOCAL_TYPE", "SINK_BLOB");
+                break;
             default:
                 throw new IllegalArgumentException("Sink Blob Storage type " + sinkConfig.getBlobStorageType() + "is not supported");
         }
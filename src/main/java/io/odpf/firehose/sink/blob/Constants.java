@@ -3,6 +3,14 @@ package io.odpf.firehose.sink.blob;
 public class Constants {
     public enum WriterType {
         PARQUET,
+        PROTO,
+        NDJSON,
+        AVRO,
+    }
+
+    public enum WriterBufferType {
+        DISK,
+        MEMORY
     }
 
     public enum FilePartitionType {
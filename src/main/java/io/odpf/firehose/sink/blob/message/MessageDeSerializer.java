@@ -3,28 +3,52 @@ package io.odpf.firehose.sink.blob.message;
 import com.google.protobuf.Descriptors;
 import com.google.protobuf.DynamicMessage;
 import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Timestamp;
 import io.odpf.firehose.config.BlobSinkConfig;
 import io.odpf.firehose.message.Message;
 import io.odpf.firehose.exception.DeserializerException;
 import io.odpf.firehose.proto.ProtoUtils;
+import io.odpf.firehose.sink.blob.Constants;
 import io.odpf.firehose.exception.EmptyMessageException;
 import io.odpf.firehose.exception.UnknownFieldsException;
 import io.odpf.firehose.sink.blob.proto.KafkaMetadataProtoMessageUtils;
+import io.odpf.firehose.sink.blob.proto.ProtoWireMessage;
+import io.odpf.firehose.sink.blob.writer.local.path.PartitionPathTemplate;
 import io.odpf.stencil.client.StencilClient;
 import io.odpf.stencil.Parser;
-import lombok.AllArgsConstructor;
 
-@AllArgsConstructor
+import java.time.Instant;
+
 public class MessageDeSerializer {
 
     private final Descriptors.FileDescriptor kafkaMetadataFileDescriptor;
     private final Parser protoParser;
     private final BlobSinkConfig sinkConfig;
+    private final Descriptors.Descriptor messageDescriptor;
+    private PartitionPathTemplate partitionPathTemplate;
+
+    public MessageDeSerializer(Descriptors.FileDescriptor kafkaMetadataFileDescriptor, Parser protoParser, BlobSinkConfig sinkConfig,
+                               Descriptors.Descriptor messageDescriptor) {
+        this.kafkaMetadataFileDescriptor = kafkaMetadataFileDescriptor;
+        this.protoParser = protoParser;
+        this.sinkConfig = sinkConfig;
+        this.messageDescriptor = messageDescriptor;
+    }
 
     public MessageDeSerializer(BlobSinkConfig sinkConfig, StencilClient stencilClient) {
         this.sinkConfig = sinkConfig;
         this.protoParser = stencilClient.getParser(sinkConfig.getInputSchemaProtoClass());
         this.kafkaMetadataFileDescriptor = KafkaMetadataProtoMessageUtils.createFileDescriptor(sinkConfig.getOutputKafkaMetadataColumnName());
+        this.messageDescriptor = stencilClient.get(sinkConfig.getInputSchemaProtoClass());
+        this.partitionPathTemplate = PartitionPathTemplate.of(sinkConfig);
+        partitionPathTemplate.checkFields(messageDescriptor);
+    }
+
+    private PartitionPathTemplate getPartitionPathTemplate() {
+        if (partitionPathTemplate == null) {
+            partitionPathTemplate = PartitionPathTemplate.of(sinkConfig);
+        }
+        return partitionPathTemplate;
     }
 
     public Record deSerialize(Message message) throws DeserializerException {
@@ -32,6 +56,12 @@ public class MessageDeSerializer {
             if (message.getLogMessage() == null || message.getLogMessage().length == 0) {
                 throw new EmptyMessageException();
             }
+            if (sinkConfig.getLocalFileWriterType() == Constants.WriterType.PROTO) {
+                return toRawRecord(message);
+            }
+            if (sinkConfig.getLocalFileWriterType() == Constants.WriterType.PARQUET && sinkConfig.getLocalFileWriterParquetRawWriteEnable()) {
+                return toRawParquetRecord(message);
+            }
             DynamicMessage dynamicMessage = protoParser.parse(message.getLogMessage());
 
             if (!sinkConfig.getInputSchemaProtoAllowUnknownFieldsEnable() && ProtoUtils.hasUnknownField(dynamicMessage)) {
@@ -44,4 +74,38 @@ public class MessageDeSerializer {
             throw new DeserializerException("failed to parse message", e);
         }
     }
+
+    /**
+     * Raw records keep the consumed bytes, so unknown fields are kept as well.
+     * The message is only decoded when the file is partitioned by its timestamp or its fields.
+     */
+    private Record toRawRecord(Message message) throws InvalidProtocolBufferException {
+        DynamicMessage dynamicMessage = getPartitionPathTemplate().usesMessage()
+                ? protoParser.parse(message.getLogMessage())
+                : null;
+        DynamicMessage kafkaMetadata = KafkaMetadataUtils.createKafkaMetadata(kafkaMetadataFileDescriptor, message, sinkConfig.getOutputKafkaMetadataColumnName());
+        return new Record(dynamicMessage, kafkaMetadata, message.getLogMessage());
+    }
+
+    /**
+     * Raw parquet records are only checked to be parsable, without being decoded, and are decoded by the parquet writer.
+     * The timestamp of the message is read when the file is partitioned by it, and partition fields are read from the indexed bytes.
+     */
+    private Record toRawParquetRecord(Message message) throws InvalidProtocolBufferException {
+        ProtoWireMessage wireMessage = ProtoWireMessage.of(messageDescriptor, message.getLogMessage());
+        wireMessage.validate();
+        if (!sinkConfig.getInputSchemaProtoAllowUnknownFieldsEnable() && wireMessage.hasUnknownFields()) {
+            throw new UnknownFieldsException(protoParser.parse(message.getLogMessage()));
+        }
+        if (!getPartitionPathTemplate().usesTimestamp()) {
+            return new RawRecord(message, wireMessage, null);
+        }
+        ProtoWireMessage timestamp = wireMessage.getMessage(messageDescriptor.findFieldByName(sinkConfig.getFilePartitionProtoTimestampFieldName()));
+        if (timestamp == null) {
+            return new RawRecord(message, wireMessage, Instant.EPOCH);
+        }
+        long seconds = timestamp.getScalar(timestamp.getDescriptor().findFieldByNumber(Timestamp.SECONDS_FIELD_NUMBER));
+        int nanos = (int) timestamp.getScalar(timestamp.getDescriptor().findFieldByNumber(Timestamp.NANOS_FIELD_NUMBER));
+        return new RawRecord(message, wireMessage, Instant.ofEpochSecond(seconds, nanos));
+    }
 }
@@ -0,0 +1,56 @@
+package io.odpf.firehose.sink.blob.message;
+
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.InvalidProtocolBufferException;
+import io.odpf.firehose.exception.DeserializerException;
+import io.odpf.firehose.message.Message;
+import io.odpf.firehose.sink.blob.proto.ProtoWireMessage;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * A record which is written from the consumed bytes, without the message and its kafka metadata being built as dynamic messages.
+ * The topic is taken from the consumed message, and the timestamp is read from the bytes when the record is created.
+ * Fields of the message are read from the bytes indexed when the record is created.
+ */
+@Getter
+public class RawRecord extends Record {
+    private final Message kafkaMessage;
+    private final ProtoWireMessage wireMessage;
+    private final Instant timestamp;
+
+    public RawRecord(Message kafkaMessage, ProtoWireMessage wireMessage, Instant timestamp) {
+        super(null, null, kafkaMessage.getLogMessage());
+        this.kafkaMessage = kafkaMessage;
+        this.wireMessage = wireMessage;
+        this.timestamp = timestamp;
+    }
+
+    @Override
+    public String getTopic(String fieldName) {
+        return kafkaMessage.getTopic();
+    }
+
+    @Override
+    public Instant getTimestamp(String fieldName) {
+        return timestamp;
+    }
+
+    @Override
+    public Object getFieldValue(String[] fieldNames) {
+        ProtoWireMessage current = wireMessage;
+        Descriptors.Descriptor descriptor = wireMessage.getDescriptor();
+        try {
+            for (int i = 0; i < fieldNames.length - 1; i++) {
+                Descriptors.FieldDescriptor field = descriptor.findFieldByName(fieldNames[i]);
+                descriptor = field.getMessageType();
+                current = current == null ? null : current.getMessage(field);
+            }
+            Descriptors.FieldDescriptor field = descriptor.findFieldByName(fieldNames[fieldNames.length - 1]);
+            return current == null ? field.getDefaultValue() : current.getValue(field);
+        } catch (InvalidProtocolBufferException e) {
+            throw new DeserializerException("failed to read field " + String.join(".", fieldNames), e);
+        }
+    }
+}
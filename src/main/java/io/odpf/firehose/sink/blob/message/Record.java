@@ -13,6 +13,14 @@ import java.time.Instant;
 public class Record {
     private DynamicMessage message;
     private DynamicMessage metadata;
+    /**
+     * The serialized message as consumed, set when it is written without being decoded.
+     */
+    private byte[] rawMessage;
+
+    public Record(DynamicMessage message, DynamicMessage metadata) {
+        this(message, metadata, null);
+    }
 
     public String getTopic(String fieldName) {
         Descriptors.Descriptor metadataDescriptor = metadata.getDescriptorForType();
@@ -26,6 +34,20 @@ public class Record {
         return (String) metadata.getField(metadataDescriptor.findFieldByName(KafkaMetadataProtoMessage.MESSAGE_TOPIC_FIELD_NAME));
     }
 
+    /**
+     * The value of a singular field of the message, typed the way a dynamic message returns it.
+     *
+     * @param fieldNames the name of the field, after the names of the message fields which contain it
+     * @return the value, or the default value if the field or a message containing it is not set
+     */
+    public Object getFieldValue(String[] fieldNames) {
+        DynamicMessage current = message;
+        for (int i = 0; i < fieldNames.length - 1; i++) {
+            current = (DynamicMessage) current.getField(current.getDescriptorForType().findFieldByName(fieldNames[i]));
+        }
+        return current.getField(current.getDescriptorForType().findFieldByName(fieldNames[fieldNames.length - 1]));
+    }
+
     public Instant getTimestamp(String fieldName) {
         Descriptors.Descriptor descriptor = message.getDescriptorForType();
         Descriptors.FieldDescriptor timestampField = descriptor.findFieldByName(fieldName);
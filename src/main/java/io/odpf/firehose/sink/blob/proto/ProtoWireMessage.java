@@ -0,0 +1,498 @@
+package io.odpf.firehose.sink.blob.proto;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.UnsafeByteOperations;
+import com.google.protobuf.WireFormat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A proto message read straight from its wire bytes by its descriptor, without building a {@link com.google.protobuf.DynamicMessage}.
+ * Reading only indexes where every field occurs in the bytes, values are decoded when they are read.
+ * <p>
+ * It follows the parsing rules of dynamic messages: the last occurrence of a singular field wins, the occurrences of a singular
+ * message field are merged, setting a member of a oneof clears the other members, and fields which are not in the descriptor
+ * or not in the wire type of the descriptor are unknown fields.
+ */
+public class ProtoWireMessage {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int FIXED32_SIZE = 4;
+    private static final int FIXED64_SIZE = 8;
+    private static final int VARINT_PAYLOAD_BITS = 7;
+    private static final int VARINT_PAYLOAD_MASK = 0x7F;
+    private static final long BYTE_MASK = 0xFFL;
+
+    private final Descriptors.Descriptor descriptor;
+    private final byte[] bytes;
+    private final int[] firstOccurrences;
+    private final int[] lastOccurrences;
+    private int[] nextOccurrences = new int[INITIAL_CAPACITY];
+    private int[] wireTypes = new int[INITIAL_CAPACITY];
+    private int[] starts = new int[INITIAL_CAPACITY];
+    private int[] ends = new int[INITIAL_CAPACITY];
+    private int occurrenceCount;
+    private boolean unknownFields;
+    private int position;
+    private int limit;
+
+    private ProtoWireMessage(Descriptors.Descriptor descriptor, byte[] bytes) {
+        this.descriptor = descriptor;
+        this.bytes = bytes;
+        this.firstOccurrences = new int[descriptor.getFields().size()];
+        this.lastOccurrences = new int[descriptor.getFields().size()];
+        Arrays.fill(firstOccurrences, -1);
+        Arrays.fill(lastOccurrences, -1);
+    }
+
+    /**
+     * Index the fields of a serialized message.
+     *
+     * @param descriptor the descriptor of the message
+     * @param bytes      the serialized message
+     * @return the message
+     * @throws InvalidProtocolBufferException if the bytes are not a serialized message
+     */
+    public static ProtoWireMessage of(Descriptors.Descriptor descriptor, byte[] bytes) throws InvalidProtocolBufferException {
+        ProtoWireMessage message = new ProtoWireMessage(descriptor, bytes);
+        message.index(0, bytes.length);
+        return message;
+    }
+
+    public Descriptors.Descriptor getDescriptor() {
+        return descriptor;
+    }
+
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    /**
+     * The first occurrence of a field which is not cleared by a later member of its oneof.
+     *
+     * @param field the field
+     * @return the occurrence, or -1 if the field is not set
+     */
+    public int first(Descriptors.FieldDescriptor field) {
+        int occurrence = firstOccurrences[field.getIndex()];
+        Descriptors.OneofDescriptor oneof = field.getContainingOneof();
+        if (oneof == null) {
+            return occurrence;
+        }
+        int clearedBefore = -1;
+        for (Descriptors.FieldDescriptor member : oneof.getFields()) {
+            if (member != field) {
+                clearedBefore = Math.max(clearedBefore, lastOccurrences[member.getIndex()]);
+            }
+        }
+        while (occurrence != -1 && occurrence < clearedBefore) {
+            occurrence = nextOccurrences[occurrence];
+        }
+        return occurrence;
+    }
+
+    public int next(int occurrence) {
+        return nextOccurrences[occurrence];
+    }
+
+    /**
+     * The occurrence of a singular field which wins.
+     *
+     * @param field the field
+     * @return the occurrence, or -1 if the field is not set
+     */
+    public int last(Descriptors.FieldDescriptor field) {
+        return first(field) == -1 ? -1 : lastOccurrences[field.getIndex()];
+    }
+
+    public int getStart(int occurrence) {
+        return starts[occurrence];
+    }
+
+    public int getLength(int occurrence) {
+        return ends[occurrence] - starts[occurrence];
+    }
+
+    /**
+     * Move to the values of an occurrence, one value, or a run of values of a packed field.
+     *
+     * @param occurrence the occurrence
+     */
+    public void seek(int occurrence) {
+        position = starts[occurrence];
+        limit = ends[occurrence];
+    }
+
+    public boolean hasRemaining() {
+        return position < limit;
+    }
+
+    /**
+     * Read the next value of a scalar field.
+     * Floating point values are returned as their bits, zigzag encoded values are decoded and booleans are 0 or 1.
+     *
+     * @param type the type of the field
+     * @return the value
+     * @throws InvalidProtocolBufferException if the value is malformed
+     */
+    public long readScalar(Descriptors.FieldDescriptor.Type type) throws InvalidProtocolBufferException {
+        switch (type) {
+            case DOUBLE:
+            case FIXED64:
+            case SFIXED64:
+                return readLittleEndian(FIXED64_SIZE);
+            case FLOAT:
+            case FIXED32:
+            case SFIXED32:
+                return (int) readLittleEndian(FIXED32_SIZE);
+            case SINT32:
+                return CodedInputStream.decodeZigZag32((int) readVarint());
+            case SINT64:
+                return CodedInputStream.decodeZigZag64(readVarint());
+            case BOOL:
+                return readVarint() != 0 ? 1 : 0;
+            case INT32:
+            case UINT32:
+            case ENUM:
+                return (int) readVarint();
+            default:
+                return readVarint();
+        }
+    }
+
+    /**
+     * Read the next value of an enum field. Unknown numbers of open proto3 enums get unknown values,
+     * while unknown numbers of proto2 enums are unknown fields.
+     *
+     * @param field the enum field
+     * @return the value, or null if the number is an unknown field
+     * @throws InvalidProtocolBufferException if the value is malformed
+     */
+    public Descriptors.EnumValueDescriptor readEnum(Descriptors.FieldDescriptor field) throws InvalidProtocolBufferException {
+        int number = (int) readVarint();
+        return isProto3(field)
+                ? field.getEnumType().findValueByNumberCreatingIfUnknown(number)
+                : field.getEnumType().findValueByNumber(number);
+    }
+
+    /**
+     * The value of a singular scalar field, as read by {@link #readScalar(Descriptors.FieldDescriptor.Type)}.
+     *
+     * @param field the field
+     * @return the value, or 0 if the field is not set
+     * @throws InvalidProtocolBufferException if the value is malformed
+     */
+    public long getScalar(Descriptors.FieldDescriptor field) throws InvalidProtocolBufferException {
+        int occurrence = last(field);
+        if (occurrence == -1) {
+            return 0;
+        }
+        seek(occurrence);
+        return readScalar(field.getType());
+    }
+
+    /**
+     * The value of a singular field which is not a message, typed the way a dynamic message returns it.
+     * Unknown numbers of proto2 enums are skipped, as they are unknown fields.
+     *
+     * @param field the field
+     * @return the value, or the default value if the field is not set
+     * @throws InvalidProtocolBufferException if the value is malformed
+     */
+    public Object getValue(Descriptors.FieldDescriptor field) throws InvalidProtocolBufferException {
+        if (field.getJavaType() == Descriptors.FieldDescriptor.JavaType.ENUM) {
+            Descriptors.EnumValueDescriptor value = null;
+            for (int occurrence = first(field); occurrence != -1; occurrence = next(occurrence)) {
+                seek(occurrence);
+                while (hasRemaining()) {
+                    Descriptors.EnumValueDescriptor occurrenceValue = readEnum(field);
+                    value = occurrenceValue != null ? occurrenceValue : value;
+                }
+            }
+            return value != null ? value : field.getDefaultValue();
+        }
+        int occurrence = last(field);
+        if (occurrence == -1) {
+            return field.getDefaultValue();
+        }
+        switch (field.getJavaType()) {
+            case STRING:
+                return new String(bytes, getStart(occurrence), getLength(occurrence), StandardCharsets.UTF_8);
+            case BYTE_STRING:
+                return ByteString.copyFrom(bytes, getStart(occurrence), getLength(occurrence));
+            case MESSAGE:
+                throw new IllegalArgumentException(field.getFullName() + " is a message field");
+            default:
+                break;
+        }
+        seek(occurrence);
+        long value = readScalar(field.getType());
+        switch (field.getJavaType()) {
+            case INT:
+                return (int) value;
+            case FLOAT:
+                return Float.intBitsToFloat((int) value);
+            case DOUBLE:
+                return Double.longBitsToDouble(value);
+            case BOOLEAN:
+                return value != 0;
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * The value of a singular message field, merged from all its occurrences.
+     *
+     * @param field the message field
+     * @return the message, or null if the field is not set
+     * @throws InvalidProtocolBufferException if the message is malformed
+     */
+    public ProtoWireMessage getMessage(Descriptors.FieldDescriptor field) throws InvalidProtocolBufferException {
+        int occurrence = first(field);
+        if (occurrence == -1) {
+            return null;
+        }
+        ProtoWireMessage message = new ProtoWireMessage(field.getMessageType(), bytes);
+        for (; occurrence != -1; occurrence = nextOccurrences[occurrence]) {
+            message.index(starts[occurrence], ends[occurrence]);
+        }
+        return message;
+    }
+
+    /**
+     * The value of one occurrence of a repeated message field.
+     *
+     * @param field      the message field
+     * @param occurrence the occurrence
+     * @return the message
+     * @throws InvalidProtocolBufferException if the message is malformed
+     */
+    public ProtoWireMessage getMessage(Descriptors.FieldDescriptor field, int occurrence) throws InvalidProtocolBufferException {
+        ProtoWireMessage message = new ProtoWireMessage(field.getMessageType(), bytes);
+        message.index(starts[occurrence], ends[occurrence]);
+        return message;
+    }
+
+    /**
+     * Check the message the way parsing it to a dynamic message would: nested messages and packed values are well formed,
+     * strings which need it are valid UTF-8 and required proto2 fields are set.
+     *
+     * @throws InvalidProtocolBufferException if the message would not be parsed
+     */
+    public void validate() throws InvalidProtocolBufferException {
+        for (Descriptors.FieldDescriptor field : descriptor.getFields()) {
+            if (field.isRequired() && first(field) == -1) {
+                throw new InvalidProtocolBufferException("Message missing required fields: " + field.getFullName());
+            }
+            if (field.getJavaType() == Descriptors.FieldDescriptor.JavaType.MESSAGE) {
+                if (!field.isRepeated()) {
+                    ProtoWireMessage message = getMessage(field);
+                    if (message != null) {
+                        message.validate();
+                    }
+                    continue;
+                }
+                for (int occurrence = first(field); occurrence != -1; occurrence = nextOccurrences[occurrence]) {
+                    getMessage(field, occurrence).validate();
+                }
+            } else if (field.needsUtf8Check()) {
+                for (int occurrence = first(field); occurrence != -1; occurrence = nextOccurrences[occurrence]) {
+                    if (!UnsafeByteOperations.unsafeWrap(bytes, starts[occurrence], getLength(occurrence)).isValidUtf8()) {
+                        throw new InvalidProtocolBufferException("Protocol message had invalid UTF-8.");
+                    }
+                }
+            } else if (field.isPackable()) {
+                for (int occurrence = first(field); occurrence != -1; occurrence = nextOccurrences[occurrence]) {
+                    seek(occurrence);
+                    while (hasRemaining()) {
+                        readScalar(field.getType());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether the message or its singular message fields, recursively, have unknown fields, as
+     * {@link io.odpf.firehose.proto.ProtoUtils#hasUnknownField(com.google.protobuf.DynamicMessage)} tells of the parsed message.
+     *
+     * @return true if there are unknown fields
+     * @throws InvalidProtocolBufferException if the message is malformed
+     */
+    public boolean hasUnknownFields() throws InvalidProtocolBufferException {
+        if (unknownFields) {
+            return true;
+        }
+        for (Descriptors.FieldDescriptor field : descriptor.getFields()) {
+            if (field.getJavaType() == Descriptors.FieldDescriptor.JavaType.MESSAGE && !field.isRepeated()) {
+                ProtoWireMessage message = getMessage(field);
+                if (message != null && message.hasUnknownFields()) {
+                    return true;
+                }
+            } else if (field.getJavaType() == Descriptors.FieldDescriptor.JavaType.ENUM && !isProto3(field)) {
+                for (int occurrence = first(field); occurrence != -1; occurrence = nextOccurrences[occurrence]) {
+                    seek(occurrence);
+                    if (wireTypes[occurrence] == WireFormat.WIRETYPE_VARINT && readEnum(field) == null) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    public static boolean isProto3(Descriptors.FieldDescriptor field) {
+        return field.getFile().getSyntax() == Descriptors.FileDescriptor.Syntax.PROTO3;
+    }
+
+    private void index(int start, int end) throws InvalidProtocolBufferException {
+        position = start;
+        limit = end;
+        while (position < end) {
+            int tag = readTag();
+            int wireType = WireFormat.getTagWireType(tag);
+            int valueStart = position;
+            int valueEnd;
+            if (wireType == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+                int length = readLength();
+                valueStart = position;
+                skip(length);
+                valueEnd = position;
+            } else {
+                valueEnd = skipValue(tag);
+            }
+            Descriptors.FieldDescriptor field = descriptor.findFieldByNumber(WireFormat.getTagFieldNumber(tag));
+            if (field == null || !hasWireType(field, wireType)) {
+                unknownFields = true;
+                continue;
+            }
+            add(field.getIndex(), wireType, valueStart, valueEnd);
+        }
+    }
+
+    private static boolean hasWireType(Descriptors.FieldDescriptor field, int wireType) {
+        return wireType == field.getLiteType().getWireType()
+                || field.isPackable() && wireType == WireFormat.WIRETYPE_LENGTH_DELIMITED;
+    }
+
+    private void add(int fieldIndex, int wireType, int start, int end) {
+        if (occurrenceCount == starts.length) {
+            int capacity = occurrenceCount * 2;
+            nextOccurrences = Arrays.copyOf(nextOccurrences, capacity);
+            wireTypes = Arrays.copyOf(wireTypes, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+        }
+        int occurrence = occurrenceCount++;
+        nextOccurrences[occurrence] = -1;
+        wireTypes[occurrence] = wireType;
+        starts[occurrence] = start;
+        ends[occurrence] = end;
+        if (firstOccurrences[fieldIndex] == -1) {
+            firstOccurrences[fieldIndex] = occurrence;
+        } else {
+            nextOccurrences[lastOccurrences[fieldIndex]] = occurrence;
+        }
+        lastOccurrences[fieldIndex] = occurrence;
+    }
+
+    /**
+     * Skip the value of a tag.
+     *
+     * @return the end of the value, which for a group is the start of its end tag
+     */
+    private int skipValue(int tag) throws InvalidProtocolBufferException {
+        switch (WireFormat.getTagWireType(tag)) {
+            case WireFormat.WIRETYPE_VARINT:
+                readVarint();
+                return position;
+            case WireFormat.WIRETYPE_FIXED64:
+                skip(FIXED64_SIZE);
+                return position;
+            case WireFormat.WIRETYPE_LENGTH_DELIMITED:
+                skip(readLength());
+                return position;
+            case WireFormat.WIRETYPE_START_GROUP:
+                return skipGroup(WireFormat.getTagFieldNumber(tag));
+            case WireFormat.WIRETYPE_FIXED32:
+                skip(FIXED32_SIZE);
+                return position;
+            case WireFormat.WIRETYPE_END_GROUP:
+                throw new InvalidProtocolBufferException("Protocol message end-group tag did not match expected tag.");
+            default:
+                throw new InvalidProtocolBufferException("Protocol message tag had invalid wire type.");
+        }
+    }
+
+    private int skipGroup(int fieldNumber) throws InvalidProtocolBufferException {
+        while (true) {
+            int tagStart = position;
+            int tag = readTag();
+            if (WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_END_GROUP) {
+                if (WireFormat.getTagFieldNumber(tag) != fieldNumber) {
+                    throw new InvalidProtocolBufferException("Protocol message end-group tag did not match expected tag.");
+                }
+                return tagStart;
+            }
+            skipValue(tag);
+        }
+    }
+
+    private int readTag() throws InvalidProtocolBufferException {
+        int tag = (int) readVarint();
+        if (WireFormat.getTagFieldNumber(tag) == 0) {
+            throw new InvalidProtocolBufferException("Protocol message contained an invalid tag (zero).");
+        }
+        return tag;
+    }
+
+    private int readLength() throws InvalidProtocolBufferException {
+        int length = (int) readVarint();
+        if (length < 0) {
+            throw new InvalidProtocolBufferException("CodedInputStream encountered an embedded string or message which claimed to have negative size.");
+        }
+        return length;
+    }
+
+    private void skip(int length) throws InvalidProtocolBufferException {
+        if (length > limit - position) {
+            throw truncated();
+        }
+        position += length;
+    }
+
+    private long readVarint() throws InvalidProtocolBufferException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += VARINT_PAYLOAD_BITS) {
+            if (position >= limit) {
+                throw truncated();
+            }
+            byte b = bytes[position++];
+            value |= (long) (b & VARINT_PAYLOAD_MASK) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new InvalidProtocolBufferException("CodedInputStream encountered a malformed varint.");
+    }
+
+    private long readLittleEndian(int size) throws InvalidProtocolBufferException {
+        if (size > limit - position) {
+            throw truncated();
+        }
+        long value = 0;
+        for (int i = 0; i < size; i++) {
+            value |= (bytes[position + i] & BYTE_MASK) << (i * Byte.SIZE);
+        }
+        position += size;
+        return value;
+    }
+
+    private static InvalidProtocolBufferException truncated() {
+        return new InvalidProtocolBufferException("While parsing a protocol message, the input ended unexpectedly in the middle of a field.");
+    }
+}
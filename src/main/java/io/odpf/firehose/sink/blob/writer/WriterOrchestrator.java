@@ -9,13 +9,16 @@ import io.odpf.firehose.sink.blob.writer.local.LocalFileMetadata;
 import io.odpf.firehose.sink.blob.writer.local.LocalFileChecker;
 import io.odpf.firehose.sink.blob.writer.local.LocalFileWriter;
 import io.odpf.firehose.sink.blob.writer.local.LocalStorage;
-import io.odpf.firehose.sink.blob.writer.local.path.TimePartitionedPathUtils;
+import io.odpf.firehose.sink.blob.writer.local.path.PartitionPathTemplate;
 import io.odpf.firehose.sink.blob.writer.remote.BlobStorageChecker;
+import io.odpf.firehose.sink.blob.writer.remote.BlobStorageCompactor;
 import io.odpf.firehose.sink.blob.writer.remote.BlobStorageWriterFutureHandler;
+import io.odpf.firehose.sink.blob.writer.remote.LocalFileBlobStorage;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -24,60 +27,116 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static io.odpf.firehose.metrics.BlobStorageMetrics.LOCAL_FILE_EARLY_ROTATION_TOTAL;
+import static io.odpf.firehose.metrics.BlobStorageMetrics.ROTATION_REASON_TAG;
+import static io.odpf.firehose.metrics.Metrics.tag;
 
 /**
  * This class manages threads for local and blob storage checking.
- * It provides apis to write records to correct path based on time partitions.
+ * It provides apis to write records to correct path based on the partition template, compiled once.
  * <p>
  * LocalFileChecker: This thread is responsible for rotation of files based on policies.
  * Once a file is written to disk it adds to a queue to be consumed by ObjectStorageChecker.
+ * Writes rotate files which hit the size policy right away, and rotate the least recently written files early
+ * when the caps of open files or buffered bytes are hit.
  * <p>
  * ObjectStorageChecker: Reads the Local Files and Writes to given ObjectStorage.
  * After the file is written to blob storage, it adds to to flushedPath queue.
+ * Besides its schedule, it runs as soon as a write rotates a file and as soon as an upload completes,
+ * so offsets of uploaded files become committable without waiting for the next check.
+ * <p>
+ * When the local storage is recoverable, closed files left by the previous run are uploaded first,
+ * and open files are closed and kept on close instead of being deleted.
+ * <p>
+ * BlobStorageCompactor: When compaction is enabled, merges the small files uploaded to a partition once the partition is closed.
  */
 public class WriterOrchestrator implements Closeable {
     private static final int FILE_CHECKER_THREAD_INITIAL_DELAY_SECONDS = 10;
     private static final int FILE_CHECKER_THREAD_FREQUENCY_SECONDS = 5;
+    private static final int BUFFERED_BYTES_CHECK_INTERVAL_RECORDS = 100;
+    private static final int REMOTE_UPLOAD_THREADS = 10;
+    private static final String OPEN_FILES_CAP_REASON = "open_files_cap";
+    private static final String BUFFERED_BYTES_CAP_REASON = "buffered_bytes_cap";
     private final Map<Path, LocalFileWriter> timePartitionWriterMap = new ConcurrentHashMap<>();
     private final ScheduledExecutorService localFileCheckerScheduler = Executors.newScheduledThreadPool(1);
     private final ScheduledExecutorService objectStorageCheckerScheduler = Executors.newScheduledThreadPool(1);
-    private final ExecutorService remoteUploadScheduler = Executors.newFixedThreadPool(10);
+    private final ExecutorService remoteUploadScheduler = new ThreadPoolExecutor(
+            REMOTE_UPLOAD_THREADS, REMOTE_UPLOAD_THREADS, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>()) {
+        @Override
+        protected void afterExecute(Runnable r, Throwable t) {
+            checkObjectStorage();
+        }
+    };
     private final BlockingQueue<String> flushedToRemotePaths = new LinkedBlockingQueue<>();
     private final LocalStorage localStorage;
     private final WriterOrchestratorStatus writerOrchestratorStatus;
     private final BlobSinkConfig sinkConfig;
+    private final PartitionPathTemplate partitionPathTemplate;
+    private final LocalFileChecker localFileChecker;
+    private final FirehoseInstrumentation firehoseInstrumentation;
+    private final BlobStorageChecker blobStorageChecker;
+    private final ScheduledExecutorService compactionScheduler;
+    private final Map<Path, Long> lastWriteSequences = new ConcurrentHashMap<>();
+    private long writeSequence = 0;
 
     public WriterOrchestrator(BlobSinkConfig sinkConfig, LocalStorage localStorage, BlobStorage blobStorage, StatsDReporter statsDReporter) {
         this.localStorage = localStorage;
         this.sinkConfig = sinkConfig;
-        BlockingQueue<LocalFileMetadata> toBeFlushedToRemotePaths = new LinkedBlockingQueue<>();
+        this.partitionPathTemplate = PartitionPathTemplate.of(sinkConfig);
+        this.firehoseInstrumentation = new FirehoseInstrumentation(statsDReporter, WriterOrchestrator.class);
+        BlockingQueue<LocalFileMetadata> toBeFlushedToRemotePaths = new LinkedBlockingQueue<>(localStorage.getRecoveredLocalFiles());
+        this.localFileChecker = new LocalFileChecker(
+                toBeFlushedToRemotePaths,
+                timePartitionWriterMap,
+                localStorage, new FirehoseInstrumentation(statsDReporter, LocalFileChecker.class));
         ScheduledFuture<?> localWriterFuture = localFileCheckerScheduler.scheduleAtFixedRate(
-                new LocalFileChecker(
-                        toBeFlushedToRemotePaths,
-                        timePartitionWriterMap,
-                        localStorage, new FirehoseInstrumentation(statsDReporter, LocalFileChecker.class)),
+                localFileChecker,
                 FILE_CHECKER_THREAD_INITIAL_DELAY_SECONDS,
                 FILE_CHECKER_THREAD_FREQUENCY_SECONDS,
                 TimeUnit.SECONDS);
 
         Set<BlobStorageWriterFutureHandler> remoteUploadFutures = new HashSet<>();
+        Consumer<LocalFileMetadata> uploadListener = metadata -> {
+        };
+        if (sinkConfig.getCompactionEnable()) {
+            BlobStorageCompactor compactor = new BlobStorageCompactor(
+                    sinkConfig, blobStorage, new FirehoseInstrumentation(statsDReporter, BlobStorageCompactor.class));
+            this.compactionScheduler = Executors.newScheduledThreadPool(1);
+            compactionScheduler.scheduleWithFixedDelay(
+                    compactor,
+                    sinkConfig.getCompactionIntervalMS(),
+                    sinkConfig.getCompactionIntervalMS(),
+                    TimeUnit.MILLISECONDS);
+            uploadListener = compactor::onUploaded;
+        } else {
+            this.compactionScheduler = null;
+        }
+        this.blobStorageChecker = new BlobStorageChecker(
+                toBeFlushedToRemotePaths,
+                flushedToRemotePaths,
+                remoteUploadFutures,
+                remoteUploadScheduler,
+                new LocalFileBlobStorage(blobStorage, localStorage),
+                new FirehoseInstrumentation(statsDReporter, BlobStorageChecker.class),
+                uploadListener);
         ScheduledFuture<?> objectStorageWriterFuture = objectStorageCheckerScheduler.scheduleWithFixedDelay(
-                new BlobStorageChecker(
-                        toBeFlushedToRemotePaths,
-                        flushedToRemotePaths,
-                        remoteUploadFutures,
-                        remoteUploadScheduler,
-                        blobStorage,
-                        new FirehoseInstrumentation(statsDReporter, BlobStorageChecker.class)),
+                blobStorageChecker,
                 FILE_CHECKER_THREAD_INITIAL_DELAY_SECONDS,
                 FILE_CHECKER_THREAD_FREQUENCY_SECONDS,
                 TimeUnit.SECONDS);
 
         writerOrchestratorStatus = new WriterOrchestratorStatus(localWriterFuture, objectStorageWriterFuture);
         writerOrchestratorStatus.startCheckers();
+        if (!toBeFlushedToRemotePaths.isEmpty()) {
+            checkObjectStorage();
+        }
     }
 
     /**
@@ -106,7 +165,7 @@ public class WriterOrchestrator implements Closeable {
      */
     public String write(Record record) throws Exception {
         checkStatus();
-        Path timePartitionedPath = TimePartitionedPathUtils.getTimePartitionedPath(record, sinkConfig);
+        Path timePartitionedPath = partitionPathTemplate.getPartitionPath(record);
         return write(record, timePartitionedPath);
     }
 
@@ -119,13 +178,96 @@ public class WriterOrchestrator implements Closeable {
      * @throws IOException if local storage fails.
      */
     private String write(Record record, Path timePartitionedPath) throws IOException {
+        if (!timePartitionWriterMap.containsKey(timePartitionedPath)) {
+            lastWriteSequences.keySet().retainAll(timePartitionWriterMap.keySet());
+            enforceOpenFilesCap();
+        }
         LocalFileWriter writer = timePartitionWriterMap.computeIfAbsent(
                 timePartitionedPath,
                 x -> localStorage.createLocalFileWriter(timePartitionedPath));
         if (!writer.write(record)) {
             return write(record, timePartitionedPath);
         }
-        return writer.getMetadata().getFullPath();
+        String fullPath = writer.getMetadata().getFullPath();
+        localStorage.onWrite(record);
+        lastWriteSequences.put(timePartitionedPath, ++writeSequence);
+        if (localStorage.shouldRotateOnWrite(writer) && localFileChecker.rotate(timePartitionedPath, writer)) {
+            lastWriteSequences.remove(timePartitionedPath);
+            checkObjectStorage();
+        }
+        if (writeSequence % BUFFERED_BYTES_CHECK_INTERVAL_RECORDS == 0) {
+            enforceBufferedBytesCap();
+        }
+        return fullPath;
+    }
+
+    /**
+     * Run the object storage checker on its thread right away, to upload rotated files and collect completed uploads.
+     * A failure of the run closes the orchestrator like a failure of the scheduled checks.
+     * The run is skipped once the orchestrator is closing, as the scheduler may be shut down concurrently.
+     */
+    private void checkObjectStorage() {
+        if (writerOrchestratorStatus.isClosed() || objectStorageCheckerScheduler.isShutdown()) {
+            return;
+        }
+        try {
+            objectStorageCheckerScheduler.execute(() -> {
+                try {
+                    blobStorageChecker.run();
+                } catch (RuntimeException e) {
+                    writerOrchestratorStatus.setThrowable(e);
+                    writerOrchestratorStatus.setClosed(true);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            firehoseInstrumentation.logDebug("Object storage check skipped, the orchestrator is closing");
+        }
+    }
+
+    /**
+     * Rotate the least recently written files until a new file can be opened under the cap.
+     */
+    private void enforceOpenFilesCap() {
+        int maxOpenFiles = sinkConfig.getLocalFileWriterMaxOpenFiles();
+        while (maxOpenFiles > 0 && timePartitionWriterMap.size() >= maxOpenFiles) {
+            if (rotateLeastRecentlyWritten(OPEN_FILES_CAP_REASON) == null) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Rotate the least recently written files while all the open files buffer more bytes than the cap.
+     */
+    private void enforceBufferedBytesCap() {
+        long maxBufferedBytes = sinkConfig.getLocalFileWriterMaxBufferedBytes();
+        if (maxBufferedBytes <= 0) {
+            return;
+        }
+        long bufferedBytes = timePartitionWriterMap.values().stream().mapToLong(LocalFileWriter::getBufferedBytes).sum();
+        while (bufferedBytes > maxBufferedBytes) {
+            LocalFileWriter rotated = rotateLeastRecentlyWritten(BUFFERED_BYTES_CAP_REASON);
+            if (rotated == null) {
+                return;
+            }
+            bufferedBytes = timePartitionWriterMap.values().stream().mapToLong(LocalFileWriter::getBufferedBytes).sum();
+        }
+    }
+
+    private LocalFileWriter rotateLeastRecentlyWritten(String reason) {
+        Map.Entry<Path, LocalFileWriter> leastRecentlyWritten = timePartitionWriterMap.entrySet().stream()
+                .min(Comparator.comparingLong(entry -> lastWriteSequences.getOrDefault(entry.getKey(), 0L)))
+                .orElse(null);
+        if (leastRecentlyWritten == null) {
+            return null;
+        }
+        if (localFileChecker.rotate(leastRecentlyWritten.getKey(), leastRecentlyWritten.getValue())) {
+            firehoseInstrumentation.logInfo("Rotated Local File {} early, {} hit", leastRecentlyWritten.getValue().getMetadata().getFullPath(), reason);
+            firehoseInstrumentation.incrementCounter(LOCAL_FILE_EARLY_ROTATION_TOTAL, tag(ROTATION_REASON_TAG, reason));
+            checkObjectStorage();
+        }
+        lastWriteSequences.remove(leastRecentlyWritten.getKey());
+        return leastRecentlyWritten.getValue();
     }
 
     @Override
@@ -133,8 +275,17 @@ public class WriterOrchestrator implements Closeable {
         localFileCheckerScheduler.shutdown();
         objectStorageCheckerScheduler.shutdown();
         remoteUploadScheduler.shutdown();
+        if (compactionScheduler != null) {
+            compactionScheduler.shutdown();
+        }
         writerOrchestratorStatus.setClosed(true);
         writerOrchestratorStatus.close();
+        if (localStorage.isRecoverable()) {
+            for (LocalFileWriter writer : timePartitionWriterMap.values()) {
+                localStorage.markClosed(writer.closeAndFetchMetaData());
+            }
+            return;
+        }
         for (LocalFileWriter writer : timePartitionWriterMap.values()) {
             writer.close();
         }
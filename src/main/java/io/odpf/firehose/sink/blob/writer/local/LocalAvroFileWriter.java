@@ -0,0 +1,43 @@
+package io.odpf.firehose.sink.blob.writer.local;
+
+import com.google.protobuf.Descriptors;
+import io.odpf.firehose.sink.blob.message.Record;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes the messages to an avro container file, with a schema derived from the proto descriptor.
+ * Avro compresses the blocks of the file itself with deflate when compression is enabled.
+ */
+public class LocalAvroFileWriter extends LocalStreamFileWriter {
+    private static final int DEFLATE_LEVEL = 6;
+
+    private final ProtoAvroConverter converter;
+    private final DataFileWriter<GenericRecord> dataFileWriter;
+
+    public LocalAvroFileWriter(long createdTimestampMillis, String basePath, String fullPath, boolean compressionEnabled,
+                               Descriptors.Descriptor messageDescriptor, List<Descriptors.FieldDescriptor> metadataFieldDescriptor) throws IOException {
+        super(createdTimestampMillis, basePath, fullPath, false);
+        this.converter = new ProtoAvroConverter(messageDescriptor, metadataFieldDescriptor);
+        this.dataFileWriter = new DataFileWriter<>(new GenericDatumWriter<GenericRecord>(converter.getSchema()));
+        if (compressionEnabled) {
+            dataFileWriter.setCodec(CodecFactory.deflateCodec(DEFLATE_LEVEL));
+        }
+        dataFileWriter.create(converter.getSchema(), getOutputStream());
+    }
+
+    @Override
+    protected void writeRecord(Record record) throws IOException {
+        dataFileWriter.append(converter.convert(record.getMessage(), record.getMetadata()));
+    }
+
+    @Override
+    protected void closeStream() throws IOException {
+        dataFileWriter.close();
+    }
+}
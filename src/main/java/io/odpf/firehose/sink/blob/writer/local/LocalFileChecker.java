@@ -1,6 +1,7 @@
 package io.odpf.firehose.sink.blob.writer.local;
 
 import io.odpf.firehose.metrics.FirehoseInstrumentation;
+import io.odpf.firehose.sink.blob.writer.local.buffer.MemoryOutputFile;
 
 import java.io.IOException;
 import java.nio.file.Path;
@@ -36,21 +37,38 @@ public class LocalFileChecker implements Runnable {
         Map<Path, LocalFileWriter> toBeRotated =
                 timePartitionWriterMap.entrySet().stream().filter(kv -> localStorage.shouldRotate(kv.getValue()))
                         .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-        timePartitionWriterMap.entrySet().removeAll(toBeRotated.entrySet());
-        toBeRotated.forEach((path, writer) -> {
-            try {
-                Instant startTime = Instant.now();
-                LocalFileMetadata metadata = writer.closeAndFetchMetaData();
-                firehoseInstrumentation.logInfo("Closing Local File {} ", metadata.getFullPath());
-                toBeFlushedToRemotePaths.add(metadata);
-                captureFileClosedSuccessMetric(startTime, metadata);
-            } catch (IOException e) {
-                e.printStackTrace();
-                captureFileCloseFailedMetric();
-                throw new LocalFileWriterFailedException(e);
-            }
-        });
+        toBeRotated.forEach(this::rotate);
+        timePartitionWriterMap.values().forEach(writer -> firehoseInstrumentation.captureHistogram(LOCAL_FILE_BUFFERED_BYTES, writer.getBufferedBytes()));
         firehoseInstrumentation.captureValue(LOCAL_FILE_OPEN_TOTAL, timePartitionWriterMap.size());
+        if (localStorage.isMemoryBuffered()) {
+            firehoseInstrumentation.captureHistogram(LOCAL_FILE_MEMORY_BUFFER_USED_BYTES, localStorage.getMemoryBufferUsedBytes());
+        }
+    }
+
+    /**
+     * Close the writer of the partition and queue its file to be uploaded, unless the writer is already rotated.
+     *
+     * @param path   the partition path of the writer
+     * @param writer the writer
+     * @return true if the writer is rotated by this call
+     */
+    public boolean rotate(Path path, LocalFileWriter writer) {
+        if (!timePartitionWriterMap.remove(path, writer)) {
+            return false;
+        }
+        try {
+            Instant startTime = Instant.now();
+            LocalFileMetadata metadata = writer.closeAndFetchMetaData();
+            firehoseInstrumentation.logInfo("Closing Local File {} ", metadata.getFullPath());
+            localStorage.markClosed(metadata);
+            toBeFlushedToRemotePaths.add(metadata);
+            captureFileClosedSuccessMetric(startTime, metadata);
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            captureFileCloseFailedMetric();
+            throw new LocalFileWriterFailedException(e);
+        }
     }
 
     private void captureFileClosedSuccessMetric(Instant startTime, LocalFileMetadata localFileMetadata) {
@@ -58,6 +76,10 @@ public class LocalFileChecker implements Runnable {
         firehoseInstrumentation.captureDurationSince(LOCAL_FILE_CLOSING_TIME_MILLISECONDS, startTime);
         firehoseInstrumentation.captureCount(LOCAL_FILE_SIZE_BYTES, localFileMetadata.getSize());
         firehoseInstrumentation.captureCount(LOCAL_FILE_RECORDS_TOTAL, localFileMetadata.getRecordCount());
+        MemoryOutputFile memoryOutputFile = localStorage.getMemoryOutputFile(localFileMetadata.getFullPath());
+        if (memoryOutputFile != null && memoryOutputFile.isSpilled()) {
+            firehoseInstrumentation.incrementCounter(LOCAL_FILE_SPILL_TOTAL);
+        }
     }
 
     private void captureFileCloseFailedMetric() {
@@ -0,0 +1,238 @@
+package io.odpf.firehose.sink.blob.writer.local;
+
+import com.google.gson.Gson;
+import io.odpf.firehose.consumer.kafka.SinkOffsetStore;
+import io.odpf.firehose.message.Message;
+import io.odpf.firehose.metrics.FirehoseInstrumentation;
+import io.odpf.firehose.sink.blob.Constants;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.parquet.format.converter.ParquetMetadataConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the state and the offset range of every partition of the local files which are not uploaded yet,
+ * in a manifest file in the local directory, so the files survive a restart.
+ * <p>
+ * On start, closed files which are still on the disk are recovered to be uploaded, and the partitions they hold
+ * records of are resumed after them. Open files are lost, since they are not complete, and partitions are never
+ * resumed past their records or past records of the last batch which were not written to a file.
+ * <p>
+ * A file is synced to the disk before it is recorded as closed. Closed parquet files whose footer can not be read
+ * are lost as well, rather than uploaded.
+ */
+public class LocalFileManifest implements SinkOffsetStore {
+    public static final String MANIFEST_FILE_NAME = ".manifest.json";
+    private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+
+    private final Path basePath;
+    private final Path manifestPath;
+    private final Constants.WriterType writerType;
+    private final FirehoseInstrumentation firehoseInstrumentation;
+    private final Gson gson = new Gson();
+    private Manifest manifest = new Manifest();
+    private final List<LocalFileMetadata> recoveredLocalFiles = new ArrayList<>();
+    private final Map<TopicPartition, Long> recoveredNextOffsets = new HashMap<>();
+
+    public LocalFileManifest(Path basePath, FirehoseInstrumentation firehoseInstrumentation) {
+        this(basePath, null, firehoseInstrumentation);
+    }
+
+    public LocalFileManifest(Path basePath, Constants.WriterType writerType, FirehoseInstrumentation firehoseInstrumentation) {
+        this.basePath = basePath;
+        this.manifestPath = basePath.resolve(MANIFEST_FILE_NAME);
+        this.writerType = writerType;
+        this.firehoseInstrumentation = firehoseInstrumentation;
+    }
+
+    /**
+     * Read the manifest left by the previous run, keep the closed files to be uploaded and delete the lost ones.
+     *
+     * @throws IOException if the manifest cannot be read or written
+     */
+    public synchronized void recover() throws IOException {
+        if (Files.exists(manifestPath)) {
+            try (Reader reader = Files.newBufferedReader(manifestPath, StandardCharsets.UTF_8)) {
+                Manifest previous = gson.fromJson(reader, Manifest.class);
+                if (previous != null) {
+                    manifest = previous;
+                }
+            }
+        }
+        Map<TopicPartition, Long> lostFirstOffsets = new HashMap<>();
+        manifest.getUnwrittenOffsets().forEach((key, range) -> lostFirstOffsets.merge(toTopicPartition(key), range.getFirst(), Math::min));
+        manifest.setUnwrittenOffsets(new HashMap<>());
+        for (Map.Entry<String, Entry> kv : new ArrayList<>(manifest.getFiles().entrySet())) {
+            Entry entry = kv.getValue();
+            Path filePath = Paths.get(kv.getKey());
+            if (entry.isClosed() && Files.exists(filePath) && isReadable(filePath)) {
+                firehoseInstrumentation.logInfo("Recovered Local File {}", filePath);
+                recoveredLocalFiles.add(new LocalFileMetadata(basePath.toString(), kv.getKey(),
+                        entry.getCreatedTimestampMillis(), entry.getRecordCount(), entry.getSize()));
+                entry.getOffsets().forEach((key, range) -> recoveredNextOffsets.merge(toTopicPartition(key), range.getLast() + 1, Math::max));
+            } else {
+                firehoseInstrumentation.logWarn("Lost Local File {}, its records will be consumed again", filePath);
+                entry.getOffsets().forEach((key, range) -> lostFirstOffsets.merge(toTopicPartition(key), range.getFirst(), Math::min));
+                Files.deleteIfExists(filePath);
+                Files.deleteIfExists(filePath.resolveSibling("." + filePath.getFileName() + ".crc"));
+                manifest.getFiles().remove(kv.getKey());
+            }
+        }
+        lostFirstOffsets.forEach((partition, offset) -> recoveredNextOffsets.computeIfPresent(partition, (key, next) -> Math.min(next, offset)));
+        persist();
+    }
+
+    private boolean isReadable(Path filePath) {
+        if (writerType != Constants.WriterType.PARQUET) {
+            return true;
+        }
+        try {
+            ParquetFileReader.readFooter(new LocalInputFile(filePath), ParquetMetadataConverter.NO_FILTER);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            firehoseInstrumentation.logWarn("Unreadable footer of Local File {}: {}", filePath, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * The closed files recovered from the previous run, to be uploaded.
+     *
+     * @return the metadata of the recovered files
+     */
+    public synchronized List<LocalFileMetadata> getRecoveredLocalFiles() {
+        return new ArrayList<>(recoveredLocalFiles);
+    }
+
+    /**
+     * Record the offsets of a written batch.
+     *
+     * @param fileToMessages    the messages written to every file
+     * @param unwrittenMessages the messages of the batch which are not written to any file
+     * @throws IOException if the manifest cannot be written
+     */
+    public synchronized void recordBatch(Map<Object, List<Message>> fileToMessages, List<Message> unwrittenMessages) throws IOException {
+        fileToMessages.forEach((file, messages) -> {
+            Entry entry = manifest.getFiles().computeIfAbsent((String) file, key -> new Entry());
+            messages.forEach(message -> addOffset(entry.getOffsets(), message));
+        });
+        Map<String, OffsetRange> unwrittenOffsets = new HashMap<>();
+        unwrittenMessages.forEach(message -> addOffset(unwrittenOffsets, message));
+        manifest.setUnwrittenOffsets(unwrittenOffsets);
+        persist();
+    }
+
+    /**
+     * Sync a closed file to the disk and record that it is complete.
+     *
+     * @param metadata the metadata of the closed file
+     * @throws IOException if the file cannot be synced or the manifest cannot be written
+     */
+    public synchronized void markClosed(LocalFileMetadata metadata) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(metadata.getFullPath()), StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Entry entry = manifest.getFiles().computeIfAbsent(metadata.getFullPath(), key -> new Entry());
+        entry.setClosed(true);
+        entry.setCreatedTimestampMillis(metadata.getCreatedTimestampMillis());
+        entry.setRecordCount(metadata.getRecordCount());
+        entry.setSize(metadata.getSize());
+        persist();
+    }
+
+    /**
+     * Forget a file once it is uploaded.
+     *
+     * @param fullPath the full path of the file
+     * @throws IOException if the manifest cannot be written
+     */
+    public synchronized void remove(String fullPath) throws IOException {
+        if (manifest.getFiles().remove(fullPath) != null) {
+            persist();
+        }
+    }
+
+    /**
+     * Partitions with recovered files are resumed after the records in them, once, on their first assignment.
+     */
+    @Override
+    public synchronized Map<TopicPartition, Long> getNextOffsets(Collection<TopicPartition> partitions) {
+        Map<TopicPartition, Long> nextOffsets = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            Long nextOffset = recoveredNextOffsets.remove(partition);
+            if (nextOffset != null) {
+                nextOffsets.put(partition, nextOffset);
+            }
+        }
+        return nextOffsets;
+    }
+
+    private void addOffset(Map<String, OffsetRange> offsets, Message message) {
+        String key = new TopicPartition(message.getTopic(), message.getPartition()).toString();
+        OffsetRange range = offsets.computeIfAbsent(key, k -> new OffsetRange(message.getOffset(), message.getOffset()));
+        range.setFirst(Math.min(range.getFirst(), message.getOffset()));
+        range.setLast(Math.max(range.getLast(), message.getOffset()));
+    }
+
+    private static TopicPartition toTopicPartition(String key) {
+        int separator = key.lastIndexOf('-');
+        return new TopicPartition(key.substring(0, separator), Integer.parseInt(key.substring(separator + 1)));
+    }
+
+    /**
+     * Write the manifest to a temporary file, sync it and move it in place, so a crash leaves either manifest whole.
+     */
+    private void persist() throws IOException {
+        Files.createDirectories(basePath);
+        Path temporaryPath = manifestPath.resolveSibling(MANIFEST_FILE_NAME + TEMPORARY_FILE_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), -1);
+            gson.toJson(manifest, writer);
+            writer.flush();
+            channel.force(true);
+        }
+        Files.move(temporaryPath, manifestPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Data
+    private static class Manifest {
+        private Map<String, Entry> files = new HashMap<>();
+        private Map<String, OffsetRange> unwrittenOffsets = new HashMap<>();
+    }
+
+    @Data
+    private static class Entry {
+        private boolean closed;
+        private long createdTimestampMillis;
+        private long recordCount;
+        private long size;
+        private Map<String, OffsetRange> offsets = new HashMap<>();
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    private static class OffsetRange {
+        private long first;
+        private long last;
+    }
+}
@@ -15,5 +15,11 @@ public interface LocalFileWriter extends Closeable {
 
     LocalFileMetadata getMetadata();
 
+    /**
+     * @return bytes of records held in memory by the writer which are not written to the file yet.
+     * Writers which stream records to the file only hold a small fixed size buffer and return 0.
+     */
+    long getBufferedBytes();
+
     LocalFileMetadata closeAndFetchMetaData() throws IOException;
 }
@@ -0,0 +1,62 @@
+package io.odpf.firehose.sink.blob.writer.local;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.protobuf.util.JsonFormat;
+import io.odpf.firehose.sink.blob.message.Record;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes every message as a JSON object on its own line, with the proto field names.
+ * When kafka metadata is included, the metadata fields are added to the object of the message,
+ * replacing message fields of the same name.
+ */
+public class LocalJsonFileWriter extends LocalStreamFileWriter {
+    private static final JsonFormat.Printer JSON_PRINTER = JsonFormat.printer()
+            .omittingInsignificantWhitespace()
+            .preservingProtoFieldNames();
+    private static final String EMPTY_OBJECT = "{}";
+    private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().create();
+
+    private final boolean includeMetadata;
+    private final Writer writer;
+
+    public LocalJsonFileWriter(long createdTimestampMillis, String basePath, String fullPath, boolean compressionEnabled, boolean includeMetadata) throws IOException {
+        super(createdTimestampMillis, basePath, fullPath, compressionEnabled);
+        this.includeMetadata = includeMetadata;
+        this.writer = new OutputStreamWriter(getOutputStream(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected void writeRecord(Record record) throws IOException {
+        String json = JSON_PRINTER.print(record.getMessage());
+        if (includeMetadata) {
+            json = mergeObjects(json, JSON_PRINTER.print(record.getMetadata()));
+        }
+        writer.write(json);
+        writer.write('\n');
+    }
+
+    private static String mergeObjects(String json, String otherJson) {
+        if (EMPTY_OBJECT.equals(otherJson)) {
+            return json;
+        }
+        if (EMPTY_OBJECT.equals(json)) {
+            return otherJson;
+        }
+        JsonObject object = new JsonParser().parse(json).getAsJsonObject();
+        new JsonParser().parse(otherJson).getAsJsonObject().entrySet().forEach(entry -> object.add(entry.getKey(), entry.getValue()));
+        return GSON.toJson(object);
+    }
+
+    @Override
+    protected void closeStream() throws IOException {
+        writer.close();
+    }
+}
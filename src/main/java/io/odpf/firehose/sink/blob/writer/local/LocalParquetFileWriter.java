@@ -3,18 +3,19 @@ package io.odpf.firehose.sink.blob.writer.local;
 import com.google.protobuf.Descriptors;
 import io.odpf.firehose.config.BlobSinkConfig;
 import io.odpf.firehose.sink.blob.message.Record;
-import org.apache.hadoop.fs.Path;
 import org.apache.parquet.hadoop.ParquetWriter;
-import org.apache.parquet.hadoop.metadata.CompressionCodecName;
-import org.apache.parquet.proto.ProtoParquetWriter;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.PositionOutputStream;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
 
 public class LocalParquetFileWriter implements LocalFileWriter {
 
     private final ParquetWriter parquetWriter;
+    private final TrackedOutputFile outputFile;
     private final long createdTimestampMillis;
     private final String fullPath;
     private final String basePath;
@@ -23,12 +24,13 @@ public class LocalParquetFileWriter implements LocalFileWriter {
     private final BlobSinkConfig sinkConfig;
 
     public LocalParquetFileWriter(long createdTimestampMillis, String basePath, String fullPath, BlobSinkConfig sinkConfig, Descriptors.Descriptor messageDescriptor, List<Descriptors.FieldDescriptor> metadataFieldDescriptor) throws IOException {
-        this.parquetWriter = new ProtoParquetWriter(new Path(fullPath),
-                messageDescriptor,
-                metadataFieldDescriptor,
-                CompressionCodecName.GZIP,
-                sinkConfig.getLocalFileWriterParquetBlockSize(),
-                sinkConfig.getLocalFileWriterParquetPageSize());
+        this(createdTimestampMillis, basePath, fullPath, sinkConfig, messageDescriptor, metadataFieldDescriptor,
+                new LocalOutputFile(Paths.get(fullPath)));
+    }
+
+    public LocalParquetFileWriter(long createdTimestampMillis, String basePath, String fullPath, BlobSinkConfig sinkConfig, Descriptors.Descriptor messageDescriptor, List<Descriptors.FieldDescriptor> metadataFieldDescriptor, OutputFile outputFile) throws IOException {
+        this.outputFile = new TrackedOutputFile(outputFile);
+        this.parquetWriter = ProtoParquetWriterBuilder.of(this.outputFile, sinkConfig, messageDescriptor, metadataFieldDescriptor).build();
         this.createdTimestampMillis = createdTimestampMillis;
         this.fullPath = fullPath;
         this.basePath = basePath;
@@ -45,11 +47,28 @@ public class LocalParquetFileWriter implements LocalFileWriter {
                 parquetWriter.getDataSize());
     }
 
+    /**
+     * The parquet writer buffers the pages of the current row group in memory until the row group is written out.
+     */
+    @Override
+    public synchronized long getBufferedBytes() {
+        if (isClosed) {
+            return 0;
+        }
+        try {
+            return Math.max(parquetWriter.getDataSize() - outputFile.getPos(), 0);
+        } catch (IOException e) {
+            return parquetWriter.getDataSize();
+        }
+    }
+
     public synchronized boolean write(Record record) throws IOException {
         if (isClosed) {
             return false;
         }
-        if (sinkConfig.getOutputIncludeKafkaMetadataEnable()) {
+        if (sinkConfig.getLocalFileWriterParquetRawWriteEnable()) {
+            parquetWriter.write(record);
+        } else if (sinkConfig.getOutputIncludeKafkaMetadataEnable()) {
             parquetWriter.write(Arrays.asList(record.getMessage(), record.getMetadata()));
         } else {
             parquetWriter.write(record.getMessage());
@@ -70,4 +89,42 @@ public class LocalParquetFileWriter implements LocalFileWriter {
         this.close();
         return metadata;
     }
+
+    /**
+     * Keeps the stream the parquet writer creates, to tell how much of the file is written out.
+     */
+    private static class TrackedOutputFile implements OutputFile {
+        private final OutputFile outputFile;
+        private PositionOutputStream outputStream;
+
+        TrackedOutputFile(OutputFile outputFile) {
+            this.outputFile = outputFile;
+        }
+
+        @Override
+        public PositionOutputStream create(long blockSizeHint) throws IOException {
+            outputStream = outputFile.create(blockSizeHint);
+            return outputStream;
+        }
+
+        @Override
+        public PositionOutputStream createOrOverwrite(long blockSizeHint) throws IOException {
+            outputStream = outputFile.createOrOverwrite(blockSizeHint);
+            return outputStream;
+        }
+
+        @Override
+        public boolean supportsBlockSize() {
+            return outputFile.supportsBlockSize();
+        }
+
+        @Override
+        public long defaultBlockSize() {
+            return outputFile.defaultBlockSize();
+        }
+
+        long getPos() throws IOException {
+            return outputStream == null ? 0 : outputStream.getPos();
+        }
+    }
 }
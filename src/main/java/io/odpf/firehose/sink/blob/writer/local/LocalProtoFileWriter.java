@@ -0,0 +1,41 @@
+package io.odpf.firehose.sink.blob.writer.local;
+
+import com.google.protobuf.CodedOutputStream;
+import io.odpf.firehose.sink.blob.message.Record;
+
+import java.io.IOException;
+
+/**
+ * Writes the raw bytes of the messages, each prefixed with its length as a varint, as written by
+ * {@link com.google.protobuf.MessageLite#writeDelimitedTo}. When kafka metadata is included,
+ * each message is preceded by its length-delimited metadata message.
+ */
+public class LocalProtoFileWriter extends LocalStreamFileWriter {
+    private final boolean includeMetadata;
+    private final CodedOutputStream codedOutputStream;
+
+    public LocalProtoFileWriter(long createdTimestampMillis, String basePath, String fullPath, boolean compressionEnabled, boolean includeMetadata) throws IOException {
+        super(createdTimestampMillis, basePath, fullPath, compressionEnabled);
+        this.includeMetadata = includeMetadata;
+        this.codedOutputStream = CodedOutputStream.newInstance(getOutputStream());
+    }
+
+    @Override
+    protected void writeRecord(Record record) throws IOException {
+        if (includeMetadata) {
+            writeDelimited(record.getMetadata().toByteArray());
+        }
+        writeDelimited(record.getRawMessage() != null ? record.getRawMessage() : record.getMessage().toByteArray());
+    }
+
+    private void writeDelimited(byte[] bytes) throws IOException {
+        codedOutputStream.writeUInt32NoTag(bytes.length);
+        codedOutputStream.writeRawBytes(bytes);
+    }
+
+    @Override
+    protected void closeStream() throws IOException {
+        codedOutputStream.flush();
+        super.closeStream();
+    }
+}
@@ -4,17 +4,22 @@ import com.google.protobuf.Descriptors;
 import io.odpf.firehose.config.BlobSinkConfig;
 import io.odpf.firehose.exception.ConfigurationException;
 import io.odpf.firehose.metrics.FirehoseInstrumentation;
+import io.odpf.firehose.sink.blob.Constants;
+import io.odpf.firehose.sink.blob.message.Record;
+import io.odpf.firehose.sink.blob.writer.local.buffer.MemoryBufferPool;
+import io.odpf.firehose.sink.blob.writer.local.buffer.MemoryOutputFile;
 import io.odpf.firehose.sink.blob.writer.local.policy.WriterPolicy;
-import lombok.AllArgsConstructor;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
-@AllArgsConstructor
 public class LocalStorage {
 
     private final BlobSinkConfig sinkConfig;
@@ -22,44 +27,143 @@ public class LocalStorage {
     private final List<Descriptors.FieldDescriptor> metadataFieldDescriptor;
     private final List<WriterPolicy> policies;
     private final FirehoseInstrumentation firehoseInstrumentation;
+    private final MemoryBufferPool memoryBufferPool;
+    private final Map<String, MemoryOutputFile> memoryOutputFiles = new ConcurrentHashMap<>();
+    private final LocalFileManifest localFileManifest;
+
+    public LocalStorage(BlobSinkConfig sinkConfig,
+                        Descriptors.Descriptor messageDescriptor,
+                        List<Descriptors.FieldDescriptor> metadataFieldDescriptor,
+                        List<WriterPolicy> policies,
+                        FirehoseInstrumentation firehoseInstrumentation) {
+        this(sinkConfig, messageDescriptor, metadataFieldDescriptor, policies, firehoseInstrumentation, null);
+    }
+
+    public LocalStorage(BlobSinkConfig sinkConfig,
+                        Descriptors.Descriptor messageDescriptor,
+                        List<Descriptors.FieldDescriptor> metadataFieldDescriptor,
+                        List<WriterPolicy> policies,
+                        FirehoseInstrumentation firehoseInstrumentation,
+                        LocalFileManifest localFileManifest) {
+        this.sinkConfig = sinkConfig;
+        this.localFileManifest = localFileManifest;
+        this.messageDescriptor = messageDescriptor;
+        this.metadataFieldDescriptor = metadataFieldDescriptor;
+        this.policies = policies;
+        this.firehoseInstrumentation = firehoseInstrumentation;
+        if (sinkConfig.getLocalFileWriterBufferType() == Constants.WriterBufferType.MEMORY) {
+            if (sinkConfig.getLocalFileWriterType() != Constants.WriterType.PARQUET) {
+                throw new ConfigurationException("memory buffer is only supported for the PARQUET file writer");
+            }
+            this.memoryBufferPool = new MemoryBufferPool(sinkConfig.getLocalFileWriterMemoryBufferMaxBytes(), sinkConfig.getLocalFileWriterMemoryBufferChunkSizeBytes());
+        } else {
+            this.memoryBufferPool = null;
+        }
+    }
 
     public LocalFileWriter createLocalFileWriter(Path partitionPath) {
         Path basePath = Paths.get(sinkConfig.getLocalDirectory());
-        String fileName = UUID.randomUUID().toString();
+        String fileName = UUID.randomUUID().toString() + getFileExtension();
         Path dir = basePath.resolve(partitionPath);
         Path fullPath = dir.resolve(Paths.get(fileName));
         return createWriter(basePath, fullPath);
     }
 
-    private LocalParquetFileWriter createWriter(Path basePath, Path fullPath) {
+    private String getFileExtension() {
+        String compressionExtension = sinkConfig.getLocalFileWriterCompressionEnable() ? ".gz" : "";
         switch (sinkConfig.getLocalFileWriterType()) {
             case PARQUET:
-                try {
-                    firehoseInstrumentation.logInfo("Creating Local File " + fullPath);
+                return "";
+            case PROTO:
+                return ".pb" + compressionExtension;
+            case NDJSON:
+                return ".ndjson" + compressionExtension;
+            case AVRO:
+                return ".avro";
+            default:
+                throw new ConfigurationException("unsupported file writer type");
+        }
+    }
+
+    private LocalFileWriter createWriter(Path basePath, Path fullPath) {
+        long createdTimestampMillis = System.currentTimeMillis();
+        boolean compressionEnabled = sinkConfig.getLocalFileWriterCompressionEnable();
+        boolean includeMetadata = sinkConfig.getOutputIncludeKafkaMetadataEnable();
+        try {
+            firehoseInstrumentation.logInfo("Creating Local File " + fullPath);
+            switch (sinkConfig.getLocalFileWriterType()) {
+                case PARQUET:
+                    if (memoryBufferPool != null) {
+                        MemoryOutputFile outputFile = new MemoryOutputFile(fullPath, memoryBufferPool);
+                        memoryOutputFiles.put(fullPath.toString(), outputFile);
+                        return new LocalParquetFileWriter(
+                                createdTimestampMillis,
+                                basePath.toString(),
+                                fullPath.toString(),
+                                sinkConfig,
+                                messageDescriptor,
+                                metadataFieldDescriptor,
+                                outputFile);
+                    }
                     return new LocalParquetFileWriter(
-                            System.currentTimeMillis(),
+                            createdTimestampMillis,
                             basePath.toString(),
                             fullPath.toString(),
                             sinkConfig,
                             messageDescriptor,
                             metadataFieldDescriptor);
-                } catch (IOException e) {
-                    throw new LocalFileWriterFailedException(e);
-                }
-            default:
-                throw new ConfigurationException("unsupported file writer type");
+                case PROTO:
+                    return new LocalProtoFileWriter(createdTimestampMillis, basePath.toString(), fullPath.toString(), compressionEnabled, includeMetadata);
+                case NDJSON:
+                    return new LocalJsonFileWriter(createdTimestampMillis, basePath.toString(), fullPath.toString(), compressionEnabled, includeMetadata);
+                case AVRO:
+                    return new LocalAvroFileWriter(createdTimestampMillis, basePath.toString(), fullPath.toString(), compressionEnabled,
+                            messageDescriptor, includeMetadata ? metadataFieldDescriptor : Collections.emptyList());
+                default:
+                    throw new ConfigurationException("unsupported file writer type");
+            }
+        } catch (IOException e) {
+            throw new LocalFileWriterFailedException(e);
         }
     }
 
     public void deleteLocalFile(String pathString) {
+        if (localFileManifest != null) {
+            try {
+                localFileManifest.remove(pathString);
+            } catch (IOException e) {
+                throw new LocalFileWriterFailedException(e);
+            }
+        }
+        MemoryOutputFile memoryOutputFile = memoryOutputFiles.remove(pathString);
+        if (memoryOutputFile != null) {
+            try {
+                firehoseInstrumentation.logInfo("Releasing Memory Buffered File {}", pathString);
+                memoryOutputFile.release();
+            } catch (IOException e) {
+                throw new LocalFileWriterFailedException(e);
+            }
+            return;
+        }
         switch (sinkConfig.getLocalFileWriterType()) {
             case PARQUET:
                 try {
                     Path filePath = Paths.get(pathString);
-                    Path crcFilePath = filePath.getParent().resolve("." + filePath.getFileName() + ".crc");
                     firehoseInstrumentation.logInfo("Deleting Local File {}", filePath);
-                    firehoseInstrumentation.logInfo("Deleting Local File {}", crcFilePath);
-                    deleteLocalFile(filePath, crcFilePath);
+                    deleteLocalFile(filePath);
+                    // checksum file written next to the file by versions which wrote parquet through the hadoop file system
+                    Files.deleteIfExists(filePath.resolveSibling("." + filePath.getFileName() + ".crc"));
+                } catch (IOException e) {
+                    throw new LocalFileWriterFailedException(e);
+                }
+                break;
+            case PROTO:
+            case NDJSON:
+            case AVRO:
+                try {
+                    Path filePath = Paths.get(pathString);
+                    firehoseInstrumentation.logInfo("Deleting Local File {}", filePath);
+                    deleteLocalFile(filePath);
                 } catch (IOException e) {
                     throw new LocalFileWriterFailedException(e);
                 }
@@ -75,7 +179,70 @@ public class LocalStorage {
         }
     }
 
+    /**
+     * Get the memory buffer of a file written with the MEMORY buffer type.
+     *
+     * @param pathString the full path of the file
+     * @return the buffer, or null if the file is written to the local disk
+     */
+    public MemoryOutputFile getMemoryOutputFile(String pathString) {
+        return memoryOutputFiles.get(pathString);
+    }
+
+    public boolean isMemoryBuffered() {
+        return memoryBufferPool != null;
+    }
+
+    public long getMemoryBufferUsedBytes() {
+        return memoryBufferPool == null ? 0 : memoryBufferPool.getUsedBytes();
+    }
+
+    /**
+     * Whether files are recorded in a manifest, so closed files are kept to be uploaded after a restart.
+     *
+     * @return true if the local files are recoverable
+     */
+    public boolean isRecoverable() {
+        return localFileManifest != null;
+    }
+
+    /**
+     * Record that a file is closed and complete, so it is uploaded after a restart.
+     *
+     * @param metadata the metadata of the closed file
+     */
+    public void markClosed(LocalFileMetadata metadata) {
+        if (localFileManifest == null) {
+            return;
+        }
+        try {
+            localFileManifest.markClosed(metadata);
+        } catch (IOException e) {
+            throw new LocalFileWriterFailedException(e);
+        }
+    }
+
+    /**
+     * The closed files left by the previous run, to be uploaded.
+     *
+     * @return the metadata of the recovered files
+     */
+    public List<LocalFileMetadata> getRecoveredLocalFiles() {
+        return localFileManifest == null ? Collections.emptyList() : localFileManifest.getRecoveredLocalFiles();
+    }
+
+    public void onWrite(Record record) {
+        for (WriterPolicy policy : policies) {
+            policy.onWrite(record);
+        }
+    }
+
     public Boolean shouldRotate(LocalFileWriter writer) {
         return policies.stream().anyMatch(writerPolicy -> writerPolicy.shouldRotate(writer.getMetadata()));
     }
+
+    public boolean shouldRotateOnWrite(LocalFileWriter writer) {
+        LocalFileMetadata metadata = writer.getMetadata();
+        return policies.stream().anyMatch(writerPolicy -> writerPolicy.shouldRotateOnWrite(metadata));
+    }
 }
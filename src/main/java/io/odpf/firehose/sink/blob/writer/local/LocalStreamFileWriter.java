@@ -0,0 +1,103 @@
+package io.odpf.firehose.sink.blob.writer.local;
+
+import com.google.common.io.CountingOutputStream;
+import io.odpf.firehose.sink.blob.message.Record;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Base of local file writers which append records to a stream, optionally gzip compressed.
+ * The size of the file is the number of bytes which reached the disk.
+ */
+public abstract class LocalStreamFileWriter implements LocalFileWriter {
+    private static final int BUFFER_SIZE_BYTES = 64 * 1024;
+
+    private final long createdTimestampMillis;
+    private final String basePath;
+    private final String fullPath;
+    private final CountingOutputStream fileOutputStream;
+    private final OutputStream outputStream;
+    private long recordCount = 0;
+    private boolean isClosed = false;
+
+    protected LocalStreamFileWriter(long createdTimestampMillis, String basePath, String fullPath, boolean compressionEnabled) throws IOException {
+        Path path = Paths.get(fullPath);
+        Files.createDirectories(path.getParent());
+        this.fileOutputStream = new CountingOutputStream(Files.newOutputStream(path));
+        OutputStream stream = compressionEnabled ? new GZIPOutputStream(fileOutputStream, BUFFER_SIZE_BYTES) : fileOutputStream;
+        this.outputStream = new BufferedOutputStream(stream, BUFFER_SIZE_BYTES);
+        this.createdTimestampMillis = createdTimestampMillis;
+        this.basePath = basePath;
+        this.fullPath = fullPath;
+    }
+
+    /**
+     * @return the stream records are written to
+     */
+    protected OutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    /**
+     * Write the record to the stream.
+     *
+     * @param record to write
+     * @throws IOException if local file writing fails
+     */
+    protected abstract void writeRecord(Record record) throws IOException;
+
+    /**
+     * Flush records buffered by the writer and close the stream.
+     *
+     * @throws IOException if local file writing fails
+     */
+    protected void closeStream() throws IOException {
+        outputStream.close();
+    }
+
+    @Override
+    public synchronized boolean write(Record record) throws IOException {
+        if (isClosed) {
+            return false;
+        }
+        writeRecord(record);
+        recordCount++;
+        return true;
+    }
+
+    @Override
+    public synchronized LocalFileMetadata getMetadata() {
+        return new LocalFileMetadata(
+                basePath,
+                fullPath,
+                createdTimestampMillis,
+                recordCount,
+                fileOutputStream.getCount());
+    }
+
+    @Override
+    public long getBufferedBytes() {
+        return 0;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (isClosed) {
+            return;
+        }
+        this.isClosed = true;
+        closeStream();
+    }
+
+    @Override
+    public synchronized LocalFileMetadata closeAndFetchMetaData() throws IOException {
+        this.close();
+        return getMetadata();
+    }
+}
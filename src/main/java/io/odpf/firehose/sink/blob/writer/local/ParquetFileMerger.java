@@ -0,0 +1,90 @@
+package io.odpf.firehose.sink.blob.writer.local;
+
+import org.apache.parquet.format.converter.ParquetMetadataConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.metadata.FileMetaData;
+import org.apache.parquet.schema.MessageType;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Merges parquet files into one by copying their row groups as they are, without decoding the records.
+ * <p>
+ * Only files with the same schema and metadata are merged. The enum metadata of the proto writers only lists the enum values
+ * written to the file, so it may differ between files of the same schema and is merged instead.
+ */
+public class ParquetFileMerger {
+    private static final int MAX_PADDING_SIZE = 0;
+
+    /**
+     * Group the files which can be merged together, in the order of the files.
+     *
+     * @param files parquet files
+     * @return groups of files with the same schema and metadata
+     * @throws IOException if the footer of a file can not be read
+     */
+    public static List<List<Path>> groupMergeable(Collection<Path> files) throws IOException {
+        Map<List<Object>, List<Path>> groups = new LinkedHashMap<>();
+        for (Path file : files) {
+            FileMetaData metaData = readFileMetaData(file);
+            Map<String, String> keyValueMetaData = new HashMap<>(metaData.getKeyValueMetaData());
+            keyValueMetaData.keySet().removeIf(key -> key.startsWith(RawProtoWriteSupport.ENUM_METADATA_PREFIX));
+            groups.computeIfAbsent(Arrays.asList(metaData.getSchema(), keyValueMetaData), key -> new ArrayList<>()).add(file);
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    /**
+     * Write the row groups of the files to the target, in the order of the files.
+     *
+     * @param files        parquet files from the same group of {@link #groupMergeable(Collection)}
+     * @param target       the merged file, which must not exist
+     * @param rowGroupSize the row group size of the merged file
+     * @throws IOException if a file can not be read or the target can not be written
+     */
+    public static void merge(List<Path> files, Path target, long rowGroupSize) throws IOException {
+        List<FileMetaData> metaData = new ArrayList<>();
+        for (Path file : files) {
+            metaData.add(readFileMetaData(file));
+        }
+        MessageType schema = metaData.get(0).getSchema();
+        ParquetFileWriter writer = new ParquetFileWriter(new LocalOutputFile(target), schema, ParquetFileWriter.Mode.CREATE, rowGroupSize, MAX_PADDING_SIZE);
+        writer.start();
+        for (Path file : files) {
+            writer.appendFile(new LocalInputFile(file));
+        }
+        writer.end(mergeKeyValueMetaData(metaData));
+    }
+
+    private static Map<String, String> mergeKeyValueMetaData(List<FileMetaData> metaData) {
+        Map<String, String> merged = new HashMap<>(metaData.get(0).getKeyValueMetaData());
+        merged.keySet().removeIf(key -> key.startsWith(RawProtoWriteSupport.ENUM_METADATA_PREFIX));
+        Map<String, Set<String>> enumValues = new LinkedHashMap<>();
+        for (FileMetaData fileMetaData : metaData) {
+            fileMetaData.getKeyValueMetaData().forEach((key, value) -> {
+                if (!key.startsWith(RawProtoWriteSupport.ENUM_METADATA_PREFIX)) {
+                    return;
+                }
+                Set<String> values = enumValues.computeIfAbsent(key, k -> new LinkedHashSet<>());
+                Arrays.stream(value.split(",")).filter(enumValue -> !enumValue.isEmpty()).forEach(values::add);
+            });
+        }
+        enumValues.forEach((key, values) -> merged.put(key, String.join(",", values)));
+        return merged;
+    }
+
+    private static FileMetaData readFileMetaData(Path file) throws IOException {
+        return ParquetFileReader.readFooter(new LocalInputFile(file), ParquetMetadataConverter.NO_FILTER).getFileMetaData();
+    }
+}
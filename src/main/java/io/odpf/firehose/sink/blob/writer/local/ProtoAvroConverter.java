@@ -0,0 +1,146 @@
+package io.odpf.firehose.sink.blob.writer.local;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Message;
+import lombok.Getter;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts proto messages to avro records of a schema derived from the descriptor.
+ * <p>
+ * Messages become records, repeated fields become arrays and map fields arrays of key value records, as they are on the wire.
+ * Enums are written as their names. Message fields are nullable, as they can be unset, while scalar fields have their proto default.
+ * The kafka metadata fields, if any, are added to the top level record.
+ */
+public class ProtoAvroConverter {
+    @Getter
+    private final Schema schema;
+    private final Descriptors.Descriptor messageDescriptor;
+    private final List<Descriptors.FieldDescriptor> metadataFieldDescriptor;
+    private final Map<String, Schema> recordSchemas = new HashMap<>();
+
+    public ProtoAvroConverter(Descriptors.Descriptor messageDescriptor, List<Descriptors.FieldDescriptor> metadataFieldDescriptor) {
+        this.messageDescriptor = messageDescriptor;
+        this.metadataFieldDescriptor = metadataFieldDescriptor;
+        Schema recordSchema = createRecordSchema(messageDescriptor);
+        List<Schema.Field> fields = createFields(messageDescriptor.getFields());
+        fields.addAll(createFields(metadataFieldDescriptor));
+        recordSchema.setFields(fields);
+        this.schema = recordSchema;
+    }
+
+    /**
+     * Convert the message and its kafka metadata to a record of the schema.
+     *
+     * @param message  the message
+     * @param metadata the kafka metadata, only read when there are metadata fields
+     * @return the record
+     */
+    public GenericRecord convert(Message message, Message metadata) {
+        GenericData.Record record = new GenericData.Record(schema);
+        putFields(record, message, messageDescriptor.getFields());
+        if (!metadataFieldDescriptor.isEmpty()) {
+            putFields(record, metadata, metadataFieldDescriptor);
+        }
+        return record;
+    }
+
+    private Schema createRecordSchema(Descriptors.Descriptor descriptor) {
+        String fullName = descriptor.getFullName();
+        int lastDot = fullName.lastIndexOf('.');
+        String namespace = lastDot < 0 ? null : fullName.substring(0, lastDot);
+        Schema recordSchema = Schema.createRecord(descriptor.getName(), null, namespace, false);
+        recordSchemas.put(fullName, recordSchema);
+        return recordSchema;
+    }
+
+    private Schema getRecordSchema(Descriptors.Descriptor descriptor) {
+        Schema recordSchema = recordSchemas.get(descriptor.getFullName());
+        if (recordSchema == null) {
+            // registered before its fields are created, so recursive messages refer to it by name
+            recordSchema = createRecordSchema(descriptor);
+            recordSchema.setFields(createFields(descriptor.getFields()));
+        }
+        return recordSchema;
+    }
+
+    private List<Schema.Field> createFields(List<Descriptors.FieldDescriptor> fieldDescriptors) {
+        List<Schema.Field> fields = new ArrayList<>();
+        for (Descriptors.FieldDescriptor fieldDescriptor : fieldDescriptors) {
+            Schema fieldSchema = createValueSchema(fieldDescriptor);
+            if (fieldDescriptor.isRepeated()) {
+                fieldSchema = Schema.createArray(fieldSchema);
+            } else if (fieldDescriptor.getJavaType() == Descriptors.FieldDescriptor.JavaType.MESSAGE) {
+                fieldSchema = Schema.createUnion(Arrays.asList(Schema.create(Schema.Type.NULL), fieldSchema));
+            }
+            fields.add(new Schema.Field(fieldDescriptor.getName(), fieldSchema, null, null));
+        }
+        return fields;
+    }
+
+    private Schema createValueSchema(Descriptors.FieldDescriptor fieldDescriptor) {
+        switch (fieldDescriptor.getJavaType()) {
+            case INT:
+                return Schema.create(Schema.Type.INT);
+            case LONG:
+                return Schema.create(Schema.Type.LONG);
+            case FLOAT:
+                return Schema.create(Schema.Type.FLOAT);
+            case DOUBLE:
+                return Schema.create(Schema.Type.DOUBLE);
+            case BOOLEAN:
+                return Schema.create(Schema.Type.BOOLEAN);
+            case BYTE_STRING:
+                return Schema.create(Schema.Type.BYTES);
+            case STRING:
+            case ENUM:
+                return Schema.create(Schema.Type.STRING);
+            case MESSAGE:
+                return getRecordSchema(fieldDescriptor.getMessageType());
+            default:
+                throw new IllegalArgumentException("unsupported field type " + fieldDescriptor.getType() + " of " + fieldDescriptor.getFullName());
+        }
+    }
+
+    private void putFields(GenericData.Record record, Message message, List<Descriptors.FieldDescriptor> fieldDescriptors) {
+        for (Descriptors.FieldDescriptor fieldDescriptor : fieldDescriptors) {
+            if (fieldDescriptor.isRepeated()) {
+                List<?> values = (List<?>) message.getField(fieldDescriptor);
+                List<Object> convertedValues = new ArrayList<>(values.size());
+                for (Object value : values) {
+                    convertedValues.add(convertValue(fieldDescriptor, value));
+                }
+                record.put(fieldDescriptor.getName(), convertedValues);
+            } else if (fieldDescriptor.getJavaType() == Descriptors.FieldDescriptor.JavaType.MESSAGE && !message.hasField(fieldDescriptor)) {
+                record.put(fieldDescriptor.getName(), null);
+            } else {
+                record.put(fieldDescriptor.getName(), convertValue(fieldDescriptor, message.getField(fieldDescriptor)));
+            }
+        }
+    }
+
+    private Object convertValue(Descriptors.FieldDescriptor fieldDescriptor, Object value) {
+        switch (fieldDescriptor.getJavaType()) {
+            case BYTE_STRING:
+                return ((ByteString) value).asReadOnlyByteBuffer();
+            case ENUM:
+                return ((Descriptors.EnumValueDescriptor) value).getName();
+            case MESSAGE:
+                Message message = (Message) value;
+                GenericData.Record record = new GenericData.Record(getRecordSchema(message.getDescriptorForType()));
+                putFields(record, message, message.getDescriptorForType().getFields());
+                return record;
+            default:
+                return value;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package io.odpf.firehose.sink.blob.writer.local;
+
+import com.google.protobuf.Descriptors;
+import io.odpf.firehose.config.BlobSinkConfig;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.proto.ProtoWriteSupport;
+
+import java.util.List;
+
+/**
+ * Builds parquet writers of proto messages, with the additional kafka metadata fields, tuned by the blob sink config.
+ * The builder of {@link org.apache.parquet.proto.ProtoParquetWriter} only takes generated message classes,
+ * while the blob sink writes dynamic messages of a descriptor.
+ */
+public class ProtoParquetWriterBuilder extends ParquetWriter.Builder<Object, ProtoParquetWriterBuilder> {
+
+    private final Descriptors.Descriptor messageDescriptor;
+    private final List<Descriptors.FieldDescriptor> metadataFieldDescriptor;
+    private final BlobSinkConfig sinkConfig;
+
+    private ProtoParquetWriterBuilder(OutputFile outputFile, BlobSinkConfig sinkConfig, Descriptors.Descriptor messageDescriptor,
+                                      List<Descriptors.FieldDescriptor> metadataFieldDescriptor) {
+        super(outputFile);
+        this.messageDescriptor = messageDescriptor;
+        this.metadataFieldDescriptor = metadataFieldDescriptor;
+        this.sinkConfig = sinkConfig;
+    }
+
+    /**
+     * Create a builder of a writer to the output file with the compression, encodings and page format of the sink config.
+     * The writer takes raw records when they are written from their bytes, otherwise parsed messages.
+     *
+     * @param outputFile              the file to write to
+     * @param sinkConfig              the blob sink config
+     * @param messageDescriptor       the descriptor of the messages
+     * @param metadataFieldDescriptor the kafka metadata fields written along the messages
+     * @return the builder
+     */
+    public static ProtoParquetWriterBuilder of(OutputFile outputFile, BlobSinkConfig sinkConfig, Descriptors.Descriptor messageDescriptor,
+                                               List<Descriptors.FieldDescriptor> metadataFieldDescriptor) {
+        ProtoParquetWriterBuilder builder = new ProtoParquetWriterBuilder(outputFile, sinkConfig, messageDescriptor, metadataFieldDescriptor)
+                .withCompressionCodec(sinkConfig.getLocalFileWriterParquetCompressionCodec())
+                .withRowGroupSize(sinkConfig.getLocalFileWriterParquetBlockSize())
+                .withPageSize(sinkConfig.getLocalFileWriterParquetPageSize())
+                .withDictionaryEncoding(sinkConfig.getLocalFileWriterParquetDictionaryEncodingEnable())
+                .withWriterVersion(sinkConfig.getLocalFileWriterParquetWriterVersion());
+        for (String column : sinkConfig.getLocalFileWriterParquetDictionaryEncodingDisabledColumns()) {
+            if (!column.trim().isEmpty()) {
+                builder.withDictionaryEncoding(column.trim(), false);
+            }
+        }
+        return builder;
+    }
+
+    @Override
+    protected ProtoParquetWriterBuilder self() {
+        return this;
+    }
+
+    @Override
+    protected WriteSupport<Object> getWriteSupport(Configuration conf) {
+        if (sinkConfig.getLocalFileWriterParquetRawWriteEnable()) {
+            return new RawProtoWriteSupport(messageDescriptor, metadataFieldDescriptor, sinkConfig.getOutputIncludeKafkaMetadataEnable());
+        }
+        return new ProtoWriteSupport<>(messageDescriptor, metadataFieldDescriptor);
+    }
+}
@@ -0,0 +1,347 @@
+package io.odpf.firehose.sink.blob.writer.local;
+
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Struct;
+import com.google.protobuf.Timestamp;
+import com.google.protobuf.UnsafeByteOperations;
+import io.odpf.firehose.message.Message;
+import io.odpf.firehose.sink.blob.message.RawRecord;
+import io.odpf.firehose.sink.blob.proto.KafkaMetadataProtoMessage;
+import io.odpf.firehose.sink.blob.proto.ProtoWireMessage;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.io.ParquetEncodingException;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.proto.ProtoWriteSupport;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.Type;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Writes {@link RawRecord raw records} to parquet by decoding the wire bytes of the messages straight into the columns,
+ * and the kafka metadata columns from the consumed messages, without building dynamic messages of either.
+ * <p>
+ * The file is the same as {@link ProtoWriteSupport} writes from the parsed messages: it takes its schema and metadata,
+ * and writes the fields the same way, proto2 messages with the fields which are set and proto3 messages with every field
+ * but unset messages and oneof members, repeated fields as repeated columns, timestamps as millis and structs as text.
+ */
+public class RawProtoWriteSupport extends WriteSupport<Object> {
+    static final String ENUM_METADATA_PREFIX = "parquet.proto.enum.";
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final int NANOS_PER_MILLI = 1000000;
+
+    private final ProtoWriteSupport<?> protoWriteSupport;
+    private final Descriptors.Descriptor messageDescriptor;
+    private final List<Descriptors.FieldDescriptor> metadataFieldDescriptor;
+    private final boolean includeMetadata;
+    private final Map<String, Map<String, Integer>> enumBookKeeper = new HashMap<>();
+    private RecordConsumer recordConsumer;
+    private GroupType schema;
+
+    public RawProtoWriteSupport(Descriptors.Descriptor messageDescriptor, List<Descriptors.FieldDescriptor> metadataFieldDescriptor, boolean includeMetadata) {
+        this.protoWriteSupport = new ProtoWriteSupport<>(messageDescriptor, metadataFieldDescriptor);
+        this.messageDescriptor = messageDescriptor;
+        this.metadataFieldDescriptor = metadataFieldDescriptor;
+        this.includeMetadata = includeMetadata;
+    }
+
+    @Override
+    public String getName() {
+        return protoWriteSupport.getName();
+    }
+
+    @Override
+    public WriteContext init(Configuration configuration) {
+        WriteContext writeContext = protoWriteSupport.init(configuration);
+        if (Boolean.parseBoolean(writeContext.getExtraMetaData().get("parquet.proto.writeSpecsCompliant"))) {
+            throw new UnsupportedOperationException("Raw messages can not be written with the specs compliant parquet schema");
+        }
+        this.schema = writeContext.getSchema();
+        registerEnums(messageDescriptor);
+        return writeContext;
+    }
+
+    @Override
+    public void prepareForWrite(RecordConsumer consumer) {
+        this.recordConsumer = consumer;
+    }
+
+    @Override
+    public void write(Object value) {
+        RawRecord record = (RawRecord) value;
+        recordConsumer.startMessage();
+        try {
+            writeFields(ProtoWireMessage.of(messageDescriptor, record.getRawMessage()), schema);
+        } catch (InvalidProtocolBufferException e) {
+            throw new ParquetEncodingException("Cannot write message of " + messageDescriptor.getFullName(), e);
+        }
+        if (includeMetadata) {
+            writeMetadataFields(metadataFieldDescriptor, schema, record.getKafkaMessage());
+        }
+        recordConsumer.endMessage();
+    }
+
+    @Override
+    public FinalizedWriteContext finalizeWrite() {
+        Map<String, String> enumMetadata = new HashMap<>();
+        enumBookKeeper.forEach((enumName, numbers) -> {
+            StringJoiner joiner = new StringJoiner(",");
+            numbers.forEach((name, number) -> joiner.add(name + ":" + number));
+            enumMetadata.put(ENUM_METADATA_PREFIX + enumName, joiner.toString());
+        });
+        return new FinalizedWriteContext(enumMetadata);
+    }
+
+    /**
+     * Every enum of the schema is in the file metadata, with the values which are written.
+     */
+    private void registerEnums(Descriptors.Descriptor descriptor) {
+        for (Descriptors.FieldDescriptor field : descriptor.getFields()) {
+            if (field.getJavaType() == Descriptors.FieldDescriptor.JavaType.ENUM) {
+                enumBookKeeper.putIfAbsent(field.getEnumType().getFullName(), new HashMap<>());
+            } else if (field.getJavaType() == Descriptors.FieldDescriptor.JavaType.MESSAGE && !isTimestamp(field) && !isStruct(field)) {
+                registerEnums(field.getMessageType());
+            }
+        }
+    }
+
+    private void writeFields(ProtoWireMessage message, GroupType group) throws InvalidProtocolBufferException {
+        boolean proto3 = message.getDescriptor().getFile().getSyntax() == Descriptors.FileDescriptor.Syntax.PROTO3;
+        for (Descriptors.FieldDescriptor field : message.getDescriptor().getFields()) {
+            if (field.isRepeated()) {
+                writeRepeatedField(message, field, group);
+                continue;
+            }
+            boolean isSet = isSet(message, field);
+            boolean writesDefault = proto3 && field.getContainingOneof() == null && field.getType() != Descriptors.FieldDescriptor.Type.MESSAGE;
+            if (!isSet && !writesDefault) {
+                continue;
+            }
+            int index = group.getFieldIndex(field.getName());
+            recordConsumer.startField(field.getName(), index);
+            if (isSet) {
+                writeSingularValue(message, field, group.getType(index));
+            } else {
+                writeDefaultValue(field);
+            }
+            recordConsumer.endField(field.getName(), index);
+        }
+    }
+
+    private boolean isSet(ProtoWireMessage message, Descriptors.FieldDescriptor field) throws InvalidProtocolBufferException {
+        if (field.getJavaType() != Descriptors.FieldDescriptor.JavaType.ENUM || ProtoWireMessage.isProto3(field)) {
+            return message.first(field) != -1;
+        }
+        return lastKnownEnumValue(message, field) != null;
+    }
+
+    private Descriptors.EnumValueDescriptor lastKnownEnumValue(ProtoWireMessage message, Descriptors.FieldDescriptor field) throws InvalidProtocolBufferException {
+        Descriptors.EnumValueDescriptor value = null;
+        for (int occurrence = message.first(field); occurrence != -1; occurrence = message.next(occurrence)) {
+            message.seek(occurrence);
+            Descriptors.EnumValueDescriptor occurrenceValue = message.readEnum(field);
+            value = occurrenceValue != null ? occurrenceValue : value;
+        }
+        return value;
+    }
+
+    private void writeSingularValue(ProtoWireMessage message, Descriptors.FieldDescriptor field, Type type) throws InvalidProtocolBufferException {
+        switch (field.getJavaType()) {
+            case MESSAGE:
+                if (isTimestamp(field)) {
+                    writeTimestamp(message.getMessage(field));
+                } else if (isStruct(field)) {
+                    writeStruct(message, field, message.first(field), false);
+                } else {
+                    writeGroup(message.getMessage(field), type);
+                }
+                return;
+            case ENUM:
+                writeEnum(field, lastKnownEnumValue(message, field));
+                return;
+            default:
+                writeValue(message, field, message.last(field));
+        }
+    }
+
+    private void writeRepeatedField(ProtoWireMessage message, Descriptors.FieldDescriptor field, GroupType group) throws InvalidProtocolBufferException {
+        int index = -1;
+        for (int occurrence = message.first(field); occurrence != -1; occurrence = message.next(occurrence)) {
+            if (field.getJavaType() == Descriptors.FieldDescriptor.JavaType.MESSAGE) {
+                index = startRepeatedField(field, group, index);
+                if (isTimestamp(field)) {
+                    writeTimestamp(message.getMessage(field, occurrence));
+                } else if (isStruct(field)) {
+                    writeStruct(message, field, occurrence, true);
+                } else {
+                    writeGroup(message.getMessage(field, occurrence), group.getType(index));
+                }
+            } else if (field.getJavaType() == Descriptors.FieldDescriptor.JavaType.ENUM) {
+                message.seek(occurrence);
+                while (message.hasRemaining()) {
+                    Descriptors.EnumValueDescriptor value = message.readEnum(field);
+                    if (value != null) {
+                        index = startRepeatedField(field, group, index);
+                        writeEnum(field, value);
+                    }
+                }
+            } else if (isLengthDelimited(field)) {
+                index = startRepeatedField(field, group, index);
+                writeValue(message, field, occurrence);
+            } else {
+                message.seek(occurrence);
+                while (message.hasRemaining()) {
+                    index = startRepeatedField(field, group, index);
+                    writeScalar(field, message.readScalar(field.getType()));
+                }
+            }
+        }
+        if (index != -1) {
+            recordConsumer.endField(field.getName(), index);
+        }
+    }
+
+    /**
+     * Start a repeated field on its first value, empty repeated fields are not written.
+     */
+    private int startRepeatedField(Descriptors.FieldDescriptor field, GroupType group, int index) {
+        if (index != -1) {
+            return index;
+        }
+        int fieldIndex = group.getFieldIndex(field.getName());
+        recordConsumer.startField(field.getName(), fieldIndex);
+        return fieldIndex;
+    }
+
+    private void writeGroup(ProtoWireMessage message, Type type) throws InvalidProtocolBufferException {
+        recordConsumer.startGroup();
+        writeFields(message, type.asGroupType());
+        recordConsumer.endGroup();
+    }
+
+    private void writeTimestamp(ProtoWireMessage timestamp) throws InvalidProtocolBufferException {
+        long seconds = timestamp.getScalar(timestamp.getDescriptor().findFieldByNumber(Timestamp.SECONDS_FIELD_NUMBER));
+        int nanos = (int) timestamp.getScalar(timestamp.getDescriptor().findFieldByNumber(Timestamp.NANOS_FIELD_NUMBER));
+        recordConsumer.addLong(seconds * MILLIS_PER_SECOND + nanos / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Structs are written as the text format of the parsed struct, which is only built for them.
+     */
+    private void writeStruct(ProtoWireMessage message, Descriptors.FieldDescriptor field, int occurrence, boolean single) throws InvalidProtocolBufferException {
+        DynamicMessage.Builder builder = DynamicMessage.newBuilder(field.getMessageType());
+        for (int current = occurrence; current != -1; current = single ? -1 : message.next(current)) {
+            builder.mergeFrom(message.getBytes(), message.getStart(current), message.getLength(current));
+        }
+        recordConsumer.addBinary(Binary.fromString(builder.build().toString()));
+    }
+
+    private void writeEnum(Descriptors.FieldDescriptor field, Descriptors.EnumValueDescriptor value) {
+        recordConsumer.addBinary(Binary.fromString(value.getName()));
+        enumBookKeeper.computeIfAbsent(field.getEnumType().getFullName(), name -> new HashMap<>())
+                .putIfAbsent(value.getName(), value.getNumber());
+    }
+
+    private void writeValue(ProtoWireMessage message, Descriptors.FieldDescriptor field, int occurrence) throws InvalidProtocolBufferException {
+        if (isLengthDelimited(field)) {
+            byte[] bytes = message.getBytes();
+            int start = message.getStart(occurrence);
+            int length = message.getLength(occurrence);
+            boolean decodesString = field.getJavaType() == Descriptors.FieldDescriptor.JavaType.STRING
+                    && !field.needsUtf8Check()
+                    && !UnsafeByteOperations.unsafeWrap(bytes, start, length).isValidUtf8();
+            recordConsumer.addBinary(decodesString
+                    ? Binary.fromString(new String(bytes, start, length, StandardCharsets.UTF_8))
+                    : Binary.fromReusedByteArray(bytes, start, length));
+            return;
+        }
+        message.seek(occurrence);
+        writeScalar(field, message.readScalar(field.getType()));
+    }
+
+    private void writeScalar(Descriptors.FieldDescriptor field, long value) {
+        switch (field.getJavaType()) {
+            case INT:
+                recordConsumer.addInteger((int) value);
+                return;
+            case LONG:
+                recordConsumer.addLong(value);
+                return;
+            case FLOAT:
+                recordConsumer.addFloat(Float.intBitsToFloat((int) value));
+                return;
+            case DOUBLE:
+                recordConsumer.addDouble(Double.longBitsToDouble(value));
+                return;
+            case BOOLEAN:
+                recordConsumer.addBoolean(value != 0);
+                return;
+            default:
+                throw new UnsupportedOperationException("Cannot write " + field.getJavaType() + " as a scalar");
+        }
+    }
+
+    private void writeDefaultValue(Descriptors.FieldDescriptor field) {
+        switch (field.getJavaType()) {
+            case STRING:
+            case BYTE_STRING:
+                recordConsumer.addBinary(Binary.EMPTY);
+                return;
+            case ENUM:
+                writeEnum(field, (Descriptors.EnumValueDescriptor) field.getDefaultValue());
+                return;
+            default:
+                writeScalar(field, 0);
+        }
+    }
+
+    private void writeMetadataFields(List<Descriptors.FieldDescriptor> fields, GroupType group, Message message) {
+        for (Descriptors.FieldDescriptor field : fields) {
+            int index = group.getFieldIndex(field.getName());
+            recordConsumer.startField(field.getName(), index);
+            switch (field.getName()) {
+                case KafkaMetadataProtoMessage.MESSAGE_OFFSET_FIELD_NAME:
+                    recordConsumer.addLong(message.getOffset());
+                    break;
+                case KafkaMetadataProtoMessage.MESSAGE_PARTITION_FIELD_NAME:
+                    recordConsumer.addInteger(message.getPartition());
+                    break;
+                case KafkaMetadataProtoMessage.MESSAGE_TOPIC_FIELD_NAME:
+                    recordConsumer.addBinary(Binary.fromString(message.getTopic()));
+                    break;
+                case KafkaMetadataProtoMessage.MESSAGE_TIMESTAMP_FIELD_NAME:
+                    recordConsumer.addLong(message.getTimestamp());
+                    break;
+                case KafkaMetadataProtoMessage.LOAD_TIME_FIELD_NAME:
+                    recordConsumer.addLong(System.currentTimeMillis());
+                    break;
+                default:
+                    recordConsumer.startGroup();
+                    writeMetadataFields(field.getMessageType().getFields(), group.getType(index).asGroupType(), message);
+                    recordConsumer.endGroup();
+            }
+            recordConsumer.endField(field.getName(), index);
+        }
+    }
+
+    private static boolean isLengthDelimited(Descriptors.FieldDescriptor field) {
+        return field.getJavaType() == Descriptors.FieldDescriptor.JavaType.STRING
+                || field.getJavaType() == Descriptors.FieldDescriptor.JavaType.BYTE_STRING;
+    }
+
+    private static boolean isTimestamp(Descriptors.FieldDescriptor field) {
+        return field.getMessageType().getFullName().equals(Timestamp.getDescriptor().getFullName());
+    }
+
+    private static boolean isStruct(Descriptors.FieldDescriptor field) {
+        return field.getMessageType().getFullName().equals(Struct.getDescriptor().getFullName());
+    }
+}
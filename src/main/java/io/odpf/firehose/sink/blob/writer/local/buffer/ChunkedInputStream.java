@@ -0,0 +1,96 @@
+package io.odpf.firehose.sink.blob.writer.local.buffer;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Reads the content of buffered chunks. The stream can be reset to any position, so uploads can be retried from memory.
+ */
+class ChunkedInputStream extends InputStream {
+    private static final int BYTE_MASK = 0xFF;
+    private final List<ByteBuffer> chunks;
+    private int current = 0;
+    private long position = 0;
+    private long mark = 0;
+
+    /**
+     * @param chunks flipped views of the chunks, which are not shared with any other reader
+     */
+    ChunkedInputStream(List<ByteBuffer> chunks) {
+        this.chunks = chunks;
+    }
+
+    private ByteBuffer currentChunk() {
+        while (current < chunks.size() && !chunks.get(current).hasRemaining()) {
+            current++;
+        }
+        return current < chunks.size() ? chunks.get(current) : null;
+    }
+
+    @Override
+    public int read() {
+        ByteBuffer chunk = currentChunk();
+        if (chunk == null) {
+            return -1;
+        }
+        position++;
+        return chunk.get() & BYTE_MASK;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        ByteBuffer chunk = currentChunk();
+        if (chunk == null) {
+            return -1;
+        }
+        int read = Math.min(length, chunk.remaining());
+        chunk.get(bytes, offset, read);
+        position += read;
+        return read;
+    }
+
+    @Override
+    public long skip(long n) {
+        long skipped = 0;
+        ByteBuffer chunk = currentChunk();
+        while (skipped < n && chunk != null) {
+            int step = (int) Math.min(n - skipped, chunk.remaining());
+            chunk.position(chunk.position() + step);
+            skipped += step;
+            chunk = currentChunk();
+        }
+        position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        long available = 0;
+        for (int i = current; i < chunks.size(); i++) {
+            available += chunks.get(i).remaining();
+        }
+        return (int) Math.min(available, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+        mark = position;
+    }
+
+    @Override
+    public synchronized void reset() {
+        chunks.forEach(ByteBuffer::rewind);
+        current = 0;
+        position = 0;
+        skip(mark);
+    }
+}
@@ -0,0 +1,59 @@
+package io.odpf.firehose.sink.blob.writer.local.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of off-heap chunks which local files are buffered in, shared by all the open files.
+ * Chunks are allocated on demand up to the capacity and reused once released, so the direct memory never exceeds the capacity.
+ */
+public class MemoryBufferPool {
+    private final long capacityBytes;
+    private final int chunkSizeBytes;
+    private final Queue<ByteBuffer> freeChunks = new ConcurrentLinkedQueue<>();
+    private final AtomicLong allocatedBytes = new AtomicLong();
+    private final AtomicLong usedBytes = new AtomicLong();
+
+    public MemoryBufferPool(long capacityBytes, int chunkSizeBytes) {
+        if (chunkSizeBytes <= 0 || capacityBytes < chunkSizeBytes) {
+            throw new IllegalArgumentException("memory buffer capacity should be at least one chunk of a positive size");
+        }
+        this.capacityBytes = capacityBytes;
+        this.chunkSizeBytes = chunkSizeBytes;
+    }
+
+    /**
+     * Take a cleared chunk from the pool.
+     *
+     * @return the chunk, or null when the capacity is used up
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer chunk = freeChunks.poll();
+        if (chunk == null) {
+            if (allocatedBytes.addAndGet(chunkSizeBytes) > capacityBytes) {
+                allocatedBytes.addAndGet(-chunkSizeBytes);
+                return null;
+            }
+            chunk = ByteBuffer.allocateDirect(chunkSizeBytes);
+        }
+        usedBytes.addAndGet(chunkSizeBytes);
+        chunk.clear();
+        return chunk;
+    }
+
+    /**
+     * Return a chunk taken from the pool.
+     *
+     * @param chunk the chunk
+     */
+    public void release(ByteBuffer chunk) {
+        usedBytes.addAndGet(-chunkSizeBytes);
+        freeChunks.add(chunk);
+    }
+
+    public long getUsedBytes() {
+        return usedBytes.get();
+    }
+}
@@ -0,0 +1,178 @@
+package io.odpf.firehose.sink.blob.writer.local.buffer;
+
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.PositionOutputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A parquet output file kept in chunks of the memory buffer pool, so it can be uploaded without touching the local disk.
+ * When the pool is used up, the buffered content is spilled to the local path and the rest of the file is written there.
+ */
+public class MemoryOutputFile implements OutputFile {
+    private final Path spillPath;
+    private final MemoryBufferPool pool;
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private OutputStream spillStream;
+    private boolean spilled = false;
+    private long size = 0;
+
+    public MemoryOutputFile(Path spillPath, MemoryBufferPool pool) {
+        this.spillPath = spillPath;
+        this.pool = pool;
+    }
+
+    @Override
+    public PositionOutputStream create(long blockSizeHint) {
+        return new PositionOutputStream() {
+            @Override
+            public long getPos() {
+                return getSize();
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                MemoryOutputFile.this.write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                MemoryOutputFile.this.write(bytes, offset, length);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                MemoryOutputFile.this.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                closeSpillStream();
+            }
+        };
+    }
+
+    @Override
+    public PositionOutputStream createOrOverwrite(long blockSizeHint) {
+        return create(blockSizeHint);
+    }
+
+    @Override
+    public boolean supportsBlockSize() {
+        return false;
+    }
+
+    @Override
+    public long defaultBlockSize() {
+        return 0;
+    }
+
+    private synchronized void write(byte[] bytes, int offset, int length) throws IOException {
+        int written = 0;
+        while (written < length && spillStream == null) {
+            ByteBuffer chunk = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+            if (chunk == null || !chunk.hasRemaining()) {
+                chunk = pool.acquire();
+                if (chunk == null) {
+                    spill();
+                    break;
+                }
+                chunks.add(chunk);
+            }
+            int step = Math.min(chunk.remaining(), length - written);
+            chunk.put(bytes, offset + written, step);
+            written += step;
+        }
+        if (written < length) {
+            spillStream.write(bytes, offset + written, length - written);
+        }
+        size += length;
+    }
+
+    private void spill() throws IOException {
+        Files.createDirectories(spillPath.getParent());
+        spillStream = new BufferedOutputStream(Files.newOutputStream(spillPath));
+        spilled = true;
+        WritableByteChannel channel = Channels.newChannel(spillStream);
+        for (ByteBuffer chunk : chunks) {
+            chunk.flip();
+            while (chunk.hasRemaining()) {
+                channel.write(chunk);
+            }
+        }
+        releaseChunks();
+    }
+
+    private synchronized void flush() throws IOException {
+        if (spillStream != null) {
+            spillStream.flush();
+        }
+    }
+
+    private synchronized void closeSpillStream() throws IOException {
+        if (spillStream != null) {
+            spillStream.close();
+            spillStream = null;
+        }
+    }
+
+    private void releaseChunks() {
+        chunks.forEach(pool::release);
+        chunks.clear();
+    }
+
+    /**
+     * Whether the file was written to the local path because the memory buffer pool was used up.
+     *
+     * @return true if the content is on the local disk
+     */
+    public synchronized boolean isSpilled() {
+        return spilled;
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Open the content written so far, from memory or from the local path once spilled.
+     *
+     * @return the content
+     * @throws IOException if the spilled file cannot be opened
+     */
+    public synchronized InputStream openInputStream() throws IOException {
+        if (spilled) {
+            return Files.newInputStream(spillPath);
+        }
+        List<ByteBuffer> views = new ArrayList<>(chunks.size());
+        for (ByteBuffer chunk : chunks) {
+            ByteBuffer view = chunk.duplicate();
+            view.flip();
+            views.add(view);
+        }
+        return new ChunkedInputStream(views);
+    }
+
+    /**
+     * Return the chunks to the pool and delete the spilled file.
+     *
+     * @throws IOException if the spilled file cannot be deleted
+     */
+    public synchronized void release() throws IOException {
+        releaseChunks();
+        closeSpillStream();
+        if (spilled) {
+            Files.deleteIfExists(spillPath);
+        }
+    }
+}
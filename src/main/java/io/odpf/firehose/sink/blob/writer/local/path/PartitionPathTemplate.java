@@ -0,0 +1,487 @@
+package io.odpf.firehose.sink.blob.writer.local.path;
+
+import com.google.protobuf.Descriptors;
+import io.odpf.firehose.config.BlobSinkConfig;
+import io.odpf.firehose.exception.ConfigurationException;
+import io.odpf.firehose.sink.blob.Constants;
+import io.odpf.firehose.sink.blob.message.Record;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoField;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAccessor;
+import java.time.zone.ZoneOffsetTransition;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The partition path of records, compiled once from a template such as
+ * {@code {topic}/country={field:country}/dt={ts:yyyy-MM-dd}/hr={ts:HH}/min={ts:mm/15}}.
+ * <p>
+ * {@code {topic}} is the topic of the record, {@code {field:name}} is the value of a singular scalar, string or enum field
+ * of the message, with the names of nested fields separated by dots, and {@code {ts:pattern}} is the partition timestamp
+ * formatted with a date time pattern in the partition time zone. A pattern of a single hour, minute or second field may end
+ * with {@code /n} to floor the value to a multiple of n. Field values are escaped the way hive escapes partition values.
+ * <p>
+ * The time segments are the same for every timestamp of a window of the finest time unit of the template, so they are
+ * formatted once per window and kept for a few recent windows. Windows with a time zone transition are not kept.
+ */
+public class PartitionPathTemplate {
+    private static final String TOPIC_TOKEN = "topic";
+    private static final String FIELD_TOKEN_PREFIX = "field:";
+    private static final String TIMESTAMP_TOKEN_PREFIX = "ts:";
+    private static final Pattern TOKEN_PATTERN = Pattern.compile("\\{([^{}]*)}");
+    private static final Pattern BUCKET_PATTERN = Pattern.compile("(H+|m+|s+)/(\\d+)");
+    private static final String DEFAULT_PARTITION_VALUE = "__HIVE_DEFAULT_PARTITION__";
+    private static final String ESCAPED_CHARACTERS = "\"#%'*/:=?\\\u007F{[]^";
+    private static final char FIRST_PRINTABLE_CHARACTER = ' ';
+    private static final int TIME_WINDOW_CACHE_SIZE = 8;
+    private static final List<ChronoField> PARSED_FIELDS = Arrays.asList(
+            ChronoField.YEAR, ChronoField.MONTH_OF_YEAR, ChronoField.DAY_OF_MONTH,
+            ChronoField.HOUR_OF_DAY, ChronoField.MINUTE_OF_HOUR, ChronoField.SECOND_OF_MINUTE);
+
+    private final String kafkaMetadataColumnName;
+    private final String timestampFieldName;
+    private final ZoneId zone;
+    private final List<Part> parts = new ArrayList<>();
+    private final List<TimeToken> timeTokens = new ArrayList<>();
+    private final List<String[]> fieldNames = new ArrayList<>();
+    private final StringBuilder pathRegex = new StringBuilder();
+    private final TimeWindow[] timeWindows = new TimeWindow[TIME_WINDOW_CACHE_SIZE];
+    private Pattern pathPattern;
+    private ChronoUnit windowUnit = ChronoUnit.DAYS;
+    private int groupCount = 0;
+    private int topicGroup = -1;
+    private int nextTimeWindow = 0;
+
+    private PartitionPathTemplate(String kafkaMetadataColumnName, String timestampFieldName, ZoneId zone) {
+        this.kafkaMetadataColumnName = kafkaMetadataColumnName;
+        this.timestampFieldName = timestampFieldName;
+        this.zone = zone;
+    }
+
+    /**
+     * Compile the partition template of the sink config, or the topic, date and hour partitions of the time granularity
+     * when there is no template.
+     *
+     * @param sinkConfig the blob sink config
+     * @return the template
+     */
+    public static PartitionPathTemplate of(BlobSinkConfig sinkConfig) {
+        String template = sinkConfig.getFilePartitionTemplate();
+        if (template != null && !template.isEmpty()) {
+            return compile(template, sinkConfig);
+        }
+        String kafkaMetadataColumnName = sinkConfig.getOutputKafkaMetadataColumnName();
+        Constants.FilePartitionType partitionType = sinkConfig.getFilePartitionTimeGranularityType();
+        if (partitionType == Constants.FilePartitionType.NONE) {
+            PartitionPathTemplate partitionPathTemplate = new PartitionPathTemplate(kafkaMetadataColumnName, null, null);
+            partitionPathTemplate.addTopic();
+            return partitionPathTemplate.build();
+        }
+        String datePrefix = sinkConfig.getFilePartitionTimeDatePrefix();
+        String hourPrefix = sinkConfig.getFilePartitionTimeHourPrefix();
+        PartitionPathTemplate partitionPathTemplate = new PartitionPathTemplate(kafkaMetadataColumnName,
+                sinkConfig.getFilePartitionProtoTimestampFieldName(), ZoneId.of(sinkConfig.getFilePartitionProtoTimestampTimezone()));
+        partitionPathTemplate.addTopic();
+        partitionPathTemplate.addLiteral("/" + datePrefix);
+        partitionPathTemplate.addTimestamp("yyyy-MM-dd");
+        if (partitionType == Constants.FilePartitionType.HOUR) {
+            partitionPathTemplate.addLiteral("/" + hourPrefix);
+            partitionPathTemplate.addTimestamp("HH");
+        }
+        return partitionPathTemplate.build();
+    }
+
+    private static PartitionPathTemplate compile(String template, BlobSinkConfig sinkConfig) {
+        if (template.startsWith("/") || template.endsWith("/") || template.contains("//")) {
+            throw new ConfigurationException("The partition template " + template + " should not have empty path segments");
+        }
+        boolean usesTimestamp = template.contains("{" + TIMESTAMP_TOKEN_PREFIX);
+        String timestampFieldName = sinkConfig.getFilePartitionProtoTimestampFieldName();
+        if (usesTimestamp && (timestampFieldName == null || timestampFieldName.isEmpty())) {
+            throw new ConfigurationException("The partition template " + template + " needs SINK_BLOB_FILE_PARTITION_PROTO_TIMESTAMP_FIELD_NAME");
+        }
+        PartitionPathTemplate partitionPathTemplate = new PartitionPathTemplate(sinkConfig.getOutputKafkaMetadataColumnName(),
+                timestampFieldName, usesTimestamp ? ZoneId.of(sinkConfig.getFilePartitionProtoTimestampTimezone()) : null);
+        Matcher matcher = TOKEN_PATTERN.matcher(template);
+        int end = 0;
+        try {
+            while (matcher.find()) {
+                partitionPathTemplate.addLiteral(template.substring(end, matcher.start()));
+                String token = matcher.group(1);
+                if (token.equals(TOPIC_TOKEN)) {
+                    partitionPathTemplate.addTopic();
+                } else if (token.startsWith(FIELD_TOKEN_PREFIX)) {
+                    partitionPathTemplate.addField(token.substring(FIELD_TOKEN_PREFIX.length()));
+                } else if (token.startsWith(TIMESTAMP_TOKEN_PREFIX)) {
+                    partitionPathTemplate.addTimestamp(token.substring(TIMESTAMP_TOKEN_PREFIX.length()));
+                } else {
+                    throw new IllegalArgumentException("unknown token {" + token + "}");
+                }
+                end = matcher.end();
+            }
+            partitionPathTemplate.addLiteral(template.substring(end));
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException("Invalid partition template " + template + ": " + e.getMessage());
+        }
+        return partitionPathTemplate.build();
+    }
+
+    private void addLiteral(String text) {
+        if (text.indexOf('{') != -1 || text.indexOf('}') != -1) {
+            throw new IllegalArgumentException("unbalanced braces in " + text);
+        }
+        if (text.isEmpty()) {
+            return;
+        }
+        parts.add((path, record, timeValues) -> path.append(text));
+        pathRegex.append(Pattern.quote(text));
+    }
+
+    private void addTopic() {
+        parts.add((path, record, timeValues) -> path.append(record.getTopic(kafkaMetadataColumnName)));
+        pathRegex.append("([^/]+)");
+        groupCount++;
+        if (topicGroup == -1) {
+            topicGroup = groupCount;
+        }
+    }
+
+    private void addField(String fieldPath) {
+        String[] names = fieldPath.split("\\.", -1);
+        if (Arrays.stream(names).anyMatch(String::isEmpty)) {
+            throw new IllegalArgumentException("invalid field " + fieldPath);
+        }
+        fieldNames.add(names);
+        parts.add((path, record, timeValues) -> path.append(toPartitionValue(record.getFieldValue(names))));
+        pathRegex.append("[^/]*");
+    }
+
+    private void addTimestamp(String pattern) {
+        int index = timeTokens.size();
+        groupCount++;
+        TimeToken timeToken = TimeToken.of(pattern, groupCount);
+        timeTokens.add(timeToken);
+        parts.add((path, record, timeValues) -> path.append(timeValues[index]));
+        pathRegex.append("(.+?)");
+        if (timeToken.unit.compareTo(windowUnit) < 0) {
+            windowUnit = timeToken.unit;
+        }
+    }
+
+    private PartitionPathTemplate build() {
+        pathPattern = Pattern.compile(pathRegex.toString());
+        return this;
+    }
+
+    /**
+     * Render the partition path of a record.
+     *
+     * @param record the record
+     * @return the partition path relative to the local directory
+     */
+    public Path getPartitionPath(Record record) {
+        String[] timeValues = timeTokens.isEmpty() ? null : getTimeValues(record.getTimestamp(timestampFieldName));
+        StringBuilder path = new StringBuilder();
+        for (Part part : parts) {
+            part.appendTo(path, record, timeValues);
+        }
+        return Paths.get(path.toString());
+    }
+
+    /**
+     * The time segments of a timestamp, from the cached window containing it, or formatted and cached for its window.
+     * The cache is not locked, a concurrent call can only miss a window which is being cached.
+     */
+    private String[] getTimeValues(Instant timestamp) {
+        long epochSecond = timestamp.getEpochSecond();
+        for (TimeWindow timeWindow : timeWindows) {
+            if (timeWindow != null && timeWindow.startEpochSecond <= epochSecond && epochSecond < timeWindow.endEpochSecond) {
+                return timeWindow.values;
+            }
+        }
+        ZonedDateTime time = timestamp.atZone(zone);
+        String[] values = new String[timeTokens.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = timeTokens.get(i).format(time);
+        }
+        if (windowUnit.compareTo(ChronoUnit.SECONDS) >= 0) {
+            LocalDateTime windowStart = time.toLocalDateTime().truncatedTo(windowUnit);
+            long startEpochSecond = windowStart.toEpochSecond(time.getOffset());
+            long endEpochSecond = windowStart.plus(1, windowUnit).toEpochSecond(time.getOffset());
+            ZoneOffsetTransition transition = zone.getRules().nextTransition(Instant.ofEpochSecond(startEpochSecond));
+            if (transition == null || transition.toEpochSecond() >= endEpochSecond) {
+                timeWindows[nextTimeWindow] = new TimeWindow(startEpochSecond, endEpochSecond, values);
+                nextTimeWindow = (nextTimeWindow + 1) % TIME_WINDOW_CACHE_SIZE;
+            }
+        }
+        return values;
+    }
+
+    private static String toPartitionValue(Object value) {
+        String text = value instanceof Descriptors.EnumValueDescriptor
+                ? ((Descriptors.EnumValueDescriptor) value).getName()
+                : String.valueOf(value);
+        if (text.isEmpty()) {
+            return DEFAULT_PARTITION_VALUE;
+        }
+        boolean onlyDots = text.chars().allMatch(c -> c == '.');
+        StringBuilder escaped = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < FIRST_PRINTABLE_CHARACTER || ESCAPED_CHARACTERS.indexOf(c) != -1 || onlyDots) {
+                if (escaped == null) {
+                    escaped = new StringBuilder(text.substring(0, i));
+                }
+                escaped.append(String.format("%%%02X", (int) c));
+            } else if (escaped != null) {
+                escaped.append(c);
+            }
+        }
+        return escaped == null ? text : escaped.toString();
+    }
+
+    /**
+     * Whether the partition path has time segments of the partition timestamp.
+     *
+     * @return true if the template has timestamp tokens
+     */
+    public boolean usesTimestamp() {
+        return !timeTokens.isEmpty();
+    }
+
+    /**
+     * Whether the partition path is read from the message, from its timestamp or its fields.
+     *
+     * @return true if the template has timestamp or field tokens
+     */
+    public boolean usesMessage() {
+        return usesTimestamp() || !fieldNames.isEmpty();
+    }
+
+    public boolean usesTopic() {
+        return topicGroup != -1;
+    }
+
+    /**
+     * Check the fields of the template are singular scalar, string or enum fields of the message,
+     * nested in singular message fields.
+     *
+     * @param descriptor the descriptor of the message
+     * @throws ConfigurationException if a field cannot be a partition
+     */
+    public void checkFields(Descriptors.Descriptor descriptor) {
+        for (String[] names : fieldNames) {
+            Descriptors.Descriptor messageDescriptor = descriptor;
+            for (int i = 0; i < names.length; i++) {
+                Descriptors.FieldDescriptor field = messageDescriptor.findFieldByName(names[i]);
+                boolean isMessage = field != null && field.getJavaType() == Descriptors.FieldDescriptor.JavaType.MESSAGE;
+                boolean isLast = i == names.length - 1;
+                if (field == null || field.isRepeated() || isMessage == isLast
+                        || field.getJavaType() == Descriptors.FieldDescriptor.JavaType.BYTE_STRING) {
+                    throw new ConfigurationException("The partition field " + String.join(".", names)
+                            + " is not a singular scalar, string or enum field of " + descriptor.getFullName());
+                }
+                messageDescriptor = isMessage ? field.getMessageType() : null;
+            }
+        }
+    }
+
+    /**
+     * Parse the topic of a partition path rendered by the template.
+     *
+     * @param partitionPath the partition path relative to the local directory
+     * @return the topic, empty if the path is not rendered by the template or the template has no topic
+     */
+    public Optional<String> getTopic(Path partitionPath) {
+        Matcher matcher = pathPattern.matcher(partitionPath.toString());
+        if (topicGroup == -1 || !matcher.matches()) {
+            return Optional.empty();
+        }
+        return Optional.of(matcher.group(topicGroup));
+    }
+
+    /**
+     * Parse the end of the time window of a partition path rendered by the template.
+     * The window is the one of the finest time segment, and needs the year, month and day to be in the path.
+     *
+     * @param partitionPath the partition path relative to the local directory
+     * @return the end of the window, empty if the path is not rendered by the template or its window is not known
+     */
+    public Optional<Instant> getPartitionEndTime(Path partitionPath) {
+        if (timeTokens.isEmpty() || windowUnit.compareTo(ChronoUnit.SECONDS) < 0) {
+            return Optional.empty();
+        }
+        Matcher matcher = pathPattern.matcher(partitionPath.toString());
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        Map<ChronoField, Long> fields = new EnumMap<>(ChronoField.class);
+        long windowAmount = 1;
+        try {
+            for (TimeToken timeToken : timeTokens) {
+                timeToken.parse(matcher.group(timeToken.group), fields);
+                if (timeToken.unit == windowUnit) {
+                    windowAmount = Math.max(windowAmount, timeToken.bucketSize);
+                }
+            }
+            if (!fields.containsKey(ChronoField.YEAR) || !fields.containsKey(ChronoField.MONTH_OF_YEAR) || !fields.containsKey(ChronoField.DAY_OF_MONTH)) {
+                return Optional.empty();
+            }
+            LocalDateTime windowStart = LocalDate.of(
+                    Math.toIntExact(fields.get(ChronoField.YEAR)),
+                    Math.toIntExact(fields.get(ChronoField.MONTH_OF_YEAR)),
+                    Math.toIntExact(fields.get(ChronoField.DAY_OF_MONTH))).atTime(
+                    Math.toIntExact(fields.getOrDefault(ChronoField.HOUR_OF_DAY, 0L)),
+                    Math.toIntExact(fields.getOrDefault(ChronoField.MINUTE_OF_HOUR, 0L)),
+                    Math.toIntExact(fields.getOrDefault(ChronoField.SECOND_OF_MINUTE, 0L)));
+            return Optional.of(windowStart.plus(windowAmount, windowUnit).atZone(zone).toInstant());
+        } catch (DateTimeException | ArithmeticException | NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    private interface Part {
+        void appendTo(StringBuilder path, Record record, String[] timeValues);
+    }
+
+    /**
+     * A time segment, formatted with a date time pattern or floored to a multiple of an hour, minute or second.
+     */
+    private static final class TimeToken {
+        private final DateTimeFormatter formatter;
+        private final ChronoField bucketField;
+        private final int bucketSize;
+        private final int width;
+        private final ChronoUnit unit;
+        private final int group;
+
+        private TimeToken(DateTimeFormatter formatter, ChronoField bucketField, int bucketSize, int width, ChronoUnit unit, int group) {
+            this.formatter = formatter;
+            this.bucketField = bucketField;
+            this.bucketSize = bucketSize;
+            this.width = width;
+            this.unit = unit;
+            this.group = group;
+        }
+
+        static TimeToken of(String pattern, int group) {
+            Matcher bucket = BUCKET_PATTERN.matcher(pattern);
+            if (!bucket.matches()) {
+                return new TimeToken(DateTimeFormatter.ofPattern(pattern), null, 1, 0, getUnit(pattern), group);
+            }
+            String fieldPattern = bucket.group(1);
+            ChronoField field = fieldPattern.charAt(0) == 'H' ? ChronoField.HOUR_OF_DAY
+                    : fieldPattern.charAt(0) == 'm' ? ChronoField.MINUTE_OF_HOUR : ChronoField.SECOND_OF_MINUTE;
+            int bucketSize = Integer.parseInt(bucket.group(2));
+            if (bucketSize < 1 || bucketSize > field.range().getMaximum()) {
+                throw new IllegalArgumentException("invalid bucket size in " + pattern);
+            }
+            return new TimeToken(null, field, bucketSize, fieldPattern.length(), (ChronoUnit) field.getBaseUnit(), group);
+        }
+
+        /**
+         * The unit of the finest field of a pattern, the letters in quotes being text.
+         * Fields finer than seconds are not cached, and fields coarser than days, or of the zone, change with days or transitions.
+         */
+        private static ChronoUnit getUnit(String pattern) {
+            ChronoUnit unit = ChronoUnit.DAYS;
+            boolean quoted = false;
+            for (char c : pattern.toCharArray()) {
+                if (c == '\'') {
+                    quoted = !quoted;
+                    continue;
+                }
+                if (quoted || !Character.isLetter(c)) {
+                    continue;
+                }
+                ChronoUnit letterUnit;
+                switch (c) {
+                    case 'S':
+                    case 'n':
+                    case 'N':
+                    case 'A':
+                        letterUnit = ChronoUnit.NANOS;
+                        break;
+                    case 's':
+                        letterUnit = ChronoUnit.SECONDS;
+                        break;
+                    case 'm':
+                        letterUnit = ChronoUnit.MINUTES;
+                        break;
+                    case 'H':
+                    case 'h':
+                    case 'k':
+                    case 'K':
+                    case 'a':
+                        letterUnit = ChronoUnit.HOURS;
+                        break;
+                    default:
+                        letterUnit = ChronoUnit.DAYS;
+                }
+                if (letterUnit.compareTo(unit) < 0) {
+                    unit = letterUnit;
+                }
+            }
+            return unit;
+        }
+
+        String format(ZonedDateTime time) {
+            if (formatter != null) {
+                return formatter.format(time);
+            }
+            String value = String.valueOf(time.get(bucketField) / bucketSize * bucketSize);
+            StringBuilder padded = new StringBuilder();
+            for (int i = value.length(); i < width; i++) {
+                padded.append('0');
+            }
+            return padded.append(value).toString();
+        }
+
+        /**
+         * Parse the fields of the segment which are not finer than its unit, as resolving a pattern defaults finer fields.
+         */
+        void parse(String text, Map<ChronoField, Long> fields) {
+            if (formatter == null) {
+                fields.put(bucketField, (long) Integer.parseInt(text));
+                return;
+            }
+            TemporalAccessor parsed = formatter.parse(text);
+            for (ChronoField field : PARSED_FIELDS) {
+                if (((ChronoUnit) field.getBaseUnit()).compareTo(unit) >= 0 && parsed.isSupported(field)) {
+                    fields.put(field, parsed.getLong(field));
+                }
+            }
+        }
+    }
+
+    /**
+     * The time segments of the timestamps from the start to the end of a window.
+     */
+    private static final class TimeWindow {
+        private final long startEpochSecond;
+        private final long endEpochSecond;
+        private final String[] values;
+
+        private TimeWindow(long startEpochSecond, long endEpochSecond, String[] values) {
+            this.startEpochSecond = startEpochSecond;
+            this.endEpochSecond = endEpochSecond;
+            this.values = values;
+        }
+    }
+}
@@ -1,56 +1,33 @@
 package io.odpf.firehose.sink.blob.writer.local.path;
 
 import io.odpf.firehose.config.BlobSinkConfig;
-import io.odpf.firehose.sink.blob.Constants;
 import io.odpf.firehose.sink.blob.message.Record;
 import lombok.AllArgsConstructor;
 
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.Instant;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
+import java.util.Optional;
 
 /**
  * Create path partition from Record.
+ * The partition template of the sink config is compiled on every call, writers keep a compiled {@link PartitionPathTemplate}.
  */
 @AllArgsConstructor
 public class TimePartitionedPathUtils {
 
-    public static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-    public static final DateTimeFormatter HOUR_FORMATTER = DateTimeFormatter.ofPattern("HH");
-
     public static Path getTimePartitionedPath(Record record, BlobSinkConfig sinkConfig) {
-        String topic = record.getTopic(sinkConfig.getOutputKafkaMetadataColumnName());
-        Instant timestamp = record.getTimestamp(sinkConfig.getFilePartitionProtoTimestampFieldName());
-        if (sinkConfig.getFilePartitionTimeGranularityType() == Constants.FilePartitionType.NONE) {
-            return Paths.get(topic);
-        }
-        LocalDate localDate = LocalDateTime.ofInstant(timestamp, ZoneId.of(sinkConfig.getFilePartitionProtoTimestampTimezone())).toLocalDate();
-        String datePart = DATE_FORMATTER.format(localDate);
-        LocalTime localTime = LocalDateTime.ofInstant(timestamp, ZoneId.of(sinkConfig.getFilePartitionProtoTimestampTimezone())).toLocalTime();
-        String hourPart = HOUR_FORMATTER.format(localTime);
-
-        String dateSegment = String.format("%s%s", sinkConfig.getFilePartitionTimeDatePrefix(), datePart);
-        String hourSegment = String.format("%s%s", sinkConfig.getFilePartitionTimeHourPrefix(), hourPart);
+        return PartitionPathTemplate.of(sinkConfig).getPartitionPath(record);
+    }
 
-        String dateTimePartition;
-        switch (sinkConfig.getFilePartitionTimeGranularityType()) {
-            case NONE:
-                return Paths.get(topic);
-            case DAY:
-                dateTimePartition = String.format("%s", dateSegment);
-                break;
-            case HOUR:
-                dateTimePartition = String.format("%s/%s", dateSegment, hourSegment);
-                break;
-            default:
-                throw new IllegalArgumentException();
-        }
-        return Paths.get(String.format("%s/%s", topic, dateTimePartition));
+    /**
+     * Parse the end of the time window of a partition path created by {@link #getTimePartitionedPath(Record, BlobSinkConfig)}.
+     *
+     * @param partitionPath the partition path relative to the local directory
+     * @param sinkConfig    the blob sink config
+     * @return the end of the window, empty if the path is not partitioned by time
+     */
+    public static Optional<Instant> getPartitionEndTime(Path partitionPath, BlobSinkConfig sinkConfig) {
+        return PartitionPathTemplate.of(sinkConfig).getPartitionEndTime(partitionPath);
     }
 
 }
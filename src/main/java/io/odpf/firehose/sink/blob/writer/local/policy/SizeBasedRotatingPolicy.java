@@ -17,4 +17,9 @@ public class SizeBasedRotatingPolicy implements WriterPolicy {
     public boolean shouldRotate(LocalFileMetadata metadata) {
         return metadata.getSize() >= maxSize;
     }
+
+    @Override
+    public boolean shouldRotateOnWrite(LocalFileMetadata metadata) {
+        return shouldRotate(metadata);
+    }
 }
@@ -0,0 +1,57 @@
+package io.odpf.firehose.sink.blob.writer.local.policy;
+
+import io.odpf.firehose.config.BlobSinkConfig;
+import io.odpf.firehose.sink.blob.message.Record;
+import io.odpf.firehose.sink.blob.writer.local.LocalFileMetadata;
+import io.odpf.firehose.sink.blob.writer.local.path.PartitionPathTemplate;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rotates files of time partitions which the stream of their topic has moved past.
+ * The watermark of a topic is the latest event time written for it. A partition is complete once its window ends
+ * before the watermark minus the allowed lateness, and records arriving later go to a new file of the partition.
+ * When the partition template has no topic, a single watermark is kept for all the topics.
+ */
+public class WatermarkRotatingPolicy implements WriterPolicy {
+
+    private final BlobSinkConfig sinkConfig;
+    private final PartitionPathTemplate partitionPathTemplate;
+    private final long allowedLatenessMillis;
+    private final Map<String, Long> topicWatermarks = new ConcurrentHashMap<>();
+
+    public WatermarkRotatingPolicy(BlobSinkConfig sinkConfig, long allowedLatenessMillis) {
+        if (allowedLatenessMillis < 0) {
+            throw new IllegalArgumentException("The allowed lateness should not be negative");
+        }
+        this.partitionPathTemplate = PartitionPathTemplate.of(sinkConfig);
+        if (!partitionPathTemplate.usesTimestamp()) {
+            throw new IllegalArgumentException("The watermark needs files partitioned by time");
+        }
+        this.sinkConfig = sinkConfig;
+        this.allowedLatenessMillis = allowedLatenessMillis;
+    }
+
+    @Override
+    public void onWrite(Record record) {
+        String topic = partitionPathTemplate.usesTopic() ? record.getTopic(sinkConfig.getOutputKafkaMetadataColumnName()) : "";
+        long eventTimeMillis = record.getTimestamp(sinkConfig.getFilePartitionProtoTimestampFieldName()).toEpochMilli();
+        topicWatermarks.merge(topic, eventTimeMillis, Math::max);
+    }
+
+    @Override
+    public boolean shouldRotate(LocalFileMetadata metadata) {
+        Path partitionPath = Paths.get(metadata.getBasePath()).relativize(Paths.get(metadata.getFullPath()).getParent());
+        String topic = partitionPathTemplate.usesTopic() ? partitionPathTemplate.getTopic(partitionPath).orElse(null) : "";
+        Long watermark = topic == null ? null : topicWatermarks.get(topic);
+        if (watermark == null) {
+            return false;
+        }
+        return partitionPathTemplate.getPartitionEndTime(partitionPath)
+                .map(partitionEnd -> partitionEnd.toEpochMilli() + allowedLatenessMillis <= watermark)
+                .orElse(false);
+    }
+}
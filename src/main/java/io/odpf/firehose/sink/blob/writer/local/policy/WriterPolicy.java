@@ -1,7 +1,27 @@
 package io.odpf.firehose.sink.blob.writer.local.policy;
 
+import io.odpf.firehose.sink.blob.message.Record;
 import io.odpf.firehose.sink.blob.writer.local.LocalFileMetadata;
 
 public interface WriterPolicy {
     boolean shouldRotate(LocalFileMetadata metadata);
+
+    /**
+     * Called for every record written, for policies which track the stream.
+     *
+     * @param record the written record
+     */
+    default void onWrite(Record record) {
+    }
+
+    /**
+     * Whether the file should be rotated right after a record is written to it, instead of on the next check.
+     * Only policies which are cheap enough to be checked on every write opt in.
+     *
+     * @param metadata the metadata of the file written to
+     * @return true if the file should be rotated now
+     */
+    default boolean shouldRotateOnWrite(LocalFileMetadata metadata) {
+        return false;
+    }
 }
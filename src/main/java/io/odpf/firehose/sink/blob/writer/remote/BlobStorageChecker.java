@@ -11,6 +11,7 @@ import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @AllArgsConstructor
@@ -22,6 +23,17 @@ public class BlobStorageChecker implements Runnable {
     private final ExecutorService remoteUploadScheduler;
     private final BlobStorage blobStorage;
     private final FirehoseInstrumentation firehoseInstrumentation;
+    private final Consumer<LocalFileMetadata> uploadListener;
+
+    public BlobStorageChecker(BlockingQueue<LocalFileMetadata> toBeFlushedToRemotePaths,
+                              BlockingQueue<String> flushedToRemotePaths,
+                              Set<BlobStorageWriterFutureHandler> remoteUploadFutures,
+                              ExecutorService remoteUploadScheduler,
+                              BlobStorage blobStorage,
+                              FirehoseInstrumentation firehoseInstrumentation) {
+        this(toBeFlushedToRemotePaths, flushedToRemotePaths, remoteUploadFutures, remoteUploadScheduler, blobStorage, firehoseInstrumentation, metadata -> {
+        });
+    }
 
     @Override
     public void run() {
@@ -30,6 +42,7 @@ public class BlobStorageChecker implements Runnable {
         remoteUploadFutures.addAll(tobeFlushed.stream().map(this::submitTask).collect(Collectors.toList()));
         Set<BlobStorageWriterFutureHandler> flushed = remoteUploadFutures.stream().filter(BlobStorageWriterFutureHandler::isFinished).collect(Collectors.toSet());
         remoteUploadFutures.removeAll(flushed);
+        flushed.forEach(handler -> uploadListener.accept(handler.getLocalFileMetadata()));
         flushedToRemotePaths.addAll(flushed.stream().map(BlobStorageWriterFutureHandler::getFullPath).collect(Collectors.toSet()));
     }
 
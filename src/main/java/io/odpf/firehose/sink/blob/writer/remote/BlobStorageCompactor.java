@@ -0,0 +1,251 @@
+package io.odpf.firehose.sink.blob.writer.remote;
+
+import io.odpf.firehose.config.BlobSinkConfig;
+import io.odpf.firehose.exception.ConfigurationException;
+import io.odpf.firehose.metrics.FirehoseInstrumentation;
+import io.odpf.firehose.sink.blob.Constants;
+import io.odpf.firehose.sink.blob.writer.local.LocalFileMetadata;
+import io.odpf.firehose.sink.blob.writer.local.ParquetFileMerger;
+import io.odpf.firehose.sink.blob.writer.local.path.PartitionPathTemplate;
+import io.odpf.firehose.sink.common.blobstorage.BlobStorage;
+import io.odpf.firehose.sink.common.blobstorage.BlobStorageException;
+import io.odpf.firehose.sink.common.blobstorage.BlobStorageObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static io.odpf.firehose.metrics.BlobStorageMetrics.BLOB_STORAGE_ERROR_TYPE_TAG;
+import static io.odpf.firehose.metrics.BlobStorageMetrics.COMPACTION_BYTES;
+import static io.odpf.firehose.metrics.BlobStorageMetrics.COMPACTION_FILES_TOTAL;
+import static io.odpf.firehose.metrics.BlobStorageMetrics.COMPACTION_TIME_MILLISECONDS;
+import static io.odpf.firehose.metrics.BlobStorageMetrics.COMPACTION_TOTAL;
+import static io.odpf.firehose.metrics.Metrics.FAILURE_TAG;
+import static io.odpf.firehose.metrics.Metrics.SUCCESS_TAG;
+import static io.odpf.firehose.metrics.Metrics.tag;
+
+/**
+ * Merges the small parquet files uploaded to a partition into files of the target size, once the partition is closed,
+ * that is when the end of its time window is older than the compaction delay.
+ * The files are downloaded to the local directory and their row groups are copied to the merged file without decoding the records.
+ * <p>
+ * Object storages can not replace several objects at once, so a merge is committed through a marker object under {@code _compaction/}
+ * naming the merged object and the objects it replaces. The marker is stored before the merged object, then the replaced objects
+ * and the marker are deleted. A marker left by a failed or interrupted merge is completed once it is older than the compaction delay:
+ * the replaced objects are deleted if the merged object was stored, and are kept otherwise.
+ * Readers listing the partition while the replaced objects are being deleted see the records of both.
+ * <p>
+ * Only files uploaded by this process are merged, so processes writing to the same partitions do not merge the same files.
+ */
+public class BlobStorageCompactor implements Runnable {
+    private static final String MARKER_PREFIX = "_compaction/";
+    private static final Pattern MARKER_NAME = Pattern.compile(MARKER_PREFIX + "(\\d+)-[^/]+");
+    private static final String WORK_DIRECTORY = ".compaction";
+    private static final String EMPTY = "";
+    private final BlobStorage blobStorage;
+    private final PartitionPathTemplate partitionPathTemplate;
+    private final FirehoseInstrumentation firehoseInstrumentation;
+    private final Path workDirectory;
+    private final long delayMillis;
+    private final long smallFileMaxSizeBytes;
+    private final long targetFileSizeBytes;
+    private final long rowGroupSize;
+    private final Clock clock;
+    private final Map<Path, List<BlobStorageObject>> uploadedObjects = new ConcurrentHashMap<>();
+
+    public BlobStorageCompactor(BlobSinkConfig sinkConfig, BlobStorage blobStorage, FirehoseInstrumentation firehoseInstrumentation) {
+        this(sinkConfig, blobStorage, firehoseInstrumentation, Clock.systemUTC());
+    }
+
+    public BlobStorageCompactor(BlobSinkConfig sinkConfig, BlobStorage blobStorage, FirehoseInstrumentation firehoseInstrumentation, Clock clock) {
+        this.partitionPathTemplate = PartitionPathTemplate.of(sinkConfig);
+        if (sinkConfig.getLocalFileWriterType() != Constants.WriterType.PARQUET || !partitionPathTemplate.usesTimestamp()) {
+            throw new ConfigurationException("Compaction needs PARQUET files partitioned by time");
+        }
+        this.blobStorage = blobStorage;
+        this.firehoseInstrumentation = firehoseInstrumentation;
+        this.workDirectory = Paths.get(sinkConfig.getLocalDirectory(), WORK_DIRECTORY);
+        this.delayMillis = sinkConfig.getCompactionDelayMS();
+        this.smallFileMaxSizeBytes = sinkConfig.getCompactionSmallFileMaxSizeBytes();
+        this.targetFileSizeBytes = sinkConfig.getCompactionTargetFileSizeBytes();
+        this.rowGroupSize = sinkConfig.getLocalFileWriterParquetBlockSize();
+        this.clock = clock;
+    }
+
+    /**
+     * Record a file uploaded to the blob storage, to be merged once its partition is closed if it is small.
+     *
+     * @param metadata the metadata of the uploaded file
+     */
+    public void onUploaded(LocalFileMetadata metadata) {
+        if (metadata.getSize() >= smallFileMaxSizeBytes) {
+            return;
+        }
+        String objectName = BlobStorageWorker.getObjectName(metadata);
+        Path partition = Paths.get(objectName).getParent();
+        if (partition == null) {
+            return;
+        }
+        uploadedObjects.compute(partition, (key, objects) -> {
+            List<BlobStorageObject> partitionObjects = objects == null ? new ArrayList<>() : objects;
+            partitionObjects.add(new BlobStorageObject(objectName, metadata.getSize()));
+            return partitionObjects;
+        });
+    }
+
+    @Override
+    public void run() {
+        Instant closedBefore = clock.instant().minusMillis(delayMillis);
+        completeExpiredMarkers(closedBefore);
+        for (Path partition : new ArrayList<>(uploadedObjects.keySet())) {
+            Optional<Instant> partitionEndTime = partitionPathTemplate.getPartitionEndTime(partition);
+            if (partitionEndTime.isPresent() && partitionEndTime.get().isAfter(closedBefore)) {
+                continue;
+            }
+            List<BlobStorageObject> objects = uploadedObjects.remove(partition);
+            if (partitionEndTime.isPresent()) {
+                compact(objects);
+            }
+        }
+    }
+
+    /**
+     * Merge the objects of a partition in groups of at most the target size, in the order they were uploaded.
+     */
+    private void compact(List<BlobStorageObject> objects) {
+        List<BlobStorageObject> group = new ArrayList<>();
+        long groupSize = 0;
+        for (BlobStorageObject object : objects) {
+            if (!group.isEmpty() && groupSize + object.getSize() > targetFileSizeBytes) {
+                compactGroup(group);
+                group = new ArrayList<>();
+                groupSize = 0;
+            }
+            group.add(object);
+            groupSize += object.getSize();
+        }
+        compactGroup(group);
+    }
+
+    private void compactGroup(List<BlobStorageObject> objects) {
+        if (objects.size() < 2) {
+            return;
+        }
+        Instant start = clock.instant();
+        Path directory = workDirectory.resolve(UUID.randomUUID().toString());
+        try {
+            Files.createDirectories(directory);
+            Map<Path, BlobStorageObject> files = new LinkedHashMap<>();
+            for (BlobStorageObject object : objects) {
+                Path file = directory.resolve(String.valueOf(files.size()));
+                blobStorage.read(object.getName(), file.toString());
+                files.put(file, object);
+            }
+            for (List<Path> mergeable : ParquetFileMerger.groupMergeable(files.keySet())) {
+                if (mergeable.size() < 2) {
+                    continue;
+                }
+                Path mergedFile = directory.resolve(UUID.randomUUID().toString());
+                ParquetFileMerger.merge(mergeable, mergedFile, rowGroupSize);
+                List<String> replaced = mergeable.stream().map(file -> files.get(file).getName()).collect(Collectors.toList());
+                String mergedObjectName = Paths.get(replaced.get(0)).resolveSibling(mergedFile.getFileName()).toString();
+                commit(mergedObjectName, mergedFile, replaced);
+                captureCompactionSuccessMetric(replaced.size(), Files.size(mergedFile), start);
+            }
+        } catch (BlobStorageException e) {
+            captureCompactionFailedMetric(e, e.getErrorType());
+        } catch (IOException | RuntimeException e) {
+            captureCompactionFailedMetric(e, EMPTY);
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    private void commit(String mergedObjectName, Path mergedFile, List<String> replaced) throws BlobStorageException {
+        String marker = MARKER_PREFIX + clock.millis() + "-" + UUID.randomUUID();
+        List<String> markerLines = new ArrayList<>();
+        markerLines.add(mergedObjectName);
+        markerLines.addAll(replaced);
+        blobStorage.store(marker, String.join("\n", markerLines).getBytes(StandardCharsets.UTF_8));
+        blobStorage.store(mergedObjectName, mergedFile.toString());
+        for (String objectName : replaced) {
+            blobStorage.delete(objectName);
+        }
+        blobStorage.delete(marker);
+        firehoseInstrumentation.logInfo("Compacted {} objects into {}", replaced.size(), mergedObjectName);
+    }
+
+    /**
+     * Complete the merges whose markers are older than the delay, the merges which were still running having failed by then.
+     */
+    private void completeExpiredMarkers(Instant expiredBefore) {
+        Path markerFile = workDirectory.resolve(UUID.randomUUID().toString());
+        try {
+            for (BlobStorageObject marker : blobStorage.list(MARKER_PREFIX)) {
+                Matcher markerName = MARKER_NAME.matcher(marker.getName());
+                if (!markerName.matches() || !Instant.ofEpochMilli(Long.parseLong(markerName.group(1))).isBefore(expiredBefore)) {
+                    continue;
+                }
+                Files.createDirectories(workDirectory);
+                blobStorage.read(marker.getName(), markerFile.toString());
+                List<String> markerLines = Files.readAllLines(markerFile, StandardCharsets.UTF_8);
+                String mergedObjectName = markerLines.get(0);
+                boolean merged = blobStorage.list(mergedObjectName).stream().anyMatch(object -> object.getName().equals(mergedObjectName));
+                if (merged) {
+                    for (String objectName : markerLines.subList(1, markerLines.size())) {
+                        blobStorage.delete(objectName);
+                    }
+                }
+                blobStorage.delete(marker.getName());
+                firehoseInstrumentation.logInfo("Completed compaction marker {}, merged object {}", marker.getName(), merged ? "stored" : "missing");
+            }
+        } catch (BlobStorageException e) {
+            captureCompactionFailedMetric(e, e.getErrorType());
+        } catch (IOException | RuntimeException e) {
+            captureCompactionFailedMetric(e, EMPTY);
+        } finally {
+            deleteDirectory(markerFile);
+        }
+    }
+
+    private void deleteDirectory(Path directory) {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        } catch (IOException e) {
+            firehoseInstrumentation.logWarn("Failed to delete compaction files {}", directory);
+        }
+    }
+
+    private void captureCompactionSuccessMetric(int fileCount, long size, Instant start) {
+        firehoseInstrumentation.incrementCounter(COMPACTION_TOTAL, SUCCESS_TAG);
+        firehoseInstrumentation.captureCount(COMPACTION_FILES_TOTAL, (long) fileCount);
+        firehoseInstrumentation.captureCount(COMPACTION_BYTES, size);
+        firehoseInstrumentation.captureDuration(COMPACTION_TIME_MILLISECONDS, Duration.between(start, clock.instant()).toMillis());
+    }
+
+    private void captureCompactionFailedMetric(Exception e, String errorType) {
+        firehoseInstrumentation.logError("Failed to compact blob storage files {}", e.getMessage());
+        firehoseInstrumentation.incrementCounter(COMPACTION_TOTAL, FAILURE_TAG, tag(BLOB_STORAGE_ERROR_TYPE_TAG, errorType));
+    }
+}
@@ -22,8 +22,14 @@ public class BlobStorageWorker implements Callable<Long> {
     @Override
     public Long call() throws BlobStorageException {
         Instant start = Instant.now();
-        String objectName = Paths.get(metadata.getBasePath()).relativize(Paths.get(metadata.getFullPath())).toString();
-        blobStorage.store(objectName, metadata.getFullPath());
+        blobStorage.store(getObjectName(metadata), metadata.getFullPath());
         return Duration.between(start, Instant.now()).toMillis();
     }
+
+    /**
+     * The object name of a local file is its path relative to the local directory.
+     */
+    static String getObjectName(LocalFileMetadata metadata) {
+        return Paths.get(metadata.getBasePath()).relativize(Paths.get(metadata.getFullPath())).toString();
+    }
 }
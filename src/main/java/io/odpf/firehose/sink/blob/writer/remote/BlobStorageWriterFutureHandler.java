@@ -20,6 +20,7 @@ public class BlobStorageWriterFutureHandler {
     private LocalFileMetadata localFileMetadata;
     private FirehoseInstrumentation firehoseInstrumentation;
     private static final String EMPTY = "";
+    private static final long MILLIS_PER_SECOND = 1000;
 
     public String getFullPath() {
         return localFileMetadata.getFullPath();
@@ -48,6 +49,8 @@ public class BlobStorageWriterFutureHandler {
         firehoseInstrumentation.captureCount(FILE_UPLOAD_BYTES, localFileMetadata.getSize());
         firehoseInstrumentation.captureCount(FILE_UPLOAD_RECORDS_TOTAL, localFileMetadata.getRecordCount());
         firehoseInstrumentation.captureDuration(FILE_UPLOAD_TIME_MILLISECONDS, totalTime);
+        firehoseInstrumentation.captureHistogram(FILE_UPLOAD_THROUGHPUT_BYTES_PER_SECOND,
+                localFileMetadata.getSize() * MILLIS_PER_SECOND / Math.max(totalTime, 1));
     }
 
     private void captureUploadFailedMetric(Throwable e) {
@@ -0,0 +1,60 @@
+package io.odpf.firehose.sink.blob.writer.remote;
+
+import io.odpf.firehose.sink.blob.writer.local.LocalStorage;
+import io.odpf.firehose.sink.blob.writer.local.buffer.MemoryOutputFile;
+import io.odpf.firehose.sink.common.blobstorage.BlobStorage;
+import io.odpf.firehose.sink.common.blobstorage.BlobStorageException;
+import io.odpf.firehose.sink.common.blobstorage.BlobStorageObject;
+import lombok.AllArgsConstructor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Uploads the local files of the sink, streaming files buffered in memory straight from their buffers.
+ */
+@AllArgsConstructor
+public class LocalFileBlobStorage implements BlobStorage {
+    private final BlobStorage blobStorage;
+    private final LocalStorage localStorage;
+
+    @Override
+    public void store(String objectName, String filePath) throws BlobStorageException {
+        MemoryOutputFile memoryOutputFile = localStorage.getMemoryOutputFile(filePath);
+        if (memoryOutputFile == null || memoryOutputFile.isSpilled()) {
+            blobStorage.store(objectName, filePath);
+            return;
+        }
+        try (InputStream content = memoryOutputFile.openInputStream()) {
+            blobStorage.store(objectName, content, memoryOutputFile.getSize());
+        } catch (IOException e) {
+            throw new BlobStorageException("file_io_error", "File Read failed", e);
+        }
+    }
+
+    @Override
+    public void store(String objectName, byte[] content) throws BlobStorageException {
+        blobStorage.store(objectName, content);
+    }
+
+    @Override
+    public void store(String objectName, InputStream content, long contentLength) throws BlobStorageException {
+        blobStorage.store(objectName, content, contentLength);
+    }
+
+    @Override
+    public List<BlobStorageObject> list(String prefix) throws BlobStorageException {
+        return blobStorage.list(prefix);
+    }
+
+    @Override
+    public void read(String objectName, String filePath) throws BlobStorageException {
+        blobStorage.read(objectName, filePath);
+    }
+
+    @Override
+    public void delete(String objectName) throws BlobStorageException {
+        blobStorage.delete(objectName);
+    }
+}
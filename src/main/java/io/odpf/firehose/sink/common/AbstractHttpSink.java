@@ -1,10 +1,13 @@
 package io.odpf.firehose.sink.common;
 
 
+import io.odpf.firehose.exception.CircuitBreakerOpenException;
 import io.odpf.firehose.message.Message;
 import io.odpf.firehose.exception.NeedToRetry;
 import io.odpf.firehose.metrics.FirehoseInstrumentation;
 import io.odpf.firehose.sink.AbstractSink;
+import io.odpf.firehose.sink.common.resilience.CircuitBreaker;
+import io.odpf.firehose.sink.common.resilience.HedgedExecutor;
 import io.odpf.stencil.client.StencilClient;
 import joptsimple.internal.Strings;
 import org.apache.http.HttpResponse;
@@ -33,14 +36,29 @@ public abstract class AbstractHttpSink extends AbstractSink {
     private final StencilClient stencilClient;
     private final Map<Integer, Boolean> retryStatusCodeRanges;
     private final Map<Integer, Boolean> requestLogStatusCodeRanges;
+    private final CircuitBreaker circuitBreaker;
+    private final HedgedExecutor hedgedExecutor;
     protected static final String SUCCESS_CODE_PATTERN = "^2.*";
 
     public AbstractHttpSink(FirehoseInstrumentation firehoseInstrumentation, String sinkType, HttpClient httpClient, StencilClient stencilClient, Map<Integer, Boolean> retryStatusCodeRanges, Map<Integer, Boolean> requestLogStatusCodeRanges) {
+        this(firehoseInstrumentation, sinkType, httpClient, stencilClient, retryStatusCodeRanges, requestLogStatusCodeRanges, null, null);
+    }
+
+    /**
+     * Instantiates a new Abstract http sink guarded by a circuit breaker and/or hedging.
+     *
+     * @param circuitBreaker the circuit breaker, null to disable
+     * @param hedgedExecutor the hedged executor, null to disable; only set for idempotent requests
+     */
+    public AbstractHttpSink(FirehoseInstrumentation firehoseInstrumentation, String sinkType, HttpClient httpClient, StencilClient stencilClient, Map<Integer, Boolean> retryStatusCodeRanges, Map<Integer, Boolean> requestLogStatusCodeRanges,
+                            CircuitBreaker circuitBreaker, HedgedExecutor hedgedExecutor) {
         super(firehoseInstrumentation, sinkType);
         this.httpClient = httpClient;
         this.stencilClient = stencilClient;
         this.retryStatusCodeRanges = retryStatusCodeRanges;
         this.requestLogStatusCodeRanges = requestLogStatusCodeRanges;
+        this.circuitBreaker = circuitBreaker;
+        this.hedgedExecutor = hedgedExecutor;
     }
 
     @Override
@@ -48,7 +66,7 @@ public abstract class AbstractHttpSink extends AbstractSink {
         HttpResponse response = null;
         for (HttpEntityEnclosingRequestBase httpRequest : httpRequests) {
             try {
-                response = httpClient.execute(httpRequest);
+                response = executeRequest(httpRequest);
                 List<String> contentStringList = null;
                 getFirehoseInstrumentation().logInfo("Response Status: {}", statusCode(response));
                 if (shouldLogResponse(response)) {
@@ -77,6 +95,28 @@ public abstract class AbstractHttpSink extends AbstractSink {
         getFirehoseInstrumentation().logInfo("HTTP connection closing");
         getHttpRequests().clear();
         getStencilClient().close();
+        if (hedgedExecutor != null) {
+            hedgedExecutor.close();
+        }
+    }
+
+    private HttpResponse executeRequest(HttpEntityEnclosingRequestBase httpRequest) throws IOException {
+        if (circuitBreaker != null && !circuitBreaker.tryAcquirePermission()) {
+            throw new CircuitBreakerOpenException("Circuit breaker is open, skipping request to " + httpRequest.getURI());
+        }
+        HttpResponse response = null;
+        try {
+            if (hedgedExecutor == null) {
+                response = httpClient.execute(httpRequest);
+            } else {
+                response = hedgedExecutor.execute(() -> httpClient.execute((HttpEntityEnclosingRequestBase) httpRequest.clone()), this::consumeResponse);
+            }
+            return response;
+        } finally {
+            if (circuitBreaker != null) {
+                circuitBreaker.record(response != null && !shouldRetry(response));
+            }
+        }
     }
 
 
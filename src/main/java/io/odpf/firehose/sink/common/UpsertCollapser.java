@@ -0,0 +1,70 @@
+package io.odpf.firehose.sink.common;
+
+import io.odpf.firehose.metrics.FirehoseInstrumentation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static io.odpf.firehose.metrics.Metrics.SINK_MESSAGES_COLLAPSED_TOTAL;
+
+/**
+ * Collapses the writes of a batch to the last write per key, for sinks whose keyed writes replace the whole record.
+ * Earlier writes to the same key would be overwritten within the same batch, so they are not sent at all.
+ */
+public class UpsertCollapser {
+
+    private final FirehoseInstrumentation firehoseInstrumentation;
+
+    public UpsertCollapser(FirehoseInstrumentation firehoseInstrumentation) {
+        this.firehoseInstrumentation = firehoseInstrumentation;
+    }
+
+    /**
+     * Returns the positions of the writes to keep, in batch order.
+     * Writes without a key are always kept.
+     *
+     * @param writes the writes of the batch, in order
+     * @param keyOf  the key of a write, or null if it is not keyed
+     * @param <T>    the type of the writes
+     * @return the positions of the last write of every key and of every write without a key
+     */
+    public <T> List<Integer> lastIndexPerKey(List<T> writes, Function<T, Object> keyOf) {
+        Object[] keys = new Object[writes.size()];
+        Map<Object, Integer> lastIndexOfKey = new HashMap<>();
+        for (int i = 0; i < writes.size(); i++) {
+            keys[i] = keyOf.apply(writes.get(i));
+            if (keys[i] != null) {
+                lastIndexOfKey.put(keys[i], i);
+            }
+        }
+        List<Integer> kept = new ArrayList<>(lastIndexOfKey.size());
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == null || lastIndexOfKey.get(keys[i]) == i) {
+                kept.add(i);
+            }
+        }
+        int collapsed = writes.size() - kept.size();
+        if (collapsed > 0) {
+            firehoseInstrumentation.logDebug("Collapsed {} writes to keys written again later in the batch", collapsed);
+            firehoseInstrumentation.captureCount(SINK_MESSAGES_COLLAPSED_TOTAL, (long) collapsed);
+        }
+        return kept;
+    }
+
+    /**
+     * Returns the items at the given positions.
+     *
+     * @param items     the items
+     * @param positions the positions to select
+     * @param <T>       the type of the items
+     * @return the selected items, in the order of the positions
+     */
+    public static <T> List<T> select(List<T> items, List<Integer> positions) {
+        List<T> selected = new ArrayList<>(positions.size());
+        positions.forEach(i -> selected.add(items.get(i)));
+        return selected;
+    }
+}
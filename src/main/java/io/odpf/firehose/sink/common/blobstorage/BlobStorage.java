@@ -1,5 +1,8 @@
 package io.odpf.firehose.sink.common.blobstorage;
 
+import java.io.InputStream;
+import java.util.List;
+
 /**
  * Abstraction of any storage that store binary bytes as file.
  */
@@ -7,4 +10,21 @@ public interface BlobStorage {
     void store(String objectName, String filePath) throws BlobStorageException;
 
     void store(String objectName, byte[] content) throws BlobStorageException;
+
+    void store(String objectName, InputStream content, long contentLength) throws BlobStorageException;
+
+    /**
+     * List the objects whose names start with the prefix.
+     */
+    List<BlobStorageObject> list(String prefix) throws BlobStorageException;
+
+    /**
+     * Download the object to the local file, replacing the file if it exists.
+     */
+    void read(String objectName, String filePath) throws BlobStorageException;
+
+    /**
+     * Delete the object. Deleting an object which does not exist is not an error.
+     */
+    void delete(String objectName) throws BlobStorageException;
 }
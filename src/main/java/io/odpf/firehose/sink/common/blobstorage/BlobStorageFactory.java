@@ -1,8 +1,10 @@
 package io.odpf.firehose.sink.common.blobstorage;
 
 import io.odpf.firehose.config.GCSConfig;
+import io.odpf.firehose.config.LocalFileSystemStorageConfig;
 import io.odpf.firehose.config.S3Config;
 import io.odpf.firehose.sink.common.blobstorage.gcs.GoogleCloudStorage;
+import io.odpf.firehose.sink.common.blobstorage.local.LocalFileSystemStorage;
 import io.odpf.firehose.sink.common.blobstorage.s3.S3;
 import org.aeonbits.owner.ConfigFactory;
 
@@ -27,6 +29,13 @@ public class BlobStorageFactory {
                  } catch (Exception e) {
                     throw new IllegalArgumentException("Exception while creating S3 Storage", e);
                 }
+            case LOCAL:
+                try {
+                    LocalFileSystemStorageConfig localConfig = ConfigFactory.create(LocalFileSystemStorageConfig.class, config);
+                    return new LocalFileSystemStorage(localConfig);
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("Exception while creating Local Storage", e);
+                }
 
             default:
                 throw new IllegalArgumentException("Blob Storage Type " + storageType + " is not supported");
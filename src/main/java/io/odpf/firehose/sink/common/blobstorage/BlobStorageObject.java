@@ -0,0 +1,18 @@
+package io.odpf.firehose.sink.common.blobstorage;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * An object listed from a blob storage.
+ */
+@AllArgsConstructor
+@Getter
+@EqualsAndHashCode
+@ToString
+public class BlobStorageObject {
+    private final String name;
+    private final long size;
+}
@@ -2,5 +2,6 @@ package io.odpf.firehose.sink.common.blobstorage;
 
 public enum BlobStorageType {
     GCS,
-    S3
+    S3,
+    LOCAL
 }
@@ -1,7 +1,10 @@
 package io.odpf.firehose.sink.common.blobstorage.gcs;
 
 import com.google.api.gax.retrying.RetrySettings;
+import com.google.cloud.ReadChannel;
+import com.google.cloud.WriteChannel;
 import com.google.auth.oauth2.GoogleCredentials;
+import com.google.cloud.storage.Blob;
 import com.google.cloud.storage.BlobId;
 import com.google.cloud.storage.BlobInfo;
 import com.google.cloud.storage.Bucket;
@@ -10,6 +13,7 @@ import com.google.cloud.storage.StorageException;
 import com.google.cloud.storage.StorageOptions;
 import io.odpf.firehose.sink.common.blobstorage.BlobStorage;
 import io.odpf.firehose.sink.common.blobstorage.BlobStorageException;
+import io.odpf.firehose.sink.common.blobstorage.BlobStorageObject;
 import io.odpf.firehose.config.GCSConfig;
 import io.odpf.firehose.sink.common.blobstorage.gcs.error.GCSErrorType;
 import org.slf4j.Logger;
@@ -19,9 +23,16 @@ import org.threeten.bp.Duration;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 public class GoogleCloudStorage implements BlobStorage {
     private static final Logger LOGGER = LoggerFactory.getLogger(GoogleCloudStorage.class);
@@ -82,17 +93,55 @@ public class GoogleCloudStorage implements BlobStorage {
         }
     }
 
+    /**
+     * Streams the file to GCS through a resumable upload, one chunk at a time, so the heap used does not grow with the file size.
+     * Each chunk is retried by the client, resuming the upload from the last chunk GCS received.
+     */
     @Override
     public void store(String objectName, String filePath) throws BlobStorageException {
-        try {
-            byte[] content = Files.readAllBytes(Paths.get(filePath));
-            store(objectName, content);
+        try (FileChannel file = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            store(objectName, file);
         } catch (IOException e) {
             LOGGER.error("Failed to read local file {}", filePath);
             throw new BlobStorageException("file_io_error", "File Read failed", e);
         }
     }
 
+    @Override
+    public void store(String objectName, InputStream content, long contentLength) throws BlobStorageException {
+        try {
+            store(objectName, Channels.newChannel(content));
+        } catch (IOException e) {
+            LOGGER.error("Failed to read content of {}", objectName);
+            throw new BlobStorageException("file_io_error", "File Read failed", e);
+        }
+    }
+
+    private void store(String objectName, ReadableByteChannel content) throws BlobStorageException, IOException {
+        BlobInfo blobInfo = BlobInfo.newBuilder(BlobId.of(gcsConfig.getGCSBucketName(), objectName)).build();
+        String blobPath = String.join(File.separator, blobInfo.getBucket(), blobInfo.getName());
+        try {
+            int chunkSize = gcsConfig.getGCSUploadChunkSizeBytes();
+            WriteChannel writer = storage.writer(blobInfo, Storage.BlobWriteOption.userProject(gcsConfig.getGCloudProjectID()));
+            writer.setChunkSize(chunkSize);
+            ByteBuffer buffer = ByteBuffer.allocate(chunkSize);
+            while (content.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    writer.write(buffer);
+                }
+                buffer.clear();
+            }
+            // closing finalizes the object, so the writer is left open when the upload fails to not create a truncated object
+            writer.close();
+            LOGGER.info("Created object in GCS {}", blobPath);
+        } catch (StorageException e) {
+            LOGGER.error("Failed to create object in GCS {}", blobPath);
+            String gcsErrorType = GCSErrorType.valueOfCode(e.getCode()).name();
+            throw new BlobStorageException(gcsErrorType, "GCS Upload failed", e);
+        }
+    }
+
     @Override
     public void store(String objectName, byte[] content) throws BlobStorageException {
         BlobInfo blobInfo = BlobInfo.newBuilder(BlobId.of(gcsConfig.getGCSBucketName(), objectName)).build();
@@ -106,4 +155,63 @@ public class GoogleCloudStorage implements BlobStorage {
             throw new BlobStorageException(gcsErrorType, "GCS Upload failed", e);
         }
     }
+
+    @Override
+    public List<BlobStorageObject> list(String prefix) throws BlobStorageException {
+        try {
+            List<BlobStorageObject> objects = new ArrayList<>();
+            for (Blob blob : storage.list(gcsConfig.getGCSBucketName(),
+                    Storage.BlobListOption.prefix(prefix),
+                    Storage.BlobListOption.userProject(gcsConfig.getGCloudProjectID())).iterateAll()) {
+                objects.add(new BlobStorageObject(blob.getName(), blob.getSize()));
+            }
+            return objects;
+        } catch (StorageException e) {
+            LOGGER.error("Failed to list objects in GCS {}", String.join(File.separator, gcsConfig.getGCSBucketName(), prefix));
+            String gcsErrorType = GCSErrorType.valueOfCode(e.getCode()).name();
+            throw new BlobStorageException(gcsErrorType, "GCS List failed", e);
+        }
+    }
+
+    /**
+     * Streams the object to the file one chunk at a time, each chunk being retried by the client.
+     */
+    @Override
+    public void read(String objectName, String filePath) throws BlobStorageException {
+        BlobId blobId = BlobId.of(gcsConfig.getGCSBucketName(), objectName);
+        String blobPath = String.join(File.separator, blobId.getBucket(), blobId.getName());
+        try (ReadChannel reader = storage.reader(blobId, Storage.BlobSourceOption.userProject(gcsConfig.getGCloudProjectID()));
+             FileChannel file = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(gcsConfig.getGCSUploadChunkSizeBytes());
+            while (reader.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    file.write(buffer);
+                }
+                buffer.clear();
+            }
+            LOGGER.info("Read object from GCS {}", blobPath);
+        } catch (StorageException e) {
+            LOGGER.error("Failed to read object from GCS {}", blobPath);
+            String gcsErrorType = GCSErrorType.valueOfCode(e.getCode()).name();
+            throw new BlobStorageException(gcsErrorType, "GCS Download failed", e);
+        } catch (IOException e) {
+            LOGGER.error("Failed to write local file {}", filePath);
+            throw new BlobStorageException("file_io_error", "File Write failed", e);
+        }
+    }
+
+    @Override
+    public void delete(String objectName) throws BlobStorageException {
+        BlobId blobId = BlobId.of(gcsConfig.getGCSBucketName(), objectName);
+        String blobPath = String.join(File.separator, blobId.getBucket(), blobId.getName());
+        try {
+            storage.delete(blobId, Storage.BlobSourceOption.userProject(gcsConfig.getGCloudProjectID()));
+            LOGGER.info("Deleted object in GCS {}", blobPath);
+        } catch (StorageException e) {
+            LOGGER.error("Failed to delete object in GCS {}", blobPath);
+            String gcsErrorType = GCSErrorType.valueOfCode(e.getCode()).name();
+            throw new BlobStorageException(gcsErrorType, "GCS Delete failed", e);
+        }
+    }
 }
@@ -0,0 +1,215 @@
+package io.odpf.firehose.sink.common.blobstorage.local;
+
+import io.odpf.firehose.config.LocalFileSystemStorageConfig;
+import io.odpf.firehose.sink.common.blobstorage.BlobStorage;
+import io.odpf.firehose.sink.common.blobstorage.BlobStorageException;
+import io.odpf.firehose.sink.common.blobstorage.BlobStorageObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Stores objects as files under a directory of a local or mounted file system, named by the object names.
+ * <p>
+ * A local file is hard linked into the directory, so nothing is copied when both are on the same file system,
+ * and it is copied otherwise. Objects are written under a hidden temporary name next to the target and renamed to it,
+ * so readers of the directory only see complete objects.
+ */
+public class LocalFileSystemStorage implements BlobStorage {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalFileSystemStorage.class);
+    private static final String TEMPORARY_PREFIX = ".";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private final Path directory;
+    private final FsyncType fsyncType;
+
+    public LocalFileSystemStorage(LocalFileSystemStorageConfig config) throws IOException {
+        this(Paths.get(config.getLocalStorageDirectory()), config.getLocalStorageFsyncType());
+        Files.createDirectories(directory);
+    }
+
+    public LocalFileSystemStorage(Path directory, FsyncType fsyncType) {
+        this.directory = directory.toAbsolutePath().normalize();
+        this.fsyncType = fsyncType;
+    }
+
+    @Override
+    public void store(String objectName, String filePath) throws BlobStorageException {
+        Path target = resolve(objectName);
+        Path temporary = null;
+        try {
+            temporary = createTemporaryPath(target);
+            try {
+                Files.createLink(temporary, Paths.get(filePath));
+            } catch (UnsupportedOperationException | FileSystemException e) {
+                Files.copy(Paths.get(filePath), temporary);
+            }
+            commit(temporary, target);
+            LOGGER.info("Created object in {}", target);
+        } catch (IOException e) {
+            LOGGER.error("Failed to create object in {}", target);
+            deleteTemporaryFile(temporary);
+            throw new BlobStorageException("file_io_error", "Local Storage Write failed", e);
+        }
+    }
+
+    @Override
+    public void store(String objectName, byte[] content) throws BlobStorageException {
+        Path target = resolve(objectName);
+        Path temporary = null;
+        try {
+            temporary = createTemporaryPath(target);
+            Files.write(temporary, content, StandardOpenOption.CREATE_NEW);
+            commit(temporary, target);
+            LOGGER.info("Created object in {}", target);
+        } catch (IOException e) {
+            LOGGER.error("Failed to create object in {}", target);
+            deleteTemporaryFile(temporary);
+            throw new BlobStorageException("file_io_error", "Local Storage Write failed", e);
+        }
+    }
+
+    @Override
+    public void store(String objectName, InputStream content, long contentLength) throws BlobStorageException {
+        Path target = resolve(objectName);
+        Path temporary = null;
+        try {
+            temporary = createTemporaryPath(target);
+            Files.copy(content, temporary);
+            commit(temporary, target);
+            LOGGER.info("Created object in {}", target);
+        } catch (IOException e) {
+            LOGGER.error("Failed to create object in {}", target);
+            deleteTemporaryFile(temporary);
+            throw new BlobStorageException("file_io_error", "Local Storage Write failed", e);
+        }
+    }
+
+    @Override
+    public List<BlobStorageObject> list(String prefix) throws BlobStorageException {
+        Path prefixDirectory = resolve(prefix.substring(0, prefix.lastIndexOf('/') + 1));
+        if (!Files.isDirectory(prefixDirectory)) {
+            return Collections.emptyList();
+        }
+        try (Stream<Path> files = Files.walk(prefixDirectory)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(file -> !isTemporaryFile(file))
+                    .map(file -> new BlobStorageObject(getObjectName(file), file.toFile().length()))
+                    .filter(object -> object.getName().startsWith(prefix))
+                    .sorted(Comparator.comparing(BlobStorageObject::getName))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            LOGGER.error("Failed to list objects in {}", prefixDirectory);
+            throw new BlobStorageException("file_io_error", "Local Storage List failed", e);
+        }
+    }
+
+    @Override
+    public void read(String objectName, String filePath) throws BlobStorageException {
+        Path source = resolve(objectName);
+        try {
+            Files.copy(source, Paths.get(filePath), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOGGER.error("Failed to read object from {}", source);
+            throw new BlobStorageException("file_io_error", "Local Storage Read failed", e);
+        }
+    }
+
+    @Override
+    public void delete(String objectName) throws BlobStorageException {
+        Path target = resolve(objectName);
+        try {
+            Files.deleteIfExists(target);
+            LOGGER.info("Deleted object in {}", target);
+        } catch (IOException e) {
+            LOGGER.error("Failed to delete object in {}", target);
+            throw new BlobStorageException("file_io_error", "Local Storage Delete failed", e);
+        }
+    }
+
+    private Path resolve(String objectName) throws BlobStorageException {
+        Path path = directory.resolve(objectName).normalize();
+        if (!path.startsWith(directory)) {
+            throw new BlobStorageException("invalid_object_name", "Object name " + objectName + " is outside of " + directory, null);
+        }
+        return path;
+    }
+
+    private String getObjectName(Path file) {
+        return directory.relativize(file).toString().replace(File.separatorChar, '/');
+    }
+
+    private Path createTemporaryPath(Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        return target.resolveSibling(TEMPORARY_PREFIX + target.getFileName() + "." + UUID.randomUUID() + TEMPORARY_SUFFIX);
+    }
+
+    private boolean isTemporaryFile(Path file) {
+        String fileName = file.getFileName().toString();
+        return fileName.startsWith(TEMPORARY_PREFIX) && fileName.endsWith(TEMPORARY_SUFFIX);
+    }
+
+    /**
+     * Rename the complete temporary file to the target, replacing the target, after syncing the file to the disk.
+     * The directory is synced after the rename, so the new name survives a crash of the host.
+     */
+    private void commit(Path temporary, Path target) throws IOException {
+        if (fsyncType != FsyncType.NONE) {
+            fsync(temporary);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        if (fsyncType == FsyncType.FILE_AND_DIRECTORY) {
+            fsync(target.getParent());
+        }
+    }
+
+    private void fsync(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private void deleteTemporaryFile(Path temporary) {
+        if (temporary == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temporary);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to delete temporary file {}", temporary);
+        }
+    }
+
+    /**
+     * What is synced to the disk before a stored object is reported as stored.
+     */
+    public enum FsyncType {
+        /**
+         * Nothing is synced, the operating system writes the objects to the disk later.
+         */
+        NONE,
+        /**
+         * The content of the objects is synced.
+         */
+        FILE,
+        /**
+         * The content of the objects and the directory entries naming them are synced.
+         */
+        FILE_AND_DIRECTORY
+    }
+}
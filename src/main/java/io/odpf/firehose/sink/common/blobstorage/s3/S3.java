@@ -1,9 +1,12 @@
 package io.odpf.firehose.sink.common.blobstorage.s3;
 
 
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.odpf.firehose.config.S3Config;
 import io.odpf.firehose.sink.common.blobstorage.BlobStorage;
 import io.odpf.firehose.sink.common.blobstorage.BlobStorageException;
+import io.odpf.firehose.sink.common.blobstorage.BlobStorageObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
@@ -14,20 +17,46 @@ import software.amazon.awssdk.core.retry.backoff.FullJitterBackoffStrategy;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.HeadBucketRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
 import software.amazon.awssdk.services.s3.model.NoSuchBucketException;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class S3 implements BlobStorage {
     private static final Logger LOGGER = LoggerFactory.getLogger(S3.class);
+    private static final String OCTET_STREAM = "application/octet-stream";
+    private static final long MIN_PART_SIZE_BYTES = 5 * 1024 * 1024;
     private final S3Client s3Client;
     private final S3Config s3Config;
+    private final ExecutorService partUploadExecutor;
 
     public S3(S3Config s3Config) {
         this(s3Config, S3Client.builder()
@@ -48,8 +77,18 @@ public class S3 implements BlobStorage {
     }
 
     public S3(S3Config s3Config, S3Client s3Client) {
+        this(s3Config, s3Client, Executors.newFixedThreadPool(s3Config.getS3MultipartUploadConcurrency(),
+                new ThreadFactoryBuilder().setNameFormat("s3-part-upload-%d").setDaemon(true).build()));
+    }
+
+    public S3(S3Config s3Config, S3Client s3Client, ExecutorService partUploadExecutor) {
+        if (s3Config.getS3MultipartPartSizeBytes() < MIN_PART_SIZE_BYTES) {
+            throw new IllegalArgumentException("S3 multipart part size must be at least " + MIN_PART_SIZE_BYTES + " bytes, got "
+                    + s3Config.getS3MultipartPartSizeBytes());
+        }
         this.s3Client = s3Client;
         this.s3Config = s3Config;
+        this.partUploadExecutor = partUploadExecutor;
     }
 
     private void checkBucket() {
@@ -70,29 +109,206 @@ public class S3 implements BlobStorage {
         }
     }
 
+    /**
+     * Streams the file to S3. Files larger than the part size are uploaded in parts read straight from the file,
+     * several parts at a time, so the heap used does not grow with the file size.
+     * Each part is a separate request retried by the client, so a failed part is sent again on its own.
+     */
     @Override
     public void store(String objectName, String filePath) throws BlobStorageException {
+        Path path = Paths.get(filePath);
+        long size;
         try {
-            byte[] content = Files.readAllBytes(Paths.get(filePath));
-            store(objectName, content);
+            size = Files.size(path);
         } catch (IOException e) {
             LOGGER.error("Failed to read local file {}", filePath);
             throw new BlobStorageException("file_io_error", "File Read failed", e);
         }
+        long partSize = s3Config.getS3MultipartPartSizeBytes();
+        if (size <= partSize) {
+            putObject(objectName, RequestBody.fromFile(path));
+            return;
+        }
+        storeInParts(objectName, path, size, partSize);
     }
 
     @Override
     public void store(String objectName, byte[] content) throws BlobStorageException {
+        putObject(objectName, RequestBody.fromBytes(content));
+    }
+
+    /**
+     * Streams the content to S3 in a single request. The content is reset and sent again when the request is retried,
+     * so it should support {@link InputStream#mark(int)} for retries of contents larger than the read limit of the client.
+     */
+    @Override
+    public void store(String objectName, InputStream content, long contentLength) throws BlobStorageException {
+        putObject(objectName, RequestBody.fromInputStream(content, contentLength));
+    }
+
+    private void putObject(String objectName, RequestBody requestBody) throws BlobStorageException {
         try {
             PutObjectRequest putObject = PutObjectRequest.builder()
                     .bucket(s3Config.getS3BucketName())
                     .key(objectName)
                     .build();
-            s3Client.putObject(putObject, RequestBody.fromBytes(content));
+            s3Client.putObject(putObject, requestBody);
             LOGGER.info("Created object in S3 {}", objectName);
         } catch (SdkServiceException | SdkClientException ase) {
             LOGGER.error("Failed to create object in S3 {}", objectName);
             throw new BlobStorageException(ase.getMessage(), ase.getMessage(), ase);
+        } catch (UncheckedIOException e) {
+            LOGGER.error("Failed to read local file for {}", objectName);
+            throw new BlobStorageException("file_io_error", "File Read failed", e);
+        }
+    }
+
+    @Override
+    public List<BlobStorageObject> list(String prefix) throws BlobStorageException {
+        try {
+            List<BlobStorageObject> objects = new ArrayList<>();
+            String continuationToken = null;
+            do {
+                ListObjectsV2Response response = s3Client.listObjectsV2(ListObjectsV2Request.builder()
+                        .bucket(s3Config.getS3BucketName())
+                        .prefix(prefix)
+                        .continuationToken(continuationToken)
+                        .build());
+                for (S3Object object : response.contents()) {
+                    objects.add(new BlobStorageObject(object.key(), object.size()));
+                }
+                continuationToken = response.nextContinuationToken();
+            } while (continuationToken != null);
+            return objects;
+        } catch (SdkServiceException | SdkClientException ase) {
+            LOGGER.error("Failed to list objects in S3 {}", prefix);
+            throw new BlobStorageException(ase.getMessage(), ase.getMessage(), ase);
+        }
+    }
+
+    /**
+     * Streams the object to the file, the client writing the file again when the request is retried.
+     */
+    @Override
+    public void read(String objectName, String filePath) throws BlobStorageException {
+        Path path = Paths.get(filePath);
+        try {
+            Files.deleteIfExists(path);
+            s3Client.getObject(GetObjectRequest.builder()
+                    .bucket(s3Config.getS3BucketName())
+                    .key(objectName)
+                    .build(), path);
+            LOGGER.info("Read object from S3 {}", objectName);
+        } catch (SdkServiceException | SdkClientException ase) {
+            LOGGER.error("Failed to read object from S3 {}", objectName);
+            throw new BlobStorageException(ase.getMessage(), ase.getMessage(), ase);
+        } catch (IOException e) {
+            LOGGER.error("Failed to write local file {}", filePath);
+            throw new BlobStorageException("file_io_error", "File Write failed", e);
+        }
+    }
+
+    @Override
+    public void delete(String objectName) throws BlobStorageException {
+        try {
+            s3Client.deleteObject(DeleteObjectRequest.builder()
+                    .bucket(s3Config.getS3BucketName())
+                    .key(objectName)
+                    .build());
+            LOGGER.info("Deleted object in S3 {}", objectName);
+        } catch (SdkServiceException | SdkClientException ase) {
+            LOGGER.error("Failed to delete object in S3 {}", objectName);
+            throw new BlobStorageException(ase.getMessage(), ase.getMessage(), ase);
+        }
+    }
+
+    private void storeInParts(String objectName, Path path, long size, long partSize) throws BlobStorageException {
+        String uploadId;
+        try {
+            uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                    .bucket(s3Config.getS3BucketName())
+                    .key(objectName)
+                    .build()).uploadId();
+        } catch (SdkServiceException | SdkClientException ase) {
+            LOGGER.error("Failed to start multipart upload to S3 {}", objectName);
+            throw new BlobStorageException(ase.getMessage(), ase.getMessage(), ase);
+        }
+        List<Future<CompletedPart>> partUploads = new ArrayList<>();
+        try {
+            for (long offset = 0; offset < size; offset += partSize) {
+                int partNumber = partUploads.size() + 1;
+                long partOffset = offset;
+                long partLength = Math.min(partSize, size - offset);
+                partUploads.add(partUploadExecutor.submit(() -> uploadPart(objectName, uploadId, partNumber, path, partOffset, partLength)));
+            }
+            List<CompletedPart> parts = new ArrayList<>();
+            for (Future<CompletedPart> partUpload : partUploads) {
+                parts.add(partUpload.get());
+            }
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(s3Config.getS3BucketName())
+                    .key(objectName)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build());
+            LOGGER.info("Created object in S3 {} from {} parts", objectName, parts.size());
+        } catch (SdkServiceException | SdkClientException ase) {
+            abort(objectName, uploadId, partUploads);
+            throw new BlobStorageException(ase.getMessage(), ase.getMessage(), ase);
+        } catch (ExecutionException e) {
+            abort(objectName, uploadId, partUploads);
+            Throwable cause = e.getCause();
+            if (cause instanceof SdkServiceException || cause instanceof SdkClientException) {
+                throw new BlobStorageException(cause.getMessage(), cause.getMessage(), cause);
+            }
+            if (cause instanceof UncheckedIOException) {
+                throw new BlobStorageException("file_io_error", "File Read failed", cause);
+            }
+            throw new BlobStorageException("s3_part_upload_error", "S3 part upload failed", cause);
+        } catch (InterruptedException e) {
+            abort(objectName, uploadId, partUploads);
+            Thread.currentThread().interrupt();
+            throw new BlobStorageException("interrupted", "S3 upload interrupted", e);
+        }
+    }
+
+    private CompletedPart uploadPart(String objectName, String uploadId, int partNumber, Path path, long offset, long length) {
+        UploadPartRequest uploadPartRequest = UploadPartRequest.builder()
+                .bucket(s3Config.getS3BucketName())
+                .key(objectName)
+                .uploadId(uploadId)
+                .partNumber(partNumber)
+                .contentLength(length)
+                .build();
+        String eTag = s3Client.uploadPart(uploadPartRequest,
+                RequestBody.fromContentProvider(() -> openFileRegion(path, offset, length), length, OCTET_STREAM)).eTag();
+        return CompletedPart.builder().partNumber(partNumber).eTag(eTag).build();
+    }
+
+    /**
+     * Opens a stream of a region of the file, called again by the client for every retry of the request.
+     */
+    private static InputStream openFileRegion(Path path, long offset, long length) {
+        try {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            channel.position(offset);
+            return ByteStreams.limit(Channels.newInputStream(channel), length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void abort(String objectName, String uploadId, List<Future<CompletedPart>> partUploads) {
+        LOGGER.error("Failed to create object in S3 {}, aborting multipart upload {}", objectName, uploadId);
+        partUploads.forEach(partUpload -> partUpload.cancel(true));
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(s3Config.getS3BucketName())
+                    .key(objectName)
+                    .uploadId(uploadId)
+                    .build());
+        } catch (SdkServiceException | SdkClientException ase) {
+            LOGGER.warn("Failed to abort multipart upload {} of {}", uploadId, objectName, ase);
         }
     }
 }
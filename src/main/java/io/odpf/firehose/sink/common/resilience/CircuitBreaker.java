@@ -0,0 +1,131 @@
+package io.odpf.firehose.sink.common.resilience;
+
+import io.odpf.firehose.metrics.FirehoseInstrumentation;
+
+import java.time.Clock;
+
+import static io.odpf.firehose.metrics.Metrics.SINK_CIRCUIT_BREAKER_TRANSITION_TOTAL;
+
+/**
+ * Count based circuit breaker guarding calls to a downstream service.
+ * <p>
+ * The breaker opens once the failure rate over the last {@code slidingWindowSize} calls
+ * reaches {@code failureRateThreshold} percent. While open every call is rejected until
+ * {@code openDurationMs} has elapsed, after which {@code halfOpenPermittedCalls} probes are
+ * let through. The breaker closes if all probes succeed and opens again on the first failed probe.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private static final int PERCENT = 100;
+
+    private final FirehoseInstrumentation firehoseInstrumentation;
+    private final int failureRateThreshold;
+    private final int slidingWindowSize;
+    private final long openDurationMs;
+    private final int halfOpenPermittedCalls;
+    private final Clock clock;
+    private final boolean[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+    private State state = State.CLOSED;
+    private long openedAtMs;
+    private int halfOpenCalls;
+    private int halfOpenSuccesses;
+
+    public CircuitBreaker(FirehoseInstrumentation firehoseInstrumentation, int failureRateThreshold, int slidingWindowSize, long openDurationMs, int halfOpenPermittedCalls) {
+        this(firehoseInstrumentation, failureRateThreshold, slidingWindowSize, openDurationMs, halfOpenPermittedCalls, Clock.systemUTC());
+    }
+
+    public CircuitBreaker(FirehoseInstrumentation firehoseInstrumentation, int failureRateThreshold, int slidingWindowSize, long openDurationMs, int halfOpenPermittedCalls, Clock clock) {
+        this.firehoseInstrumentation = firehoseInstrumentation;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slidingWindowSize = slidingWindowSize;
+        this.openDurationMs = openDurationMs;
+        this.halfOpenPermittedCalls = halfOpenPermittedCalls;
+        this.clock = clock;
+        this.window = new boolean[slidingWindowSize];
+    }
+
+    /**
+     * Checks whether a call may be made now.
+     *
+     * @return false if the call should fail fast
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (clock.millis() - openedAtMs < openDurationMs) {
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenCalls >= halfOpenPermittedCalls) {
+                return false;
+            }
+            halfOpenCalls++;
+        }
+        return true;
+    }
+
+    /**
+     * Records the outcome of a permitted call.
+     *
+     * @param success whether the call succeeded
+     */
+    public synchronized void record(boolean success) {
+        switch (state) {
+            case HALF_OPEN:
+                if (!success) {
+                    transitionTo(State.OPEN);
+                } else {
+                    halfOpenSuccesses++;
+                    if (halfOpenSuccesses >= halfOpenPermittedCalls) {
+                        transitionTo(State.CLOSED);
+                    }
+                }
+                break;
+            case CLOSED:
+                if (windowCount == slidingWindowSize) {
+                    windowFailures -= window[windowIndex] ? 0 : 1;
+                } else {
+                    windowCount++;
+                }
+                window[windowIndex] = success;
+                windowFailures += success ? 0 : 1;
+                windowIndex = (windowIndex + 1) % slidingWindowSize;
+                if (windowCount == slidingWindowSize && windowFailures * PERCENT >= failureRateThreshold * windowCount) {
+                    transitionTo(State.OPEN);
+                }
+                break;
+            default:
+                // late result of a call made before the breaker opened
+                break;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void transitionTo(State newState) {
+        firehoseInstrumentation.logInfo("Circuit breaker state changed from {} to {}", state, newState);
+        firehoseInstrumentation.captureCount(SINK_CIRCUIT_BREAKER_TRANSITION_TOTAL, 1L, "state=" + newState.name());
+        state = newState;
+        halfOpenCalls = 0;
+        halfOpenSuccesses = 0;
+        if (newState == State.OPEN) {
+            openedAtMs = clock.millis();
+        } else if (newState == State.CLOSED) {
+            windowIndex = 0;
+            windowCount = 0;
+            windowFailures = 0;
+        }
+    }
+}
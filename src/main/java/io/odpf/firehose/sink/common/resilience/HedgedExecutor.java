@@ -0,0 +1,161 @@
+package io.odpf.firehose.sink.common.resilience;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.odpf.firehose.metrics.FirehoseInstrumentation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static io.odpf.firehose.metrics.Metrics.SINK_HEDGED_REQUESTS_TOTAL;
+
+/**
+ * Executes idempotent calls with hedging.
+ * <p>
+ * If a call has not completed after the observed p95 latency (bounded below by {@code minDelayMs})
+ * a duplicate call is started and the first successful result is returned. The result of the
+ * losing call is handed to a discard callback so that resources such as connections can be released.
+ */
+public class HedgedExecutor implements Closeable {
+
+    private static final int LATENCY_WINDOW_SIZE = 100;
+    private static final int MIN_LATENCY_SAMPLES = 20;
+    private static final double HEDGE_PERCENTILE = 0.95;
+
+    private final FirehoseInstrumentation firehoseInstrumentation;
+    private final long minDelayMs;
+    private final ExecutorService executorService;
+    private final ScheduledExecutorService hedgeScheduler;
+    private final long[] latenciesMs = new long[LATENCY_WINDOW_SIZE];
+    private int latencyIndex;
+    private int latencyCount;
+
+    public HedgedExecutor(FirehoseInstrumentation firehoseInstrumentation, long minDelayMs) {
+        this(firehoseInstrumentation, minDelayMs, Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("hedged-executor-%d").setDaemon(true).build()));
+    }
+
+    public HedgedExecutor(FirehoseInstrumentation firehoseInstrumentation, long minDelayMs, ExecutorService executorService) {
+        this.firehoseInstrumentation = firehoseInstrumentation;
+        this.minDelayMs = minDelayMs;
+        this.executorService = executorService;
+        this.hedgeScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("hedged-executor-timer-%d").setDaemon(true).build());
+    }
+
+    /**
+     * Executes the call, hedging it if it is slower than the p95 latency.
+     *
+     * @param call    idempotent blocking call, invoked once per attempt
+     * @param discard callback receiving the result of a losing attempt
+     * @param <T>     result type
+     * @return the first successful result
+     * @throws IOException if all attempts fail
+     */
+    public <T> T execute(Callable<T> call, Consumer<T> discard) throws IOException {
+        CompletableFuture<T> winner = executeAsync(() -> CompletableFuture.supplyAsync(() -> {
+            try {
+                return call.call();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executorService), discard);
+        try {
+            return winner.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        }
+    }
+
+    /**
+     * Starts an asynchronous call and a hedged duplicate if it is slower than the p95 latency.
+     *
+     * @param attempt idempotent call, invoked once per attempt and returning its pending result
+     * @param discard callback receiving the result of a losing attempt
+     * @param <T>     result type
+     * @return future completed with the first successful result, or the last failure if all attempts fail
+     */
+    public <T> CompletableFuture<T> executeAsync(Supplier<CompletableFuture<T>> attempt, Consumer<T> discard) {
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicInteger attempts = new AtomicInteger(1);
+        AtomicInteger failures = new AtomicInteger();
+        start(attempt, winner, attempts, failures, discard);
+        ScheduledFuture<?> hedge = hedgeScheduler.schedule(() -> {
+            if (!winner.isDone()) {
+                attempts.incrementAndGet();
+                firehoseInstrumentation.incrementCounter(SINK_HEDGED_REQUESTS_TOTAL);
+                start(attempt, winner, attempts, failures, discard);
+            }
+        }, hedgeDelayMs(), TimeUnit.MILLISECONDS);
+        winner.whenComplete((result, error) -> hedge.cancel(false));
+        return winner;
+    }
+
+    private <T> void start(Supplier<CompletableFuture<T>> attempt, CompletableFuture<T> winner, AtomicInteger attempts, AtomicInteger failures, Consumer<T> discard) {
+        long startTime = System.currentTimeMillis();
+        CompletableFuture<T> result;
+        try {
+            result = attempt.get();
+        } catch (RuntimeException e) {
+            result = new CompletableFuture<>();
+            result.completeExceptionally(e);
+        }
+        result.whenComplete((value, error) -> {
+            if (error == null) {
+                recordLatency(System.currentTimeMillis() - startTime);
+                if (!winner.complete(value)) {
+                    discard.accept(value);
+                }
+            } else if (failures.incrementAndGet() >= attempts.get()) {
+                winner.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+            }
+        });
+    }
+
+    private IOException unwrap(Throwable cause) {
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        return new IOException(cause);
+    }
+
+    private synchronized void recordLatency(long latencyMs) {
+        latenciesMs[latencyIndex] = latencyMs;
+        latencyIndex = (latencyIndex + 1) % LATENCY_WINDOW_SIZE;
+        latencyCount = Math.min(latencyCount + 1, LATENCY_WINDOW_SIZE);
+    }
+
+    /**
+     * Delay before the hedged attempt is started.
+     *
+     * @return p95 of the recent latencies, at least {@code minDelayMs}
+     */
+    synchronized long hedgeDelayMs() {
+        if (latencyCount < MIN_LATENCY_SAMPLES) {
+            return minDelayMs;
+        }
+        long[] sorted = Arrays.copyOf(latenciesMs, latencyCount);
+        Arrays.sort(sorted);
+        return Math.max(minDelayMs, sorted[(int) Math.ceil(HEDGE_PERCENTILE * latencyCount) - 1]);
+    }
+
+    @Override
+    public void close() {
+        hedgeScheduler.shutdown();
+        executorService.shutdown();
+    }
+}
@@ -4,16 +4,21 @@ import io.odpf.firehose.message.Message;
 import io.odpf.firehose.exception.NeedToRetry;
 import io.odpf.firehose.metrics.FirehoseInstrumentation;
 import io.odpf.firehose.sink.AbstractSink;
+import io.odpf.firehose.sink.common.UpsertCollapser;
 import io.odpf.firehose.sink.elasticsearch.request.EsRequestHandler;
+import org.elasticsearch.action.DocWriteRequest;
 import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.client.RestHighLevelClient;
 import org.elasticsearch.common.unit.TimeValue;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static io.odpf.firehose.metrics.Metrics.SINK_MESSAGES_DROP_TOTAL;
 
@@ -27,6 +32,7 @@ public class EsSink extends AbstractSink {
     private long esRequestTimeoutInMs;
     private Integer esWaitForActiveShardsCount;
     private List<String> esRetryStatusCodeBlacklist;
+    private UpsertCollapser upsertCollapser;
 
     /**
      * Instantiates a new Es sink.
@@ -49,12 +55,37 @@ public class EsSink extends AbstractSink {
         this.esRetryStatusCodeBlacklist = esRetryStatusCodeBlacklist;
     }
 
+    /**
+     * Instantiates a new Es sink which collapses index requests of the same document in a batch.
+     *
+     * @param firehoseInstrumentation    the instrumentation
+     * @param sinkType                   the sink type
+     * @param client                     the client
+     * @param esRequestHandler           the es request handler
+     * @param esRequestTimeoutInMs       the es request timeout in ms
+     * @param esWaitForActiveShardsCount the es wait for active shards count
+     * @param esRetryStatusCodeBlacklist the es retry status code blacklist
+     * @param upsertCollapser            the upsert collapser, or null to send every request
+     */
+    public EsSink(FirehoseInstrumentation firehoseInstrumentation, String sinkType, RestHighLevelClient client, EsRequestHandler esRequestHandler,
+                  long esRequestTimeoutInMs, Integer esWaitForActiveShardsCount, List<String> esRetryStatusCodeBlacklist, UpsertCollapser upsertCollapser) {
+        this(firehoseInstrumentation, sinkType, client, esRequestHandler, esRequestTimeoutInMs, esWaitForActiveShardsCount, esRetryStatusCodeBlacklist);
+        this.upsertCollapser = upsertCollapser;
+    }
+
     @Override
     protected void prepare(List<Message> messages) {
         bulkRequest = new BulkRequest();
         bulkRequest.timeout(TimeValue.timeValueMillis(esRequestTimeoutInMs));
         bulkRequest.waitForActiveShards(esWaitForActiveShardsCount);
-        messages.forEach(message -> bulkRequest.add(esRequestHandler.getRequest(message)));
+        List<DocWriteRequest> requests = messages.stream().map(esRequestHandler::getRequest).collect(Collectors.toList());
+        if (upsertCollapser != null) {
+            // partial updates merge into the document, only full document index requests can replace each other
+            requests = UpsertCollapser.select(requests, upsertCollapser.lastIndexPerKey(requests, request -> request instanceof IndexRequest && request.id() != null
+                    ? Arrays.asList(request.index(), request.type(), request.id(), request.routing())
+                    : null));
+        }
+        requests.forEach(bulkRequest::add);
     }
 
     @Override
@@ -7,6 +7,7 @@ import io.odpf.firehose.config.enums.SinkType;
 import io.odpf.firehose.metrics.FirehoseInstrumentation;
 import io.odpf.firehose.serializer.MessageToJson;
 import io.odpf.firehose.sink.Sink;
+import io.odpf.firehose.sink.common.UpsertCollapser;
 import io.odpf.firehose.sink.elasticsearch.request.EsRequestHandler;
 import io.odpf.firehose.sink.elasticsearch.request.EsRequestHandlerFactory;
 import io.odpf.stencil.client.StencilClient;
@@ -57,8 +58,12 @@ public class EsSinkFactory {
         HttpHost[] httpHosts = getHttpHosts(esSinkConfig.getSinkEsConnectionUrls(), firehoseInstrumentation);
         RestHighLevelClient client = new RestHighLevelClient(RestClient.builder(httpHosts));
         firehoseInstrumentation.logInfo("ES connection established");
+        UpsertCollapser upsertCollapser = esSinkConfig.isSinkEsUpsertCollapseEnable()
+                ? new UpsertCollapser(new FirehoseInstrumentation(statsDReporter, UpsertCollapser.class))
+                : null;
         return new EsSink(new FirehoseInstrumentation(statsDReporter, EsSink.class), SinkType.ELASTICSEARCH.name().toLowerCase(), client, esRequestHandler,
-                esSinkConfig.getSinkEsRequestTimeoutMs(), esSinkConfig.getSinkEsShardsActiveWaitCount(), getStatusCodesAsList(esSinkConfig.getSinkEsRetryStatusCodeBlacklist()));
+                esSinkConfig.getSinkEsRequestTimeoutMs(), esSinkConfig.getSinkEsShardsActiveWaitCount(), getStatusCodesAsList(esSinkConfig.getSinkEsRetryStatusCodeBlacklist()),
+                upsertCollapser);
     }
 
     protected static HttpHost[] getHttpHosts(String esConnectionUrls, FirehoseInstrumentation firehoseInstrumentation) {
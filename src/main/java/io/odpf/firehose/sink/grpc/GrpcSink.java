@@ -2,17 +2,20 @@ package io.odpf.firehose.sink.grpc;
 
 
 
+import io.odpf.firehose.config.enums.GrpcSinkMethodType;
 import io.odpf.firehose.message.Message;
 import io.odpf.firehose.exception.DeserializerException;
 import io.odpf.firehose.metrics.FirehoseInstrumentation;
 import io.odpf.firehose.sink.AbstractSink;
 import io.odpf.firehose.sink.grpc.client.GrpcClient;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.protobuf.DynamicMessage;
 import io.odpf.stencil.client.StencilClient;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * GrpcSink allows messages consumed from kafka to be relayed to a http service.
@@ -23,19 +26,30 @@ public class GrpcSink extends AbstractSink {
     private final GrpcClient grpcClient;
     private List<Message> messages;
     private StencilClient stencilClient;
+    private final GrpcSinkMethodType methodType;
 
     public GrpcSink(FirehoseInstrumentation firehoseInstrumentation, GrpcClient grpcClient, StencilClient stencilClient) {
+        this(firehoseInstrumentation, grpcClient, stencilClient, GrpcSinkMethodType.UNARY);
+    }
+
+    public GrpcSink(FirehoseInstrumentation firehoseInstrumentation, GrpcClient grpcClient, StencilClient stencilClient, GrpcSinkMethodType methodType) {
         super(firehoseInstrumentation, "grpc");
         this.grpcClient = grpcClient;
         this.stencilClient = stencilClient;
+        this.methodType = methodType;
     }
 
     @Override
     protected List<Message> execute() throws Exception {
         ArrayList<Message> failedMessages = new ArrayList<>();
 
-        for (Message message : this.messages) {
-            DynamicMessage response = grpcClient.execute(message.getLogMessage(), message.getHeaders());
+        List<DynamicMessage> responses = methodType == GrpcSinkMethodType.CLIENT_STREAMING
+                ? grpcClient.executeClientStreaming(this.messages.stream().map(Message::getLogMessage).collect(Collectors.toList()))
+                : executeUnary();
+
+        for (int i = 0; i < this.messages.size(); i++) {
+            Message message = this.messages.get(i);
+            DynamicMessage response = responses.get(i);
             getFirehoseInstrumentation().logDebug("Response: {}", response);
             Object m = response.getField(response.getDescriptorForType().findFieldByName("success"));
             boolean success = (m != null) ? Boolean.valueOf(String.valueOf(m)) : false;
@@ -49,6 +63,18 @@ public class GrpcSink extends AbstractSink {
         return failedMessages;
     }
 
+    private List<DynamicMessage> executeUnary() throws Exception {
+        List<ListenableFuture<DynamicMessage>> inFlight = new ArrayList<>(this.messages.size());
+        for (Message message : this.messages) {
+            inFlight.add(grpcClient.executeAsync(message.getLogMessage(), message.getHeaders()));
+        }
+        List<DynamicMessage> responses = new ArrayList<>(inFlight.size());
+        for (ListenableFuture<DynamicMessage> response : inFlight) {
+            responses.add(response.get());
+        }
+        return responses;
+    }
+
     @Override
     protected void prepare(List<Message> messages2) throws DeserializerException {
         this.messages = messages2;
@@ -58,6 +84,7 @@ public class GrpcSink extends AbstractSink {
     public void close() throws IOException {
         getFirehoseInstrumentation().logInfo("GRPC connection closing");
         this.messages = new ArrayList<>();
+        grpcClient.close();
         stencilClient.close();
     }
 }
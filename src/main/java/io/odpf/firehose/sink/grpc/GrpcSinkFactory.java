@@ -5,13 +5,20 @@ import io.odpf.depot.metrics.StatsDReporter;
 import io.odpf.firehose.config.GrpcSinkConfig;
 import io.odpf.firehose.metrics.FirehoseInstrumentation;
 import io.odpf.firehose.sink.AbstractSink;
+import io.odpf.firehose.sink.common.resilience.CircuitBreaker;
+import io.odpf.firehose.sink.common.resilience.HedgedExecutor;
+import io.odpf.firehose.sink.grpc.client.GrpcChannelPool;
 import io.odpf.firehose.sink.grpc.client.GrpcClient;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
 import io.odpf.stencil.client.StencilClient;
 import org.aeonbits.owner.ConfigFactory;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Factory class to create the GrpcSink.
@@ -29,12 +36,47 @@ public class GrpcSinkFactory {
                 grpcConfig.getSinkGrpcServiceHost(), grpcConfig.getSinkGrpcServicePort(), grpcConfig.getSinkGrpcMethodUrl(), grpcConfig.getSinkGrpcResponseSchemaProtoClass());
         firehoseInstrumentation.logDebug(grpcSinkConfig);
 
-        ManagedChannel managedChannel = ManagedChannelBuilder.forAddress(grpcConfig.getSinkGrpcServiceHost(), grpcConfig.getSinkGrpcServicePort()).usePlaintext().build();
+        ManagedChannel managedChannel = createChannel(grpcConfig, statsDReporter);
 
-        GrpcClient grpcClient = new GrpcClient(new FirehoseInstrumentation(statsDReporter, GrpcClient.class), grpcConfig, managedChannel, stencilClient);
+        CircuitBreaker circuitBreaker = grpcConfig.isSinkGrpcCircuitBreakerEnable()
+                ? new CircuitBreaker(new FirehoseInstrumentation(statsDReporter, CircuitBreaker.class),
+                grpcConfig.getSinkGrpcCircuitBreakerFailureRateThreshold(),
+                grpcConfig.getSinkGrpcCircuitBreakerSlidingWindowSize(),
+                grpcConfig.getSinkGrpcCircuitBreakerOpenDurationMs(),
+                grpcConfig.getSinkGrpcCircuitBreakerHalfOpenPermittedCalls())
+                : null;
+        HedgedExecutor hedgedExecutor = grpcConfig.isSinkGrpcHedgingEnable()
+                ? new HedgedExecutor(new FirehoseInstrumentation(statsDReporter, HedgedExecutor.class), grpcConfig.getSinkGrpcHedgingMinDelayMs())
+                : null;
+
+        GrpcClient grpcClient = new GrpcClient(new FirehoseInstrumentation(statsDReporter, GrpcClient.class), grpcConfig, managedChannel, stencilClient, circuitBreaker, hedgedExecutor);
         firehoseInstrumentation.logInfo("GRPC connection established");
 
-        return new GrpcSink(new FirehoseInstrumentation(statsDReporter, GrpcSink.class), grpcClient, stencilClient);
+        return new GrpcSink(new FirehoseInstrumentation(statsDReporter, GrpcSink.class), grpcClient, stencilClient, grpcConfig.getSinkGrpcMethodType());
+    }
+
+    private static ManagedChannel createChannel(GrpcSinkConfig grpcConfig, StatsDReporter statsDReporter) {
+        List<String> targets = Arrays.stream(grpcConfig.getSinkGrpcServiceTargets().split(","))
+                .map(String::trim)
+                .filter(target -> !target.isEmpty())
+                .collect(Collectors.toList());
+        List<ManagedChannel> channels = new ArrayList<>();
+        List<String> channelNames = new ArrayList<>();
+        for (int i = 0; i < grpcConfig.getSinkGrpcChannelPoolSize(); i++) {
+            if (targets.isEmpty()) {
+                channels.add(ManagedChannelBuilder.forAddress(grpcConfig.getSinkGrpcServiceHost(), grpcConfig.getSinkGrpcServicePort()).usePlaintext().build());
+                channelNames.add(grpcConfig.getSinkGrpcServiceHost() + ":" + grpcConfig.getSinkGrpcServicePort() + "#" + i);
+            }
+            for (String target : targets) {
+                channels.add(ManagedChannelBuilder.forTarget(target).defaultLoadBalancingPolicy("round_robin").usePlaintext().build());
+                channelNames.add(target + "#" + i);
+            }
+        }
+        if (channels.size() == 1) {
+            return channels.get(0);
+        }
+        return new GrpcChannelPool(new FirehoseInstrumentation(statsDReporter, GrpcChannelPool.class), channels, channelNames, grpcConfig.getSinkGrpcLoadBalancingPolicy(),
+                grpcConfig.getSinkGrpcMaxInFlight());
     }
 
 }
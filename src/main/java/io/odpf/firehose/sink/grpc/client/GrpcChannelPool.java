@@ -0,0 +1,229 @@
+package io.odpf.firehose.sink.grpc.client;
+
+import io.grpc.CallOptions;
+import io.grpc.ClientCall;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.odpf.firehose.config.enums.GrpcSinkLoadBalancingPolicy;
+import io.odpf.firehose.metrics.FirehoseInstrumentation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.odpf.firehose.metrics.Metrics.SINK_GRPC_CHANNEL_IN_FLIGHT_CALLS;
+
+/**
+ * A pool of channels, possibly to different targets, used as a single channel.
+ * <p>
+ * Each call is placed on one channel of the pool, picked in turn or by the fewest calls in flight,
+ * spreading load over several HTTP/2 connections and backend replicas.
+ * <p>
+ * Callers limiting the calls in flight on each channel reserve a channel with {@link #acquireChannel()}
+ * and pass it to {@link #newCall(MethodDescriptor, CallOptions)} through {@link #CHANNEL_INDEX}.
+ */
+public class GrpcChannelPool extends ManagedChannel {
+
+    public static final CallOptions.Key<Integer> CHANNEL_INDEX = CallOptions.Key.create("firehose-channel-index");
+
+    private final FirehoseInstrumentation firehoseInstrumentation;
+    private final List<ManagedChannel> channels;
+    private final List<String> channelNames;
+    private final AtomicInteger[] inFlightCalls;
+    private final GrpcSinkLoadBalancingPolicy loadBalancingPolicy;
+    private final AtomicInteger nextChannel = new AtomicInteger();
+    private final int maxInFlightPerChannel;
+    private final Object permitLock = new Object();
+
+    public GrpcChannelPool(FirehoseInstrumentation firehoseInstrumentation, List<ManagedChannel> channels, List<String> channelNames,
+                           GrpcSinkLoadBalancingPolicy loadBalancingPolicy) {
+        this(firehoseInstrumentation, channels, channelNames, loadBalancingPolicy, Integer.MAX_VALUE);
+    }
+
+    public GrpcChannelPool(FirehoseInstrumentation firehoseInstrumentation, List<ManagedChannel> channels, List<String> channelNames,
+                           GrpcSinkLoadBalancingPolicy loadBalancingPolicy, int maxInFlightPerChannel) {
+        if (channels.isEmpty() || channels.size() != channelNames.size()) {
+            throw new IllegalArgumentException("Channel pool needs at least one channel and a name for each channel");
+        }
+        this.firehoseInstrumentation = firehoseInstrumentation;
+        this.channels = new ArrayList<>(channels);
+        this.channelNames = new ArrayList<>(channelNames);
+        this.loadBalancingPolicy = loadBalancingPolicy;
+        this.maxInFlightPerChannel = maxInFlightPerChannel;
+        this.inFlightCalls = new AtomicInteger[channels.size()];
+        for (int i = 0; i < inFlightCalls.length; i++) {
+            inFlightCalls[i] = new AtomicInteger();
+        }
+    }
+
+    /**
+     * Calls with a {@link #CHANNEL_INDEX} are placed on the reserved channel, which stays reserved until
+     * {@link #releaseChannel(int)}. Other calls are placed on a selected channel and counted while they are open.
+     */
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(MethodDescriptor<ReqT, RespT> methodDescriptor, CallOptions callOptions) {
+        Integer reserved = callOptions.getOption(CHANNEL_INDEX);
+        if (reserved != null) {
+            return channels.get(reserved).newCall(methodDescriptor, callOptions);
+        }
+        int index = selectChannel();
+        return new CountingCall<>(channels.get(index).newCall(methodDescriptor, callOptions), index);
+    }
+
+    /**
+     * Reserves a slot on a channel with fewer than the maximum calls in flight, waiting for one to be released if needed.
+     *
+     * @return the index of the reserved channel
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public int acquireChannel() throws InterruptedException {
+        synchronized (permitLock) {
+            int index;
+            while ((index = selectChannel(maxInFlightPerChannel)) < 0) {
+                permitLock.wait();
+            }
+            updateInFlightCalls(index, 1);
+            return index;
+        }
+    }
+
+    /**
+     * Reserves a slot on a channel with fewer than the maximum calls in flight, without waiting.
+     *
+     * @return the index of the reserved channel, or -1 if every channel is at the maximum
+     */
+    public int tryAcquireChannel() {
+        synchronized (permitLock) {
+            int index = selectChannel(maxInFlightPerChannel);
+            if (index >= 0) {
+                updateInFlightCalls(index, 1);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Releases a slot reserved with {@link #acquireChannel()} or {@link #tryAcquireChannel()}.
+     *
+     * @param index the index of the reserved channel
+     */
+    public void releaseChannel(int index) {
+        updateInFlightCalls(index, -1);
+    }
+
+    int selectChannel() {
+        return selectChannel(Integer.MAX_VALUE);
+    }
+
+    private int selectChannel(int maxInFlight) {
+        int start = Math.floorMod(nextChannel.getAndIncrement(), channels.size());
+        int selected = -1;
+        for (int i = 0; i < channels.size(); i++) {
+            int candidate = (start + i) % channels.size();
+            if (inFlightCalls[candidate].get() >= maxInFlight) {
+                continue;
+            }
+            if (selected < 0) {
+                selected = candidate;
+                if (loadBalancingPolicy == GrpcSinkLoadBalancingPolicy.ROUND_ROBIN) {
+                    break;
+                }
+            } else if (inFlightCalls[candidate].get() < inFlightCalls[selected].get()) {
+                selected = candidate;
+            }
+        }
+        return selected;
+    }
+
+    int getInFlightCalls(int index) {
+        return inFlightCalls[index].get();
+    }
+
+    private void updateInFlightCalls(int index, int delta) {
+        int current;
+        synchronized (permitLock) {
+            current = inFlightCalls[index].addAndGet(delta);
+            if (delta < 0) {
+                permitLock.notifyAll();
+            }
+        }
+        firehoseInstrumentation.captureValue(SINK_GRPC_CHANNEL_IN_FLIGHT_CALLS, current, "channel=" + channelNames.get(index));
+    }
+
+    @Override
+    public String authority() {
+        return channels.get(0).authority();
+    }
+
+    @Override
+    public ManagedChannel shutdown() {
+        channels.forEach(ManagedChannel::shutdown);
+        return this;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return channels.stream().allMatch(ManagedChannel::isShutdown);
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return channels.stream().allMatch(ManagedChannel::isTerminated);
+    }
+
+    @Override
+    public ManagedChannel shutdownNow() {
+        channels.forEach(ManagedChannel::shutdownNow);
+        return this;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (ManagedChannel channel : channels) {
+            if (!channel.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private class CountingCall<ReqT, RespT> extends ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT> {
+        private final int index;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        CountingCall(ClientCall<ReqT, RespT> delegate, int index) {
+            super(delegate);
+            this.index = index;
+        }
+
+        @Override
+        public void start(Listener<RespT> responseListener, Metadata headers) {
+            updateInFlightCalls(index, 1);
+            try {
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<RespT>(responseListener) {
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        release();
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            } catch (RuntimeException e) {
+                release();
+                throw e;
+            }
+        }
+
+        private void release() {
+            if (closed.compareAndSet(false, true)) {
+                updateInFlightCalls(index, -1);
+            }
+        }
+    }
+}
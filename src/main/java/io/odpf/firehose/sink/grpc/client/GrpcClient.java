@@ -2,18 +2,30 @@ package io.odpf.firehose.sink.grpc.client;
 
 
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
 import io.odpf.firehose.config.GrpcSinkConfig;
+import io.odpf.firehose.config.enums.GrpcSinkLoadBalancingPolicy;
+import io.odpf.firehose.config.enums.GrpcSinkMethodType;
 import io.odpf.firehose.metrics.FirehoseInstrumentation;
+import io.odpf.firehose.sink.common.resilience.CircuitBreaker;
+import io.odpf.firehose.sink.common.resilience.HedgedExecutor;
 import com.google.protobuf.DynamicMessage;
 
 import io.grpc.ManagedChannel;
 import io.grpc.Metadata;
 import io.grpc.MethodDescriptor;
 import io.grpc.stub.ClientCalls;
-import io.grpc.stub.MetadataUtils;
+import io.grpc.stub.StreamObserver;
 import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
 import io.grpc.ClientInterceptors;
 import io.grpc.CallOptions;
+import io.grpc.ForwardingClientCall;
 import io.odpf.stencil.client.StencilClient;
 import org.apache.commons.io.IOUtils;
 import org.apache.kafka.common.header.Header;
@@ -22,58 +34,264 @@ import org.apache.kafka.common.header.Headers;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 
 /**
  * Custom GRPC client for all GRPC communication.
+ * <p>
+ * Calls are issued asynchronously over the channels of a {@link GrpcChannelPool}; at most {@code SINK_GRPC_MAX_IN_FLIGHT}
+ * calls, hedged duplicates included, are outstanding on each channel, further calls wait for a slot.
  */
 public class GrpcClient {
 
+    private static final CallOptions.Key<Metadata> MESSAGE_HEADERS = CallOptions.Key.create("firehose-message-headers");
+
     private FirehoseInstrumentation firehoseInstrumentation;
     private final GrpcSinkConfig grpcSinkConfig;
     private StencilClient stencilClient;
-    private ManagedChannel managedChannel;
+    private final CircuitBreaker circuitBreaker;
+    private final HedgedExecutor hedgedExecutor;
+    private final MethodDescriptor<byte[], byte[]> methodDescriptor;
+    private final GrpcChannelPool channelPool;
+    private final Channel channel;
 
     public GrpcClient(FirehoseInstrumentation firehoseInstrumentation, GrpcSinkConfig grpcSinkConfig, ManagedChannel managedChannel, StencilClient stencilClient) {
+        this(firehoseInstrumentation, grpcSinkConfig, managedChannel, stencilClient, null, null);
+    }
+
+    public GrpcClient(FirehoseInstrumentation firehoseInstrumentation, GrpcSinkConfig grpcSinkConfig, ManagedChannel managedChannel, StencilClient stencilClient,
+                      CircuitBreaker circuitBreaker, HedgedExecutor hedgedExecutor) {
         this.firehoseInstrumentation = firehoseInstrumentation;
         this.grpcSinkConfig = grpcSinkConfig;
         this.stencilClient = stencilClient;
-        this.managedChannel = managedChannel;
+        this.circuitBreaker = circuitBreaker;
+        this.hedgedExecutor = hedgedExecutor;
+        MethodDescriptor.Marshaller<byte[]> marshaller = getMarshaller();
+        this.methodDescriptor = MethodDescriptor.newBuilder(marshaller, marshaller)
+                .setType(grpcSinkConfig.getSinkGrpcMethodType() == GrpcSinkMethodType.CLIENT_STREAMING
+                        ? MethodDescriptor.MethodType.CLIENT_STREAMING
+                        : MethodDescriptor.MethodType.UNARY)
+                .setFullMethodName(grpcSinkConfig.getSinkGrpcMethodUrl())
+                .build();
+        this.channelPool = managedChannel instanceof GrpcChannelPool
+                ? (GrpcChannelPool) managedChannel
+                : new GrpcChannelPool(firehoseInstrumentation, Collections.singletonList(managedChannel), Collections.singletonList(managedChannel.authority()),
+                GrpcSinkLoadBalancingPolicy.ROUND_ROBIN, grpcSinkConfig.getSinkGrpcMaxInFlight());
+        this.channel = ClientInterceptors.intercept(channelPool, new MessageHeadersInterceptor());
     }
 
     public DynamicMessage execute(byte[] logMessage, Headers headers) {
+        try {
+            return executeAsync(logMessage, headers).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            firehoseInstrumentation.logWarn(e.getMessage());
+        } catch (ExecutionException e) {
+            firehoseInstrumentation.logWarn(e.getMessage());
+        }
+        return defaultResponse();
+    }
 
-        MethodDescriptor.Marshaller<byte[]> marshaller = getMarshaller();
-        DynamicMessage dynamicMessage;
-
+    /**
+     * Starts the call without waiting for the response.
+     * Blocks only while the maximum number of calls are already in flight on every channel.
+     *
+     * @param logMessage the request bytes
+     * @param headers    the kafka headers sent as call metadata
+     * @return future of the parsed response, completed with an empty response if the call fails
+     */
+    public ListenableFuture<DynamicMessage> executeAsync(byte[] logMessage, Headers headers) {
+        if (circuitBreaker != null && !circuitBreaker.tryAcquirePermission()) {
+            firehoseInstrumentation.logWarn("Circuit breaker is open, skipping call to {}", grpcSinkConfig.getSinkGrpcMethodUrl());
+            return Futures.immediateFuture(defaultResponse());
+        }
+        int channelIndex;
         try {
+            channelIndex = channelPool.acquireChannel();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            recordResult(false);
+            return Futures.immediateFuture(defaultResponse());
+        }
 
+        SettableFuture<DynamicMessage> result = SettableFuture.create();
+        Futures.addCallback(startCall(logMessage, headers, channelIndex), new FutureCallback<byte[]>() {
+            @Override
+            public void onSuccess(byte[] response) {
+                DynamicMessage dynamicMessage;
+                boolean success = false;
+                try {
+                    dynamicMessage = stencilClient.parse(grpcSinkConfig.getSinkGrpcResponseSchemaProtoClass(), response);
+                    success = true;
+                } catch (Exception e) {
+                    firehoseInstrumentation.logWarn(e.getMessage());
+                    dynamicMessage = defaultResponse();
+                }
+                recordResult(success);
+                result.set(dynamicMessage);
+            }
 
-            Metadata metadata = new Metadata();
-            for (Header header : headers) {
-                metadata.put(Metadata.Key.of(header.key(), Metadata.ASCII_STRING_MARSHALLER), new String(header.value()));
+            @Override
+            public void onFailure(Throwable t) {
+                firehoseInstrumentation.logWarn(t.getMessage());
+                recordResult(false);
+                result.set(defaultResponse());
             }
+        }, MoreExecutors.directExecutor());
+        return result;
+    }
 
-            Channel decoratedChannel = ClientInterceptors.intercept(managedChannel,
-                     MetadataUtils.newAttachHeadersInterceptor(metadata));
-            byte[] response = ClientCalls.blockingUnaryCall(
-                    decoratedChannel,
-                    MethodDescriptor.newBuilder(marshaller, marshaller)
-                            .setType(MethodDescriptor.MethodType.UNARY)
-                            .setFullMethodName(grpcSinkConfig.getSinkGrpcMethodUrl())
-                            .build(),
-                    CallOptions.DEFAULT,
-                    logMessage);
+    /**
+     * Streams all the messages over a single client streaming call and waits for the batch response.
+     *
+     * @param logMessages the request bytes, in order
+     * @return a response for each message in the order they were sent; messages without a status in the
+     * batch response, or all of them when the call fails, get an empty response
+     */
+    public List<DynamicMessage> executeClientStreaming(List<byte[]> logMessages) {
+        if (circuitBreaker != null && !circuitBreaker.tryAcquirePermission()) {
+            firehoseInstrumentation.logWarn("Circuit breaker is open, skipping call to {}", grpcSinkConfig.getSinkGrpcMethodUrl());
+            return toResponses(logMessages.size(), Collections.emptyList());
+        }
+        SettableFuture<byte[]> batchResponse = SettableFuture.create();
+        ClientCall<byte[], byte[]> call = channel.newCall(methodDescriptor, CallOptions.DEFAULT);
+        StreamObserver<byte[]> requestObserver = ClientCalls.asyncClientStreamingCall(call, new StreamObserver<byte[]>() {
+            @Override
+            public void onNext(byte[] value) {
+                batchResponse.set(value);
+            }
 
-            dynamicMessage = stencilClient.parse(grpcSinkConfig.getSinkGrpcResponseSchemaProtoClass(), response);
+            @Override
+            public void onError(Throwable t) {
+                batchResponse.setException(t);
+            }
 
+            @Override
+            public void onCompleted() {
+                batchResponse.setException(new IllegalStateException("Stream completed without a response"));
+            }
+        });
+
+        boolean success = false;
+        try {
+            for (byte[] logMessage : logMessages) {
+                requestObserver.onNext(logMessage);
+            }
+            requestObserver.onCompleted();
+            DynamicMessage response = stencilClient.parse(grpcSinkConfig.getSinkGrpcStreamingResponseSchemaProtoClass(), batchResponse.get());
+            List<?> items = (List<?>) response.getField(response.getDescriptorForType().findFieldByName(grpcSinkConfig.getSinkGrpcStreamingResponseField()));
+            if (items.size() != logMessages.size()) {
+                firehoseInstrumentation.logWarn("Expected {} statuses in streaming response, received {}", logMessages.size(), items.size());
+            }
+            success = true;
+            return toResponses(logMessages.size(), items);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            requestObserver.onError(e);
+            firehoseInstrumentation.logWarn(e.getMessage());
         } catch (Exception e) {
+            requestObserver.onError(e);
             firehoseInstrumentation.logWarn(e.getMessage());
-            dynamicMessage = DynamicMessage.newBuilder(this.stencilClient.get(this.grpcSinkConfig.getSinkGrpcResponseSchemaProtoClass())).build();
+        } finally {
+            recordResult(success);
+        }
+        return toResponses(logMessages.size(), Collections.emptyList());
+    }
+
+    private List<DynamicMessage> toResponses(int size, List<?> items) {
+        List<DynamicMessage> responses = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            responses.add(i < items.size() ? (DynamicMessage) items.get(i) : defaultResponse());
+        }
+        return responses;
+    }
+
+    /**
+     * Starts the call on the reserved channel. A hedged duplicate needs a free slot on a channel of its own
+     * and is skipped if every channel is at {@code SINK_GRPC_MAX_IN_FLIGHT}.
+     */
+    private ListenableFuture<byte[]> startCall(byte[] logMessage, Headers headers, int channelIndex) {
+        CallOptions callOptions = CallOptions.DEFAULT.withOption(MESSAGE_HEADERS, toMetadata(headers));
+        if (hedgedExecutor == null) {
+            return startUnaryCall(logMessage, callOptions, channelIndex);
+        }
+        AtomicBoolean firstAttempt = new AtomicBoolean(true);
+        SettableFuture<byte[]> response = SettableFuture.create();
+        hedgedExecutor.<byte[]>executeAsync(() -> {
+            int index = firstAttempt.getAndSet(false) ? channelIndex : channelPool.tryAcquireChannel();
+            if (index < 0) {
+                CompletableFuture<byte[]> skipped = new CompletableFuture<>();
+                skipped.completeExceptionally(new IllegalStateException("No channel below SINK_GRPC_MAX_IN_FLIGHT for hedged call"));
+                return skipped;
+            }
+            return toCompletableFuture(startUnaryCall(logMessage, callOptions, index));
+        }, r -> { })
+                .whenComplete((value, error) -> {
+                    if (error == null) {
+                        response.set(value);
+                    } else {
+                        response.setException(error);
+                    }
+                });
+        return response;
+    }
 
+    private ListenableFuture<byte[]> startUnaryCall(byte[] logMessage, CallOptions callOptions, int channelIndex) {
+        ListenableFuture<byte[]> response;
+        try {
+            response = ClientCalls.futureUnaryCall(channel.newCall(methodDescriptor, callOptions.withOption(GrpcChannelPool.CHANNEL_INDEX, channelIndex)), logMessage);
+        } catch (RuntimeException e) {
+            response = Futures.immediateFailedFuture(e);
         }
+        response.addListener(() -> channelPool.releaseChannel(channelIndex), MoreExecutors.directExecutor());
+        return response;
+    }
+
+    private static <T> CompletableFuture<T> toCompletableFuture(ListenableFuture<T> listenableFuture) {
+        CompletableFuture<T> completableFuture = new CompletableFuture<>();
+        Futures.addCallback(listenableFuture, new FutureCallback<T>() {
+            @Override
+            public void onSuccess(T value) {
+                completableFuture.complete(value);
+            }
 
-        return dynamicMessage;
+            @Override
+            public void onFailure(Throwable t) {
+                completableFuture.completeExceptionally(t);
+            }
+        }, MoreExecutors.directExecutor());
+        return completableFuture;
+    }
+
+    private Metadata toMetadata(Headers headers) {
+        Metadata metadata = new Metadata();
+        for (Header header : headers) {
+            metadata.put(Metadata.Key.of(header.key(), Metadata.ASCII_STRING_MARSHALLER), new String(header.value()));
+        }
+        return metadata;
+    }
+
+    private void recordResult(boolean success) {
+        if (circuitBreaker != null) {
+            circuitBreaker.record(success);
+        }
+    }
+
+    private DynamicMessage defaultResponse() {
+        return DynamicMessage.newBuilder(this.stencilClient.get(this.grpcSinkConfig.getSinkGrpcResponseSchemaProtoClass())).build();
+    }
+
+    public void close() {
+        if (hedgedExecutor != null) {
+            hedgedExecutor.close();
+        }
+        channelPool.shutdown();
     }
 
     private MethodDescriptor.Marshaller<byte[]> getMarshaller() {
@@ -93,4 +311,23 @@ public class GrpcClient {
             }
         };
     }
+
+    /**
+     * Attaches the per message headers passed through {@link CallOptions} to the call metadata.
+     */
+    private static class MessageHeadersInterceptor implements ClientInterceptor {
+        @Override
+        public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+            Metadata messageHeaders = callOptions.getOption(MESSAGE_HEADERS);
+            return new ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT>(next.newCall(method, callOptions)) {
+                @Override
+                public void start(Listener<RespT> responseListener, Metadata headers) {
+                    if (messageHeaders != null) {
+                        headers.merge(messageHeaders);
+                    }
+                    super.start(responseListener, headers);
+                }
+            };
+        }
+    }
 }
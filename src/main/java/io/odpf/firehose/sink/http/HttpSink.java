@@ -5,6 +5,9 @@ import io.odpf.firehose.message.Message;
 import io.odpf.firehose.exception.DeserializerException;
 import io.odpf.firehose.metrics.FirehoseInstrumentation;
 import io.odpf.firehose.sink.common.AbstractHttpSink;
+import io.odpf.firehose.sink.common.resilience.CircuitBreaker;
+import io.odpf.firehose.sink.common.resilience.HedgedExecutor;
+import io.odpf.firehose.sink.http.auth.OAuth2Credential;
 import io.odpf.firehose.sink.http.request.types.Request;
 import io.odpf.stencil.client.StencilClient;
 import org.apache.http.HttpResponse;
@@ -32,6 +35,7 @@ import static io.odpf.firehose.metrics.Metrics.SINK_MESSAGES_DROP_TOTAL;
 public class HttpSink extends AbstractHttpSink {
 
     private final Request request;
+    private final OAuth2Credential oAuth2Credential;
 
     /**
      * Instantiates a new Http sink.
@@ -44,8 +48,44 @@ public class HttpSink extends AbstractHttpSink {
      * @param requestLogStatusCodeRanges the request log status code ranges
      */
     public HttpSink(FirehoseInstrumentation firehoseInstrumentation, Request request, HttpClient httpClient, StencilClient stencilClient, Map<Integer, Boolean> retryStatusCodeRanges, Map<Integer, Boolean> requestLogStatusCodeRanges) {
-        super(firehoseInstrumentation, "http", httpClient, stencilClient, retryStatusCodeRanges, requestLogStatusCodeRanges);
+        this(firehoseInstrumentation, request, httpClient, stencilClient, retryStatusCodeRanges, requestLogStatusCodeRanges, null, null);
+    }
+
+    /**
+     * Instantiates a new Http sink with a circuit breaker and hedging.
+     *
+     * @param firehoseInstrumentation    the instrumentation
+     * @param request                    the request
+     * @param httpClient                 the http client
+     * @param stencilClient              the stencil client
+     * @param retryStatusCodeRanges      the retry status code ranges
+     * @param requestLogStatusCodeRanges the request log status code ranges
+     * @param circuitBreaker             the circuit breaker, null to disable
+     * @param hedgedExecutor             the hedged executor, null to disable
+     */
+    public HttpSink(FirehoseInstrumentation firehoseInstrumentation, Request request, HttpClient httpClient, StencilClient stencilClient, Map<Integer, Boolean> retryStatusCodeRanges, Map<Integer, Boolean> requestLogStatusCodeRanges,
+                    CircuitBreaker circuitBreaker, HedgedExecutor hedgedExecutor) {
+        this(firehoseInstrumentation, request, httpClient, stencilClient, retryStatusCodeRanges, requestLogStatusCodeRanges, circuitBreaker, hedgedExecutor, null);
+    }
+
+    /**
+     * Instantiates a new Http sink that owns the OAuth2 credential of its http client.
+     *
+     * @param firehoseInstrumentation    the instrumentation
+     * @param request                    the request
+     * @param httpClient                 the http client
+     * @param stencilClient              the stencil client
+     * @param retryStatusCodeRanges      the retry status code ranges
+     * @param requestLogStatusCodeRanges the request log status code ranges
+     * @param circuitBreaker             the circuit breaker, null to disable
+     * @param hedgedExecutor             the hedged executor, null to disable
+     * @param oAuth2Credential           the OAuth2 credential closed with the sink, null if OAuth2 is disabled
+     */
+    public HttpSink(FirehoseInstrumentation firehoseInstrumentation, Request request, HttpClient httpClient, StencilClient stencilClient, Map<Integer, Boolean> retryStatusCodeRanges, Map<Integer, Boolean> requestLogStatusCodeRanges,
+                    CircuitBreaker circuitBreaker, HedgedExecutor hedgedExecutor, OAuth2Credential oAuth2Credential) {
+        super(firehoseInstrumentation, "http", httpClient, stencilClient, retryStatusCodeRanges, requestLogStatusCodeRanges, circuitBreaker, hedgedExecutor);
         this.request = request;
+        this.oAuth2Credential = oAuth2Credential;
     }
 
     @Override
@@ -57,6 +97,14 @@ public class HttpSink extends AbstractHttpSink {
         }
     }
 
+    @Override
+    public void close() throws IOException {
+        super.close();
+        if (oAuth2Credential != null) {
+            oAuth2Credential.close();
+        }
+    }
+
     @Override
     protected List<String> readContent(HttpEntityEnclosingRequestBase httpRequest) throws IOException {
         if (httpRequest.getMethod().equals("DELETE") && httpRequest.getEntity() == null) {
@@ -1,10 +1,16 @@
 package io.odpf.firehose.sink.http;
 
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.odpf.depot.metrics.StatsDReporter;
 import io.odpf.firehose.config.HttpSinkConfig;
+import io.odpf.firehose.config.enums.HttpSinkRequestMethodType;
+import io.odpf.firehose.exception.ConfigurationException;
 import io.odpf.firehose.metrics.FirehoseInstrumentation;
 import io.odpf.firehose.sink.AbstractSink;
+import io.odpf.firehose.sink.common.resilience.CircuitBreaker;
+import io.odpf.firehose.sink.common.resilience.HedgedExecutor;
+import io.odpf.firehose.sink.http.auth.OAuth2Client;
 import io.odpf.firehose.sink.http.auth.OAuth2Credential;
 import io.odpf.firehose.sink.http.request.types.Request;
 import io.odpf.firehose.sink.http.request.RequestFactory;
@@ -18,6 +24,8 @@ import org.apache.http.impl.client.HttpClients;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * Factory class to create the HTTP Sink.
@@ -37,20 +45,45 @@ public class HttpSinkFactory {
      */
     public static AbstractSink create(Map<String, String> configuration, StatsDReporter statsDReporter, StencilClient stencilClient) {
         HttpSinkConfig httpSinkConfig = ConfigFactory.create(HttpSinkConfig.class, configuration);
+        validateHedging(httpSinkConfig);
 
         FirehoseInstrumentation firehoseInstrumentation = new FirehoseInstrumentation(statsDReporter, HttpSinkFactory.class);
 
-        CloseableHttpClient closeableHttpClient = newHttpClient(httpSinkConfig, statsDReporter);
+        OAuth2Credential oAuth2Credential = httpSinkConfig.isSinkHttpOAuth2Enable() ? newOAuth2Credential(httpSinkConfig, statsDReporter) : null;
+        CloseableHttpClient closeableHttpClient = newHttpClient(httpSinkConfig, oAuth2Credential);
         firehoseInstrumentation.logInfo("HTTP connection established");
 
         UriParser uriParser = new UriParser(stencilClient.getParser(httpSinkConfig.getInputSchemaProtoClass()), httpSinkConfig.getKafkaRecordParserMode());
 
         Request request = new RequestFactory(statsDReporter, httpSinkConfig, stencilClient, uriParser).createRequest();
 
-        return new HttpSink(new FirehoseInstrumentation(statsDReporter, HttpSink.class), request, closeableHttpClient, stencilClient, httpSinkConfig.getSinkHttpRetryStatusCodeRanges(), httpSinkConfig.getSinkHttpRequestLogStatusCodeRanges());
+        CircuitBreaker circuitBreaker = httpSinkConfig.isSinkHttpCircuitBreakerEnable()
+                ? new CircuitBreaker(new FirehoseInstrumentation(statsDReporter, CircuitBreaker.class),
+                httpSinkConfig.getSinkHttpCircuitBreakerFailureRateThreshold(),
+                httpSinkConfig.getSinkHttpCircuitBreakerSlidingWindowSize(),
+                httpSinkConfig.getSinkHttpCircuitBreakerOpenDurationMs(),
+                httpSinkConfig.getSinkHttpCircuitBreakerHalfOpenPermittedCalls())
+                : null;
+        HedgedExecutor hedgedExecutor = httpSinkConfig.isSinkHttpHedgingEnable()
+                ? new HedgedExecutor(new FirehoseInstrumentation(statsDReporter, HedgedExecutor.class), httpSinkConfig.getSinkHttpHedgingMinDelayMs())
+                : null;
+
+        return new HttpSink(new FirehoseInstrumentation(statsDReporter, HttpSink.class), request, closeableHttpClient, stencilClient, httpSinkConfig.getSinkHttpRetryStatusCodeRanges(), httpSinkConfig.getSinkHttpRequestLogStatusCodeRanges(),
+                circuitBreaker, hedgedExecutor, oAuth2Credential);
+    }
+
+    /**
+     * Hedging sends the same request twice, which is only safe for the idempotent PUT and DELETE methods.
+     */
+    private static void validateHedging(HttpSinkConfig httpSinkConfig) {
+        HttpSinkRequestMethodType method = httpSinkConfig.getSinkHttpRequestMethod();
+        if (httpSinkConfig.isSinkHttpHedgingEnable()
+                && (method == HttpSinkRequestMethodType.POST || method == HttpSinkRequestMethodType.PATCH)) {
+            throw new ConfigurationException("SINK_HTTP_HEDGING_ENABLE is not supported with the non-idempotent " + method + " method");
+        }
     }
 
-    private static CloseableHttpClient newHttpClient(HttpSinkConfig httpSinkConfig, StatsDReporter statsDReporter) {
+    private static CloseableHttpClient newHttpClient(HttpSinkConfig httpSinkConfig, OAuth2Credential oAuth2Credential) {
         Integer maxHttpConnections = httpSinkConfig.getSinkHttpMaxConnections();
         RequestConfig requestConfig = RequestConfig.custom().setSocketTimeout(httpSinkConfig.getSinkHttpRequestTimeoutMs())
                 .setConnectionRequestTimeout(httpSinkConfig.getSinkHttpRequestTimeoutMs())
@@ -59,15 +92,25 @@ public class HttpSinkFactory {
         connectionManager.setMaxTotal(maxHttpConnections);
         connectionManager.setDefaultMaxPerRoute(maxHttpConnections);
         HttpClientBuilder builder = HttpClients.custom().setConnectionManager(connectionManager).setDefaultRequestConfig(requestConfig);
-        if (httpSinkConfig.isSinkHttpOAuth2Enable()) {
-            OAuth2Credential oauth2 = new OAuth2Credential(
-                    new FirehoseInstrumentation(statsDReporter, OAuth2Credential.class),
-                    httpSinkConfig.getSinkHttpOAuth2ClientName(),
-                    httpSinkConfig.getSinkHttpOAuth2ClientSecret(),
-                    httpSinkConfig.getSinkHttpOAuth2Scope(),
-                    httpSinkConfig.getSinkHttpOAuth2AccessTokenUrl());
-            builder = oauth2.initialize(builder);
+        if (oAuth2Credential != null) {
+            builder = oAuth2Credential.initialize(builder);
         }
         return builder.build();
     }
+
+    private static OAuth2Credential newOAuth2Credential(HttpSinkConfig httpSinkConfig, StatsDReporter statsDReporter) {
+        OAuth2Client oAuth2Client = new OAuth2Client(
+                httpSinkConfig.getSinkHttpOAuth2ClientName(),
+                httpSinkConfig.getSinkHttpOAuth2ClientSecret(),
+                httpSinkConfig.getSinkHttpOAuth2Scope(),
+                httpSinkConfig.getSinkHttpOAuth2AccessTokenUrl());
+        ScheduledExecutorService refreshScheduler = httpSinkConfig.isSinkHttpOAuth2BackgroundRefreshEnable()
+                ? Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("oauth2-token-refresh-%d").setDaemon(true).build())
+                : null;
+        return new OAuth2Credential(
+                new FirehoseInstrumentation(statsDReporter, OAuth2Credential.class),
+                oAuth2Client,
+                refreshScheduler,
+                httpSinkConfig.getSinkHttpOAuth2RefreshAheadSeconds());
+    }
 }
@@ -9,38 +9,131 @@ import org.apache.http.HttpResponseInterceptor;
 import org.apache.http.HttpStatus;
 import org.apache.http.impl.client.HttpClientBuilder;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.odpf.firehose.metrics.Metrics.FAILURE_TAG;
+import static io.odpf.firehose.metrics.Metrics.SINK_HTTP_OAUTH2_TOKEN_REFRESH_MILLISECONDS;
+import static io.odpf.firehose.metrics.Metrics.SUCCESS_TAG;
 
 /**
  * Interceptor to add oauth token in http request.
+ * <p>
+ * Token requests are single-flight: concurrent callers observing the same stale token
+ * wait for one refresh instead of each calling the token endpoint. When a refresh scheduler
+ * is supplied the token is also refreshed in the background ahead of its expiry.
+ * For short-lived tokens the refresh-ahead is capped at half of the token lifetime and the
+ * refresh delay never drops below {@link #MIN_REFRESH_DELAY_SECONDS}, so background refreshes
+ * cannot spin against the token endpoint.
  */
-public class OAuth2Credential implements Interceptor {
+public class OAuth2Credential implements Interceptor, Closeable {
+
+    private static final long REFRESH_RETRY_DELAY_SECONDS = 5L;
+    private static final long MIN_REFRESH_DELAY_SECONDS = 5L;
 
     private final OAuth2Client client;
-    private OAuth2AccessToken accessToken;
-    private FirehoseInstrumentation firehoseInstrumentation;
+    private final AtomicReference<OAuth2AccessToken> accessToken = new AtomicReference<>();
+    private final Object refreshLock = new Object();
+    private final ScheduledExecutorService refreshScheduler;
+    private final long refreshAheadSeconds;
+    private final FirehoseInstrumentation firehoseInstrumentation;
+    private ScheduledFuture<?> scheduledRefresh;
 
     public OAuth2Credential(FirehoseInstrumentation firehoseInstrumentation, String clientId, String clientSecret, String scope, String accessTokenEndpoint) {
+        this(firehoseInstrumentation, new OAuth2Client(clientId, clientSecret, scope, accessTokenEndpoint), null, 0L);
+    }
+
+    public OAuth2Credential(FirehoseInstrumentation firehoseInstrumentation, OAuth2Client client, ScheduledExecutorService refreshScheduler, long refreshAheadSeconds) {
         this.firehoseInstrumentation = firehoseInstrumentation;
-        this.client = new OAuth2Client(clientId, clientSecret, scope, accessTokenEndpoint);
+        this.client = client;
+        this.refreshScheduler = refreshScheduler;
+        this.refreshAheadSeconds = refreshAheadSeconds;
     }
 
     public void requestAccessToken() throws IOException {
-        firehoseInstrumentation.logInfo("Requesting Access Token, expires in: {0}",
-                (this.accessToken == null ? "<none>" : this.accessToken.getExpiresIn()));
-        OAuth2AccessToken token = client.requestClientCredentialsGrantAccessToken();
-        setAccessToken(token);
+        refreshAccessToken(getAccessToken());
+    }
+
+    /**
+     * Requests a new token unless another caller has already replaced the stale one.
+     *
+     * @param staleToken the token the caller observed, may be null
+     * @return the current valid token
+     * @throws IOException if the token endpoint request fails
+     */
+    OAuth2AccessToken refreshAccessToken(OAuth2AccessToken staleToken) throws IOException {
+        synchronized (refreshLock) {
+            OAuth2AccessToken current = accessToken.get();
+            if (current != null && current != staleToken && !current.isExpired()) {
+                return current;
+            }
+            firehoseInstrumentation.logInfo("Requesting Access Token, expires in: {}",
+                    (current == null ? "<none>" : current.getExpiresIn()));
+            Instant startTime = Instant.now();
+            try {
+                OAuth2AccessToken token = client.requestClientCredentialsGrantAccessToken();
+                firehoseInstrumentation.captureDurationSince(SINK_HTTP_OAUTH2_TOKEN_REFRESH_MILLISECONDS, startTime, SUCCESS_TAG);
+                accessToken.set(token);
+                scheduleRefresh(token, refreshDelaySeconds(token));
+                return token;
+            } catch (IOException | RuntimeException e) {
+                firehoseInstrumentation.captureDurationSince(SINK_HTTP_OAUTH2_TOKEN_REFRESH_MILLISECONDS, startTime, FAILURE_TAG);
+                throw e;
+            }
+        }
+    }
+
+    private long refreshDelaySeconds(OAuth2AccessToken token) {
+        long expiresIn = token.getExpiresIn();
+        long refreshAhead = Math.min(refreshAheadSeconds, expiresIn / 2);
+        return Math.max(MIN_REFRESH_DELAY_SECONDS, expiresIn - refreshAhead);
+    }
+
+    private void scheduleRefresh(OAuth2AccessToken token, long delaySeconds) {
+        if (refreshScheduler == null) {
+            return;
+        }
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+        }
+        if (refreshScheduler.isShutdown()) {
+            return;
+        }
+        scheduledRefresh = refreshScheduler.schedule(() -> backgroundRefresh(token), delaySeconds, TimeUnit.SECONDS);
+    }
+
+    private void backgroundRefresh(OAuth2AccessToken token) {
+        try {
+            refreshAccessToken(token);
+        } catch (IOException | RuntimeException e) {
+            firehoseInstrumentation.logWarn("OAuth2 background token refresh failed: {}", e.getMessage());
+            synchronized (refreshLock) {
+                if (accessToken.get() == token && !token.isExpired()) {
+                    scheduleRefresh(token, REFRESH_RETRY_DELAY_SECONDS);
+                }
+            }
+        }
+    }
+
+    private OAuth2AccessToken getValidAccessToken() throws IOException {
+        OAuth2AccessToken token = getAccessToken();
+        if (token == null || token.isExpired()) {
+            token = refreshAccessToken(token);
+        }
+        return token;
     }
 
     public HttpRequestInterceptor requestInterceptor() {
         return (request, context) -> {
             try {
-                if (getAccessToken() == null || getAccessToken().isExpired()) {
-                    requestAccessToken();
-                }
-                request.addHeader("Authorization", "Bearer " + getAccessToken().toString());
+                request.addHeader("Authorization", "Bearer " + getValidAccessToken().toString());
             } catch (IOException e) {
-                firehoseInstrumentation.logWarn("OAuth2 request access token failed: {0}", e.getMessage());
+                firehoseInstrumentation.logWarn("OAuth2 request access token failed: {}", e.getMessage());
             }
         };
     }
@@ -59,23 +152,20 @@ public class OAuth2Credential implements Interceptor {
     }
 
     public OAuth2AccessToken getAccessToken() {
-        return accessToken;
+        return accessToken.get();
     }
 
     public void setAccessToken(OAuth2AccessToken accessToken) {
-        this.accessToken = accessToken;
+        this.accessToken.set(accessToken);
     }
 
     @Override
     public Response intercept(Chain chain) throws IOException {
         Request request = chain.request();
         try {
-            if (getAccessToken() == null || getAccessToken().isExpired()) {
-                requestAccessToken();
-            }
-            request = request.newBuilder().header("Authorization", "Bearer " + getAccessToken().toString()).build();
+            request = request.newBuilder().header("Authorization", "Bearer " + getValidAccessToken().toString()).build();
         } catch (IOException e) {
-            firehoseInstrumentation.logWarn("OAuth2 request access token failed: {0}", e.getMessage());
+            firehoseInstrumentation.logWarn("OAuth2 request access token failed: {}", e.getMessage());
         }
 
         Response response = chain.proceed(request);
@@ -85,5 +175,17 @@ public class OAuth2Credential implements Interceptor {
         }
         return response;
     }
-}
 
+    @Override
+    public void close() {
+        if (refreshScheduler == null) {
+            return;
+        }
+        synchronized (refreshLock) {
+            if (scheduledRefresh != null) {
+                scheduledRefresh.cancel(false);
+            }
+            refreshScheduler.shutdownNow();
+        }
+    }
+}
@@ -2,6 +2,8 @@ package io.odpf.firehose.sink.influxdb.builder;
 
 import io.odpf.firehose.config.InfluxSinkConfig;
 import io.odpf.firehose.exception.ConfigurationException;
+import io.odpf.firehose.proto.ProtoFieldAccessor;
+import io.odpf.firehose.proto.ProtoFieldPlan;
 import com.google.protobuf.Descriptors;
 import com.google.protobuf.Duration;
 import com.google.protobuf.DynamicMessage;
@@ -28,6 +30,8 @@ public class PointBuilder {
     private Properties fieldNameProtoIndexMapping;
     private String measurementName;
     private Integer timeStampIndex;
+    private ProtoFieldPlan tagPlan;
+    private ProtoFieldPlan fieldPlan;
 
     /**
      * Instantiates a new Point builder.
@@ -43,60 +47,52 @@ public class PointBuilder {
 
     public Point buildPoint(DynamicMessage message) throws InvalidProtocolBufferException {
         this.pointBuilder = Point.measurement(measurementName);
-        addTagsToPoint(message, tagNameProtoIndexMapping);
-        addFieldsToPoint(message, fieldNameProtoIndexMapping);
-        Timestamp timestamp = getTimestamp(message, timeStampIndex);
+        if (fieldNameProtoIndexMapping.isEmpty()) {
+            throw new ConfigurationException(FIELD_NAME_MAPPING_ERROR_MESSAGE);
+        }
+        Descriptors.Descriptor descriptor = message.getDescriptorForType();
+        if (fieldPlan == null || !fieldPlan.isCompiledFor(descriptor)) {
+            tagPlan = ProtoFieldPlan.compile(descriptor, tagNameProtoIndexMapping);
+            fieldPlan = ProtoFieldPlan.compile(descriptor, fieldNameProtoIndexMapping);
+        }
+        addTagsToPoint(message);
+        addFieldsToPoint(message);
+        Timestamp timestamp = getTimestamp(getField(message, timeStampIndex));
         pointBuilder.time(getMillisFromTimestamp(timestamp), TimeUnit.MILLISECONDS);
         return pointBuilder.build();
     }
 
-    private Timestamp getTimestamp(Message message, Integer fieldIndex) throws InvalidProtocolBufferException {
-        DynamicMessage timestamp = (DynamicMessage) getField(message, fieldIndex);
-        return Timestamp.parseFrom(timestamp.toByteArray());
+    private Timestamp getTimestamp(Object timestamp) throws InvalidProtocolBufferException {
+        return Timestamp.parseFrom(((Message) timestamp).toByteArray());
     }
 
-    private void addTagsToPoint(Message message, Properties protoIndexMapping) throws InvalidProtocolBufferException {
-        for (Object protoFieldIndex : protoIndexMapping.keySet()) {
-            int fieldIndex = Integer.parseInt((String) protoFieldIndex);
-            Object tagValue = getField(message, fieldIndex);
-            Object tag = protoIndexMapping.get(protoFieldIndex);
-            Descriptors.FieldDescriptor fieldDescriptor = getFieldByIndex(message, fieldIndex);
+    private void addTagsToPoint(Message message) throws InvalidProtocolBufferException {
+        for (int i = 0; i < tagPlan.size(); i++) {
+            ProtoFieldAccessor accessor = tagPlan.get(i);
+            Object tagValue = accessor.getValue(message);
+            Descriptors.FieldDescriptor fieldDescriptor = accessor.getFieldDescriptor();
             if (fieldIsOfMessageType(fieldDescriptor, Timestamp.getDescriptor())
                     || fieldIsOfMessageType(fieldDescriptor, Duration.getDescriptor())) {
-                pointBuilder.tag((String) tag, getMillisFromTimestamp(getTimestamp(message, fieldIndex)).toString());
-            } else if (tag instanceof String) {
-                pointBuilder.tag((String) tag, tagValue.toString());
-            } else if (tag instanceof Properties) {
-                addTagsToPoint((Message) tagValue, (Properties) tag);
+                pointBuilder.tag(accessor.getName(), getMillisFromTimestamp(getTimestamp(tagValue)).toString());
             } else {
-                throw new RuntimeException("column can either be properties or string");
+                pointBuilder.tag(accessor.getName(), tagValue.toString());
             }
         }
     }
 
-    private void addFieldsToPoint(Message message, Properties protoIndexMapping) throws InvalidProtocolBufferException {
-        if (protoIndexMapping.isEmpty()) {
-            throw new ConfigurationException(FIELD_NAME_MAPPING_ERROR_MESSAGE);
-        }
+    private void addFieldsToPoint(Message message) throws InvalidProtocolBufferException {
         Map<String, Object> fieldNameValueMap = new HashMap<>();
-        for (Object protoFieldIndex : protoIndexMapping.keySet()) {
-            int fieldIndex = Integer.parseInt((String) protoFieldIndex);
-            Object field = protoIndexMapping.get(protoFieldIndex);
-
-            if (field instanceof String) {
-                Descriptors.FieldDescriptor fieldDescriptor = getFieldByIndex(message, fieldIndex);
-                if (fieldIsOfMessageType(fieldDescriptor, Timestamp.getDescriptor())
-                        || fieldIsOfMessageType(fieldDescriptor, Duration.getDescriptor())) {
-                    fieldNameValueMap.put((String) field, getMillisFromTimestamp(getTimestamp(message, fieldIndex)));
-                } else if (fieldIsOfEnumType(fieldDescriptor)) {
-                    fieldNameValueMap.put((String) field, getField(message, fieldIndex).toString());
-                } else {
-                    fieldNameValueMap.put((String) field, getField(message, fieldIndex));
-                }
-            } else if (field instanceof Properties) {
-                addFieldsToPoint((Message) getField(message, fieldIndex), (Properties) field);
+        for (int i = 0; i < fieldPlan.size(); i++) {
+            ProtoFieldAccessor accessor = fieldPlan.get(i);
+            Object fieldValue = accessor.getValue(message);
+            Descriptors.FieldDescriptor fieldDescriptor = accessor.getFieldDescriptor();
+            if (fieldIsOfMessageType(fieldDescriptor, Timestamp.getDescriptor())
+                    || fieldIsOfMessageType(fieldDescriptor, Duration.getDescriptor())) {
+                fieldNameValueMap.put(accessor.getName(), getMillisFromTimestamp(getTimestamp(fieldValue)));
+            } else if (fieldIsOfEnumType(fieldDescriptor)) {
+                fieldNameValueMap.put(accessor.getName(), fieldValue.toString());
             } else {
-                throw new RuntimeException("column can either be properties or string");
+                fieldNameValueMap.put(accessor.getName(), fieldValue);
             }
         }
         pointBuilder.fields(fieldNameValueMap);
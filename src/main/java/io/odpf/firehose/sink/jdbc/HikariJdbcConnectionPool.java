@@ -13,6 +13,7 @@ public class HikariJdbcConnectionPool implements JdbcConnectionPool {
 
     private static final Integer CONNECTION_TIMEOUT_THRESHOLD = 250;
     private static final Integer IDLE_TIMEOUT_THRESHOLD = 0;
+    private static final String POSTGRES_URL_PREFIX = "jdbc:postgresql:";
     private final HikariDataSource hikariDataSource;
 
     /**
@@ -41,6 +42,12 @@ public class HikariJdbcConnectionPool implements JdbcConnectionPool {
         if (idleTimeout >= IDLE_TIMEOUT_THRESHOLD) {
             config.setIdleTimeout(idleTimeout);
         }
+        if (jdbcUrl != null && jdbcUrl.startsWith(POSTGRES_URL_PREFIX)) {
+            // statements are prepared on the server on their first use and cached per physical connection by the driver,
+            // so a statement prepared again for every batch is only parsed and planned once per connection
+            config.addDataSourceProperty("prepareThreshold", "1");
+            config.addDataSourceProperty("preparedStatementCacheQueries", "256");
+        }
         hikariDataSource = new HikariDataSource(config);
     }
 
@@ -0,0 +1,132 @@
+package io.odpf.firehose.sink.jdbc;
+
+import io.odpf.firehose.consumer.kafka.SinkOffsetStore;
+import io.odpf.firehose.message.Message;
+import org.apache.kafka.common.TopicPartition;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stores the next offset to consume of every partition in a table of the database, in the transaction which writes the messages.
+ * After a restart or a rebalance the consumer resumes from these offsets, so batches which are written are never written again.
+ */
+public class JdbcOffsetStore implements SinkOffsetStore {
+
+    private final JdbcConnectionPool pool;
+    private final String tableName;
+    private final String consumerGroupId;
+
+    /**
+     * Instantiates a new Jdbc offset store.
+     *
+     * @param pool            the pool to read the offsets with
+     * @param tableName       the offsets table name
+     * @param consumerGroupId the consumer group id the offsets are stored for
+     */
+    public JdbcOffsetStore(JdbcConnectionPool pool, String tableName, String consumerGroupId) {
+        this.pool = pool;
+        this.tableName = tableName;
+        this.consumerGroupId = consumerGroupId;
+    }
+
+    /**
+     * Create the offsets table if it does not exist.
+     *
+     * @throws SQLException the sql exception
+     */
+    public void createTableIfNotExists() throws SQLException {
+        Connection connection = pool.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(String.format("CREATE TABLE IF NOT EXISTS %s ( consumer_group TEXT NOT NULL, kafka_topic TEXT NOT NULL, "
+                    + "kafka_partition INTEGER NOT NULL, next_offset BIGINT NOT NULL, PRIMARY KEY ( consumer_group, kafka_topic, kafka_partition ) )", tableName));
+        } finally {
+            pool.release(connection);
+        }
+    }
+
+    /**
+     * The next offset to consume of every partition of the messages.
+     *
+     * @param messages the messages
+     * @return the offset after the last message of every partition
+     */
+    public static Map<TopicPartition, Long> nextOffsetsOf(Collection<Message> messages) {
+        Map<TopicPartition, Long> nextOffsets = new HashMap<>();
+        for (Message message : messages) {
+            nextOffsets.merge(new TopicPartition(message.getTopic(), message.getPartition()), message.getOffset() + 1, Math::max);
+        }
+        return nextOffsets;
+    }
+
+    /**
+     * Store the offsets in the transaction of the connection. Stored offsets only move forward.
+     *
+     * @param connection  the connection the messages are written with
+     * @param nextOffsets the next offset to consume of every partition
+     * @throws SQLException the sql exception
+     */
+    public void storeOffsets(Connection connection, Map<TopicPartition, Long> nextOffsets) throws SQLException {
+        if (nextOffsets.isEmpty()) {
+            return;
+        }
+        String sql = String.format("INSERT INTO %s ( consumer_group, kafka_topic, kafka_partition, next_offset ) values ( ?, ?, ?, ? ) "
+                + "ON CONFLICT ( consumer_group, kafka_topic, kafka_partition ) DO UPDATE SET next_offset = GREATEST(%s.next_offset, EXCLUDED.next_offset)", tableName, tableName);
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (Map.Entry<TopicPartition, Long> nextOffset : nextOffsets.entrySet()) {
+                statement.setString(1, consumerGroupId);
+                statement.setString(2, nextOffset.getKey().topic());
+                statement.setInt(3, nextOffset.getKey().partition());
+                statement.setLong(4, nextOffset.getValue());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    @Override
+    public Map<TopicPartition, Long> getNextOffsets(Collection<TopicPartition> partitions) throws IOException {
+        Map<TopicPartition, Long> nextOffsets = new HashMap<>();
+        try {
+            Connection connection = pool.getConnection();
+            String sql = String.format("SELECT kafka_topic, kafka_partition, next_offset FROM %s WHERE consumer_group = ?", tableName);
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setString(1, consumerGroupId);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        TopicPartition partition = new TopicPartition(resultSet.getString(1), resultSet.getInt(2));
+                        if (partitions.contains(partition)) {
+                            nextOffsets.put(partition, resultSet.getLong(3));
+                        }
+                    }
+                }
+            } finally {
+                pool.release(connection);
+            }
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+        return nextOffsets;
+    }
+
+    /**
+     * Shut down the pool the offsets are read with.
+     *
+     * @throws IOException when interrupted while shutting down the pool
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            pool.shutdown();
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+    }
+}
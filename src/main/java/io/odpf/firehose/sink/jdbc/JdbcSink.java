@@ -1,18 +1,30 @@
 package io.odpf.firehose.sink.jdbc;
 
 
+import io.odpf.depot.error.ErrorInfo;
+import io.odpf.depot.error.ErrorType;
+import io.odpf.firehose.config.JdbcSinkConfig;
+import io.odpf.firehose.config.enums.JdbcSinkWriteMode;
 import io.odpf.firehose.message.Message;
 import io.odpf.firehose.metrics.FirehoseInstrumentation;
 import io.odpf.firehose.sink.AbstractSink;
+import io.odpf.firehose.sink.common.UpsertCollapser;
 import io.odpf.stencil.client.StencilClient;
+import org.apache.kafka.common.TopicPartition;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
 
 import java.io.IOException;
+import java.io.StringReader;
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 /**
  * JDBC Sink allows messages consumed from kafka to be persisted to a database.
@@ -20,11 +32,22 @@ import java.util.List;
  */
 public class JdbcSink extends AbstractSink {
 
+    private static final String SQL_STATE_CLASS_DATA_EXCEPTION = "22";
+    private static final String SQL_STATE_CLASS_INTEGRITY_CONSTRAINT_VIOLATION = "23";
+
     private JdbcConnectionPool pool;
     private QueryTemplate queryTemplate;
     private StencilClient stencilClient;
     private Statement statement;
     private Connection connection = null;
+    private final JdbcSinkWriteMode writeMode;
+    private final UpsertCollapser upsertCollapser;
+    private final boolean failureIsolationEnabled;
+    private StringBuilder copyRows;
+    private List<Message> batchMessages;
+    private List<String> batchQueries;
+    private JdbcOffsetStore offsetStore;
+    private Map<TopicPartition, Long> batchNextOffsets;
 
     /**
      * Instantiates a new Jdbc sink.
@@ -36,10 +59,79 @@ public class JdbcSink extends AbstractSink {
      * @param stencilClient   the stencil client
      */
     public JdbcSink(FirehoseInstrumentation firehoseInstrumentation, String sinkType, JdbcConnectionPool pool, QueryTemplate queryTemplate, StencilClient stencilClient) {
+        this(firehoseInstrumentation, sinkType, pool, queryTemplate, stencilClient, JdbcSinkWriteMode.QUERY_STRING);
+    }
+
+    /**
+     * Instantiates a new Jdbc sink writing with the given mode.
+     *
+     * @param firehoseInstrumentation the instrumentation
+     * @param sinkType        the sink type
+     * @param pool            the pool
+     * @param queryTemplate   the query template
+     * @param stencilClient   the stencil client
+     * @param writeMode       the write mode
+     */
+    public JdbcSink(FirehoseInstrumentation firehoseInstrumentation, String sinkType, JdbcConnectionPool pool, QueryTemplate queryTemplate, StencilClient stencilClient, JdbcSinkWriteMode writeMode) {
+        this(firehoseInstrumentation, sinkType, pool, queryTemplate, stencilClient, writeMode, null);
+    }
+
+    /**
+     * Instantiates a new Jdbc sink writing with the given mode, collapsing upserts of the same unique keys in a batch.
+     *
+     * @param firehoseInstrumentation the instrumentation
+     * @param sinkType        the sink type
+     * @param pool            the pool
+     * @param queryTemplate   the query template
+     * @param stencilClient   the stencil client
+     * @param writeMode       the write mode
+     * @param upsertCollapser the upsert collapser, or null to write every message
+     */
+    public JdbcSink(FirehoseInstrumentation firehoseInstrumentation, String sinkType, JdbcConnectionPool pool, QueryTemplate queryTemplate, StencilClient stencilClient,
+                    JdbcSinkWriteMode writeMode, UpsertCollapser upsertCollapser) {
+        this(firehoseInstrumentation, sinkType, pool, queryTemplate, stencilClient, writeMode, upsertCollapser, false);
+    }
+
+    /**
+     * Instantiates a new Jdbc sink which, when failure isolation is enabled, returns only the messages whose rows are rejected by the database as failed.
+     *
+     * @param firehoseInstrumentation the instrumentation
+     * @param sinkType        the sink type
+     * @param pool            the pool
+     * @param queryTemplate   the query template
+     * @param stencilClient   the stencil client
+     * @param writeMode       the write mode
+     * @param upsertCollapser the upsert collapser, or null to write every message
+     * @param failureIsolationEnabled whether rejected rows are isolated from the rest of the batch
+     */
+    public JdbcSink(FirehoseInstrumentation firehoseInstrumentation, String sinkType, JdbcConnectionPool pool, QueryTemplate queryTemplate, StencilClient stencilClient,
+                    JdbcSinkWriteMode writeMode, UpsertCollapser upsertCollapser, boolean failureIsolationEnabled) {
         super(firehoseInstrumentation, sinkType);
         this.pool = pool;
         this.queryTemplate = queryTemplate;
         this.stencilClient = stencilClient;
+        this.writeMode = writeMode;
+        this.upsertCollapser = upsertCollapser;
+        this.failureIsolationEnabled = failureIsolationEnabled;
+    }
+
+    /**
+     * Instantiates a new Jdbc sink configured by the jdbc sink config.
+     *
+     * @param firehoseInstrumentation the instrumentation
+     * @param sinkType        the sink type
+     * @param pool            the pool
+     * @param queryTemplate   the query template
+     * @param stencilClient   the stencil client
+     * @param jdbcSinkConfig  the jdbc sink config
+     * @param upsertCollapser the upsert collapser, or null to write every message
+     * @param offsetStore     the store to write the offsets of each batch to in the transaction of the batch, or null
+     */
+    public JdbcSink(FirehoseInstrumentation firehoseInstrumentation, String sinkType, JdbcConnectionPool pool, QueryTemplate queryTemplate, StencilClient stencilClient,
+                    JdbcSinkConfig jdbcSinkConfig, UpsertCollapser upsertCollapser, JdbcOffsetStore offsetStore) {
+        this(firehoseInstrumentation, sinkType, pool, queryTemplate, stencilClient, jdbcSinkConfig.getSinkJdbcWriteMode(), upsertCollapser,
+                jdbcSinkConfig.isSinkJdbcFailureIsolationEnable());
+        this.offsetStore = offsetStore;
     }
 
     JdbcSink(FirehoseInstrumentation firehoseInstrumentation, String sinkType, JdbcConnectionPool pool, QueryTemplate queryTemplate, StencilClient stencilClient, Statement statement, Connection connection) {
@@ -50,15 +142,69 @@ public class JdbcSink extends AbstractSink {
 
     @Override
     protected void prepare(List<Message> messages) throws SQLException {
-        List<String> queriesList = createQueries(messages);
+        List<Message> messagesToWrite = messages;
+        if (upsertCollapser != null && queryTemplate.isAnUpsertOperation()) {
+            messagesToWrite = UpsertCollapser.select(messages, upsertCollapser.lastIndexPerKey(messages, queryTemplate::getUniqueKeyValues));
+        }
+        batchMessages = messagesToWrite;
+        // skipped messages are consumed as well, so offsets are taken from the whole batch
+        batchNextOffsets = offsetStore == null ? null : JdbcOffsetStore.nextOffsetsOf(messages);
+        if (writeMode == JdbcSinkWriteMode.PREPARED_STATEMENT) {
+            prepareStatement(messagesToWrite);
+            return;
+        }
+        if (writeMode == JdbcSinkWriteMode.COPY) {
+            copyRows = new StringBuilder();
+            for (int i = 0; i < messagesToWrite.size(); i++) {
+                queryTemplate.appendCsvRow(copyRows, messagesToWrite.get(i), i);
+            }
+            connection = pool.getConnection();
+            return;
+        }
+        batchQueries = createQueries(messagesToWrite);
         connection = pool.getConnection();
         statement = connection.createStatement();
 
-        for (String query : queriesList) {
+        for (String query : batchQueries) {
             statement.addBatch(query);
         }
     }
 
+    /**
+     * Prepares the statement of the batch on a pooled connection. The statement is prepared again for every batch,
+     * as the pool closes the statements of a connection when it is released, and is reused on the database side
+     * through the prepared statement cache of the driver, see {@link HikariJdbcConnectionPool}.
+     */
+    private void prepareStatement(List<Message> messages) throws SQLException {
+        connection = pool.getConnection();
+        try {
+            PreparedStatement preparedStatement = connection.prepareStatement(queryTemplate.toPreparedStatementSql());
+            statement = preparedStatement;
+            for (Message message : messages) {
+                queryTemplate.bindParameters(preparedStatement, message);
+                preparedStatement.addBatch();
+            }
+        } catch (SQLException | RuntimeException e) {
+            try {
+                closeStatement();
+            } catch (SQLException closeException) {
+                e.addSuppressed(closeException);
+            } finally {
+                pool.release(connection);
+                connection = null;
+            }
+            throw e;
+        }
+    }
+
+    private void closeStatement() throws SQLException {
+        if (statement != null) {
+            Statement toClose = statement;
+            statement = null;
+            toClose.close();
+        }
+    }
+
     protected List<String> createQueries(List<Message> messages) {
         List<String> queries = new ArrayList<>();
         for (Message message : messages) {
@@ -72,14 +218,156 @@ public class JdbcSink extends AbstractSink {
     @Override
     protected List<Message> execute() throws Exception {
         try {
+            if (failureIsolationEnabled && writeMode != JdbcSinkWriteMode.COPY) {
+                return executeIsolatingFailures();
+            }
+            if (offsetStore == null && (writeMode != JdbcSinkWriteMode.COPY || !queryTemplate.isAnUpsertOperation())) {
+                write();
+                return new ArrayList<>();
+            }
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                write();
+                if (offsetStore != null) {
+                    offsetStore.storeOffsets(connection, batchNextOffsets);
+                }
+                connection.commit();
+            } catch (SQLException | IOException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } finally {
+            try {
+                if (writeMode == JdbcSinkWriteMode.PREPARED_STATEMENT) {
+                    closeStatement();
+                }
+            } finally {
+                if (connection != null) {
+                    pool.release(connection);
+                }
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    private void write() throws SQLException, IOException {
+        if (writeMode == JdbcSinkWriteMode.COPY) {
+            long rowCount = copy();
+            getFirehoseInstrumentation().logDebug("DB response: copied {} rows", rowCount);
+        } else {
             int[] updateCounts = statement.executeBatch();
             getFirehoseInstrumentation().logDebug("DB response: {}", Arrays.toString(updateCounts));
+        }
+    }
+
+    private List<Message> executeIsolatingFailures() throws SQLException {
+        List<Message> failedMessages = new ArrayList<>();
+        List<Integer> rows = new ArrayList<>();
+        for (int i = 0; i < batchMessages.size(); i++) {
+            rows.add(i);
+        }
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            executeRows(rows, true, failedMessages);
         } finally {
-            if (connection != null) {
-                pool.release(connection);
+            connection.setAutoCommit(autoCommit);
+        }
+        return failedMessages;
+    }
+
+    /**
+     * Executes the rows in a transaction. When the database rejects a row, the transaction is rolled back,
+     * the rejected row is located from the update counts of the driver, or by bisecting the rows when the driver
+     * does not report it, and the rows are executed again in batch order, the rows before the rejected row first.
+     */
+    private void executeRows(List<Integer> rows, boolean alreadyBatched, List<Message> failedMessages) throws SQLException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            if (!alreadyBatched) {
+                addBatch(rows);
+            }
+            int[] updateCounts = statement.executeBatch();
+            connection.commit();
+            getFirehoseInstrumentation().logDebug("DB response: {}", Arrays.toString(updateCounts));
+        } catch (SQLException e) {
+            connection.rollback();
+            if (!isRejectedRow(e)) {
+                throw e;
+            }
+            if (rows.size() == 1) {
+                Message message = batchMessages.get(rows.get(0));
+                getFirehoseInstrumentation().logDebug("Row of message at offset {} rejected: {}", message.getOffset(), e.getMessage());
+                message.setErrorInfo(new ErrorInfo(e, ErrorType.SINK_4XX_ERROR));
+                failedMessages.add(message);
+                return;
+            }
+            int rejectedRow = getRejectedRow(e, rows.size());
+            if (rejectedRow >= 0) {
+                executeRows(rows.subList(0, rejectedRow), false, failedMessages);
+                executeRows(rows.subList(rejectedRow, rejectedRow + 1), false, failedMessages);
+                executeRows(rows.subList(rejectedRow + 1, rows.size()), false, failedMessages);
+            } else {
+                int half = rows.size() / 2;
+                executeRows(rows.subList(0, half), false, failedMessages);
+                executeRows(rows.subList(half, rows.size()), false, failedMessages);
             }
         }
-        return new ArrayList<>();
+    }
+
+    private void addBatch(List<Integer> rows) throws SQLException {
+        statement.clearBatch();
+        for (int row : rows) {
+            if (writeMode == JdbcSinkWriteMode.PREPARED_STATEMENT) {
+                queryTemplate.bindParameters((PreparedStatement) statement, batchMessages.get(row));
+                ((PreparedStatement) statement).addBatch();
+            } else {
+                statement.addBatch(batchQueries.get(row));
+            }
+        }
+    }
+
+    /**
+     * Only data exceptions and integrity constraint violations are caused by the rows themselves,
+     * other errors such as lost connections or deadlocks fail the whole batch.
+     */
+    private boolean isRejectedRow(SQLException e) {
+        String sqlState = e.getSQLState() != null || e.getNextException() == null ? e.getSQLState() : e.getNextException().getSQLState();
+        return sqlState != null && (sqlState.startsWith(SQL_STATE_CLASS_DATA_EXCEPTION) || sqlState.startsWith(SQL_STATE_CLASS_INTEGRITY_CONSTRAINT_VIOLATION));
+    }
+
+    private int getRejectedRow(SQLException e, int rowCount) {
+        if (!(e instanceof BatchUpdateException) || ((BatchUpdateException) e).getUpdateCounts() == null) {
+            return -1;
+        }
+        int[] updateCounts = ((BatchUpdateException) e).getUpdateCounts();
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] == Statement.EXECUTE_FAILED) {
+                return i;
+            }
+        }
+        return updateCounts.length < rowCount ? updateCounts.length : -1;
+    }
+
+    /**
+     * Copies the rows of the batch. Upserts are copied into a staging table and merged from it,
+     * which has to run in the transaction of the caller.
+     */
+    private long copy() throws SQLException, IOException {
+        CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+        if (!queryTemplate.isAnUpsertOperation()) {
+            return copyManager.copyIn(queryTemplate.toCopySql(), new StringReader(copyRows.toString()));
+        }
+        try (Statement stagingStatement = connection.createStatement()) {
+            stagingStatement.execute(queryTemplate.toCreateStagingTableSql());
+            copyManager.copyIn(queryTemplate.toCopySql(), new StringReader(copyRows.toString()));
+            return stagingStatement.executeUpdate(queryTemplate.toMergeStagingTableSql());
+        }
     }
 
     @Override
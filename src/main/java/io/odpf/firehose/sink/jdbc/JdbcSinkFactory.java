@@ -3,13 +3,23 @@ package io.odpf.firehose.sink.jdbc;
 
 import io.odpf.depot.metrics.StatsDReporter;
 import io.odpf.firehose.config.JdbcSinkConfig;
+import io.odpf.firehose.config.KafkaConsumerConfig;
+import io.odpf.firehose.config.enums.JdbcSinkWriteMode;
+import io.odpf.firehose.config.enums.KafkaConsumerMode;
+import io.odpf.firehose.consumer.kafka.SinkOffsetStore;
+import io.odpf.firehose.exception.ConfigurationException;
+import io.odpf.firehose.exception.SinkException;
 import io.odpf.firehose.metrics.FirehoseInstrumentation;
 import io.odpf.firehose.sink.AbstractSink;
+import io.odpf.firehose.sink.common.UpsertCollapser;
 import io.odpf.firehose.proto.ProtoToFieldMapper;
 import io.odpf.stencil.client.StencilClient;
 import io.odpf.stencil.Parser;
 import org.aeonbits.owner.ConfigFactory;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -31,6 +41,7 @@ public class JdbcSinkFactory {
      */
     public static AbstractSink create(Map<String, String> configuration, StatsDReporter statsDReporter, StencilClient client) {
         JdbcSinkConfig jdbcSinkConfig = ConfigFactory.create(JdbcSinkConfig.class, configuration);
+        validateFailureIsolation(jdbcSinkConfig);
 
         FirehoseInstrumentation firehoseInstrumentation = new FirehoseInstrumentation(statsDReporter, JdbcSinkFactory.class);
         String dbConfig = String.format(""
@@ -43,7 +54,82 @@ public class JdbcSinkFactory {
         firehoseInstrumentation.logInfo("JDBC Connection established");
         QueryTemplate queryTemplate = createQueryTemplate(jdbcSinkConfig, client);
 
-        return new JdbcSink(new FirehoseInstrumentation(statsDReporter, JdbcSink.class), "db", connectionPool, queryTemplate, client);
+        UpsertCollapser upsertCollapser = jdbcSinkConfig.isSinkJdbcUpsertCollapseEnable()
+                ? new UpsertCollapser(new FirehoseInstrumentation(statsDReporter, UpsertCollapser.class))
+                : null;
+
+        JdbcOffsetStore offsetStore = null;
+        if (!jdbcSinkConfig.getSinkJdbcOffsetsTableName().isEmpty()) {
+            KafkaConsumerConfig kafkaConsumerConfig = ConfigFactory.create(KafkaConsumerConfig.class, configuration);
+            validateOffsetStorage(jdbcSinkConfig, kafkaConsumerConfig);
+            offsetStore = new JdbcOffsetStore(connectionPool, jdbcSinkConfig.getSinkJdbcOffsetsTableName(), kafkaConsumerConfig.getSourceKafkaConsumerGroupId());
+        }
+
+        int shardCount = jdbcSinkConfig.getSinkJdbcShardCount();
+        if (shardCount > 1) {
+            if (shardCount > jdbcSinkConfig.getSinkJdbcConnectionPoolMaxSize()) {
+                firehoseInstrumentation.logWarn("{} shards share a connection pool of {} connections, shards will wait for connections",
+                        shardCount, jdbcSinkConfig.getSinkJdbcConnectionPoolMaxSize());
+            }
+            List<JdbcSink> shards = new ArrayList<>(shardCount);
+            for (int i = 0; i < shardCount; i++) {
+                shards.add(new JdbcSink(new FirehoseInstrumentation(statsDReporter, JdbcSink.class), "db", connectionPool, queryTemplate, client,
+                        jdbcSinkConfig, upsertCollapser, null));
+            }
+            return new ShardedJdbcSink(new FirehoseInstrumentation(statsDReporter, ShardedJdbcSink.class), "db", connectionPool, queryTemplate, client, shards);
+        }
+        return new JdbcSink(new FirehoseInstrumentation(statsDReporter, JdbcSink.class), "db", connectionPool, queryTemplate, client,
+                jdbcSinkConfig, upsertCollapser, offsetStore);
+    }
+
+    /**
+     * Create the store the consumer resumes partitions from, when the JDBC sink stores offsets with the data.
+     *
+     * @param configuration  the configuration
+     * @param statsDReporter the stats d reporter
+     * @return the offset store, or null when offsets are not stored in the database
+     */
+    public static SinkOffsetStore createOffsetStore(Map<String, String> configuration, StatsDReporter statsDReporter) {
+        JdbcSinkConfig jdbcSinkConfig = ConfigFactory.create(JdbcSinkConfig.class, configuration);
+        if (jdbcSinkConfig.getSinkJdbcOffsetsTableName().isEmpty()) {
+            return null;
+        }
+        KafkaConsumerConfig kafkaConsumerConfig = ConfigFactory.create(KafkaConsumerConfig.class, configuration);
+        validateOffsetStorage(jdbcSinkConfig, kafkaConsumerConfig);
+        HikariJdbcConnectionPool connectionPool = new HikariJdbcConnectionPool(jdbcSinkConfig.getSinkJdbcUrl(), jdbcSinkConfig.getSinkJdbcUsername(),
+                jdbcSinkConfig.getSinkJdbcPassword(), 1,
+                jdbcSinkConfig.getSinkJdbcConnectionPoolTimeoutMs(), jdbcSinkConfig.getSinkJdbcConnectionPoolIdleTimeoutMs(), 0);
+        JdbcOffsetStore offsetStore = new JdbcOffsetStore(connectionPool, jdbcSinkConfig.getSinkJdbcOffsetsTableName(), kafkaConsumerConfig.getSourceKafkaConsumerGroupId());
+        try {
+            offsetStore.createTableIfNotExists();
+        } catch (SQLException e) {
+            connectionPool.shutdown();
+            throw new SinkException("Could not create the offsets table " + jdbcSinkConfig.getSinkJdbcOffsetsTableName(), e);
+        }
+        new FirehoseInstrumentation(statsDReporter, JdbcSinkFactory.class)
+                .logInfo("Partitions are resumed from the offsets in {}", jdbcSinkConfig.getSinkJdbcOffsetsTableName());
+        return offsetStore;
+    }
+
+    /**
+     * The offsets stored with a batch are only safe to resume from when every message before them is written,
+     * which is not the case when batches are written concurrently or partially.
+     */
+    private static void validateOffsetStorage(JdbcSinkConfig jdbcSinkConfig, KafkaConsumerConfig kafkaConsumerConfig) {
+        if (kafkaConsumerConfig.getSourceKafkaConsumerMode() != KafkaConsumerMode.SYNC
+                || jdbcSinkConfig.getSinkJdbcShardCount() > 1
+                || jdbcSinkConfig.isSinkJdbcFailureIsolationEnable()) {
+            throw new ConfigurationException("SINK_JDBC_OFFSETS_TABLE_NAME requires the SYNC consumer mode, a single shard and failure isolation to be disabled");
+        }
+    }
+
+    /**
+     * COPY loads the whole batch in one statement, so the rows rejected by the database can not be told apart.
+     */
+    private static void validateFailureIsolation(JdbcSinkConfig jdbcSinkConfig) {
+        if (jdbcSinkConfig.isSinkJdbcFailureIsolationEnable() && jdbcSinkConfig.getSinkJdbcWriteMode() == JdbcSinkWriteMode.COPY) {
+            throw new ConfigurationException("SINK_JDBC_FAILURE_ISOLATION_ENABLE is not supported with the COPY write mode");
+        }
     }
 
     private static QueryTemplate createQueryTemplate(JdbcSinkConfig jdbcSinkConfig, StencilClient stencilClient) {
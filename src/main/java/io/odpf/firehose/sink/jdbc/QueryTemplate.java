@@ -6,8 +6,16 @@ import io.odpf.firehose.proto.ProtoToFieldMapper;
 import com.samskivert.mustache.Escapers;
 import com.samskivert.mustache.Mustache;
 import com.samskivert.mustache.Template;
+import com.google.common.io.BaseEncoding;
+import com.google.protobuf.ByteString;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
@@ -25,7 +33,20 @@ public class QueryTemplate {
     private static final String INSERT_QUERY = "INSERT INTO {{table}} ( {{insertColumns}} ) values ( {{insertValues}} ) ";
     private static final String UPDATE_CLAUSE = "ON CONFLICT ( {{unique}} ) DO UPDATE SET ( {{updateColumns}} ) = ({{updateValues}})";
     private static final String EMPTY_UPDATE_CLAUSE = "ON CONFLICT ( {{unique}} ) DO NOTHING";
+    private static final String COPY_QUERY = "COPY {{copyTable}} ( {{copyColumns}} ) FROM STDIN WITH ( FORMAT csv )";
+    private static final String CREATE_STAGING_TABLE_QUERY = "CREATE TEMP TABLE IF NOT EXISTS {{stagingTable}} ( LIKE {{table}} INCLUDING DEFAULTS, {{ordinalColumn}} bigint ) "
+            + "ON COMMIT DELETE ROWS";
+    private static final String MERGE_STAGING_TABLE_QUERY = "INSERT INTO {{table}} ( {{insertColumns}} ) SELECT DISTINCT ON ( {{unique}} ) {{insertColumns}} "
+            + "FROM {{stagingTable}} ORDER BY {{unique}}, {{ordinalColumn}} DESC ";
+    private static final String STAGING_TABLE_PREFIX = "firehose_staging_";
+    private static final String STAGING_ORDINAL_COLUMN = "firehose_staging_ordinal";
+    private static final String PARAMETER_PLACEHOLDER = "?";
+    private static final String EXCLUDED_COLUMN = "EXCLUDED.";
     private Template template;
+    private String preparedStatementSql;
+    private String copySql;
+    private String createStagingTableSql;
+    private String mergeStagingTableSql;
     private ProtoToFieldMapper protoToFieldMapper;
     private List<String> insertColumns;
     private List<String> updateColumns;
@@ -54,9 +75,30 @@ public class QueryTemplate {
     private void buildQuery() {
         String query = isAnUpsertOperation() ? INSERT_QUERY + onConflictResolutionQuery() : INSERT_QUERY;
         template = Mustache.compiler().withEscaper(Escapers.simple()).compile(query);
+
+        Map<String, Object> statementScopes = new HashMap<>(scopes);
+        statementScopes.put("insertValues", String.join(", ", Collections.nCopies(insertColumns.size(), PARAMETER_PLACEHOLDER)));
+        statementScopes.put("updateValues", updateColumns.stream().map(c -> EXCLUDED_COLUMN + c).collect(Collectors.joining(", ")));
+        preparedStatementSql = Mustache.compiler().withEscaper(Escapers.simple()).compile(query).execute(statementScopes);
+
+        // upserts are copied into a per session staging table and merged from there, since COPY has no conflict handling.
+        // the position of each row in the batch is copied along, as the physical order of the staging rows is not guaranteed
+        statementScopes.put("stagingTable", STAGING_TABLE_PREFIX + scopes.get("table").toString().replaceAll("\\W", "_"));
+        statementScopes.put("ordinalColumn", STAGING_ORDINAL_COLUMN);
+        statementScopes.put("copyTable", isAnUpsertOperation() ? statementScopes.get("stagingTable") : scopes.get("table"));
+        statementScopes.put("copyColumns", isAnUpsertOperation() ? scopes.get("insertColumns") + "," + STAGING_ORDINAL_COLUMN : scopes.get("insertColumns"));
+        copySql = Mustache.compiler().withEscaper(Escapers.simple()).compile(COPY_QUERY).execute(statementScopes);
+        createStagingTableSql = Mustache.compiler().withEscaper(Escapers.simple()).compile(CREATE_STAGING_TABLE_QUERY).execute(statementScopes);
+        mergeStagingTableSql = Mustache.compiler().withEscaper(Escapers.simple())
+                .compile(MERGE_STAGING_TABLE_QUERY + onConflictResolutionQuery()).execute(statementScopes);
     }
 
-    private boolean isAnUpsertOperation() {
+    /**
+     * Whether rows are upserted on the unique keys rather than inserted.
+     *
+     * @return true when unique keys are configured
+     */
+    public boolean isAnUpsertOperation() {
         return uniqueColumns.size() != 0;
     }
 
@@ -98,7 +140,128 @@ public class QueryTemplate {
     }
 
     public String toQueryString(Message message) {
+        Map<String, Object> columnToValue = getColumnValues(message);
+
+        String insertValues = stringifyColumnValues(columnToValue, insertColumns);
+        String updateValues = stringifyColumnValues(columnToValue, updateColumns);
+
+        Map<String, Object> messageScopes = new HashMap<>(scopes);
+        messageScopes.put("updateValues", updateValues);
+        messageScopes.put("insertValues", insertValues);
+
+        return template.execute(messageScopes);
+    }
+
+    /**
+     * The insert or upsert statement with a parameter placeholder for every insert column.
+     * Update values refer to the excluded row, so a message is bound once whether or not it conflicts.
+     *
+     * @return the sql to prepare
+     */
+    public String toPreparedStatementSql() {
+        return preparedStatementSql;
+    }
+
+    /**
+     * Binds the column values of the message to the parameters of the statement prepared
+     * from {@link #toPreparedStatementSql()}.
+     *
+     * @param statement the prepared statement
+     * @param message   the message
+     * @throws SQLException when a parameter can not be bound
+     */
+    public void bindParameters(PreparedStatement statement, Message message) throws SQLException {
+        Map<String, Object> columnToValue = getColumnValues(message);
+        for (int i = 0; i < insertColumns.size(); i++) {
+            bindParameter(statement, i + 1, columnToValue.get(insertColumns.get(i)));
+        }
+    }
+
+    /**
+     * The COPY statement loading csv rows written by {@link #appendCsvRow(StringBuilder, Message, int)}.
+     * For upserts the rows are copied into the staging table along with their position in the batch.
+     *
+     * @return the copy sql
+     */
+    public String toCopySql() {
+        return copySql;
+    }
+
+    /**
+     * Creates the session's staging table for upserts, emptied on every commit.
+     *
+     * @return the create table sql
+     */
+    public String toCreateStagingTableSql() {
+        return createStagingTableSql;
+    }
+
+    /**
+     * Upserts the copied rows from the staging table into the table. The row with the highest position
+     * in the batch wins when a batch has several rows for the same unique keys.
+     *
+     * @return the insert select sql
+     */
+    public String toMergeStagingTableSql() {
+        return mergeStagingTableSql;
+    }
+
+    /**
+     * Appends the column values of the message as one csv row in the column order of {@link #toCopySql()}.
+     *
+     * @param csv      the csv being built
+     * @param message  the message
+     * @param position the position of the message in the batch, copied along for upserts
+     */
+    public void appendCsvRow(StringBuilder csv, Message message, int position) {
+        Map<String, Object> columnToValue = getColumnValues(message);
+        for (int i = 0; i < insertColumns.size(); i++) {
+            if (i > 0) {
+                csv.append(',');
+            }
+            Object value = columnToValue.get(insertColumns.get(i));
+            if (value instanceof ByteString) {
+                csv.append("\\x").append(BaseEncoding.base16().lowerCase().encode(((ByteString) value).toByteArray()));
+            } else if (value instanceof Number || value instanceof Boolean || value instanceof Instant) {
+                csv.append(value);
+            } else if (value != null) {
+                csv.append('"').append(value.toString().replace("\"", "\"\"")).append('"');
+            }
+        }
+        if (isAnUpsertOperation()) {
+            csv.append(',').append(position);
+        }
+        csv.append('\n');
+    }
+
+    private void bindParameter(PreparedStatement statement, int index, Object value) throws SQLException {
+        if (value instanceof Instant) {
+            statement.setTimestamp(index, Timestamp.from((Instant) value));
+        } else if (value instanceof Number || value instanceof Boolean) {
+            statement.setObject(index, value);
+        } else if (value instanceof ByteString) {
+            statement.setBytes(index, ((ByteString) value).toByteArray());
+        } else if (value == null) {
+            statement.setNull(index, Types.NULL);
+        } else {
+            // strings, enums and json of messages, maps and lists are left to the database to convert to the column type,
+            // the same as the quoted literals of query strings
+            statement.setObject(index, value.toString(), Types.OTHER);
+        }
+    }
 
+    /**
+     * The values of the unique key columns of the message.
+     *
+     * @param message the message
+     * @return the unique key values, ordered by column name
+     */
+    public List<Object> getUniqueKeyValues(Message message) {
+        Map<String, Object> columnToValue = getColumnValues(message);
+        return uniqueColumns.stream().sorted().map(columnToValue::get).collect(Collectors.toList());
+    }
+
+    private Map<String, Object> getColumnValues(Message message) {
         byte[] value;
 
         if ("message".equals(kafkaRecordParserMode)) {
@@ -107,15 +270,7 @@ public class QueryTemplate {
             value = message.getLogKey();
         }
 
-        Map<String, Object> columnToValue = protoToFieldMapper.getFields(value);
-
-        String insertValues = stringifyColumnValues(columnToValue, insertColumns);
-        String updateValues = stringifyColumnValues(columnToValue, updateColumns);
-
-        scopes.put("updateValues", updateValues);
-        scopes.put("insertValues", insertValues);
-
-        return template.execute(scopes);
+        return protoToFieldMapper.getFields(value);
     }
 
     private String stringifyColumnValues(Map<String, Object> columnToValue, List<String> columns) {
@@ -0,0 +1,136 @@
+package io.odpf.firehose.sink.jdbc;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.odpf.firehose.exception.ConfigurationException;
+import io.odpf.firehose.exception.DeserializerException;
+import io.odpf.firehose.exception.SinkException;
+import io.odpf.firehose.message.Message;
+import io.odpf.firehose.metrics.FirehoseInstrumentation;
+import io.odpf.firehose.sink.AbstractSink;
+import io.odpf.stencil.client.StencilClient;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JDBC sink which splits every batch into shards and writes the shards concurrently, each on its own pooled connection.
+ * Upserts are sharded by the hash of their unique key values, so all writes to a row go through the same shard in batch order.
+ * A shard which fails returns its messages as failed without affecting the other shards.
+ */
+public class ShardedJdbcSink extends AbstractSink {
+
+    private static final long SHARD_TERMINATION_TIMEOUT_SECONDS = 30;
+
+    private final JdbcConnectionPool pool;
+    private final QueryTemplate queryTemplate;
+    private final StencilClient stencilClient;
+    private final List<JdbcSink> shards;
+    private final ExecutorService shardExecutor;
+    private final List<List<Message>> shardMessages = new ArrayList<>();
+
+    /**
+     * Instantiates a new Sharded jdbc sink.
+     *
+     * @param firehoseInstrumentation the instrumentation
+     * @param sinkType      the sink type
+     * @param pool          the pool shared by the shards
+     * @param queryTemplate the query template
+     * @param stencilClient the stencil client
+     * @param shards        the sinks writing the shards, one per shard
+     */
+    public ShardedJdbcSink(FirehoseInstrumentation firehoseInstrumentation, String sinkType, JdbcConnectionPool pool, QueryTemplate queryTemplate,
+                           StencilClient stencilClient, List<JdbcSink> shards) {
+        this(firehoseInstrumentation, sinkType, pool, queryTemplate, stencilClient, shards, Executors.newFixedThreadPool(shards.size(),
+                new ThreadFactoryBuilder().setNameFormat("jdbc-shard-%d").setDaemon(true).build()));
+    }
+
+    ShardedJdbcSink(FirehoseInstrumentation firehoseInstrumentation, String sinkType, JdbcConnectionPool pool, QueryTemplate queryTemplate,
+                    StencilClient stencilClient, List<JdbcSink> shards, ExecutorService shardExecutor) {
+        super(firehoseInstrumentation, sinkType);
+        this.pool = pool;
+        this.queryTemplate = queryTemplate;
+        this.stencilClient = stencilClient;
+        this.shards = shards;
+        this.shardExecutor = shardExecutor;
+    }
+
+    @Override
+    protected void prepare(List<Message> messages) {
+        shardMessages.clear();
+        shards.forEach(shard -> shardMessages.add(new ArrayList<>()));
+        boolean shardByUniqueKeys = queryTemplate.isAnUpsertOperation();
+        for (int i = 0; i < messages.size(); i++) {
+            Message message = messages.get(i);
+            int hash = shardByUniqueKeys ? queryTemplate.getUniqueKeyValues(message).hashCode() : i;
+            shardMessages.get(Math.floorMod(hash, shards.size())).add(message);
+        }
+    }
+
+    @Override
+    protected List<Message> execute() throws Exception {
+        List<Future<List<Message>>> shardResults = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            JdbcSink shard = shards.get(i);
+            List<Message> messages = shardMessages.get(i);
+            shardResults.add(messages.isEmpty() ? null : shardExecutor.submit(() -> {
+                shard.prepare(messages);
+                return shard.execute();
+            }));
+        }
+        List<Message> failedMessages = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            if (shardResults.get(i) == null) {
+                continue;
+            }
+            try {
+                failedMessages.addAll(shardResults.get(i).get());
+            } catch (ExecutionException e) {
+                rethrowIfFatal(e.getCause());
+                getFirehoseInstrumentation().logWarn("Failed to write {} messages of shard {}: {}", shardMessages.get(i).size(), i, e.getCause().getMessage());
+                getFirehoseInstrumentation().captureNonFatalError("firehose_error_event", e, "caught {} {}", e.getCause().getClass(), e.getCause().getMessage());
+                failedMessages.addAll(shardMessages.get(i));
+            }
+        }
+        return failedMessages;
+    }
+
+    /**
+     * Rethrows the exceptions {@link AbstractSink} treats as fatal instead of failing the messages of the shard.
+     */
+    private void rethrowIfFatal(Throwable cause) {
+        if (cause instanceof DeserializerException) {
+            throw (DeserializerException) cause;
+        }
+        if (cause instanceof ConfigurationException) {
+            throw (ConfigurationException) cause;
+        }
+        if (cause instanceof NullPointerException) {
+            throw (NullPointerException) cause;
+        }
+        if (cause instanceof SinkException) {
+            throw (SinkException) cause;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            getFirehoseInstrumentation().logInfo("Database connection closing");
+            shardExecutor.shutdown();
+            if (!shardExecutor.awaitTermination(SHARD_TERMINATION_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                getFirehoseInstrumentation().logWarn("Shard writes did not finish within {} seconds, interrupting them", SHARD_TERMINATION_TIMEOUT_SECONDS);
+                shardExecutor.shutdownNow();
+            }
+            pool.shutdown();
+            stencilClient.close();
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+    }
+}
@@ -4,31 +4,33 @@ import io.odpf.firehose.sink.jdbc.field.message.JdbcCollectionField;
 import io.odpf.firehose.sink.jdbc.field.message.JdbcDefaultMessageField;
 import io.odpf.firehose.sink.jdbc.field.message.JdbcTimestampField;
 import com.google.protobuf.Descriptors;
+import com.google.protobuf.Timestamp;
 
-import java.util.Arrays;
-import java.util.List;
+import java.util.function.Function;
 
 /**
  * Jdbc field factory.
  */
 public class JdbcFieldFactory {
     /**
-     * Returns the field based on configuration.
+     * Returns the conversion of the values of a field to column values, chosen once from the field descriptor.
      *
-     * @param columnValue     the column value
      * @param fieldDescriptor the field descriptor
-     * @return the field
+     * @return the conversion of field values to column values
      */
-    public static JdbcField getField(Object columnValue, Descriptors.FieldDescriptor fieldDescriptor) {
-        List<JdbcField> jdbcFields = Arrays.asList(
-                new JdbcCollectionField(columnValue, fieldDescriptor),
-                new JdbcMapField(columnValue, fieldDescriptor),
-                new JdbcTimestampField(columnValue),
-                new JdbcDefaultMessageField(columnValue));
-        return jdbcFields.stream()
-                .filter(JdbcField::canProcess)
-                .findFirst()
-                .orElseGet(() -> new JdbcDefaultField(columnValue));
+    public static Function<Object, Object> getColumnConverter(Descriptors.FieldDescriptor fieldDescriptor) {
+        if (fieldDescriptor.isMapField()) {
+            return columnValue -> new JdbcMapField(columnValue, fieldDescriptor).getColumn();
+        }
+        if (fieldDescriptor.isRepeated()) {
+            return columnValue -> new JdbcCollectionField(columnValue, fieldDescriptor).getColumn();
+        }
+        if (fieldDescriptor.getJavaType() != Descriptors.FieldDescriptor.JavaType.MESSAGE) {
+            return Function.identity();
+        }
+        if (fieldDescriptor.getMessageType().getName().equals(Timestamp.class.getSimpleName())) {
+            return columnValue -> new JdbcTimestampField(columnValue).getColumn();
+        }
+        return columnValue -> new JdbcDefaultMessageField(columnValue).getColumn();
     }
-
 }
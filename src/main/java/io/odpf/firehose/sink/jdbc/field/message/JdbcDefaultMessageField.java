@@ -7,7 +7,7 @@ import com.google.protobuf.util.JsonFormat;
 
 public class JdbcDefaultMessageField implements JdbcField {
     private Object columnValue;
-    private JsonFormat.Printer jsonPrinter = JsonFormat.printer()
+    private static final JsonFormat.Printer JSON_PRINTER = JsonFormat.printer()
             .omittingInsignificantWhitespace()
             .preservingProtoFieldNames()
             .includingDefaultValueFields();
@@ -19,7 +19,7 @@ public class JdbcDefaultMessageField implements JdbcField {
     @Override
     public Object getColumn() throws RuntimeException {
         try {
-            columnValue = this.jsonPrinter.print((Message) columnValue);
+            columnValue = JSON_PRINTER.print((Message) columnValue);
         } catch (InvalidProtocolBufferException e) {
             throw new RuntimeException(e);
         }
@@ -1,10 +1,12 @@
 package io.odpf.firehose.sink.mongodb;
 
 import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.ReplaceOneModel;
 import com.mongodb.client.model.WriteModel;
 import io.odpf.firehose.message.Message;
 import io.odpf.firehose.metrics.FirehoseInstrumentation;
 import io.odpf.firehose.sink.AbstractSink;
+import io.odpf.firehose.sink.common.UpsertCollapser;
 import io.odpf.firehose.sink.mongodb.client.MongoSinkClient;
 import io.odpf.firehose.sink.mongodb.request.MongoRequestHandler;
 import org.bson.Document;
@@ -26,6 +28,7 @@ public class MongoSink extends AbstractSink {
     private final MongoRequestHandler mongoRequestHandler;
     private final List<WriteModel<Document>> requests = new ArrayList<>();
     private final MongoSinkClient mongoSinkClient;
+    private final UpsertCollapser upsertCollapser;
     private List<Message> messages;
 
     /**
@@ -38,16 +41,33 @@ public class MongoSink extends AbstractSink {
      */
     public MongoSink(FirehoseInstrumentation firehoseInstrumentation, String sinkType, MongoRequestHandler mongoRequestHandler,
                      MongoSinkClient mongoSinkClient) {
+        this(firehoseInstrumentation, sinkType, mongoRequestHandler, mongoSinkClient, null);
+    }
+
+    /**
+     * Instantiates a new Mongo sink which collapses replacements of the same document in a batch.
+     *
+     * @param firehoseInstrumentation the instrumentation
+     * @param sinkType                the sink type
+     * @param mongoRequestHandler     the mongo request handler
+     * @param mongoSinkClient         the mongo sink client
+     * @param upsertCollapser         the upsert collapser, or null to send every request
+     * @since 0.1
+     */
+    public MongoSink(FirehoseInstrumentation firehoseInstrumentation, String sinkType, MongoRequestHandler mongoRequestHandler,
+                     MongoSinkClient mongoSinkClient, UpsertCollapser upsertCollapser) {
         super(firehoseInstrumentation, sinkType);
         this.mongoRequestHandler = mongoRequestHandler;
         this.mongoSinkClient = mongoSinkClient;
+        this.upsertCollapser = upsertCollapser;
     }
 
     /**
      * This method gets the WriteModel request for each message from
      * the MongoRequestHandler and adds the WriteModel request of
      * each message to the list of requests, thus creating a
-     * bulk request.
+     * bulk request. When collapsing is enabled, only the last
+     * replacement of each document is kept.
      *
      * @param messageList the list of messages to be sent to Mongo sink
      * @since 0.1
@@ -57,6 +77,14 @@ public class MongoSink extends AbstractSink {
         this.messages = messageList;
         requests.clear();
         messages.forEach(message -> requests.add(mongoRequestHandler.getRequest(message)));
+        if (upsertCollapser != null) {
+            List<Integer> kept = upsertCollapser.lastIndexPerKey(requests,
+                    request -> request instanceof ReplaceOneModel ? ((ReplaceOneModel<Document>) request).getFilter() : null);
+            List<WriteModel<Document>> keptRequests = UpsertCollapser.select(requests, kept);
+            this.messages = UpsertCollapser.select(messages, kept);
+            requests.clear();
+            requests.addAll(keptRequests);
+        }
     }
 
     /**
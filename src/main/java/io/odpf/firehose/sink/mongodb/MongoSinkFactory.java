@@ -11,6 +11,7 @@ import io.odpf.firehose.config.MongoSinkConfig;
 import io.odpf.firehose.config.enums.SinkType;
 import io.odpf.firehose.serializer.MessageToJson;
 import io.odpf.firehose.sink.Sink;
+import io.odpf.firehose.sink.common.UpsertCollapser;
 import io.odpf.firehose.sink.mongodb.client.MongoSinkClient;
 import io.odpf.firehose.sink.mongodb.request.MongoRequestHandler;
 import io.odpf.firehose.sink.mongodb.request.MongoRequestHandlerFactory;
@@ -52,8 +53,12 @@ public class MongoSinkFactory {
         mongoSinkClient.prepare();
         firehoseInstrumentation.logInfo("MONGO connection established");
 
+        UpsertCollapser upsertCollapser = mongoSinkConfig.isSinkMongoUpsertCollapseEnable()
+                ? new UpsertCollapser(new FirehoseInstrumentation(statsDReporter, UpsertCollapser.class))
+                : null;
+
         return new MongoSink(new FirehoseInstrumentation(statsDReporter, MongoSink.class), SinkType.MONGODB.name().toLowerCase(), mongoRequestHandler,
-                mongoSinkClient);
+                mongoSinkClient, upsertCollapser);
     }
 
     /**
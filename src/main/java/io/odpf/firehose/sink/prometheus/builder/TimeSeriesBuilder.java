@@ -1,11 +1,13 @@
 package io.odpf.firehose.sink.prometheus.builder;
 
 import io.odpf.firehose.config.PromSinkConfig;
+import com.google.protobuf.Descriptors;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.Message;
 
 import cortexpb.Cortex;
 import io.odpf.firehose.exception.ConfigurationException;
+import io.odpf.firehose.proto.ProtoFieldPlan;
 
 import java.util.List;
 import java.util.Properties;
@@ -23,6 +25,8 @@ public class TimeSeriesBuilder {
     private final Properties labelNameProtoIndexMapping;
     private Integer timestampIndex;
     private Boolean isEventTimestampEnabled;
+    private ProtoFieldPlan metricPlan;
+    private ProtoFieldPlan labelPlan;
 
     /**
      * Instantiates a new cortex time series builder.
@@ -54,8 +58,13 @@ public class TimeSeriesBuilder {
         Cortex.LabelPair.Builder cortexLabelBuilder = Cortex.LabelPair.newBuilder();
         Cortex.Sample.Builder cortexSampleBuilder = Cortex.Sample.newBuilder();
 
-        Set<PrometheusLabel> labels = TimeSeriesBuilderUtils.getLabelsFromMessage(message, labelNameProtoIndexMapping, partition);
-        Set<PrometheusMetric> metrics = TimeSeriesBuilderUtils.getMetricsFromMessage(message, metricNameProtoIndexMapping);
+        Descriptors.Descriptor descriptor = message.getDescriptorForType();
+        if (metricPlan == null || !metricPlan.isCompiledFor(descriptor)) {
+            metricPlan = ProtoFieldPlan.compile(descriptor, metricNameProtoIndexMapping);
+            labelPlan = ProtoFieldPlan.compile(descriptor, labelNameProtoIndexMapping);
+        }
+        Set<PrometheusLabel> labels = TimeSeriesBuilderUtils.getLabelsFromMessage(message, labelPlan, partition);
+        Set<PrometheusMetric> metrics = TimeSeriesBuilderUtils.getMetricsFromMessage(message, metricPlan);
         Long metricTimestamp = TimeSeriesBuilderUtils.getMetricTimestamp(message, isEventTimestampEnabled, timestampIndex);
         return metrics.stream().map(metric -> {
             cortexTimeSeriesBuilder.clear();
@@ -6,6 +6,8 @@ import com.google.protobuf.DynamicMessage;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.Message;
 import com.google.protobuf.Timestamp;
+import io.odpf.firehose.proto.ProtoFieldAccessor;
+import io.odpf.firehose.proto.ProtoFieldPlan;
 
 import java.util.HashSet;
 import java.util.Properties;
@@ -16,16 +18,20 @@ import static io.odpf.firehose.sink.prometheus.PromSinkConstants.*;
 public class TimeSeriesBuilderUtils {
 
     public static Set<PrometheusMetric> getMetricsFromMessage(Message message, Properties metricNameProtoIndexMapping) {
+        return getMetricsFromMessage(message, ProtoFieldPlan.compile(message.getDescriptorForType(), metricNameProtoIndexMapping));
+    }
+
+    /**
+     * @param message    Protobuf message to read values from
+     * @param metricPlan metric name mapping compiled for the descriptor of the message
+     * @return Set of Metrics
+     */
+    public static Set<PrometheusMetric> getMetricsFromMessage(Message message, ProtoFieldPlan metricPlan) {
         Set<PrometheusMetric> metrics = new HashSet<>();
-        metricNameProtoIndexMapping.forEach((metricIndex, metricKey) -> {
-            int fieldIndex = Integer.parseInt((String) metricIndex);
-            Object metricValue = getField(message, fieldIndex);
-            if (metricKey instanceof String) {
-                metrics.add(new PrometheusMetric(metricKey.toString(), Double.parseDouble(metricValue.toString())));
-            } else if (metricKey instanceof Properties) {
-                metrics.addAll(getMetricsFromMessage((Message) metricValue, (Properties) metricKey));
-            }
-        });
+        for (int i = 0; i < metricPlan.size(); i++) {
+            ProtoFieldAccessor accessor = metricPlan.get(i);
+            metrics.add(new PrometheusMetric(accessor.getName(), Double.parseDouble(accessor.getValue(message).toString())));
+        }
         return metrics;
     }
     /**
@@ -36,34 +42,32 @@ public class TimeSeriesBuilderUtils {
      */
 
     public static Set<PrometheusLabel> getLabelsFromMessage(Message message, Properties labelNameProtoIndexMapping, int partition) {
-        Set<PrometheusLabel> labels = new HashSet<>();
-        labels.add(new PrometheusLabel(KAFKA_PARTITION, String.valueOf(partition)));
-        labels.addAll(getLabelsFromMessage(message, labelNameProtoIndexMapping));
-        return labels;
+        return getLabelsFromMessage(message, ProtoFieldPlan.compile(message.getDescriptorForType(), labelNameProtoIndexMapping), partition);
     }
 
-    private static Set<PrometheusLabel> getLabelsFromMessage(Message message, Properties labelNameProtoIndexMapping) {
+    /**
+     * @param message   Protobuf message to read values from
+     * @param labelPlan label name mapping compiled for the descriptor of the message
+     * @param partition kafka partition to be set as default label
+     * @return Set of Labels
+     */
+    public static Set<PrometheusLabel> getLabelsFromMessage(Message message, ProtoFieldPlan labelPlan, int partition) {
         Set<PrometheusLabel> labels = new HashSet<>();
-        labelNameProtoIndexMapping.forEach((labelIndex, labelKey) -> {
-            int fieldIndex = Integer.parseInt((String) labelIndex);
-            Object labelValue = getField(message, fieldIndex);
-            if (labelKey instanceof String) {
-                labels.add(new PrometheusLabel(labelKey.toString(), getFieldValueString(message, fieldIndex)));
-            } else if (labelKey instanceof Properties) {
-                labels.addAll(getLabelsFromMessage((Message) labelValue, (Properties) labelKey));
-            }
-        });
+        labels.add(new PrometheusLabel(KAFKA_PARTITION, String.valueOf(partition)));
+        for (int i = 0; i < labelPlan.size(); i++) {
+            ProtoFieldAccessor accessor = labelPlan.get(i);
+            labels.add(new PrometheusLabel(accessor.getName(), getFieldValueString(accessor.getValue(message), accessor.getFieldDescriptor())));
+        }
         return labels;
     }
 
-    private static String getFieldValueString(Message message, int fieldIndex) {
+    private static String getFieldValueString(Object fieldValue, Descriptors.FieldDescriptor fieldDescriptor) {
         try {
-            Descriptors.FieldDescriptor fieldDescriptor = getFieldByIndex(message, fieldIndex);
             if (fieldIsOfMessageType(fieldDescriptor, Timestamp.getDescriptor())
                     || fieldIsOfMessageType(fieldDescriptor, Duration.getDescriptor())) {
-                return getMillisFromTimestamp(getTimestamp(message, fieldIndex)).toString();
+                return getMillisFromTimestamp(Timestamp.parseFrom(((Message) fieldValue).toByteArray())).toString();
             } else {
-                return getField(message, fieldIndex).toString();
+                return fieldValue.toString();
             }
         } catch (InvalidProtocolBufferException e) {
             throw new IllegalArgumentException(e);
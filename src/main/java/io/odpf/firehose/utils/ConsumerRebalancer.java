@@ -1,20 +1,35 @@
 package io.odpf.firehose.utils;
 
+import io.odpf.firehose.consumer.kafka.SinkOffsetStore;
 import io.odpf.firehose.metrics.FirehoseInstrumentation;
-import lombok.AllArgsConstructor;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.common.TopicPartition;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Map;
 
 /**
  * A callback to log when the partition rebalancing happens.
+ * When the sink stores offsets with its data, assigned partitions are resumed from them.
  */
-@AllArgsConstructor
 public class ConsumerRebalancer implements ConsumerRebalanceListener {
 
-    private FirehoseInstrumentation firehoseInstrumentation;
+    private final FirehoseInstrumentation firehoseInstrumentation;
+    private final Consumer<byte[], byte[]> kafkaConsumer;
+    private final SinkOffsetStore sinkOffsetStore;
+
+    public ConsumerRebalancer(FirehoseInstrumentation firehoseInstrumentation) {
+        this(firehoseInstrumentation, null, null);
+    }
+
+    public ConsumerRebalancer(FirehoseInstrumentation firehoseInstrumentation, Consumer<byte[], byte[]> kafkaConsumer, SinkOffsetStore sinkOffsetStore) {
+        this.firehoseInstrumentation = firehoseInstrumentation;
+        this.kafkaConsumer = kafkaConsumer;
+        this.sinkOffsetStore = sinkOffsetStore;
+    }
 
     /**
      * Function to run On partitions revoked.
@@ -34,5 +49,18 @@ public class ConsumerRebalancer implements ConsumerRebalanceListener {
     @Override
     public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
         firehoseInstrumentation.logInfo("Partitions Assigned {}", Arrays.toString(partitions.toArray()));
+        if (sinkOffsetStore == null || partitions.isEmpty()) {
+            return;
+        }
+        try {
+            Map<TopicPartition, Long> nextOffsets = sinkOffsetStore.getNextOffsets(partitions);
+            nextOffsets.forEach((partition, offset) -> {
+                firehoseInstrumentation.logInfo("Resuming partition {} from the stored offset {}", partition, offset);
+                kafkaConsumer.seek(partition, offset);
+            });
+        } catch (IOException e) {
+            firehoseInstrumentation.captureNonFatalError("firehose_error_event", e,
+                    "Could not read the stored offsets, resuming partitions {} from the committed offsets", Arrays.toString(partitions.toArray()));
+        }
     }
 }
@@ -4,6 +4,7 @@ import io.odpf.depot.metrics.StatsDReporter;
 import io.odpf.firehose.config.DlqKafkaProducerConfig;
 import io.odpf.firehose.config.KafkaConsumerConfig;
 import io.odpf.firehose.consumer.kafka.FirehoseKafkaConsumer;
+import io.odpf.firehose.consumer.kafka.SinkOffsetStore;
 import io.odpf.firehose.metrics.FirehoseInstrumentation;
 import io.odpf.firehose.parser.KafkaEnvironmentVariables;
 import io.opentracing.Tracer;
@@ -42,10 +43,25 @@ public class KafkaUtils {
      * @param statsdReporter the statsd reporter
      */
     public static void configureSubscription(KafkaConsumerConfig config, KafkaConsumer<byte[], byte[]> kafkaConsumer, StatsDReporter statsdReporter) {
+        configureSubscription(config, kafkaConsumer, statsdReporter, null);
+    }
+
+    /**
+     * Subscribe to all topics matching specified pattern to get dynamically assigned partitions,
+     * resuming assigned partitions from the offsets stored by the sink.
+     *
+     * @param config          the config
+     * @param kafkaConsumer   the kafka consumer
+     * @param statsdReporter  the statsd reporter
+     * @param sinkOffsetStore the offsets stored by the sink, or null to resume from the committed offsets
+     */
+    public static void configureSubscription(KafkaConsumerConfig config, KafkaConsumer<byte[], byte[]> kafkaConsumer, StatsDReporter statsdReporter,
+                                             SinkOffsetStore sinkOffsetStore) {
         FirehoseInstrumentation firehoseInstrumentation = new FirehoseInstrumentation(statsdReporter, KafkaUtils.class);
         Pattern subscriptionTopicPattern = Pattern.compile(config.getSourceKafkaTopic());
         firehoseInstrumentation.logInfo("consumer subscribed using pattern: {}", subscriptionTopicPattern);
-        kafkaConsumer.subscribe(subscriptionTopicPattern, new ConsumerRebalancer(new FirehoseInstrumentation(statsdReporter, ConsumerRebalancer.class)));
+        kafkaConsumer.subscribe(subscriptionTopicPattern,
+                new ConsumerRebalancer(new FirehoseInstrumentation(statsdReporter, ConsumerRebalancer.class), kafkaConsumer, sinkOffsetStore));
     }
 
     public static Map<String, Object> getConfig(KafkaConsumerConfig config, Map<String, String> extraParameters) {
@@ -79,14 +95,30 @@ public class KafkaUtils {
      */
     public static FirehoseKafkaConsumer createConsumer(KafkaConsumerConfig config, Map<String, String> extraKafkaParameters,
                                                        StatsDReporter statsDReporter, Tracer tracer) {
+        return createConsumer(config, extraKafkaParameters, statsDReporter, tracer, null);
+    }
+
+    /**
+     * method to create the {@link FirehoseKafkaConsumer} which resumes assigned partitions from the offsets stored by the sink.
+     *
+     * @param config               {@see KafkaConsumerConfig}
+     * @param extraKafkaParameters a map containing kafka configurations available as a key/value pair.
+     * @param statsDReporter       {@see StatsDClient}
+     * @param tracer               the tracer
+     * @param sinkOffsetStore      the offsets stored by the sink, or null to resume from the committed offsets
+     * @return {@see EsbGenericConsumer}
+     */
+    public static FirehoseKafkaConsumer createConsumer(KafkaConsumerConfig config, Map<String, String> extraKafkaParameters,
+                                                       StatsDReporter statsDReporter, Tracer tracer, SinkOffsetStore sinkOffsetStore) {
 
         KafkaConsumer<byte[], byte[]> kafkaConsumer = new KafkaConsumer<>(KafkaUtils.getConfig(config, extraKafkaParameters));
-        KafkaUtils.configureSubscription(config, kafkaConsumer, statsDReporter);
+        KafkaUtils.configureSubscription(config, kafkaConsumer, statsDReporter, sinkOffsetStore);
         TracingKafkaConsumer<byte[], byte[]> tracingKafkaConsumer = new TracingKafkaConsumer<>(kafkaConsumer, tracer);
         return new FirehoseKafkaConsumer(
                 tracingKafkaConsumer,
                 config,
-                new FirehoseInstrumentation(statsDReporter, FirehoseKafkaConsumer.class));
+                new FirehoseInstrumentation(statsDReporter, FirehoseKafkaConsumer.class),
+                sinkOffsetStore);
     }
 
     /**
@@ -167,6 +167,17 @@ public class FirehoseKafkaConsumerTest {
         verify(firehoseInstrumentation, times(1)).captureNonFatalError(any(), any(), eq("Exception while closing consumer"));
     }
 
+    @Test
+    public void shouldCloseTheSinkOffsetStoreWithTheConsumer() throws Exception {
+        SinkOffsetStore sinkOffsetStore = mock(SinkOffsetStore.class);
+        firehoseKafkaConsumer = new FirehoseKafkaConsumer(kafkaConsumer, consumerConfig, firehoseInstrumentation, sinkOffsetStore);
+        doThrow(new RuntimeException()).when(kafkaConsumer).close();
+
+        firehoseKafkaConsumer.close();
+
+        verify(sinkOffsetStore).close();
+    }
+
     @Test
     public void shouldCallAsyncCommitWithOffsets() {
         when(consumerConfig.isSourceKafkaAsyncCommitEnable()).thenReturn(true);
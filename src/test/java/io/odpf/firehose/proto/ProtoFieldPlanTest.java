@@ -0,0 +1,80 @@
+package io.odpf.firehose.proto;
+
+import com.google.protobuf.DynamicMessage;
+import io.odpf.firehose.consumer.TestMessage;
+import io.odpf.firehose.consumer.TestNestedMessage;
+import io.odpf.firehose.exception.ConfigurationException;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ProtoFieldPlanTest {
+
+    @Test
+    public void shouldFlattenNestedMappingsIntoAccessors() throws Exception {
+        Properties nestedMapping = new Properties();
+        nestedMapping.put("1", "order_number");
+        nestedMapping.put("3", "order_details");
+        Properties mapping = new Properties();
+        mapping.put("1", "nested_id");
+        mapping.put("2", nestedMapping);
+        TestNestedMessage nestedMessage = TestNestedMessage.newBuilder()
+                .setNestedId("nested")
+                .setSingleMessage(TestMessage.newBuilder().setOrderNumber("order").setOrderDetails("details"))
+                .build();
+        DynamicMessage message = DynamicMessage.parseFrom(TestNestedMessage.getDescriptor(), nestedMessage.toByteArray());
+
+        ProtoFieldPlan plan = ProtoFieldPlan.compile(TestNestedMessage.getDescriptor(), mapping);
+
+        Map<String, Object> values = new HashMap<>();
+        for (int i = 0; i < plan.size(); i++) {
+            values.put(plan.get(i).getName(), plan.get(i).getValue(message));
+        }
+        assertEquals(3, values.size());
+        assertEquals("nested", values.get("nested_id"));
+        assertEquals("order", values.get("order_number"));
+        assertEquals("details", values.get("order_details"));
+    }
+
+    @Test
+    public void shouldResolveTheDescriptorOfTheMappedField() {
+        Properties mapping = new Properties();
+        mapping.put("2", "single_message");
+
+        ProtoFieldPlan plan = ProtoFieldPlan.compile(TestNestedMessage.getDescriptor(), mapping);
+
+        assertEquals(TestNestedMessage.getDescriptor().findFieldByNumber(2), plan.get(0).getFieldDescriptor());
+    }
+
+    @Test
+    public void shouldBeCompiledOnlyForItsDescriptor() {
+        ProtoFieldPlan plan = ProtoFieldPlan.compile(TestNestedMessage.getDescriptor(), new Properties());
+
+        assertTrue(plan.isCompiledFor(TestNestedMessage.getDescriptor()));
+        assertFalse(plan.isCompiledFor(TestMessage.getDescriptor()));
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void shouldThrowWhenFieldNumberIsNotInDescriptor() {
+        Properties mapping = new Properties();
+        mapping.put("10", "missing");
+
+        ProtoFieldPlan.compile(TestNestedMessage.getDescriptor(), mapping);
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void shouldThrowWhenNestedMappingIsNotOfMessageField() {
+        Properties nestedMapping = new Properties();
+        nestedMapping.put("1", "order_number");
+        Properties mapping = new Properties();
+        mapping.put("1", nestedMapping);
+
+        ProtoFieldPlan.compile(TestNestedMessage.getDescriptor(), mapping);
+    }
+}
@@ -0,0 +1,48 @@
+package io.odpf.firehose.sink.blob;
+
+import io.odpf.depot.metrics.StatsDReporter;
+import io.odpf.firehose.exception.ConfigurationException;
+import io.odpf.stencil.client.StencilClient;
+import org.apache.hadoop.util.NativeCodeLoader;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class BlobSinkFactoryTest {
+
+    @Mock
+    private StatsDReporter statsDReporter;
+
+    @Mock
+    private StencilClient stencilClient;
+
+    @Before
+    public void setUp() {
+        initMocks(this);
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void shouldRejectMaxBufferedBytesForStreamWriters() {
+        Map<String, String> config = new HashMap<>();
+        config.put("SINK_BLOB_LOCAL_FILE_WRITER_TYPE", "ndjson");
+        config.put("SINK_BLOB_LOCAL_FILE_WRITER_MAX_BUFFERED_BYTES", "1048576");
+
+        BlobSinkFactory.create(config, null, statsDReporter, stencilClient, null);
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void shouldRejectZstdParquetCodecWithoutNativeHadoopLibraries() {
+        Assume.assumeFalse(NativeCodeLoader.isNativeCodeLoaded());
+        Map<String, String> config = new HashMap<>();
+        config.put("SINK_BLOB_LOCAL_FILE_WRITER_TYPE", "parquet");
+        config.put("SINK_BLOB_LOCAL_FILE_WRITER_PARQUET_COMPRESSION_CODEC", "zstd");
+
+        BlobSinkFactory.create(config, null, statsDReporter, stencilClient, null);
+    }
+}
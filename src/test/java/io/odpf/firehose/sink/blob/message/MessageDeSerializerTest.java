@@ -4,11 +4,15 @@ import com.google.protobuf.Descriptors;
 import com.google.protobuf.DynamicMessage;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.StringValue;
+import com.google.protobuf.Timestamp;
 
 import com.google.protobuf.UnknownFieldSet;
+import io.odpf.firehose.TestMessageBQ;
 import io.odpf.firehose.config.BlobSinkConfig;
+import io.odpf.firehose.exception.UnknownFieldsException;
 import io.odpf.firehose.message.Message;
 import io.odpf.firehose.exception.DeserializerException;
+import io.odpf.firehose.sink.blob.Constants;
 import io.odpf.firehose.sink.blob.proto.KafkaMetadataProtoMessage;
 import io.odpf.firehose.sink.blob.proto.KafkaMetadataProtoMessageUtils;
 import io.odpf.firehose.sink.blob.proto.NestedKafkaMetadataProtoMessage;
@@ -20,6 +24,8 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.time.Instant;
+import java.util.Arrays;
 
 import static org.mockito.Mockito.*;
 
@@ -43,7 +49,7 @@ public class MessageDeSerializerTest {
         message = new Message(logKey, logMessage, "topic1", 0, 100);
 
         Descriptors.FileDescriptor fileDescriptor = KafkaMetadataProtoMessageUtils.createFileDescriptor("");
-        deSerializer = new MessageDeSerializer(fileDescriptor, protoParser, sinkConfig);
+        deSerializer = new MessageDeSerializer(fileDescriptor, protoParser, sinkConfig, TestMessageBQ.getDescriptor());
         when(sinkConfig.getOutputIncludeKafkaMetadataEnable()).thenReturn(true);
         when(sinkConfig.getOutputKafkaMetadataColumnName()).thenReturn("");
     }
@@ -144,4 +150,71 @@ public class MessageDeSerializerTest {
                 .build()), record.getMessage().getUnknownFields());
         verify(protoParser, times(1)).parse(logMessage);
     }
+
+    @Test
+    public void shouldKeepRawMessageWithoutParsingWhenNotPartitionedByTime() throws InvalidProtocolBufferException {
+        when(sinkConfig.getLocalFileWriterType()).thenReturn(Constants.WriterType.PROTO);
+        when(sinkConfig.getFilePartitionTimeGranularityType()).thenReturn(Constants.FilePartitionType.NONE);
+
+        Record record = deSerializer.deSerialize(message);
+
+        Assert.assertArrayEquals(logMessage, record.getRawMessage());
+        Assert.assertNull(record.getMessage());
+        Assert.assertNotNull(record.getMetadata());
+        verify(protoParser, never()).parse(any());
+    }
+
+    @Test
+    public void shouldParseRawMessageForTimePartitioning() throws InvalidProtocolBufferException {
+        DynamicMessage dynamicMessage = DynamicMessage.newBuilder(StringValue.of("abc")).build();
+        when(protoParser.parse(logMessage)).thenReturn(dynamicMessage);
+        when(sinkConfig.getLocalFileWriterType()).thenReturn(Constants.WriterType.PROTO);
+        when(sinkConfig.getFilePartitionTimeGranularityType()).thenReturn(Constants.FilePartitionType.DAY);
+        when(sinkConfig.getFilePartitionProtoTimestampTimezone()).thenReturn("UTC");
+
+        Record record = deSerializer.deSerialize(message);
+
+        Assert.assertArrayEquals(logMessage, record.getRawMessage());
+        Assert.assertEquals(dynamicMessage, record.getMessage());
+    }
+
+    @Test
+    public void shouldReadTimestampOfRawParquetRecordWithoutParsing() {
+        Timestamp createdAt = Timestamp.newBuilder().setSeconds(1600000000L).setNanos(500).build();
+        byte[] bytes = TestMessageBQ.newBuilder().setOrderNumber("order").setCreatedAt(createdAt).build().toByteArray();
+        when(sinkConfig.getLocalFileWriterType()).thenReturn(Constants.WriterType.PARQUET);
+        when(sinkConfig.getLocalFileWriterParquetRawWriteEnable()).thenReturn(true);
+        when(sinkConfig.getInputSchemaProtoAllowUnknownFieldsEnable()).thenReturn(true);
+        when(sinkConfig.getFilePartitionTimeGranularityType()).thenReturn(Constants.FilePartitionType.DAY);
+        when(sinkConfig.getFilePartitionProtoTimestampTimezone()).thenReturn("UTC");
+        when(sinkConfig.getFilePartitionProtoTimestampFieldName()).thenReturn("created_at");
+
+        Record record = deSerializer.deSerialize(new Message(logKey, bytes, "topic1", 0, 100));
+
+        Assert.assertTrue(record instanceof RawRecord);
+        Assert.assertArrayEquals(bytes, record.getRawMessage());
+        Assert.assertEquals(Instant.ofEpochSecond(1600000000L, 500), record.getTimestamp("created_at"));
+        Assert.assertEquals("topic1", record.getTopic(""));
+        verifyNoInteractions(protoParser);
+    }
+
+    @Test(expected = DeserializerException.class)
+    public void shouldThrowDeserializerExceptionWhenRawParquetRecordIsMalformed() {
+        byte[] bytes = TestMessageBQ.newBuilder().setOrderNumber("order").build().toByteArray();
+        when(sinkConfig.getLocalFileWriterType()).thenReturn(Constants.WriterType.PARQUET);
+        when(sinkConfig.getLocalFileWriterParquetRawWriteEnable()).thenReturn(true);
+
+        deSerializer.deSerialize(new Message(logKey, Arrays.copyOf(bytes, bytes.length - 1), "topic1", 0, 100));
+    }
+
+    @Test(expected = UnknownFieldsException.class)
+    public void shouldThrowExceptionWhenRawParquetRecordHasUnknownFields() throws InvalidProtocolBufferException {
+        byte[] bytes = {(byte) 0xA2, 0x06, 1, 'x'};
+        when(protoParser.parse(bytes)).thenReturn(DynamicMessage.parseFrom(TestMessageBQ.getDescriptor(), bytes));
+        when(sinkConfig.getLocalFileWriterType()).thenReturn(Constants.WriterType.PARQUET);
+        when(sinkConfig.getLocalFileWriterParquetRawWriteEnable()).thenReturn(true);
+        when(sinkConfig.getInputSchemaProtoAllowUnknownFieldsEnable()).thenReturn(false);
+
+        deSerializer.deSerialize(new Message(logKey, bytes, "topic1", 0, 100));
+    }
 }
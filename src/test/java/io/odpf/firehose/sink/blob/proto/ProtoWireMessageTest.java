@@ -0,0 +1,93 @@
+package io.odpf.firehose.sink.blob.proto;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Timestamp;
+import io.odpf.firehose.TestMessageBQ;
+import io.odpf.firehose.TestNestedRepeatedMessageBQ;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class ProtoWireMessageTest {
+
+    private final Descriptors.Descriptor descriptor = TestNestedRepeatedMessageBQ.getDescriptor();
+
+    private byte[] concat(ByteString... parts) {
+        ByteString bytes = ByteString.EMPTY;
+        for (ByteString part : parts) {
+            bytes = bytes.concat(part);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void shouldReadLastOccurrenceOfSingularFieldsAndMergeMessages() throws InvalidProtocolBufferException {
+        TestNestedRepeatedMessageBQ first = TestNestedRepeatedMessageBQ.newBuilder()
+                .setNumberField(1)
+                .setSingleMessage(TestMessageBQ.newBuilder().setOrderNumber("order").setCreatedAt(Timestamp.newBuilder().setSeconds(10)))
+                .build();
+        TestNestedRepeatedMessageBQ second = TestNestedRepeatedMessageBQ.newBuilder()
+                .setNumberField(-2)
+                .setSingleMessage(TestMessageBQ.newBuilder().setCreatedAt(Timestamp.newBuilder().setNanos(5)))
+                .build();
+
+        ProtoWireMessage message = ProtoWireMessage.of(descriptor, concat(first.toByteString(), second.toByteString()));
+        ProtoWireMessage singleMessage = message.getMessage(descriptor.findFieldByName("single_message"));
+        ProtoWireMessage createdAt = singleMessage.getMessage(TestMessageBQ.getDescriptor().findFieldByName("created_at"));
+
+        Assert.assertEquals(-2, message.getScalar(descriptor.findFieldByName("number_field")));
+        Assert.assertEquals(10, createdAt.getScalar(Timestamp.getDescriptor().findFieldByName("seconds")));
+        Assert.assertEquals(5, createdAt.getScalar(Timestamp.getDescriptor().findFieldByName("nanos")));
+        int orderNumber = singleMessage.first(TestMessageBQ.getDescriptor().findFieldByName("order_number"));
+        Assert.assertEquals("order", new String(message.getBytes(), singleMessage.getStart(orderNumber), singleMessage.getLength(orderNumber)));
+    }
+
+    @Test
+    public void shouldReadPackedAndUnpackedValuesOfRepeatedFields() throws InvalidProtocolBufferException {
+        byte[] packed = TestNestedRepeatedMessageBQ.newBuilder().addRepeatedNumberField(1).addRepeatedNumberField(-2).build().toByteArray();
+        byte[] unpacked = {4 << 3, 3};
+
+        ProtoWireMessage message = ProtoWireMessage.of(descriptor, concat(ByteString.copyFrom(packed), ByteString.copyFrom(unpacked)));
+        Descriptors.FieldDescriptor field = descriptor.findFieldByName("repeated_number_field");
+
+        StringBuilder values = new StringBuilder();
+        for (int occurrence = message.first(field); occurrence != -1; occurrence = message.next(occurrence)) {
+            message.seek(occurrence);
+            while (message.hasRemaining()) {
+                values.append(message.readScalar(field.getType())).append(' ');
+            }
+        }
+        Assert.assertEquals("1 -2 3 ", values.toString());
+        message.validate();
+    }
+
+    @Test
+    public void shouldTellUnknownFieldsOfSingularMessages() throws InvalidProtocolBufferException {
+        ByteString unknownField = ByteString.copyFrom(new byte[] {(byte) 0xA2, 0x06, 1, 'x'});
+        ByteString singleMessage = TestNestedRepeatedMessageBQ.newBuilder().setSingleMessage(TestMessageBQ.newBuilder().setOrderNumber("order")).build().toByteString();
+        ByteString nestedUnknownField = ByteString.copyFrom(new byte[] {1 << 3 | 2, (byte) unknownField.size()}).concat(unknownField);
+        ByteString repeatedUnknownField = ByteString.copyFrom(new byte[] {2 << 3 | 2, (byte) unknownField.size()}).concat(unknownField);
+
+        Assert.assertFalse(ProtoWireMessage.of(descriptor, singleMessage.toByteArray()).hasUnknownFields());
+        Assert.assertTrue(ProtoWireMessage.of(descriptor, concat(singleMessage, unknownField)).hasUnknownFields());
+        Assert.assertTrue(ProtoWireMessage.of(descriptor, concat(singleMessage, nestedUnknownField)).hasUnknownFields());
+        Assert.assertFalse(ProtoWireMessage.of(descriptor, concat(singleMessage, repeatedUnknownField)).hasUnknownFields());
+    }
+
+    @Test(expected = InvalidProtocolBufferException.class)
+    public void shouldRejectTruncatedMessages() throws InvalidProtocolBufferException {
+        byte[] bytes = TestNestedRepeatedMessageBQ.newBuilder().setSingleMessage(TestMessageBQ.newBuilder().setOrderNumber("order")).build().toByteArray();
+
+        ProtoWireMessage.of(descriptor, Arrays.copyOf(bytes, bytes.length - 1));
+    }
+
+    @Test(expected = InvalidProtocolBufferException.class)
+    public void shouldRejectInvalidUtf8OfProto3Strings() throws InvalidProtocolBufferException {
+        byte[] bytes = {1 << 3 | 2, 3, 3 << 3 | 2, 1, (byte) 0xFF};
+
+        ProtoWireMessage.of(descriptor, bytes).validate();
+    }
+}
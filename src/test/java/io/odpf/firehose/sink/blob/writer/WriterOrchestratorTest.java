@@ -2,6 +2,7 @@ package io.odpf.firehose.sink.blob.writer;
 
 import io.odpf.depot.metrics.StatsDReporter;
 import io.odpf.firehose.config.BlobSinkConfig;
+import io.odpf.firehose.metrics.BlobStorageMetrics;
 import io.odpf.firehose.sink.common.blobstorage.BlobStorage;
 import io.odpf.firehose.sink.blob.Constants;
 import io.odpf.firehose.sink.blob.TestProtoMessage;
@@ -21,6 +22,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import java.io.IOException;
 import java.time.Instant;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -36,6 +38,8 @@ public class WriterOrchestratorTest {
     @Mock
     private LocalFileWriter localFileWriter2;
     @Mock
+    private LocalFileWriter localFileWriter3;
+    @Mock
     private LocalStorage localStorage;
     @Mock
     private BlobStorage blobStorage;
@@ -73,6 +77,7 @@ public class WriterOrchestratorTest {
         try (WriterOrchestrator writerOrchestrator = new WriterOrchestrator(sinkConfig, localStorage, blobStorage, statsDReporter)) {
             String path = writerOrchestrator.write(record);
             Assert.assertEquals("/tmp/test", path);
+            Mockito.verify(localStorage).onWrite(record);
         }
     }
 
@@ -140,4 +145,97 @@ public class WriterOrchestratorTest {
             Assert.assertEquals(new HashSet<>(), writerOrchestrator.getFlushedPaths());
         }
     }
+
+    private Record mockRecord(long timestampMillis, LocalFileWriter writer, String fullPath) throws Exception {
+        Record record = Mockito.mock(Record.class);
+        Mockito.when(record.getTimestamp(timeStampFieldName)).thenReturn(Instant.ofEpochMilli(timestampMillis));
+        Mockito.when(record.getTopic("")).thenReturn(defaultTopic);
+        Mockito.when(localStorage.createLocalFileWriter(TimePartitionedPathUtils.getTimePartitionedPath(record, sinkConfig))).thenReturn(writer);
+        Mockito.when(writer.write(record)).thenReturn(true);
+        Mockito.when(writer.getMetadata()).thenReturn(new LocalFileMetadata("/tmp/", fullPath, 0, 0, 0));
+        Mockito.when(writer.closeAndFetchMetaData()).thenReturn(new LocalFileMetadata("/tmp/", fullPath, 0, 0, 0));
+        return record;
+    }
+
+    @Test
+    public void shouldRotateLeastRecentlyWrittenFileWhenOpenFilesCapIsHit() throws Exception {
+        Mockito.when(sinkConfig.getLocalFileWriterMaxOpenFiles()).thenReturn(2);
+        Record record1 = mockRecord(3600000L, localFileWriter1, "/tmp/test1");
+        Record record2 = mockRecord(7200000L, localFileWriter2, "/tmp/test2");
+        Record record3 = mockRecord(10800000L, localFileWriter3, "/tmp/test3");
+
+        try (WriterOrchestrator writerOrchestrator = new WriterOrchestrator(sinkConfig, localStorage, blobStorage, statsDReporter)) {
+            writerOrchestrator.write(record1);
+            writerOrchestrator.write(record2);
+            writerOrchestrator.write(record1);
+            writerOrchestrator.write(record3);
+
+            Mockito.verify(localFileWriter2).closeAndFetchMetaData();
+            Mockito.verify(localFileWriter1, Mockito.never()).closeAndFetchMetaData();
+            Mockito.verify(statsDReporter).increment(BlobStorageMetrics.LOCAL_FILE_EARLY_ROTATION_TOTAL, "reason=open_files_cap");
+        }
+    }
+
+    @Test
+    public void shouldRotateLeastRecentlyWrittenFilesWhenBufferedBytesCapIsHit() throws Exception {
+        Mockito.when(sinkConfig.getLocalFileWriterMaxBufferedBytes()).thenReturn(10L);
+        Record record1 = mockRecord(3600000L, localFileWriter1, "/tmp/test1");
+        Record record2 = mockRecord(7200000L, localFileWriter2, "/tmp/test2");
+        Mockito.when(localFileWriter1.getBufferedBytes()).thenReturn(8L);
+        Mockito.when(localFileWriter2.getBufferedBytes()).thenReturn(8L);
+
+        try (WriterOrchestrator writerOrchestrator = new WriterOrchestrator(sinkConfig, localStorage, blobStorage, statsDReporter)) {
+            for (int i = 0; i < 99; i++) {
+                writerOrchestrator.write(record1);
+            }
+            Mockito.verify(localFileWriter1, Mockito.never()).closeAndFetchMetaData();
+            writerOrchestrator.write(record2);
+
+            Mockito.verify(localFileWriter1).closeAndFetchMetaData();
+            Mockito.verify(localFileWriter2, Mockito.never()).closeAndFetchMetaData();
+            Mockito.verify(statsDReporter).increment(BlobStorageMetrics.LOCAL_FILE_EARLY_ROTATION_TOTAL, "reason=buffered_bytes_cap");
+        }
+    }
+
+    @Test
+    public void shouldRotateOnWriteAndMakeFileFlushedAsSoonAsItIsUploaded() throws Exception {
+        Record record = mockRecord(3600000L, localFileWriter1, "/tmp/dt=1970-01-01/hr=01/test1");
+        Mockito.when(localStorage.shouldRotateOnWrite(localFileWriter1)).thenReturn(true);
+
+        try (WriterOrchestrator writerOrchestrator = new WriterOrchestrator(sinkConfig, localStorage, blobStorage, statsDReporter)) {
+            writerOrchestrator.write(record);
+            Mockito.verify(localFileWriter1).closeAndFetchMetaData();
+
+            Set<String> flushedPaths = new HashSet<>();
+            for (int i = 0; i < 100 && flushedPaths.isEmpty(); i++) {
+                Thread.sleep(50);
+                flushedPaths.addAll(writerOrchestrator.getFlushedPaths());
+            }
+            assertEquals(Collections.singleton("/tmp/dt=1970-01-01/hr=01/test1"), flushedPaths);
+            Mockito.verify(blobStorage).store("dt=1970-01-01/hr=01/test1", "/tmp/dt=1970-01-01/hr=01/test1");
+        }
+    }
+
+    @Test
+    public void shouldUploadRecoveredFiles() throws Exception {
+        LocalFileMetadata recovered = new LocalFileMetadata("/tmp/", "/tmp/dt=1970-01-01/hr=01/recovered", 0, 0, 0);
+        Mockito.when(localStorage.getRecoveredLocalFiles()).thenReturn(Collections.singletonList(recovered));
+
+        try (WriterOrchestrator writerOrchestrator = new WriterOrchestrator(sinkConfig, localStorage, blobStorage, statsDReporter)) {
+            Mockito.verify(blobStorage, Mockito.timeout(5000)).store("dt=1970-01-01/hr=01/recovered", "/tmp/dt=1970-01-01/hr=01/recovered");
+        }
+    }
+
+    @Test
+    public void shouldKeepOpenFilesAsClosedOnCloseWhenLocalStorageIsRecoverable() throws Exception {
+        Record record = mockRecord(3600000L, localFileWriter1, "/tmp/test1");
+        Mockito.when(localStorage.isRecoverable()).thenReturn(true);
+
+        WriterOrchestrator writerOrchestrator = new WriterOrchestrator(sinkConfig, localStorage, blobStorage, statsDReporter);
+        writerOrchestrator.write(record);
+        writerOrchestrator.close();
+
+        Mockito.verify(localStorage).markClosed(new LocalFileMetadata("/tmp/", "/tmp/test1", 0, 0, 0));
+        Mockito.verify(localStorage, Mockito.never()).deleteLocalFile("/tmp/test1");
+    }
 }
@@ -0,0 +1,81 @@
+package io.odpf.firehose.sink.blob.writer.local;
+
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.DynamicMessage;
+import io.odpf.firehose.consumer.TestMessage;
+import io.odpf.firehose.consumer.TestNestedRepeatedMessage;
+import io.odpf.firehose.message.Message;
+import io.odpf.firehose.sink.blob.message.KafkaMetadataUtils;
+import io.odpf.firehose.sink.blob.message.Record;
+import io.odpf.firehose.sink.blob.proto.KafkaMetadataProtoMessage;
+import io.odpf.firehose.sink.blob.proto.KafkaMetadataProtoMessageUtils;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class LocalAvroFileWriterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldWriteMessagesAsAvroRecords() throws Exception {
+        File file = new File(temporaryFolder.getRoot(), "file.avro");
+        LocalAvroFileWriter writer = new LocalAvroFileWriter(0, temporaryFolder.getRoot().getPath(), file.getPath(), true,
+                TestNestedRepeatedMessage.getDescriptor(), Collections.emptyList());
+        TestNestedRepeatedMessage message = TestNestedRepeatedMessage.newBuilder()
+                .addRepeatedMessage(TestMessage.newBuilder().setOrderNumber("1"))
+                .addRepeatedMessage(TestMessage.newBuilder().setOrderNumber("2"))
+                .setNumberField(3)
+                .addAllRepeatedNumberField(Arrays.asList(4, 5))
+                .build();
+
+        writer.write(new Record(DynamicMessage.parseFrom(TestNestedRepeatedMessage.getDescriptor(), message.toByteArray()), null));
+        LocalFileMetadata metadata = writer.closeAndFetchMetaData();
+
+        Assert.assertEquals(1, metadata.getRecordCount());
+        Assert.assertEquals(file.length(), metadata.getSize());
+        try (DataFileReader<GenericRecord> reader = new DataFileReader<>(file, new GenericDatumReader<>())) {
+            GenericRecord record = reader.next();
+            Assert.assertNull(record.get("single_message"));
+            List<?> repeatedMessages = (List<?>) record.get("repeated_message");
+            Assert.assertEquals("2", ((GenericRecord) repeatedMessages.get(1)).get("order_number").toString());
+            Assert.assertEquals(3, record.get("number_field"));
+            Assert.assertEquals(Arrays.asList(4, 5), record.get("repeated_number_field"));
+            Assert.assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    public void shouldAddMetadataFieldsToTheRecord() throws Exception {
+        File file = new File(temporaryFolder.getRoot(), "file.avro");
+        Descriptors.FileDescriptor metadataFileDescriptor = KafkaMetadataProtoMessageUtils.createFileDescriptor("");
+        List<Descriptors.FieldDescriptor> metadataFields = metadataFileDescriptor.findMessageTypeByName(KafkaMetadataProtoMessage.getTypeName()).getFields();
+        LocalAvroFileWriter writer = new LocalAvroFileWriter(0, temporaryFolder.getRoot().getPath(), file.getPath(), false,
+                TestMessage.getDescriptor(), metadataFields);
+        TestMessage message = TestMessage.newBuilder().setOrderNumber("1").build();
+        DynamicMessage kafkaMetadata = KafkaMetadataUtils.createKafkaMetadata(metadataFileDescriptor,
+                new Message(new byte[0], message.toByteArray(), "topic", 1, 10), "");
+
+        writer.write(new Record(DynamicMessage.parseFrom(TestMessage.getDescriptor(), message.toByteArray()), kafkaMetadata));
+        writer.close();
+
+        try (DataFileReader<GenericRecord> reader = new DataFileReader<>(file, new GenericDatumReader<>())) {
+            GenericRecord record = reader.next();
+            Assert.assertEquals("1", record.get("order_number").toString());
+            Assert.assertEquals("", record.get("order_url").toString());
+            Assert.assertEquals("topic", record.get("message_topic").toString());
+            Assert.assertEquals(10L, record.get("message_offset"));
+            Assert.assertNotNull(record.get("load_time"));
+        }
+    }
+}
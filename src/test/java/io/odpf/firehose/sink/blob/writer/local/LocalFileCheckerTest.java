@@ -140,6 +140,29 @@ public class LocalFileCheckerTest {
         Assert.assertEquals(writer2, writerMap.get(Paths.get("/tmp/b")));
     }
 
+    @Test
+    public void shouldNotRotateWriterWhichIsAlreadyRotated() throws IOException {
+        writerMap.put(Paths.get("/tmp/a"), writer1);
+        when(writer1.closeAndFetchMetaData()).thenReturn(new LocalFileMetadata("/tmp", "/tmp/a/random-file-name-1", 1L, recordCount, fileSize));
+
+        Assert.assertTrue(worker.rotate(Paths.get("/tmp/a"), writer1));
+        Assert.assertFalse(worker.rotate(Paths.get("/tmp/a"), writer1));
+
+        verify(writer1, times(1)).closeAndFetchMetaData();
+        Assert.assertEquals(1, toBeFlushedToRemotePaths.size());
+    }
+
+    @Test
+    public void shouldRecordMetricOfBufferedBytesOfOpenFiles() {
+        writerMap.put(Paths.get("/tmp/a"), writer1);
+        when(localStorage.shouldRotate(writer1)).thenReturn(false);
+        when(writer1.getBufferedBytes()).thenReturn(fileSize);
+
+        worker.run();
+
+        verify(firehoseInstrumentation).captureHistogram(LOCAL_FILE_BUFFERED_BYTES, fileSize);
+    }
+
     @Test
     public void shouldRecordMetricOfSuccessfullyClosedFiles() throws IOException {
         writerMap.put(Paths.get("/tmp/a"), writer1);
@@ -0,0 +1,133 @@
+package io.odpf.firehose.sink.blob.writer.local;
+
+import io.odpf.firehose.message.Message;
+import io.odpf.firehose.metrics.FirehoseInstrumentation;
+import io.odpf.firehose.sink.blob.Constants;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LocalFileManifestTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    private final FirehoseInstrumentation firehoseInstrumentation = Mockito.mock(FirehoseInstrumentation.class);
+    private final TopicPartition partition = new TopicPartition("booking-log", 0);
+    private Path basePath;
+
+    @Before
+    public void setUp() {
+        basePath = temporaryFolder.getRoot().toPath();
+    }
+
+    private Message message(long offset) {
+        return new Message(new byte[0], new byte[0], "booking-log", 0, offset);
+    }
+
+    private Path createFile(String name) throws IOException {
+        return Files.createFile(basePath.resolve(name));
+    }
+
+    private LocalFileManifest restart() throws IOException {
+        LocalFileManifest manifest = new LocalFileManifest(basePath, firehoseInstrumentation);
+        manifest.recover();
+        return manifest;
+    }
+
+    @Test
+    public void shouldRecoverClosedFilesAndResumePartitionsAfterThem() throws IOException {
+        Path closedFile = createFile("closed.parquet");
+        LocalFileManifest manifest = restart();
+        Map<Object, List<Message>> fileToMessages = new HashMap<>();
+        fileToMessages.put(closedFile.toString(), Arrays.asList(message(10), message(12), message(11)));
+        manifest.recordBatch(fileToMessages, Collections.emptyList());
+        manifest.markClosed(new LocalFileMetadata(basePath.toString(), closedFile.toString(), 1L, 3L, 128L));
+
+        LocalFileManifest restarted = restart();
+
+        assertEquals(Collections.singletonList(new LocalFileMetadata(basePath.toString(), closedFile.toString(), 1L, 3L, 128L)),
+                restarted.getRecoveredLocalFiles());
+        assertEquals(Collections.singletonMap(partition, 13L), restarted.getNextOffsets(Collections.singletonList(partition)));
+        assertEquals(Collections.emptyMap(), restarted.getNextOffsets(Collections.singletonList(partition)));
+    }
+
+    @Test
+    public void shouldDeleteOpenFilesAndNotResumePastTheirRecords() throws IOException {
+        Path closedFile = createFile("closed.parquet");
+        Path openFile = createFile("open.parquet");
+        LocalFileManifest manifest = restart();
+        Map<Object, List<Message>> fileToMessages = new HashMap<>();
+        fileToMessages.put(closedFile.toString(), Arrays.asList(message(10), message(13)));
+        fileToMessages.put(openFile.toString(), Arrays.asList(message(11), message(12)));
+        manifest.recordBatch(fileToMessages, Collections.emptyList());
+        manifest.markClosed(new LocalFileMetadata(basePath.toString(), closedFile.toString(), 1L, 2L, 128L));
+
+        LocalFileManifest restarted = restart();
+
+        assertFalse(Files.exists(openFile));
+        assertTrue(Files.exists(closedFile));
+        assertEquals(1, restarted.getRecoveredLocalFiles().size());
+        assertEquals(Collections.singletonMap(partition, 11L), restarted.getNextOffsets(Collections.singletonList(partition)));
+    }
+
+    @Test
+    public void shouldNotResumePastUnwrittenMessagesOfTheLastBatch() throws IOException {
+        Path closedFile = createFile("closed.parquet");
+        LocalFileManifest manifest = restart();
+        Map<Object, List<Message>> fileToMessages = new HashMap<>();
+        fileToMessages.put(closedFile.toString(), Arrays.asList(message(10), message(12)));
+        manifest.recordBatch(fileToMessages, Collections.singletonList(message(11)));
+        manifest.markClosed(new LocalFileMetadata(basePath.toString(), closedFile.toString(), 1L, 2L, 128L));
+
+        LocalFileManifest restarted = restart();
+
+        assertEquals(Collections.singletonMap(partition, 11L), restarted.getNextOffsets(Collections.singletonList(partition)));
+    }
+
+    @Test
+    public void shouldForgetRemovedFiles() throws IOException {
+        Path closedFile = createFile("closed.parquet");
+        LocalFileManifest manifest = restart();
+        manifest.recordBatch(Collections.singletonMap(closedFile.toString(), Collections.singletonList(message(10))), Collections.emptyList());
+        manifest.markClosed(new LocalFileMetadata(basePath.toString(), closedFile.toString(), 1L, 1L, 128L));
+        manifest.remove(closedFile.toString());
+
+        LocalFileManifest restarted = restart();
+
+        assertEquals(Collections.emptyList(), restarted.getRecoveredLocalFiles());
+        assertEquals(Collections.emptyMap(), restarted.getNextOffsets(Collections.singletonList(partition)));
+    }
+
+    @Test
+    public void shouldNotRecoverClosedParquetFilesWithUnreadableFooter() throws IOException {
+        Path closedFile = createFile("closed.parquet");
+        Files.write(closedFile, "PAR1 truncated".getBytes());
+        LocalFileManifest manifest = new LocalFileManifest(basePath, Constants.WriterType.PARQUET, firehoseInstrumentation);
+        manifest.recover();
+        manifest.recordBatch(Collections.singletonMap(closedFile.toString(), Arrays.asList(message(10), message(11))), Collections.emptyList());
+        manifest.markClosed(new LocalFileMetadata(basePath.toString(), closedFile.toString(), 1L, 2L, 128L));
+
+        LocalFileManifest restarted = new LocalFileManifest(basePath, Constants.WriterType.PARQUET, firehoseInstrumentation);
+        restarted.recover();
+
+        assertFalse(Files.exists(closedFile));
+        assertEquals(Collections.emptyList(), restarted.getRecoveredLocalFiles());
+        assertEquals(Collections.emptyMap(), restarted.getNextOffsets(Collections.singletonList(partition)));
+    }
+}
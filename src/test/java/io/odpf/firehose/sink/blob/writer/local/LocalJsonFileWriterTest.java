@@ -0,0 +1,86 @@
+package io.odpf.firehose.sink.blob.writer.local;
+
+import com.google.protobuf.DynamicMessage;
+import io.odpf.firehose.consumer.TestMessage;
+import io.odpf.firehose.message.Message;
+import io.odpf.firehose.sink.blob.message.KafkaMetadataUtils;
+import io.odpf.firehose.sink.blob.message.Record;
+import io.odpf.firehose.sink.blob.proto.KafkaMetadataProtoMessageUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+public class LocalJsonFileWriterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldWriteMessagesAsJsonLines() throws Exception {
+        String fullPath = new File(temporaryFolder.getRoot(), "file.ndjson.gz").getPath();
+        LocalJsonFileWriter writer = new LocalJsonFileWriter(0, temporaryFolder.getRoot().getPath(), fullPath, true, false);
+
+        writer.write(new Record(toDynamicMessage(TestMessage.newBuilder().setOrderNumber("1").setOrderUrl("url").build()), null));
+        writer.write(new Record(toDynamicMessage(TestMessage.getDefaultInstance()), null));
+        writer.close();
+
+        try (InputStream inputStream = new GZIPInputStream(new FileInputStream(fullPath))) {
+            List<String> lines = IOUtils.readLines(inputStream, StandardCharsets.UTF_8);
+            Assert.assertEquals(2, lines.size());
+            Assert.assertEquals("{\"order_number\":\"1\",\"order_url\":\"url\"}", lines.get(0));
+            Assert.assertEquals("{}", lines.get(1));
+        }
+    }
+
+    @Test
+    public void shouldAddMetadataFieldsToTheMessageObject() throws Exception {
+        String fullPath = new File(temporaryFolder.getRoot(), "file.ndjson").getPath();
+        LocalJsonFileWriter writer = new LocalJsonFileWriter(0, temporaryFolder.getRoot().getPath(), fullPath, false, true);
+        TestMessage message = TestMessage.newBuilder().setOrderNumber("1").build();
+        DynamicMessage kafkaMetadata = KafkaMetadataUtils.createKafkaMetadata(KafkaMetadataProtoMessageUtils.createFileDescriptor("meta"),
+                new Message(new byte[0], message.toByteArray(), "topic", 1, 10), "meta");
+
+        writer.write(new Record(toDynamicMessage(message), kafkaMetadata));
+        writer.close();
+
+        try (InputStream inputStream = new FileInputStream(fullPath)) {
+            String line = IOUtils.readLines(inputStream, StandardCharsets.UTF_8).get(0);
+            Assert.assertTrue(line, line.startsWith("{\"order_number\":\"1\",\"meta\":{"));
+            Assert.assertTrue(line, line.contains("\"message_topic\":\"topic\""));
+            Assert.assertTrue(line, line.contains("\"message_offset\":\"10\""));
+        }
+    }
+
+    @Test
+    public void shouldReplaceMessageFieldsWithMetadataFieldsOfTheSameName() throws Exception {
+        String fullPath = new File(temporaryFolder.getRoot(), "file.ndjson").getPath();
+        LocalJsonFileWriter writer = new LocalJsonFileWriter(0, temporaryFolder.getRoot().getPath(), fullPath, false, true);
+        TestMessage message = TestMessage.newBuilder().setOrderNumber("1").setOrderUrl("url").build();
+        DynamicMessage kafkaMetadata = KafkaMetadataUtils.createKafkaMetadata(KafkaMetadataProtoMessageUtils.createFileDescriptor("order_number"),
+                new Message(new byte[0], message.toByteArray(), "topic", 1, 10), "order_number");
+
+        writer.write(new Record(toDynamicMessage(message), kafkaMetadata));
+        writer.close();
+
+        try (InputStream inputStream = new FileInputStream(fullPath)) {
+            String line = IOUtils.readLines(inputStream, StandardCharsets.UTF_8).get(0);
+            Assert.assertTrue(line, line.startsWith("{\"order_number\":{"));
+            Assert.assertEquals(line, line.indexOf("\"order_number\""), line.lastIndexOf("\"order_number\""));
+            Assert.assertTrue(line, line.contains("\"order_url\":\"url\""));
+            Assert.assertTrue(line, line.contains("\"message_offset\":\"10\""));
+        }
+    }
+
+    private DynamicMessage toDynamicMessage(TestMessage message) throws Exception {
+        return DynamicMessage.parseFrom(TestMessage.getDescriptor(), message.toByteArray());
+    }
+}
@@ -0,0 +1,319 @@
+package io.odpf.firehose.sink.blob.writer.local;
+
+import com.github.os72.protobuf.dynamic.DynamicSchema;
+import com.github.os72.protobuf.dynamic.EnumDefinition;
+import com.github.os72.protobuf.dynamic.MessageDefinition;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Duration;
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.Struct;
+import com.google.protobuf.Timestamp;
+import com.google.protobuf.Value;
+import io.odpf.firehose.TestMessageBQ;
+import io.odpf.firehose.TestNestedRepeatedMessageBQ;
+import io.odpf.firehose.config.BlobSinkConfig;
+import io.odpf.firehose.consumer.TestMessage;
+import io.odpf.firehose.message.Message;
+import io.odpf.firehose.sink.blob.message.KafkaMetadataUtils;
+import io.odpf.firehose.sink.blob.message.RawRecord;
+import io.odpf.firehose.sink.blob.message.Record;
+import io.odpf.firehose.sink.blob.proto.KafkaMetadataProtoMessage;
+import io.odpf.firehose.sink.blob.proto.KafkaMetadataProtoMessageUtils;
+import io.odpf.firehose.sink.blob.proto.NestedKafkaMetadataProtoMessage;
+import io.odpf.firehose.sink.blob.writer.local.buffer.MemoryBufferPool;
+import io.odpf.firehose.sink.blob.writer.local.buffer.MemoryOutputFile;
+import org.aeonbits.owner.ConfigFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.schema.MessageType;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class LocalParquetFileWriterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldWriteWithGzipCompressionByDefault() throws Exception {
+        ParquetMetadata footer = writeAndReadFooter(new HashMap<>());
+
+        Map<String, ColumnChunkMetaData> columns = new HashMap<>();
+        for (ColumnChunkMetaData column : footer.getBlocks().get(0).getColumns()) {
+            Assert.assertEquals(CompressionCodecName.GZIP, column.getCodec());
+            columns.put(column.getPath().toDotString(), column);
+        }
+        Assert.assertTrue(columns.get("order_url").getEncodings().contains(Encoding.PLAIN_DICTIONARY));
+    }
+
+    @Test
+    public void shouldWriteWithConfiguredCodecAndEncodings() throws Exception {
+        Map<String, String> config = new HashMap<>();
+        config.put("SINK_BLOB_LOCAL_FILE_WRITER_PARQUET_COMPRESSION_CODEC", "snappy");
+        config.put("SINK_BLOB_LOCAL_FILE_WRITER_PARQUET_DICTIONARY_ENCODING_DISABLED_COLUMNS", "order_url");
+
+        ParquetMetadata footer = writeAndReadFooter(config);
+
+        Map<String, ColumnChunkMetaData> columns = new HashMap<>();
+        for (ColumnChunkMetaData column : footer.getBlocks().get(0).getColumns()) {
+            Assert.assertEquals(CompressionCodecName.SNAPPY, column.getCodec());
+            columns.put(column.getPath().toDotString(), column);
+        }
+        Assert.assertTrue(columns.get("order_details").getEncodings().contains(Encoding.PLAIN_DICTIONARY));
+        Assert.assertFalse(columns.get("order_url").getEncodings().contains(Encoding.PLAIN_DICTIONARY));
+    }
+
+    @Test
+    public void shouldWriteV2PagesWithoutDictionaries() throws Exception {
+        Map<String, String> config = new HashMap<>();
+        config.put("SINK_BLOB_LOCAL_FILE_WRITER_PARQUET_COMPRESSION_CODEC", "UNCOMPRESSED");
+        config.put("SINK_BLOB_LOCAL_FILE_WRITER_PARQUET_DICTIONARY_ENCODING_ENABLE", "false");
+        config.put("SINK_BLOB_LOCAL_FILE_WRITER_PARQUET_WRITER_VERSION", "v2");
+
+        ParquetMetadata footer = writeAndReadFooter(config);
+
+        for (ColumnChunkMetaData column : footer.getBlocks().get(0).getColumns()) {
+            Assert.assertEquals(CompressionCodecName.UNCOMPRESSED, column.getCodec());
+            Assert.assertFalse(column.getEncodings().contains(Encoding.RLE_DICTIONARY));
+            Assert.assertFalse(column.getEncodings().contains(Encoding.PLAIN_DICTIONARY));
+        }
+    }
+
+    @Test
+    public void shouldWriteToMemoryWithoutTouchingTheLocalDisk() throws Exception {
+        BlobSinkConfig sinkConfig = ConfigFactory.create(BlobSinkConfig.class, new HashMap<>());
+        String basePath = temporaryFolder.getRoot().getPath();
+        File file = new File(basePath, "file.parquet");
+        MemoryOutputFile outputFile = new MemoryOutputFile(file.toPath(), new MemoryBufferPool(1024 * 1024, 1024));
+        LocalParquetFileWriter writer = new LocalParquetFileWriter(0, basePath, file.getPath(), sinkConfig, TestMessage.getDescriptor(), new ArrayList<>(), outputFile);
+        writeMessages(writer);
+        writer.close();
+
+        Assert.assertFalse(file.exists());
+        Assert.assertFalse(outputFile.isSpilled());
+        File copy = temporaryFolder.newFile("copy.parquet");
+        try (InputStream content = outputFile.openInputStream()) {
+            Files.copy(content, copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        Assert.assertEquals(outputFile.getSize(), copy.length());
+        try (ParquetFileReader reader = ParquetFileReader.open(HadoopInputFile.fromPath(new Path(copy.getPath()), new Configuration()))) {
+            Assert.assertEquals(100, reader.getRecordCount());
+        }
+    }
+
+    @Test
+    public void shouldWriteToTheLocalDiskWithoutChecksumFile() throws Exception {
+        BlobSinkConfig sinkConfig = ConfigFactory.create(BlobSinkConfig.class, new HashMap<>());
+        String basePath = temporaryFolder.getRoot().getPath();
+        File directory = new File(basePath, "dt=2021-01-01");
+        File file = new File(directory, "file.parquet");
+        LocalParquetFileWriter writer = new LocalParquetFileWriter(0, basePath, file.getPath(), sinkConfig, TestMessage.getDescriptor(), new ArrayList<>());
+        writeMessages(writer);
+        writer.close();
+
+        Assert.assertArrayEquals(new String[]{"file.parquet"}, directory.list());
+        Assert.assertEquals(100, readRecords(file.getPath()).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectCodecWhichNeedsExternalLibraries() {
+        Map<String, String> config = new HashMap<>();
+        config.put("SINK_BLOB_LOCAL_FILE_WRITER_PARQUET_COMPRESSION_CODEC", "LZO");
+
+        ConfigFactory.create(BlobSinkConfig.class, config).getLocalFileWriterParquetCompressionCodec();
+    }
+
+    @Test
+    public void shouldWriteRawRecordsAsTheParsedMessagesAreWritten() throws Exception {
+        List<byte[]> messages = new ArrayList<>();
+        messages.add(new byte[0]);
+        for (int i = 0; i < 10; i++) {
+            messages.add(nestedRepeatedMessage(i).toByteArray());
+        }
+        byte[] unknownField = {(byte) 0xA2, 0x06, 1, 'x'};
+        messages.add(concat(nestedRepeatedMessage(1).toByteArray(), unknownField, nestedRepeatedMessage(2).toByteArray()));
+
+        assertRawRecordsWrittenAsParsed(TestNestedRepeatedMessageBQ.getDescriptor(), messages);
+    }
+
+    @Test
+    public void shouldWriteRawProto2RecordsAsTheParsedMessagesAreWritten() throws Exception {
+        Descriptors.Descriptor descriptor = DynamicSchema.newBuilder()
+                .setName("proto2.proto")
+                .setPackage("test")
+                .addEnumDefinition(EnumDefinition.newBuilder("Color").addValue("RED", 1).addValue("GREEN", 2).build())
+                .addMessageDefinition(MessageDefinition.newBuilder("Child")
+                        .addField("optional", "string", "name", 1)
+                        .addField("repeated", "int64", "values", 2)
+                        .build())
+                .addMessageDefinition(MessageDefinition.newBuilder("Parent")
+                        .addField("required", "string", "id", 1)
+                        .addField("optional", "Color", "color", 2)
+                        .addField("repeated", "Color", "colors", 3)
+                        .addField("optional", "Child", "child", 4)
+                        .addField("repeated", "Child", "children", 5)
+                        .addField("optional", "int32", "count", 6, "7")
+                        .addOneof("choice").addField("string", "text", 7).addField("Child", "nested", 8).msgDefBuilder()
+                        .build())
+                .build()
+                .getMessageDescriptor("Parent");
+        Descriptors.Descriptor childDescriptor = descriptor.findFieldByName("child").getMessageType();
+        DynamicMessage child = DynamicMessage.newBuilder(childDescriptor)
+                .setField(childDescriptor.findFieldByName("name"), "child")
+                .addRepeatedField(childDescriptor.findFieldByName("values"), 3L)
+                .build();
+        DynamicMessage parent = DynamicMessage.newBuilder(descriptor)
+                .setField(descriptor.findFieldByName("id"), "parent")
+                .setField(descriptor.findFieldByName("color"), descriptor.findFieldByName("color").getEnumType().findValueByName("GREEN"))
+                .addRepeatedField(descriptor.findFieldByName("colors"), descriptor.findFieldByName("color").getEnumType().findValueByName("RED"))
+                .setField(descriptor.findFieldByName("child"), child)
+                .addRepeatedField(descriptor.findFieldByName("children"), child)
+                .setField(descriptor.findFieldByName("text"), "text")
+                .build();
+        DynamicMessage nested = DynamicMessage.newBuilder(descriptor)
+                .setField(descriptor.findFieldByName("id"), "nested")
+                .setField(descriptor.findFieldByName("nested"), child)
+                .build();
+        byte[] unknownColors = {2 << 3, 9, 3 << 3, 9};
+
+        List<byte[]> messages = new ArrayList<>();
+        messages.add(parent.toByteArray());
+        messages.add(nested.toByteArray());
+        messages.add(concat(parent.toByteArray(), unknownColors, nested.toByteArray()));
+        messages.add(concat(nested.toByteArray(), parent.toByteArray()));
+
+        assertRawRecordsWrittenAsParsed(descriptor, messages);
+    }
+
+    private TestNestedRepeatedMessageBQ nestedRepeatedMessage(int i) {
+        TestMessageBQ message = TestMessageBQ.newBuilder()
+                .setOrderNumber("order-" + i)
+                .setCreatedAt(Timestamp.newBuilder().setSeconds(1600000000L + i).setNanos(i * 1000000 + 999))
+                .setStatusValue(i % 3)
+                .setDiscount(-i)
+                .setSuccess(i % 2 == 0)
+                .setPrice(i * 1.5f)
+                .putCurrentState("state", "state-" + i)
+                .setUserToken(ByteString.copyFromUtf8("token-" + i))
+                .setTripDuration(Duration.newBuilder().setSeconds(i))
+                .addAliases("alias-" + i)
+                .addAliases("")
+                .setProperties(Struct.newBuilder().putFields("key", Value.newBuilder().setStringValue("value-" + i).build()))
+                .addUpdatedAt(Timestamp.newBuilder().setSeconds(i))
+                .addAttributes(Struct.newBuilder().putFields("number", Value.newBuilder().setNumberValue(i).build()))
+                .build();
+        return TestNestedRepeatedMessageBQ.newBuilder()
+                .setSingleMessage(message)
+                .addRepeatedMessage(message)
+                .addRepeatedMessage(TestMessageBQ.getDefaultInstance())
+                .setNumberField(i)
+                .addRepeatedNumberField(i)
+                .addRepeatedNumberField(-i)
+                .build();
+    }
+
+    private byte[] concat(byte[]... parts) {
+        ByteString bytes = ByteString.EMPTY;
+        for (byte[] part : parts) {
+            bytes = bytes.concat(ByteString.copyFrom(part));
+        }
+        return bytes.toByteArray();
+    }
+
+    private void assertRawRecordsWrittenAsParsed(Descriptors.Descriptor descriptor, List<byte[]> messages) throws Exception {
+        String parsedPath = writeRecords("parsed.parquet", false, descriptor, messages);
+        String rawPath = writeRecords("raw.parquet", true, descriptor, messages);
+
+        Assert.assertEquals(readRecords(parsedPath), readRecords(rawPath));
+        try (ParquetFileReader parsed = ParquetFileReader.open(HadoopInputFile.fromPath(new Path(parsedPath), new Configuration()));
+             ParquetFileReader raw = ParquetFileReader.open(HadoopInputFile.fromPath(new Path(rawPath), new Configuration()))) {
+            Assert.assertEquals(parsed.getFileMetaData().getSchema(), raw.getFileMetaData().getSchema());
+            Assert.assertEquals(parsed.getFileMetaData().getKeyValueMetaData(), raw.getFileMetaData().getKeyValueMetaData());
+        }
+    }
+
+    private String writeRecords(String fileName, boolean raw, Descriptors.Descriptor descriptor, List<byte[]> messages) throws Exception {
+        Map<String, String> config = new HashMap<>();
+        config.put("SINK_BLOB_LOCAL_FILE_WRITER_PARQUET_RAW_WRITE_ENABLE", String.valueOf(raw));
+        config.put("SINK_BLOB_OUTPUT_INCLUDE_KAFKA_METADATA_ENABLE", "true");
+        config.put("SINK_BLOB_OUTPUT_KAFKA_METADATA_COLUMN_NAME", "kafka_metadata");
+        BlobSinkConfig sinkConfig = ConfigFactory.create(BlobSinkConfig.class, config);
+        Descriptors.FileDescriptor metadataFileDescriptor = KafkaMetadataProtoMessageUtils.createFileDescriptor("kafka_metadata");
+        List<Descriptors.FieldDescriptor> metadataFields = metadataFileDescriptor.findMessageTypeByName(NestedKafkaMetadataProtoMessage.getTypeName()).getFields();
+        String basePath = temporaryFolder.getRoot().getPath();
+        String fullPath = new File(basePath, fileName).getPath();
+        LocalParquetFileWriter writer = new LocalParquetFileWriter(0, basePath, fullPath, sinkConfig, descriptor, metadataFields);
+        for (int i = 0; i < messages.size(); i++) {
+            Message message = new Message(new byte[0], messages.get(i), "booking-log", 1, i, null, 1600000000000L + i, 0);
+            writer.write(raw
+                    ? new RawRecord(message, null, null)
+                    : new Record(DynamicMessage.parseFrom(descriptor, messages.get(i)),
+                    KafkaMetadataUtils.createKafkaMetadata(metadataFileDescriptor, message, "kafka_metadata")));
+        }
+        writer.close();
+        return fullPath;
+    }
+
+    /**
+     * Read the records of a file, without their load time.
+     */
+    private List<String> readRecords(String fullPath) throws Exception {
+        List<String> records = new ArrayList<>();
+        try (ParquetFileReader reader = ParquetFileReader.open(HadoopInputFile.fromPath(new Path(fullPath), new Configuration()))) {
+            MessageType schema = reader.getFileMetaData().getSchema();
+            for (PageReadStore rowGroup = reader.readNextRowGroup(); rowGroup != null; rowGroup = reader.readNextRowGroup()) {
+                RecordReader<Group> recordReader = new ColumnIOFactory().getColumnIO(schema).getRecordReader(rowGroup, new GroupRecordConverter(schema));
+                for (long i = 0; i < rowGroup.getRowCount(); i++) {
+                    records.add(Arrays.stream(recordReader.read().toString().split("\\n"))
+                            .filter(line -> !line.trim().startsWith(KafkaMetadataProtoMessage.LOAD_TIME_FIELD_NAME))
+                            .collect(Collectors.joining("\\n")));
+                }
+            }
+        }
+        return records;
+    }
+
+    private ParquetMetadata writeAndReadFooter(Map<String, String> config) throws Exception {
+        BlobSinkConfig sinkConfig = ConfigFactory.create(BlobSinkConfig.class, config);
+        String basePath = temporaryFolder.getRoot().getPath();
+        String fullPath = new File(basePath, "file.parquet").getPath();
+        LocalParquetFileWriter writer = new LocalParquetFileWriter(0, basePath, fullPath, sinkConfig, TestMessage.getDescriptor(), new ArrayList<>());
+        writeMessages(writer);
+        writer.close();
+        try (ParquetFileReader reader = ParquetFileReader.open(HadoopInputFile.fromPath(new Path(fullPath), new Configuration()))) {
+            return reader.getFooter();
+        }
+    }
+
+    private void writeMessages(LocalParquetFileWriter writer) throws Exception {
+        for (int i = 0; i < 100; i++) {
+            TestMessage message = TestMessage.newBuilder().setOrderNumber("order-" + i).setOrderUrl("url-" + (i % 2)).setOrderDetails("details").build();
+            writer.write(new Record(DynamicMessage.parseFrom(TestMessage.getDescriptor(), message.toByteArray()), null));
+        }
+    }
+}
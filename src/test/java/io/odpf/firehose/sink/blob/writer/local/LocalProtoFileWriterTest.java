@@ -0,0 +1,75 @@
+package io.odpf.firehose.sink.blob.writer.local;
+
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.DynamicMessage;
+import io.odpf.firehose.consumer.TestMessage;
+import io.odpf.firehose.message.Message;
+import io.odpf.firehose.sink.blob.message.KafkaMetadataUtils;
+import io.odpf.firehose.sink.blob.message.Record;
+import io.odpf.firehose.sink.blob.proto.KafkaMetadataProtoMessage;
+import io.odpf.firehose.sink.blob.proto.KafkaMetadataProtoMessageUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+public class LocalProtoFileWriterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldWriteRawMessagesLengthDelimited() throws Exception {
+        String fullPath = new File(temporaryFolder.getRoot(), "topic/file.pb.gz").getPath();
+        LocalProtoFileWriter writer = new LocalProtoFileWriter(0, temporaryFolder.getRoot().getPath(), fullPath, true, false);
+        TestMessage first = TestMessage.newBuilder().setOrderNumber("1").build();
+        TestMessage second = TestMessage.newBuilder().setOrderNumber("2").build();
+
+        writer.write(new Record(null, null, first.toByteArray()));
+        writer.write(new Record(null, null, second.toByteArray()));
+        LocalFileMetadata metadata = writer.closeAndFetchMetaData();
+
+        Assert.assertEquals(2, metadata.getRecordCount());
+        Assert.assertEquals(new File(fullPath).length(), metadata.getSize());
+        try (InputStream inputStream = new GZIPInputStream(new FileInputStream(fullPath))) {
+            Assert.assertEquals(first, TestMessage.parseDelimitedFrom(inputStream));
+            Assert.assertEquals(second, TestMessage.parseDelimitedFrom(inputStream));
+            Assert.assertNull(TestMessage.parseDelimitedFrom(inputStream));
+        }
+    }
+
+    @Test
+    public void shouldWriteMetadataBeforeEveryMessage() throws Exception {
+        String fullPath = new File(temporaryFolder.getRoot(), "file.pb").getPath();
+        LocalProtoFileWriter writer = new LocalProtoFileWriter(0, temporaryFolder.getRoot().getPath(), fullPath, false, true);
+        Descriptors.FileDescriptor metadataFileDescriptor = KafkaMetadataProtoMessageUtils.createFileDescriptor("");
+        TestMessage message = TestMessage.newBuilder().setOrderNumber("1").build();
+        DynamicMessage kafkaMetadata = KafkaMetadataUtils.createKafkaMetadata(metadataFileDescriptor,
+                new Message(new byte[0], message.toByteArray(), "topic", 1, 10), "");
+
+        writer.write(new Record(DynamicMessage.parseFrom(TestMessage.getDescriptor(), message.toByteArray()), kafkaMetadata));
+        writer.close();
+
+        Descriptors.Descriptor metadataDescriptor = metadataFileDescriptor.findMessageTypeByName(KafkaMetadataProtoMessage.getTypeName());
+        try (InputStream inputStream = new FileInputStream(fullPath)) {
+            DynamicMessage.Builder metadataBuilder = DynamicMessage.newBuilder(metadataDescriptor);
+            Assert.assertTrue(metadataBuilder.mergeDelimitedFrom(inputStream));
+            Assert.assertEquals(kafkaMetadata.toByteString(), metadataBuilder.build().toByteString());
+            Assert.assertEquals(message, TestMessage.parseDelimitedFrom(inputStream));
+        }
+    }
+
+    @Test
+    public void shouldNotWriteAfterClose() throws Exception {
+        String fullPath = new File(temporaryFolder.getRoot(), "file.pb").getPath();
+        LocalProtoFileWriter writer = new LocalProtoFileWriter(0, temporaryFolder.getRoot().getPath(), fullPath, false, false);
+        writer.close();
+
+        Assert.assertFalse(writer.write(new Record(null, null, new byte[]{1})));
+    }
+}
@@ -23,11 +23,10 @@ public class LocalStorageTest {
         FirehoseInstrumentation firehoseInstrumentation = Mockito.mock(FirehoseInstrumentation.class);
         LocalStorage storage = new LocalStorage(sinkConfig, null, metadataFieldDescriptor, policies, firehoseInstrumentation);
         LocalStorage spy = Mockito.spy(storage);
-        Mockito.doNothing().when(spy).deleteLocalFile(Paths.get("/tmp/a"), Paths.get("/tmp/.a.crc"));
+        Mockito.doNothing().when(spy).deleteLocalFile(Paths.get("/tmp/a"));
         Mockito.when(sinkConfig.getLocalFileWriterType()).thenReturn(Constants.WriterType.PARQUET);
         spy.deleteLocalFile("/tmp/a");
-        Mockito.verify(spy, Mockito.times(1)).deleteLocalFile(Paths.get("/tmp/a"), Paths.get("/tmp/.a.crc"));
+        Mockito.verify(spy, Mockito.times(1)).deleteLocalFile(Paths.get("/tmp/a"));
         Mockito.verify(firehoseInstrumentation, Mockito.times(1)).logInfo("Deleting Local File {}", Paths.get("/tmp/a"));
-        Mockito.verify(firehoseInstrumentation, Mockito.times(1)).logInfo("Deleting Local File {}", Paths.get("/tmp/.a.crc"));
     }
 }
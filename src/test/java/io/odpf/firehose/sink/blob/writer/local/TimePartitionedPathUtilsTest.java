@@ -15,6 +15,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Instant;
+import java.util.Optional;
 
 import static org.junit.Assert.assertEquals;
 
@@ -115,4 +116,30 @@ public class TimePartitionedPathUtilsTest {
         Path path = TimePartitionedPathUtils.getTimePartitionedPath(record, sinkConfig);
         assertEquals(Paths.get("booking-log/dt=2020-01-01"), path);
     }
+
+    @Test
+    public void shouldParseEndOfHourPartition() {
+        BlobSinkConfig sinkConfig = Mockito.mock(BlobSinkConfig.class);
+        Mockito.when(sinkConfig.getFilePartitionProtoTimestampTimezone()).thenReturn("Asia/Jakarta");
+        Mockito.when(sinkConfig.getFilePartitionTimeGranularityType()).thenReturn(Constants.FilePartitionType.HOUR);
+        Mockito.when(sinkConfig.getFilePartitionTimeDatePrefix()).thenReturn(datePrefix);
+        Mockito.when(sinkConfig.getFilePartitionTimeHourPrefix()).thenReturn(hourPrefix);
+
+        assertEquals(Optional.of(Instant.parse("2020-01-01T04:00:00Z")),
+                TimePartitionedPathUtils.getPartitionEndTime(Paths.get("booking-log/dt=2020-01-01/hr=10"), sinkConfig));
+        assertEquals(Optional.empty(), TimePartitionedPathUtils.getPartitionEndTime(Paths.get("booking-log/dt=2020-01-01/x"), sinkConfig));
+        assertEquals(Optional.empty(), TimePartitionedPathUtils.getPartitionEndTime(Paths.get("booking-log"), sinkConfig));
+    }
+
+    @Test
+    public void shouldParseEndOfDayPartition() {
+        BlobSinkConfig sinkConfig = Mockito.mock(BlobSinkConfig.class);
+        Mockito.when(sinkConfig.getFilePartitionProtoTimestampTimezone()).thenReturn(zone);
+        Mockito.when(sinkConfig.getFilePartitionTimeGranularityType()).thenReturn(Constants.FilePartitionType.DAY);
+        Mockito.when(sinkConfig.getFilePartitionTimeDatePrefix()).thenReturn(datePrefix);
+
+        assertEquals(Optional.of(Instant.parse("2020-01-02T00:00:00Z")),
+                TimePartitionedPathUtils.getPartitionEndTime(Paths.get("booking-log/dt=2020-01-01"), sinkConfig));
+        assertEquals(Optional.empty(), TimePartitionedPathUtils.getPartitionEndTime(Paths.get("booking-log/dt=2020-13-01"), sinkConfig));
+    }
 }
@@ -0,0 +1,103 @@
+package io.odpf.firehose.sink.blob.writer.local.buffer;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.parquet.io.PositionOutputStream;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+public class MemoryOutputFileTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private byte[] content(int length) {
+        byte[] content = new byte[length];
+        for (int i = 0; i < length; i++) {
+            content[i] = (byte) i;
+        }
+        return content;
+    }
+
+    @Test
+    public void shouldBufferContentAcrossChunks() throws Exception {
+        MemoryBufferPool pool = new MemoryBufferPool(64, 16);
+        File file = new File(temporaryFolder.getRoot(), "dir/file");
+        MemoryOutputFile outputFile = new MemoryOutputFile(file.toPath(), pool);
+        byte[] content = content(40);
+
+        try (PositionOutputStream outputStream = outputFile.create(0)) {
+            outputStream.write(content, 0, 39);
+            outputStream.write(content[39]);
+            Assert.assertEquals(40, outputStream.getPos());
+        }
+
+        Assert.assertFalse(outputFile.isSpilled());
+        Assert.assertFalse(file.exists());
+        Assert.assertEquals(48, pool.getUsedBytes());
+        try (InputStream inputStream = outputFile.openInputStream()) {
+            Assert.assertArrayEquals(content, IOUtils.toByteArray(inputStream));
+        }
+        outputFile.release();
+        Assert.assertEquals(0, pool.getUsedBytes());
+    }
+
+    @Test
+    public void shouldSpillToLocalPathWhenPoolIsUsedUp() throws Exception {
+        MemoryBufferPool pool = new MemoryBufferPool(32, 16);
+        File file = new File(temporaryFolder.getRoot(), "dir/file");
+        MemoryOutputFile outputFile = new MemoryOutputFile(file.toPath(), pool);
+        byte[] content = content(50);
+
+        try (PositionOutputStream outputStream = outputFile.create(0)) {
+            outputStream.write(content, 0, 20);
+            outputStream.write(content, 20, 30);
+            Assert.assertEquals(50, outputStream.getPos());
+        }
+
+        Assert.assertTrue(outputFile.isSpilled());
+        Assert.assertEquals(0, pool.getUsedBytes());
+        Assert.assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+        try (InputStream inputStream = outputFile.openInputStream()) {
+            Assert.assertArrayEquals(content, IOUtils.toByteArray(inputStream));
+        }
+        outputFile.release();
+        Assert.assertFalse(file.exists());
+    }
+
+    @Test
+    public void shouldReuseReleasedChunks() throws Exception {
+        MemoryBufferPool pool = new MemoryBufferPool(16, 16);
+        MemoryOutputFile first = new MemoryOutputFile(new File(temporaryFolder.getRoot(), "first").toPath(), pool);
+        first.create(0).write(content(16));
+        first.release();
+        MemoryOutputFile second = new MemoryOutputFile(new File(temporaryFolder.getRoot(), "second").toPath(), pool);
+        second.create(0).write(content(16));
+
+        Assert.assertFalse(second.isSpilled());
+        Assert.assertEquals(16, pool.getUsedBytes());
+    }
+
+    @Test
+    public void shouldResetContentToMark() throws Exception {
+        MemoryOutputFile outputFile = new MemoryOutputFile(new File(temporaryFolder.getRoot(), "file").toPath(), new MemoryBufferPool(64, 8));
+        byte[] content = content(20);
+        outputFile.create(0).write(content);
+
+        try (InputStream inputStream = outputFile.openInputStream()) {
+            Assert.assertTrue(inputStream.markSupported());
+            Assert.assertEquals(10, inputStream.skip(10));
+            inputStream.mark(0);
+            Assert.assertEquals(10, inputStream.read());
+            IOUtils.toByteArray(inputStream);
+            inputStream.reset();
+            Assert.assertEquals(10, inputStream.available());
+            Assert.assertEquals(10, inputStream.read());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package io.odpf.firehose.sink.blob.writer.local.path;
+
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.Timestamp;
+import com.google.type.Date;
+import io.odpf.firehose.StatusBQ;
+import io.odpf.firehose.TestMessageBQ;
+import io.odpf.firehose.config.BlobSinkConfig;
+import io.odpf.firehose.exception.ConfigurationException;
+import io.odpf.firehose.message.Message;
+import io.odpf.firehose.sink.blob.TestUtils;
+import io.odpf.firehose.sink.blob.message.RawRecord;
+import io.odpf.firehose.sink.blob.message.Record;
+import io.odpf.firehose.sink.blob.proto.ProtoWireMessage;
+import org.aeonbits.owner.ConfigFactory;
+import org.junit.Test;
+
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+
+public class PartitionPathTemplateTest {
+
+    private PartitionPathTemplate compile(String template, String zone) {
+        Map<String, String> config = new HashMap<>();
+        config.put("SINK_BLOB_FILE_PARTITION_TEMPLATE", template);
+        config.put("SINK_BLOB_FILE_PARTITION_PROTO_TIMESTAMP_FIELD_NAME", "created_at");
+        config.put("SINK_BLOB_FILE_PARTITION_PROTO_TIMESTAMP_TIMEZONE", zone);
+        return PartitionPathTemplate.of(ConfigFactory.create(BlobSinkConfig.class, config));
+    }
+
+    private TestMessageBQ message(Instant timestamp, String orderNumber) {
+        return TestMessageBQ.newBuilder()
+                .setOrderNumber(orderNumber)
+                .setStatus(StatusBQ.CANCELLED)
+                .setPrice(1.5f)
+                .setOrderDate(Date.newBuilder().setYear(2020))
+                .setCreatedAt(Timestamp.newBuilder().setSeconds(timestamp.getEpochSecond()).setNanos(timestamp.getNano()))
+                .build();
+    }
+
+    private Record record(Instant timestamp, String orderNumber) throws Exception {
+        DynamicMessage message = DynamicMessage.parseFrom(TestMessageBQ.getDescriptor(), message(timestamp, orderNumber).toByteArray());
+        return new Record(message, TestUtils.createMetadata("", timestamp, 1L, 1, "booking-log"));
+    }
+
+    private Record rawRecord(Instant timestamp, String orderNumber) throws Exception {
+        byte[] bytes = message(timestamp, orderNumber).toByteArray();
+        return new RawRecord(new Message(new byte[0], bytes, "booking-log", 1, 1L),
+                ProtoWireMessage.of(TestMessageBQ.getDescriptor(), bytes), timestamp);
+    }
+
+    @Test
+    public void shouldRenderTopicFieldsAndBucketedTime() throws Exception {
+        PartitionPathTemplate template = compile(
+                "{topic}/order={field:order_number}/status={field:status}/price={field:price}/year={field:order_date.year}/dt={ts:yyyy-MM-dd}/hr={ts:HH}/min={ts:mm/15}",
+                "Asia/Jakarta");
+        Instant timestamp = Instant.parse("2020-01-01T03:44:59Z");
+
+        String expected = "booking-log/order=a%2Fb%3D/status=CANCELLED/price=1.5/year=2020/dt=2020-01-01/hr=10/min=30";
+        assertEquals(Paths.get(expected), template.getPartitionPath(record(timestamp, "a/b=")));
+        assertEquals(Paths.get(expected), template.getPartitionPath(rawRecord(timestamp, "a/b=")));
+        assertEquals(Paths.get("booking-log/order=__HIVE_DEFAULT_PARTITION__/status=CANCELLED/price=1.5/year=2020/dt=2020-01-01/hr=10/min=30"),
+                template.getPartitionPath(rawRecord(timestamp, "")));
+        assertEquals(Paths.get("order=%2E%2E"), compile("order={field:order_number}", "UTC").getPartitionPath(record(timestamp, "..")));
+    }
+
+    @Test
+    public void shouldRenderCachedTimeSegmentsAcrossTimeZoneTransitions() throws Exception {
+        PartitionPathTemplate hourTemplate = compile("dt={ts:yyyy-MM-dd}/hr={ts:HH}/{ts:xxx}", "Australia/Lord_Howe");
+        PartitionPathTemplate minuteTemplate = compile("dt={ts:yyyy-MM-dd}/hr={ts:HH}/min={ts:mm/20}", "Australia/Lord_Howe");
+        ZoneId zone = ZoneId.of("Australia/Lord_Howe");
+        Instant transition = Instant.parse("2020-04-04T15:00:00Z");
+        for (long seconds = 0; seconds < 4 * 3600; seconds += 7 * 60 + 1) {
+            for (Instant timestamp : new Instant[]{transition.plusSeconds(seconds), transition.minusSeconds(seconds)}) {
+                ZonedDateTime time = timestamp.atZone(zone);
+                assertEquals(Paths.get(String.format("dt=%s/hr=%02d/%s", time.toLocalDate(), time.getHour(), time.getOffset())),
+                        hourTemplate.getPartitionPath(record(timestamp, "order")));
+                assertEquals(Paths.get(String.format("dt=%s/hr=%02d/min=%02d", time.toLocalDate(), time.getHour(), time.getMinute() / 20 * 20)),
+                        minuteTemplate.getPartitionPath(record(timestamp, "order")));
+            }
+        }
+    }
+
+    @Test
+    public void shouldParseTopicAndEndOfFinestWindow() {
+        PartitionPathTemplate template = compile("country={field:order_number}/{topic}/dt={ts:yyyy-MM-dd}/hr={ts:HH}/min={ts:mm/15}", "Asia/Jakarta");
+
+        assertEquals(Optional.of("booking-log"), template.getTopic(Paths.get("country=id/booking-log/dt=2020-01-01/hr=10/min=30")));
+        assertEquals(Optional.of(Instant.parse("2020-01-01T03:45:00Z")),
+                template.getPartitionEndTime(Paths.get("country=id/booking-log/dt=2020-01-01/hr=10/min=30")));
+        assertEquals(Optional.empty(), template.getPartitionEndTime(Paths.get("country=id/booking-log/dt=2020-01-01/hr=10")));
+        assertEquals(Optional.empty(), template.getPartitionEndTime(Paths.get("country=id/booking-log/dt=2020-01-01/hr=25/min=30")));
+        assertEquals(Optional.of(Instant.parse("2020-02-01T00:00:00Z")),
+                compile("month={ts:yyyy-MM}/day={ts:dd}", "UTC").getPartitionEndTime(Paths.get("month=2020-01/day=31")));
+        assertEquals(Optional.empty(), compile("year={ts:yyyy}", "UTC").getPartitionEndTime(Paths.get("year=2020")));
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void shouldRejectUnknownTokens() {
+        compile("{topic}/{partition}", "UTC");
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void shouldRejectEmptyPathSegments() {
+        compile("{topic}//{ts:HH}", "UTC");
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void shouldRejectRepeatedPartitionFields() {
+        compile("{topic}/{field:aliases}", "UTC").checkFields(TestMessageBQ.getDescriptor());
+    }
+}
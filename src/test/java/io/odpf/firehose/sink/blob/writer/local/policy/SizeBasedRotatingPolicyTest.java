@@ -31,6 +31,12 @@ public class SizeBasedRotatingPolicyTest {
         Assert.assertFalse(shouldRotate);
     }
 
+    @Test
+    public void shouldBeCheckedOnWrite() {
+        LocalFileMetadata metadata = new LocalFileMetadata("/tmp", "/tmp/a/random-file-name-1", 1L, 100L, 258L);
+        Assert.assertTrue(sizeBasedRotatingPolicy.shouldRotateOnWrite(metadata));
+    }
+
     @Test
     public void shouldThrowExceptionIfInvalid() {
         thrown.expect(IllegalArgumentException.class);
@@ -0,0 +1,92 @@
+package io.odpf.firehose.sink.blob.writer.local.policy;
+
+import io.odpf.firehose.config.BlobSinkConfig;
+import io.odpf.firehose.sink.blob.Constants;
+import io.odpf.firehose.sink.blob.TestProtoMessage;
+import io.odpf.firehose.sink.blob.TestUtils;
+import io.odpf.firehose.sink.blob.message.Record;
+import io.odpf.firehose.sink.blob.writer.local.LocalFileMetadata;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.mockito.Mockito;
+
+import java.time.Instant;
+
+public class WatermarkRotatingPolicyTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private BlobSinkConfig sinkConfig;
+
+    @Before
+    public void setUp() {
+        sinkConfig = Mockito.mock(BlobSinkConfig.class);
+        Mockito.when(sinkConfig.getFilePartitionTimeGranularityType()).thenReturn(Constants.FilePartitionType.HOUR);
+        Mockito.when(sinkConfig.getFilePartitionProtoTimestampTimezone()).thenReturn("UTC");
+        Mockito.when(sinkConfig.getFilePartitionProtoTimestampFieldName()).thenReturn(TestProtoMessage.CREATED_TIME_FIELD_NAME);
+        Mockito.when(sinkConfig.getOutputKafkaMetadataColumnName()).thenReturn("");
+        Mockito.when(sinkConfig.getFilePartitionTimeDatePrefix()).thenReturn("dt=");
+        Mockito.when(sinkConfig.getFilePartitionTimeHourPrefix()).thenReturn("hr=");
+    }
+
+    private Record record(String topic, String timestamp) {
+        Instant instant = Instant.parse(timestamp);
+        return new Record(TestUtils.createMessage(instant, 1), TestUtils.createMetadata("", instant, 1L, 1, topic));
+    }
+
+    private LocalFileMetadata metadata(String partitionPath) {
+        return new LocalFileMetadata("/tmp", "/tmp/" + partitionPath + "/file-name", 1L, 1L, 1L);
+    }
+
+    @Test
+    public void shouldRotatePartitionsEndedBeforeWatermarkMinusAllowedLateness() {
+        WatermarkRotatingPolicy policy = new WatermarkRotatingPolicy(sinkConfig, 600000);
+
+        policy.onWrite(record("booking-log", "2020-01-01T12:05:00Z"));
+        policy.onWrite(record("booking-log", "2020-01-01T11:30:00Z"));
+
+        Assert.assertTrue(policy.shouldRotate(metadata("booking-log/dt=2020-01-01/hr=10")));
+        Assert.assertFalse(policy.shouldRotate(metadata("booking-log/dt=2020-01-01/hr=11")));
+        Assert.assertFalse(policy.shouldRotate(metadata("booking-log/dt=2020-01-01/hr=12")));
+    }
+
+    @Test
+    public void shouldTrackWatermarkPerTopic() {
+        WatermarkRotatingPolicy policy = new WatermarkRotatingPolicy(sinkConfig, 0);
+
+        policy.onWrite(record("booking-log", "2020-01-01T12:15:00Z"));
+
+        Assert.assertTrue(policy.shouldRotate(metadata("booking-log/dt=2020-01-01/hr=10")));
+        Assert.assertFalse(policy.shouldRotate(metadata("payment-log/dt=2020-01-01/hr=10")));
+    }
+
+    @Test
+    public void shouldRotateDayPartitions() {
+        Mockito.when(sinkConfig.getFilePartitionTimeGranularityType()).thenReturn(Constants.FilePartitionType.DAY);
+        WatermarkRotatingPolicy policy = new WatermarkRotatingPolicy(sinkConfig, 0);
+
+        policy.onWrite(record("booking-log", "2020-01-02T00:00:00Z"));
+
+        Assert.assertTrue(policy.shouldRotate(metadata("booking-log/dt=2020-01-01")));
+        Assert.assertFalse(policy.shouldRotate(metadata("booking-log/dt=2020-01-02")));
+    }
+
+    @Test
+    public void shouldThrowExceptionIfNotPartitionedByTime() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("The watermark needs files partitioned by time");
+        Mockito.when(sinkConfig.getFilePartitionTimeGranularityType()).thenReturn(Constants.FilePartitionType.NONE);
+        new WatermarkRotatingPolicy(sinkConfig, 0);
+    }
+
+    @Test
+    public void shouldThrowExceptionIfLatenessIsNegative() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("The allowed lateness should not be negative");
+        new WatermarkRotatingPolicy(sinkConfig, -1);
+    }
+}
@@ -0,0 +1,196 @@
+package io.odpf.firehose.sink.blob.writer.remote;
+
+import com.google.protobuf.Timestamp;
+import io.odpf.firehose.StatusBQ;
+import io.odpf.firehose.TestMessageBQ;
+import io.odpf.firehose.config.BlobSinkConfig;
+import io.odpf.firehose.message.Message;
+import io.odpf.firehose.metrics.FirehoseInstrumentation;
+import io.odpf.firehose.sink.blob.message.RawRecord;
+import io.odpf.firehose.sink.blob.writer.local.LocalFileMetadata;
+import io.odpf.firehose.sink.blob.writer.local.LocalInputFile;
+import io.odpf.firehose.sink.blob.writer.local.LocalParquetFileWriter;
+import io.odpf.firehose.sink.common.blobstorage.BlobStorage;
+import io.odpf.firehose.sink.common.blobstorage.BlobStorageObject;
+import org.aeonbits.owner.ConfigFactory;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.schema.MessageType;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+public class BlobStorageCompactorTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    private final InMemoryBlobStorage blobStorage = new InMemoryBlobStorage();
+    private final Clock clock = Clock.fixed(Instant.parse("2020-01-01T13:00:00Z"), ZoneOffset.UTC);
+    private BlobSinkConfig sinkConfig;
+    private BlobStorageCompactor compactor;
+
+    @Before
+    public void setup() {
+        Map<String, String> config = new HashMap<>();
+        config.put("SINK_BLOB_LOCAL_DIRECTORY", temporaryFolder.getRoot().getPath());
+        config.put("SINK_BLOB_LOCAL_FILE_WRITER_PARQUET_RAW_WRITE_ENABLE", "true");
+        config.put("SINK_BLOB_FILE_PARTITION_TIME_GRANULARITY_TYPE", "hour");
+        config.put("SINK_BLOB_FILE_PARTITION_PROTO_TIMESTAMP_FIELD_NAME", "created_at");
+        sinkConfig = ConfigFactory.create(BlobSinkConfig.class, config);
+        compactor = new BlobStorageCompactor(sinkConfig, blobStorage, Mockito.mock(FirehoseInstrumentation.class), clock);
+    }
+
+    @Test
+    public void shouldMergeSmallFilesOfClosedPartitionsWithoutTheReplacedFiles() throws Exception {
+        List<String> records = new ArrayList<>();
+        records.addAll(upload("booking-log/dt=2020-01-01/hr=10/a", StatusBQ.COMPLETED, 2));
+        records.addAll(upload("booking-log/dt=2020-01-01/hr=10/b", StatusBQ.CANCELLED, 3));
+        records.addAll(upload("booking-log/dt=2020-01-01/hr=10/c", StatusBQ.CANCELLED, 1));
+        upload("booking-log/dt=2020-01-01/hr=11/d", StatusBQ.COMPLETED, 1);
+        upload("booking-log/dt=2020-01-01/hr=11/e", StatusBQ.COMPLETED, 1);
+
+        compactor.run();
+
+        List<String> closedPartition = names("booking-log/dt=2020-01-01/hr=10/");
+        Assert.assertEquals(1, closedPartition.size());
+        Assert.assertFalse(closedPartition.get(0).matches(".*/[abc]"));
+        Path merged = temporaryFolder.newFile().toPath();
+        blobStorage.read(closedPartition.get(0), merged.toString());
+        Assert.assertEquals(records, readRecords(merged));
+        try (ParquetFileReader reader = ParquetFileReader.open(new LocalInputFile(merged))) {
+            Assert.assertEquals(3, reader.getRowGroups().size());
+            Map<String, String> keyValueMetaData = reader.getFileMetaData().getKeyValueMetaData();
+            Assert.assertEquals("COMPLETED:0,CANCELLED:1", keyValueMetaData.get("parquet.proto.enum.odpf.firehose.StatusBQ"));
+        }
+        Assert.assertEquals(Arrays.asList("booking-log/dt=2020-01-01/hr=11/d", "booking-log/dt=2020-01-01/hr=11/e"),
+                names("booking-log/dt=2020-01-01/hr=11/"));
+        Assert.assertEquals(Collections.emptyList(), names("_compaction/"));
+        Assert.assertArrayEquals(new String[0], new File(temporaryFolder.getRoot(), ".compaction").list());
+    }
+
+    @Test
+    public void shouldCompleteExpiredMarkersOfInterruptedMerges() throws Exception {
+        long expired = clock.millis() - sinkConfig.getCompactionDelayMS() - 1;
+        blobStorage.store("_compaction/" + expired + "-stored", "p/merged\np/a\np/b".getBytes(StandardCharsets.UTF_8));
+        blobStorage.store("_compaction/" + expired + "-missing", "p/lost\np/c".getBytes(StandardCharsets.UTF_8));
+        blobStorage.store("_compaction/" + clock.millis() + "-running", "p/merging\np/d".getBytes(StandardCharsets.UTF_8));
+        for (String objectName : new String[]{"p/merged", "p/a", "p/b", "p/c", "p/d"}) {
+            blobStorage.store(objectName, new byte[0]);
+        }
+
+        compactor.run();
+
+        Assert.assertEquals(Arrays.asList("p/c", "p/d", "p/merged"), names("p/"));
+        Assert.assertEquals(Collections.singletonList("_compaction/" + clock.millis() + "-running"), names("_compaction/"));
+    }
+
+    private List<String> upload(String objectName, StatusBQ status, int count) throws Exception {
+        File file = new File(temporaryFolder.getRoot(), objectName);
+        LocalParquetFileWriter writer = new LocalParquetFileWriter(0, temporaryFolder.getRoot().getPath(), file.getPath(),
+                sinkConfig, TestMessageBQ.getDescriptor(), new ArrayList<>());
+        for (int i = 0; i < count; i++) {
+            byte[] message = TestMessageBQ.newBuilder()
+                    .setOrderNumber(objectName + i)
+                    .setStatus(status)
+                    .setCreatedAt(Timestamp.newBuilder().setSeconds(1577872800L))
+                    .build().toByteArray();
+            writer.write(new RawRecord(new Message(new byte[0], message, "booking-log", 1, i), null, null));
+        }
+        LocalFileMetadata metadata = writer.closeAndFetchMetaData();
+        blobStorage.store(objectName, file.getPath());
+        compactor.onUploaded(metadata);
+        List<String> records = readRecords(file.toPath());
+        Files.delete(file.toPath());
+        return records;
+    }
+
+    private List<String> names(String prefix) {
+        return blobStorage.list(prefix).stream().map(BlobStorageObject::getName).collect(Collectors.toList());
+    }
+
+    private List<String> readRecords(Path file) throws Exception {
+        List<String> records = new ArrayList<>();
+        try (ParquetFileReader reader = ParquetFileReader.open(new LocalInputFile(file))) {
+            MessageType schema = reader.getFileMetaData().getSchema();
+            for (PageReadStore rowGroup = reader.readNextRowGroup(); rowGroup != null; rowGroup = reader.readNextRowGroup()) {
+                RecordReader<Group> recordReader = new ColumnIOFactory().getColumnIO(schema).getRecordReader(rowGroup, new GroupRecordConverter(schema));
+                for (long i = 0; i < rowGroup.getRowCount(); i++) {
+                    records.add(recordReader.read().toString());
+                }
+            }
+        }
+        return records;
+    }
+
+    private static class InMemoryBlobStorage implements BlobStorage {
+        private final Map<String, byte[]> objects = new TreeMap<>();
+
+        @Override
+        public void store(String objectName, String filePath) {
+            try {
+                objects.put(objectName, Files.readAllBytes(Paths.get(filePath)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void store(String objectName, byte[] content) {
+            objects.put(objectName, content);
+        }
+
+        @Override
+        public void store(String objectName, InputStream content, long contentLength) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<BlobStorageObject> list(String prefix) {
+            return objects.entrySet().stream()
+                    .filter(object -> object.getKey().startsWith(prefix))
+                    .map(object -> new BlobStorageObject(object.getKey(), object.getValue().length))
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public void read(String objectName, String filePath) {
+            try {
+                Files.write(Paths.get(filePath), objects.get(objectName));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void delete(String objectName) {
+            objects.remove(objectName);
+        }
+    }
+}
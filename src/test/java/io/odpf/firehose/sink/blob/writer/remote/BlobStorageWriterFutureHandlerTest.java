@@ -40,6 +40,7 @@ public class BlobStorageWriterFutureHandlerTest {
         Mockito.verify(firehoseInstrumentation, Mockito.times(1)).incrementCounter(BlobStorageMetrics.FILE_UPLOAD_TOTAL, Metrics.SUCCESS_TAG);
         Mockito.verify(firehoseInstrumentation, Mockito.times(1)).captureCount(BlobStorageMetrics.FILE_UPLOAD_BYTES, 1024L);
         Mockito.verify(firehoseInstrumentation, Mockito.times(1)).captureDuration(BlobStorageMetrics.FILE_UPLOAD_TIME_MILLISECONDS, 1000L);
+        Mockito.verify(firehoseInstrumentation, Mockito.times(1)).captureHistogram(BlobStorageMetrics.FILE_UPLOAD_THROUGHPUT_BYTES_PER_SECOND, 1024L);
     }
 
     @Test
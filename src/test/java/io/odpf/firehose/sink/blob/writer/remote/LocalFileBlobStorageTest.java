@@ -0,0 +1,67 @@
+package io.odpf.firehose.sink.blob.writer.remote;
+
+import io.odpf.firehose.sink.blob.writer.local.LocalStorage;
+import io.odpf.firehose.sink.blob.writer.local.buffer.MemoryOutputFile;
+import io.odpf.firehose.sink.common.blobstorage.BlobStorage;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LocalFileBlobStorageTest {
+
+    @Mock
+    private BlobStorage blobStorage;
+
+    @Mock
+    private LocalStorage localStorage;
+
+    @Mock
+    private MemoryOutputFile memoryOutputFile;
+
+    @Test
+    public void shouldUploadFileFromLocalDisk() throws Exception {
+        LocalFileBlobStorage localFileBlobStorage = new LocalFileBlobStorage(blobStorage, localStorage);
+
+        localFileBlobStorage.store("object", "/tmp/file");
+
+        verify(blobStorage).store("object", "/tmp/file");
+    }
+
+    @Test
+    public void shouldUploadFileFromMemoryBuffer() throws Exception {
+        InputStream content = new ByteArrayInputStream(new byte[]{1, 2});
+        when(localStorage.getMemoryOutputFile("/tmp/file")).thenReturn(memoryOutputFile);
+        when(memoryOutputFile.openInputStream()).thenReturn(content);
+        when(memoryOutputFile.getSize()).thenReturn(2L);
+        LocalFileBlobStorage localFileBlobStorage = new LocalFileBlobStorage(blobStorage, localStorage);
+
+        localFileBlobStorage.store("object", "/tmp/file");
+
+        verify(blobStorage).store("object", content, 2L);
+        verify(blobStorage, never()).store(anyString(), anyString());
+    }
+
+    @Test
+    public void shouldUploadSpilledFileFromLocalDisk() throws Exception {
+        when(localStorage.getMemoryOutputFile("/tmp/file")).thenReturn(memoryOutputFile);
+        when(memoryOutputFile.isSpilled()).thenReturn(true);
+        LocalFileBlobStorage localFileBlobStorage = new LocalFileBlobStorage(blobStorage, localStorage);
+
+        localFileBlobStorage.store("object", "/tmp/file");
+
+        verify(blobStorage).store("object", "/tmp/file");
+        verify(blobStorage, never()).store(anyString(), any(InputStream.class), anyLong());
+    }
+}
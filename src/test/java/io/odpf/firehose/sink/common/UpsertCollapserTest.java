@@ -0,0 +1,65 @@
+package io.odpf.firehose.sink.common;
+
+import io.odpf.firehose.metrics.FirehoseInstrumentation;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import static io.odpf.firehose.metrics.Metrics.SINK_MESSAGES_COLLAPSED_TOTAL;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class UpsertCollapserTest {
+
+    @Mock
+    private FirehoseInstrumentation firehoseInstrumentation;
+
+    private UpsertCollapser upsertCollapser;
+
+    @Before
+    public void setUp() {
+        upsertCollapser = new UpsertCollapser(firehoseInstrumentation);
+    }
+
+    @Test
+    public void shouldKeepOnlyTheLastWriteOfEveryKeyInBatchOrder() {
+        List<String> writes = Arrays.asList("a:1", "b:1", "a:2", "c:1", "b:2");
+
+        List<Integer> kept = upsertCollapser.lastIndexPerKey(writes, write -> write.split(":")[0]);
+
+        assertEquals(Arrays.asList(2, 3, 4), kept);
+        assertEquals(Arrays.asList("a:2", "c:1", "b:2"), UpsertCollapser.select(writes, kept));
+        verify(firehoseInstrumentation).captureCount(SINK_MESSAGES_COLLAPSED_TOTAL, 2L);
+    }
+
+    @Test
+    public void shouldAlwaysKeepWritesWithoutKey() {
+        List<String> writes = Arrays.asList("a:1", "-", "a:2", "-");
+        Function<String, Object> keyOf = write -> write.equals("-") ? null : write.split(":")[0];
+
+        List<Integer> kept = upsertCollapser.lastIndexPerKey(writes, keyOf);
+
+        assertEquals(Arrays.asList(1, 2, 3), kept);
+        verify(firehoseInstrumentation).captureCount(SINK_MESSAGES_COLLAPSED_TOTAL, 1L);
+    }
+
+    @Test
+    public void shouldNotCaptureMetricWhenNothingIsCollapsed() {
+        List<String> writes = Arrays.asList("a:1", "b:1");
+
+        List<Integer> kept = upsertCollapser.lastIndexPerKey(writes, write -> write.split(":")[0]);
+
+        assertEquals(Arrays.asList(0, 1), kept);
+        verify(firehoseInstrumentation, never()).captureCount(anyString(), anyLong());
+    }
+}
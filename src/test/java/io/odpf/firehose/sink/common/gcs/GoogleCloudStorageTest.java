@@ -1,5 +1,6 @@
 package io.odpf.firehose.sink.common.gcs;
 
+import com.google.cloud.WriteChannel;
 import com.google.cloud.storage.BlobId;
 import com.google.cloud.storage.BlobInfo;
 import com.google.cloud.storage.Storage;
@@ -9,14 +10,24 @@ import io.odpf.firehose.sink.common.blobstorage.BlobStorageException;
 import io.odpf.firehose.sink.common.blobstorage.gcs.GoogleCloudStorage;
 import org.aeonbits.owner.ConfigFactory;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.jupiter.api.Assertions;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.util.HashMap;
 
 public class GoogleCloudStorageTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void shouldCallStorage() throws BlobStorageException {
         GCSConfig config = ConfigFactory.create(GCSConfig.class, new HashMap<Object, Object>() {{
@@ -48,4 +59,108 @@ public class GoogleCloudStorageTest {
         Assert.assertEquals(new BlobStorageException("UNAUTHORIZED", "GCS Upload failed", storageException), thrown);
         Mockito.verify(storage, Mockito.times(1)).create(blobInfo, new byte[]{}, Storage.BlobTargetOption.userProject("projectID"));
     }
+
+    @Test
+    public void shouldStreamFileInChunks() throws Exception {
+        GCSConfig config = ConfigFactory.create(GCSConfig.class, new HashMap<Object, Object>() {{
+            put("GCS_TYPE", "SOME_TYPE");
+            put("SOME_TYPE_GCS_BUCKET_NAME", "TestBucket");
+            put("SOME_TYPE_GCS_GOOGLE_CLOUD_PROJECT_ID", "projectID");
+            put("SOME_TYPE_GCS_UPLOAD_CHUNK_SIZE_BYTES", "4");
+        }});
+        Storage storage = Mockito.mock(Storage.class);
+        WriteChannel writeChannel = Mockito.mock(WriteChannel.class);
+        ByteArrayOutputStream uploaded = new ByteArrayOutputStream();
+        BlobInfo blobInfo = BlobInfo.newBuilder(BlobId.of("TestBucket", "test")).build();
+        Mockito.when(storage.writer(blobInfo, Storage.BlobWriteOption.userProject("projectID"))).thenReturn(writeChannel);
+        Mockito.when(writeChannel.write(Mockito.any(ByteBuffer.class))).thenAnswer(invocation -> {
+            ByteBuffer buffer = invocation.getArgument(0);
+            int length = buffer.remaining();
+            byte[] chunk = new byte[length];
+            buffer.get(chunk);
+            uploaded.write(chunk);
+            return length;
+        });
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), "0123456789".getBytes());
+        GoogleCloudStorage gcs = new GoogleCloudStorage(config, storage);
+
+        gcs.store("test", file.getPath());
+
+        Assert.assertEquals("0123456789", uploaded.toString());
+        Mockito.verify(writeChannel).setChunkSize(4);
+        Mockito.verify(writeChannel, Mockito.times(3)).write(Mockito.any(ByteBuffer.class));
+        Mockito.verify(writeChannel).close();
+    }
+
+    @Test
+    public void shouldStreamContentInChunks() throws Exception {
+        GCSConfig config = ConfigFactory.create(GCSConfig.class, new HashMap<Object, Object>() {{
+            put("GCS_TYPE", "SOME_TYPE");
+            put("SOME_TYPE_GCS_BUCKET_NAME", "TestBucket");
+            put("SOME_TYPE_GCS_GOOGLE_CLOUD_PROJECT_ID", "projectID");
+            put("SOME_TYPE_GCS_UPLOAD_CHUNK_SIZE_BYTES", "4");
+        }});
+        Storage storage = Mockito.mock(Storage.class);
+        WriteChannel writeChannel = Mockito.mock(WriteChannel.class);
+        ByteArrayOutputStream uploaded = new ByteArrayOutputStream();
+        BlobInfo blobInfo = BlobInfo.newBuilder(BlobId.of("TestBucket", "test")).build();
+        Mockito.when(storage.writer(blobInfo, Storage.BlobWriteOption.userProject("projectID"))).thenReturn(writeChannel);
+        Mockito.when(writeChannel.write(Mockito.any(ByteBuffer.class))).thenAnswer(invocation -> {
+            ByteBuffer buffer = invocation.getArgument(0);
+            int length = buffer.remaining();
+            byte[] chunk = new byte[length];
+            buffer.get(chunk);
+            uploaded.write(chunk);
+            return length;
+        });
+        GoogleCloudStorage gcs = new GoogleCloudStorage(config, storage);
+
+        gcs.store("test", new ByteArrayInputStream("0123456789".getBytes()), 10);
+
+        Assert.assertEquals("0123456789", uploaded.toString());
+        Mockito.verify(writeChannel).close();
+    }
+
+    @Test
+    public void shouldNotFinalizeObjectWhenChunkUploadFails() throws Exception {
+        GCSConfig config = ConfigFactory.create(GCSConfig.class, new HashMap<Object, Object>() {{
+            put("GCS_TYPE", "SOME_TYPE");
+            put("SOME_TYPE_GCS_BUCKET_NAME", "TestBucket");
+            put("SOME_TYPE_GCS_GOOGLE_CLOUD_PROJECT_ID", "projectID");
+        }});
+        Storage storage = Mockito.mock(Storage.class);
+        WriteChannel writeChannel = Mockito.mock(WriteChannel.class);
+        StorageException storageException = new StorageException(503, "unavailable");
+        BlobInfo blobInfo = BlobInfo.newBuilder(BlobId.of("TestBucket", "test")).build();
+        Mockito.when(storage.writer(blobInfo, Storage.BlobWriteOption.userProject("projectID"))).thenReturn(writeChannel);
+        Mockito.when(writeChannel.write(Mockito.any(ByteBuffer.class))).thenThrow(storageException);
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), "0123456789".getBytes());
+        GoogleCloudStorage gcs = new GoogleCloudStorage(config, storage);
+
+        BlobStorageException thrown = Assertions
+                .assertThrows(BlobStorageException.class, () -> gcs.store("test", file.getPath()), "BlobStorageException error was expected");
+
+        Assert.assertEquals(new BlobStorageException("SERVICE_UNAVAILABLE", "GCS Upload failed", storageException), thrown);
+        Mockito.verify(writeChannel, Mockito.never()).close();
+    }
+
+    @Test
+    public void shouldMapStorageExceptionOfDelete() {
+        GCSConfig config = ConfigFactory.create(GCSConfig.class, new HashMap<Object, Object>() {{
+            put("GCS_TYPE", "SOME_TYPE");
+            put("SOME_TYPE_GCS_BUCKET_NAME", "TestBucket");
+            put("SOME_TYPE_GCS_GOOGLE_CLOUD_PROJECT_ID", "projectID");
+        }});
+        Storage storage = Mockito.mock(Storage.class);
+        StorageException storageException = new StorageException(403, "forbidden");
+        Mockito.when(storage.delete(BlobId.of("TestBucket", "test"), Storage.BlobSourceOption.userProject("projectID"))).thenThrow(storageException);
+        GoogleCloudStorage gcs = new GoogleCloudStorage(config, storage);
+
+        BlobStorageException thrown = Assertions
+                .assertThrows(BlobStorageException.class, () -> gcs.delete("test"), "BlobStorageException error was expected");
+
+        Assert.assertEquals(new BlobStorageException("FORBIDDEN", "GCS Delete failed", storageException), thrown);
+    }
 }
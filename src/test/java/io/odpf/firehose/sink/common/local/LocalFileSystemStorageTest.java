@@ -0,0 +1,72 @@
+package io.odpf.firehose.sink.common.local;
+
+import io.odpf.firehose.sink.common.blobstorage.BlobStorageException;
+import io.odpf.firehose.sink.common.blobstorage.BlobStorageObject;
+import io.odpf.firehose.sink.common.blobstorage.local.LocalFileSystemStorage;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class LocalFileSystemStorageTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    private Path directory;
+    private LocalFileSystemStorage storage;
+
+    @Before
+    public void setup() throws Exception {
+        directory = temporaryFolder.newFolder("storage").toPath();
+        storage = new LocalFileSystemStorage(directory, LocalFileSystemStorage.FsyncType.FILE_AND_DIRECTORY);
+    }
+
+    @Test
+    public void shouldLinkTheLocalFileWithoutCopyingIt() throws Exception {
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), "0123456789".getBytes(StandardCharsets.UTF_8));
+
+        storage.store("dt=2021-01-01/hr=10/file", file.getPath());
+
+        Path object = directory.resolve("dt=2021-01-01/hr=10/file");
+        Assert.assertTrue(Files.isSameFile(file.toPath(), object));
+        Files.delete(file.toPath());
+        Assert.assertEquals("0123456789", new String(Files.readAllBytes(object), StandardCharsets.UTF_8));
+        Assert.assertArrayEquals(new String[]{"file"}, object.getParent().toFile().list());
+    }
+
+    @Test
+    public void shouldListReadAndDeleteStoredObjects() throws Exception {
+        storage.store("dt=2021-01-01/a", "a".getBytes(StandardCharsets.UTF_8));
+        storage.store("dt=2021-01-01/b", new ByteArrayInputStream("bb".getBytes(StandardCharsets.UTF_8)), 2);
+        storage.store("dt=2021-01-02/c", "ccc".getBytes(StandardCharsets.UTF_8));
+        storage.store("dt=2021-01-01/a", "aaaa".getBytes(StandardCharsets.UTF_8));
+
+        Assert.assertEquals(Arrays.asList(new BlobStorageObject("dt=2021-01-01/a", 4), new BlobStorageObject("dt=2021-01-01/b", 2)),
+                storage.list("dt=2021-01-01/"));
+        Assert.assertEquals(3, storage.list("dt=2021").size());
+        File read = temporaryFolder.newFile();
+        storage.read("dt=2021-01-02/c", read.getPath());
+        Assert.assertEquals("ccc", new String(Files.readAllBytes(read.toPath()), StandardCharsets.UTF_8));
+
+        storage.delete("dt=2021-01-01/a");
+        storage.delete("dt=2021-01-01/a");
+
+        Assert.assertEquals(Collections.singletonList(new BlobStorageObject("dt=2021-01-01/b", 2)), storage.list("dt=2021-01-01/"));
+        Assert.assertEquals(Collections.emptyList(), storage.list("dt=2021-01-03/"));
+    }
+
+    @Test(expected = BlobStorageException.class)
+    public void shouldRejectObjectNamesOutsideTheDirectory() throws Exception {
+        storage.store("../file", new byte[0]);
+    }
+}
@@ -0,0 +1,103 @@
+package io.odpf.firehose.sink.common.resilience;
+
+import io.odpf.firehose.metrics.FirehoseInstrumentation;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.time.Clock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class CircuitBreakerTest {
+
+    @Mock
+    private FirehoseInstrumentation firehoseInstrumentation;
+
+    @Mock
+    private Clock clock;
+
+    private CircuitBreaker circuitBreaker;
+
+    @Before
+    public void setUp() {
+        initMocks(this);
+        when(clock.millis()).thenReturn(1000L);
+        circuitBreaker = new CircuitBreaker(firehoseInstrumentation, 50, 4, 5000L, 1, clock);
+    }
+
+    @Test
+    public void shouldStayClosedWhenFailureRateIsBelowThreshold() {
+        recordCalls(true, true, true, false);
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    public void shouldNotOpenBeforeSlidingWindowIsFull() {
+        recordCalls(false, false, false);
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void shouldOpenAndRejectCallsWhenFailureRateReachesThreshold() {
+        recordCalls(true, false, true, false);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    public void shouldOnlyConsiderLatestCallsInSlidingWindow() {
+        recordCalls(false, true, true, true, false);
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void shouldLetOneProbeThroughAfterOpenDuration() {
+        recordCalls(false, false, false, false);
+        when(clock.millis()).thenReturn(6000L);
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    public void shouldCloseWhenProbeSucceeds() {
+        recordCalls(false, false, false, false);
+        when(clock.millis()).thenReturn(6000L);
+        circuitBreaker.tryAcquirePermission();
+
+        circuitBreaker.record(true);
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    public void shouldReopenWhenProbeFails() {
+        recordCalls(false, false, false, false);
+        when(clock.millis()).thenReturn(6000L);
+        circuitBreaker.tryAcquirePermission();
+
+        circuitBreaker.record(false);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    private void recordCalls(boolean... outcomes) {
+        for (boolean outcome : outcomes) {
+            assertTrue(circuitBreaker.tryAcquirePermission());
+            circuitBreaker.record(outcome);
+        }
+    }
+}
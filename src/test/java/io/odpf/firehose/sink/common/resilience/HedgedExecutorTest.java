@@ -0,0 +1,106 @@
+package io.odpf.firehose.sink.common.resilience;
+
+import io.odpf.firehose.metrics.FirehoseInstrumentation;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.odpf.firehose.metrics.Metrics.SINK_HEDGED_REQUESTS_TOTAL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class HedgedExecutorTest {
+
+    @Mock
+    private FirehoseInstrumentation firehoseInstrumentation;
+
+    private HedgedExecutor hedgedExecutor;
+
+    @Before
+    public void setUp() {
+        initMocks(this);
+        hedgedExecutor = new HedgedExecutor(firehoseInstrumentation, 50L);
+    }
+
+    @After
+    public void tearDown() {
+        hedgedExecutor.close();
+    }
+
+    @Test
+    public void shouldNotHedgeFastCalls() throws IOException {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = hedgedExecutor.execute(() -> "response-" + calls.incrementAndGet(), r -> { });
+
+        assertEquals("response-1", result);
+        assertEquals(1, calls.get());
+        verify(firehoseInstrumentation, never()).incrementCounter(SINK_HEDGED_REQUESTS_TOTAL);
+    }
+
+    @Test
+    public void shouldReturnHedgedResponseAndDiscardSlowOne() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch releaseSlowCall = new CountDownLatch(1);
+        CountDownLatch discarded = new CountDownLatch(1);
+        List<String> discardedResults = new CopyOnWriteArrayList<>();
+
+        String result = hedgedExecutor.execute(() -> {
+            if (calls.incrementAndGet() == 1) {
+                releaseSlowCall.await();
+                return "slow";
+            }
+            return "fast";
+        }, r -> {
+            discardedResults.add(r);
+            discarded.countDown();
+        });
+        releaseSlowCall.countDown();
+
+        assertEquals("fast", result);
+        assertTrue(discarded.await(1, TimeUnit.SECONDS));
+        assertEquals("slow", discardedResults.get(0));
+        verify(firehoseInstrumentation, times(1)).incrementCounter(SINK_HEDGED_REQUESTS_TOTAL);
+    }
+
+    @Test
+    public void shouldReturnSuccessfulResponseWhenOtherAttemptFails() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = hedgedExecutor.execute(() -> {
+            if (calls.incrementAndGet() == 1) {
+                Thread.sleep(100);
+                throw new IOException("failed");
+            }
+            return "hedged";
+        }, r -> { });
+
+        assertEquals("hedged", result);
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldThrowWhenAllAttemptsFail() throws IOException {
+        hedgedExecutor.execute(() -> {
+            throw new IOException("failed");
+        }, r -> { });
+    }
+
+    @Test
+    public void shouldUseMinDelayUntilEnoughLatenciesAreObserved() throws IOException {
+        hedgedExecutor.execute(() -> "response", r -> { });
+
+        assertEquals(50L, hedgedExecutor.hedgeDelayMs());
+    }
+}
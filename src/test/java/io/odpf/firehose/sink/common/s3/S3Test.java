@@ -1,24 +1,53 @@
 package io.odpf.firehose.sink.common.s3;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import io.odpf.firehose.config.S3Config;
 import io.odpf.firehose.sink.common.blobstorage.BlobStorageException;
+import io.odpf.firehose.sink.common.blobstorage.BlobStorageObject;
 import io.odpf.firehose.sink.common.blobstorage.s3.S3;
 import org.aeonbits.owner.ConfigFactory;
+import org.apache.commons.io.IOUtils;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.jupiter.api.Assertions;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
 
 public class S3Test {
 
+    private static final int PART_SIZE_BYTES = 5 * 1024 * 1024;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void shouldCallStorage() throws BlobStorageException, IOException {
         S3Config s3Config = ConfigFactory.create(S3Config.class, new HashMap<Object, Object>() {{
@@ -74,5 +103,125 @@ public class S3Test {
         Assert.assertEquals(new String(expectedBytes), new String(actualBytes));
         Assertions.assertEquals(new BlobStorageException("test", "test", exception), thrown);
     }
-}
 
+    @Test
+    public void shouldPutFileSmallerThanPartSizeInOneRequest() throws Exception {
+        S3Client s3Client = Mockito.mock(S3Client.class);
+        S3 s3Storage = new S3(multipartConfig(), s3Client, MoreExecutors.newDirectExecutorService());
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), "0123".getBytes());
+
+        s3Storage.store("test", file.getPath());
+
+        ArgumentCaptor<RequestBody> requestBodyArgumentCaptor = ArgumentCaptor.forClass(RequestBody.class);
+        Mockito.verify(s3Client).putObject(Mockito.any(PutObjectRequest.class), requestBodyArgumentCaptor.capture());
+        Assert.assertEquals("0123", IOUtils.toString(requestBodyArgumentCaptor.getValue().contentStreamProvider().newStream(), StandardCharsets.UTF_8));
+        Mockito.verify(s3Client, Mockito.never()).createMultipartUpload(Mockito.any(CreateMultipartUploadRequest.class));
+    }
+
+    @Test
+    public void shouldPutStreamedContentInOneRequest() throws Exception {
+        S3Client s3Client = Mockito.mock(S3Client.class);
+        S3 s3Storage = new S3(multipartConfig(), s3Client, MoreExecutors.newDirectExecutorService());
+
+        s3Storage.store("test", new ByteArrayInputStream("0123456789".getBytes()), 10);
+
+        ArgumentCaptor<RequestBody> requestBodyArgumentCaptor = ArgumentCaptor.forClass(RequestBody.class);
+        Mockito.verify(s3Client).putObject(Mockito.any(PutObjectRequest.class), requestBodyArgumentCaptor.capture());
+        Assert.assertEquals(10L, requestBodyArgumentCaptor.getValue().contentLength());
+        Assert.assertEquals("0123456789", IOUtils.toString(requestBodyArgumentCaptor.getValue().contentStreamProvider().newStream(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void shouldStreamLargeFileInParts() throws Exception {
+        S3Client s3Client = Mockito.mock(S3Client.class);
+        Map<Integer, String> uploadedParts = new ConcurrentHashMap<>();
+        Mockito.when(s3Client.createMultipartUpload(Mockito.any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload").build());
+        Mockito.when(s3Client.uploadPart(Mockito.any(UploadPartRequest.class), Mockito.any(RequestBody.class))).thenAnswer(invocation -> {
+            UploadPartRequest request = invocation.getArgument(0);
+            RequestBody body = invocation.getArgument(1);
+            uploadedParts.put(request.partNumber(), IOUtils.toString(body.contentStreamProvider().newStream(), StandardCharsets.UTF_8));
+            return UploadPartResponse.builder().eTag("etag-" + request.partNumber()).build();
+        });
+        S3 s3Storage = new S3(multipartConfig(), s3Client, Executors.newFixedThreadPool(2));
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), (repeat('a', PART_SIZE_BYTES) + repeat('b', PART_SIZE_BYTES) + "89").getBytes());
+
+        s3Storage.store("test", file.getPath());
+
+        Assert.assertEquals(repeat('a', PART_SIZE_BYTES), uploadedParts.get(1));
+        Assert.assertEquals(repeat('b', PART_SIZE_BYTES), uploadedParts.get(2));
+        Assert.assertEquals("89", uploadedParts.get(3));
+        ArgumentCaptor<CompleteMultipartUploadRequest> completeCaptor = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        Mockito.verify(s3Client).completeMultipartUpload(completeCaptor.capture());
+        Assert.assertEquals("upload", completeCaptor.getValue().uploadId());
+        Assert.assertEquals(Arrays.asList(
+                CompletedPart.builder().partNumber(1).eTag("etag-1").build(),
+                CompletedPart.builder().partNumber(2).eTag("etag-2").build(),
+                CompletedPart.builder().partNumber(3).eTag("etag-3").build()), completeCaptor.getValue().multipartUpload().parts());
+        Mockito.verify(s3Client, Mockito.never()).putObject(Mockito.any(PutObjectRequest.class), Mockito.any(RequestBody.class));
+    }
+
+    @Test
+    public void shouldAbortMultipartUploadWhenPartFails() throws Exception {
+        S3Client s3Client = Mockito.mock(S3Client.class);
+        SdkClientException exception = SdkClientException.create("part failed");
+        Mockito.when(s3Client.createMultipartUpload(Mockito.any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload").build());
+        Mockito.when(s3Client.uploadPart(Mockito.any(UploadPartRequest.class), Mockito.any(RequestBody.class))).thenThrow(exception);
+        S3 s3Storage = new S3(multipartConfig(), s3Client, MoreExecutors.newDirectExecutorService());
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), (repeat('a', PART_SIZE_BYTES) + "89").getBytes());
+
+        BlobStorageException thrown = Assertions
+                .assertThrows(BlobStorageException.class, () -> s3Storage.store("test", file.getPath()), "BlobStorageException error was expected");
+
+        Assertions.assertEquals(new BlobStorageException("part failed", "part failed", exception), thrown);
+        Mockito.verify(s3Client).abortMultipartUpload(AbortMultipartUploadRequest.builder().bucket("TestBucket").key("test").uploadId("upload").build());
+        Mockito.verify(s3Client, Mockito.never()).completeMultipartUpload(Mockito.any(CompleteMultipartUploadRequest.class));
+    }
+
+    @Test
+    public void shouldRejectPartSizeBelowTheS3Minimum() {
+        S3Config s3Config = ConfigFactory.create(S3Config.class, new HashMap<Object, Object>() {{
+            put("S3_TYPE", "SOME_TYPE");
+            put("SOME_TYPE_S3_BUCKET_NAME", "TestBucket");
+            put("SOME_TYPE_S3_REGION", "asia");
+            put("SOME_TYPE_S3_MULTIPART_PART_SIZE_BYTES", String.valueOf(PART_SIZE_BYTES - 1));
+        }});
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new S3(s3Config, Mockito.mock(S3Client.class), MoreExecutors.newDirectExecutorService()));
+    }
+
+    @Test
+    public void shouldListObjectsOfAllPages() throws Exception {
+        S3Client s3Client = Mockito.mock(S3Client.class);
+        Mockito.when(s3Client.listObjectsV2(Mockito.any(ListObjectsV2Request.class))).thenReturn(
+                ListObjectsV2Response.builder().contents(S3Object.builder().key("dt=2021-01-01/a").size(1L).build()).nextContinuationToken("next").build(),
+                ListObjectsV2Response.builder().contents(S3Object.builder().key("dt=2021-01-01/b").size(2L).build()).build());
+        S3 s3Storage = new S3(multipartConfig(), s3Client, MoreExecutors.newDirectExecutorService());
+
+        List<BlobStorageObject> objects = s3Storage.list("dt=2021-01-01/");
+
+        Assert.assertEquals(Arrays.asList(new BlobStorageObject("dt=2021-01-01/a", 1), new BlobStorageObject("dt=2021-01-01/b", 2)), objects);
+        Mockito.verify(s3Client).listObjectsV2(ListObjectsV2Request.builder().bucket("TestBucket").prefix("dt=2021-01-01/").build());
+        Mockito.verify(s3Client).listObjectsV2(ListObjectsV2Request.builder().bucket("TestBucket").prefix("dt=2021-01-01/").continuationToken("next").build());
+    }
+
+    private S3Config multipartConfig() {
+        return ConfigFactory.create(S3Config.class, new HashMap<Object, Object>() {{
+            put("S3_TYPE", "SOME_TYPE");
+            put("SOME_TYPE_S3_BUCKET_NAME", "TestBucket");
+            put("SOME_TYPE_S3_REGION", "asia");
+            put("SOME_TYPE_S3_MULTIPART_PART_SIZE_BYTES", String.valueOf(PART_SIZE_BYTES));
+        }});
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
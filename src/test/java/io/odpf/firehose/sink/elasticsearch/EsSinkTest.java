@@ -4,10 +4,12 @@ import io.odpf.firehose.config.enums.SinkType;
 import io.odpf.firehose.message.Message;
 import io.odpf.firehose.exception.NeedToRetry;
 import io.odpf.firehose.metrics.FirehoseInstrumentation;
+import io.odpf.firehose.sink.common.UpsertCollapser;
 import io.odpf.firehose.sink.elasticsearch.request.EsRequestHandler;
 import org.elasticsearch.action.DocWriteRequest;
 import org.elasticsearch.action.DocWriteResponse;
 import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.update.UpdateRequest;
@@ -20,7 +22,9 @@ import org.junit.Test;
 import org.mockito.Mock;
 
 import java.io.IOException;
+import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.List;
 
@@ -75,6 +79,31 @@ public class EsSinkTest {
         verify(esRequestHandler, times(1)).getRequest(messages.get(1));
     }
 
+    @Test
+    public void shouldCollapseIndexRequestsOfTheSameDocumentButNotPartialUpdates() throws NoSuchFieldException, IllegalAccessException {
+        IndexRequest firstIndex = new IndexRequest("index", "type", "1");
+        IndexRequest secondIndex = new IndexRequest("index", "type", "1");
+        IndexRequest otherIndex = new IndexRequest("index", "type", "2");
+        UpdateRequest firstUpdate = new UpdateRequest("index", "type", "3");
+        UpdateRequest secondUpdate = new UpdateRequest("index", "type", "3");
+        List<Message> batch = new ArrayList<>();
+        List<DocWriteRequest> requests = Arrays.asList(firstIndex, firstUpdate, otherIndex, secondIndex, secondUpdate);
+        for (int i = 0; i < requests.size(); i++) {
+            Message message = new Message(null, new byte[0], "sample-topic", 0, i);
+            batch.add(message);
+            when(esRequestHandler.getRequest(message)).thenReturn(requests.get(i));
+        }
+        EsSink esSink = new EsSink(firehoseInstrumentation, SinkType.ELASTICSEARCH.name(), client, esRequestHandler, 5000, 1,
+                esRetryStatusCodeBlacklist, new UpsertCollapser(firehoseInstrumentation));
+
+        esSink.prepare(batch);
+
+        Field bulkRequestField = EsSink.class.getDeclaredField("bulkRequest");
+        bulkRequestField.setAccessible(true);
+        BulkRequest bulkRequest = (BulkRequest) bulkRequestField.get(esSink);
+        Assert.assertEquals(Arrays.asList(firstUpdate, otherIndex, secondIndex, secondUpdate), bulkRequest.requests());
+    }
+
     @Test
     public void shouldReturnEmptyArrayListWhenBulkResponseExecutedSuccessfully() throws IOException {
         when(bulkResponse.hasFailures()).thenReturn(false);
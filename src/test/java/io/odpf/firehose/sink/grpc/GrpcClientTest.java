@@ -1,7 +1,9 @@
 package io.odpf.firehose.sink.grpc;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import io.odpf.firehose.config.GrpcSinkConfig;
 import io.odpf.firehose.consumer.Error;
+import io.odpf.firehose.consumer.TestGrpcBatchResponse;
 import io.odpf.firehose.consumer.TestGrpcRequest;
 import io.odpf.firehose.consumer.TestGrpcResponse;
 import io.odpf.firehose.consumer.TestServerGrpc;
@@ -25,9 +27,11 @@ import org.mockito.stubbing.Stubber;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -78,7 +82,7 @@ public class GrpcClientTest {
 
         private Map<String, String> headers = new HashMap<>();
         private List<String> headerKeys;
-        private List<String> keyValues = new ArrayList<>();
+        private List<String> keyValues = Collections.synchronizedList(new ArrayList<>());
 
         @Override
         public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> serverCall, Metadata metadata, ServerCallHandler<ReqT, RespT> serverCallHandler) {
@@ -166,6 +170,133 @@ public class GrpcClientTest {
         assertFalse(Boolean.parseBoolean(String.valueOf(response.getField(response.getDescriptorForType().findFieldByName("success")))));
     }
 
+    @Test
+    public void shouldSendConcurrentCallsWithTheirOwnHeaders() throws Exception {
+        doAnswerProtoReponse(TestGrpcResponse.newBuilder()
+                .setSuccess(true)
+                .build()).when(testGrpcService).testRpcMethod(any(TestGrpcRequest.class), any());
+        TestGrpcRequest request = TestGrpcRequest.newBuilder()
+                .setField1("field1")
+                .setField2("field2")
+                .build();
+        List<ListenableFuture<DynamicMessage>> responses = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            RecordHeaders messageHeaders = new RecordHeaders();
+            messageHeaders.add(new RecordHeader(HEADER_KEYS.get(0), ("value-" + i).getBytes()));
+            messageHeaders.add(new RecordHeader(HEADER_KEYS.get(1), ("value-" + i).getBytes()));
+            responses.add(grpcClient.executeAsync(request.toByteArray(), messageHeaders));
+        }
+
+        for (ListenableFuture<DynamicMessage> response : responses) {
+            DynamicMessage message = response.get(5, TimeUnit.SECONDS);
+            assertTrue(Boolean.parseBoolean(String.valueOf(message.getField(message.getDescriptorForType().findFieldByName("success")))));
+        }
+        assertEquals(20, headerTestInterceptor.getKeyValues().size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(2, Collections.frequency(headerTestInterceptor.getKeyValues(), "value-" + i));
+        }
+    }
+
+    @Test
+    public void shouldStreamAllMessagesOverOneCallAndMapResponsesInOrder() {
+        List<TestGrpcRequest> received = new ArrayList<>();
+        doAnswer(invocation -> {
+            StreamObserver<TestGrpcBatchResponse> responseObserver = (StreamObserver<TestGrpcBatchResponse>) invocation.getArguments()[0];
+            return new StreamObserver<TestGrpcRequest>() {
+                @Override
+                public void onNext(TestGrpcRequest value) {
+                    received.add(value);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                }
+
+                @Override
+                public void onCompleted() {
+                    TestGrpcBatchResponse.Builder batchResponse = TestGrpcBatchResponse.newBuilder();
+                    for (TestGrpcRequest request : received) {
+                        batchResponse.addResponses(TestGrpcResponse.newBuilder().setSuccess(!request.getField1().equals("bad")).build());
+                    }
+                    responseObserver.onNext(batchResponse.build());
+                    responseObserver.onCompleted();
+                }
+            };
+        }).when(testGrpcService).testClientStreamingRpcMethod(any());
+        GrpcClient streamingClient = createClientStreamingClient();
+
+        List<DynamicMessage> responses = streamingClient.executeClientStreaming(Arrays.asList(
+                TestGrpcRequest.newBuilder().setField1("good").build().toByteArray(),
+                TestGrpcRequest.newBuilder().setField1("bad").build().toByteArray(),
+                TestGrpcRequest.newBuilder().setField1("good").build().toByteArray()));
+
+        assertEquals(3, received.size());
+        assertEquals(3, responses.size());
+        assertTrue(isSuccess(responses.get(0)));
+        assertFalse(isSuccess(responses.get(1)));
+        assertTrue(isSuccess(responses.get(2)));
+    }
+
+    @Test
+    public void shouldFailMessagesWithoutStatusInStreamingResponse() {
+        doAnswer(invocation -> {
+            StreamObserver<TestGrpcBatchResponse> responseObserver = (StreamObserver<TestGrpcBatchResponse>) invocation.getArguments()[0];
+            return new StreamObserver<TestGrpcRequest>() {
+                @Override
+                public void onNext(TestGrpcRequest value) {
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                }
+
+                @Override
+                public void onCompleted() {
+                    responseObserver.onNext(TestGrpcBatchResponse.newBuilder()
+                            .addResponses(TestGrpcResponse.newBuilder().setSuccess(true).build())
+                            .build());
+                    responseObserver.onCompleted();
+                }
+            };
+        }).when(testGrpcService).testClientStreamingRpcMethod(any());
+        GrpcClient streamingClient = createClientStreamingClient();
+
+        List<DynamicMessage> responses = streamingClient.executeClientStreaming(Arrays.asList(
+                TestGrpcRequest.newBuilder().setField1("first").build().toByteArray(),
+                TestGrpcRequest.newBuilder().setField1("second").build().toByteArray()));
+
+        assertEquals(2, responses.size());
+        assertTrue(isSuccess(responses.get(0)));
+        assertFalse(isSuccess(responses.get(1)));
+    }
+
+    @Test
+    public void shouldFailAllMessagesWhenStreamingCallFails() {
+        List<DynamicMessage> responses = createClientStreamingClient().executeClientStreaming(Arrays.asList(
+                TestGrpcRequest.newBuilder().setField1("first").build().toByteArray(),
+                TestGrpcRequest.newBuilder().setField1("second").build().toByteArray()));
+
+        assertEquals(2, responses.size());
+        assertFalse(isSuccess(responses.get(0)));
+        assertFalse(isSuccess(responses.get(1)));
+    }
+
+    private GrpcClient createClientStreamingClient() {
+        Map<String, String> config = new HashMap<>();
+        config.put("SINK_GRPC_SERVICE_HOST", "localhost");
+        config.put("SINK_GRPC_SERVICE_PORT", "5000");
+        config.put("SINK_GRPC_METHOD_URL", "io.odpf.firehose.consumer.TestServer/TestClientStreamingRpcMethod");
+        config.put("SINK_GRPC_METHOD_TYPE", "CLIENT_STREAMING");
+        config.put("SINK_GRPC_RESPONSE_SCHEMA_PROTO_CLASS", "io.odpf.firehose.consumer.TestGrpcResponse");
+        config.put("SINK_GRPC_STREAMING_RESPONSE_SCHEMA_PROTO_CLASS", "io.odpf.firehose.consumer.TestGrpcBatchResponse");
+        GrpcSinkConfig grpcSinkConfig = ConfigFactory.create(GrpcSinkConfig.class, config);
+        ManagedChannel managedChannel = ManagedChannelBuilder.forAddress("localhost", 5000).usePlaintext().build();
+        return new GrpcClient(Mockito.mock(FirehoseInstrumentation.class), grpcSinkConfig, managedChannel, StencilClientFactory.getClient());
+    }
+
+    private boolean isSuccess(DynamicMessage response) {
+        return Boolean.parseBoolean(String.valueOf(response.getField(response.getDescriptorForType().findFieldByName("success"))));
+    }
 
     private <T extends AbstractMessage> Stubber doAnswerProtoReponse(T response) {
         return doAnswer(invocation -> {
@@ -59,4 +59,27 @@ public class GrpcSinkFactoryTest {
         Assert.assertNotNull(sink);
         server.shutdownNow();
     }
+
+    @Test
+    public void shouldCreateSinkWithChannelPoolOverTargets() throws IOException {
+        when(testGrpcService.bindService()).thenCallRealMethod();
+
+        Server server = ServerBuilder
+                .forPort(5000)
+                .addService(testGrpcService.bindService())
+                .build()
+                .start();
+
+        Map<String, String> config = new HashMap<>();
+        config.put("SINK_GRPC_METHOD_URL", "io.odpf.firehose.consumer.TestServer/TestRpcMethod");
+        config.put("SINK_GRPC_SERVICE_TARGETS", "localhost:5000, dns:///localhost:5000");
+        config.put("SINK_GRPC_CHANNEL_POOL_SIZE", "2");
+        config.put("SINK_GRPC_LOAD_BALANCING_POLICY", "least_outstanding");
+
+        Sink sink = GrpcSinkFactory.create(config, statsDReporter, stencilClient);
+
+        Assert.assertNotNull(sink);
+        sink.close();
+        server.shutdownNow();
+    }
 }
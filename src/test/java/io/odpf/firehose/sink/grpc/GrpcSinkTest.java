@@ -1,7 +1,9 @@
 package io.odpf.firehose.sink.grpc;
 
+import com.google.common.util.concurrent.Futures;
 import io.odpf.depot.error.ErrorInfo;
 import io.odpf.depot.error.ErrorType;
+import io.odpf.firehose.config.enums.GrpcSinkMethodType;
 import io.odpf.firehose.message.Message;
 import io.odpf.firehose.consumer.TestGrpcResponse;
 import io.odpf.firehose.exception.DeserializerException;
@@ -15,6 +17,7 @@ import org.junit.Test;
 import org.mockito.Mock;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -53,10 +56,10 @@ public class GrpcSinkTest {
         when(message.getHeaders()).thenReturn(headers);
         TestGrpcResponse build = TestGrpcResponse.newBuilder().setSuccess(true).build();
         DynamicMessage response = DynamicMessage.parseFrom(build.getDescriptorForType(), build.toByteArray());
-        when(grpcClient.execute(any(byte[].class), any(RecordHeaders.class))).thenReturn(response);
+        when(grpcClient.executeAsync(any(byte[].class), any(RecordHeaders.class))).thenReturn(Futures.immediateFuture(response));
 
         sink.pushMessage(Collections.singletonList(message));
-        verify(grpcClient, times(1)).execute(any(byte[].class), eq(headers));
+        verify(grpcClient, times(1)).executeAsync(any(byte[].class), eq(headers));
 
         verify(firehoseInstrumentation, times(1)).logInfo("Preparing {} messages", 1);
         verify(firehoseInstrumentation, times(1)).logDebug("Response: {}", response);
@@ -71,7 +74,7 @@ public class GrpcSinkTest {
         when(message.getErrorInfo()).thenReturn(new ErrorInfo(null, ErrorType.DESERIALIZATION_ERROR));
         TestGrpcResponse build = TestGrpcResponse.newBuilder().setSuccess(false).build();
         DynamicMessage response = DynamicMessage.parseFrom(build.getDescriptorForType(), build.toByteArray());
-        when(grpcClient.execute(any(), any(RecordHeaders.class))).thenReturn(response);
+        when(grpcClient.executeAsync(any(), any(RecordHeaders.class))).thenReturn(Futures.immediateFuture(response));
         List<Message> failedMessages = sink.pushMessage(Collections.singletonList(message));
 
         assertFalse(failedMessages.isEmpty());
@@ -83,6 +86,27 @@ public class GrpcSinkTest {
         verify(firehoseInstrumentation, times(1)).logDebug("Failed messages count: {}", 1);
     }
 
+    @Test
+    public void shouldSendBatchOverClientStreamingCall() throws Exception {
+        Message failedMessage = mock(Message.class);
+        byte[] logMessage = new byte[]{1};
+        byte[] failedLogMessage = new byte[]{2};
+        when(message.getLogMessage()).thenReturn(logMessage);
+        when(failedMessage.getLogMessage()).thenReturn(failedLogMessage);
+        when(failedMessage.getErrorInfo()).thenReturn(new ErrorInfo(null, ErrorType.SINK_UNKNOWN_ERROR));
+        TestGrpcResponse success = TestGrpcResponse.newBuilder().setSuccess(true).build();
+        TestGrpcResponse failure = TestGrpcResponse.newBuilder().setSuccess(false).build();
+        when(grpcClient.executeClientStreaming(Arrays.asList(logMessage, failedLogMessage))).thenReturn(Arrays.asList(
+                DynamicMessage.parseFrom(success.getDescriptorForType(), success.toByteArray()),
+                DynamicMessage.parseFrom(failure.getDescriptorForType(), failure.toByteArray())));
+        sink = new GrpcSink(firehoseInstrumentation, grpcClient, stencilClient, GrpcSinkMethodType.CLIENT_STREAMING);
+
+        List<Message> failedMessages = sink.pushMessage(Arrays.asList(message, failedMessage));
+
+        assertEquals(Collections.singletonList(failedMessage), failedMessages);
+        verify(grpcClient, never()).executeAsync(any(), any());
+    }
+
     @Test
     public void shouldCloseStencilClient() throws IOException {
         sink = new GrpcSink(firehoseInstrumentation, grpcClient, stencilClient);
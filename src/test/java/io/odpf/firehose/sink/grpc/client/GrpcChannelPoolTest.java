@@ -0,0 +1,198 @@
+package io.odpf.firehose.sink.grpc.client;
+
+import io.grpc.CallOptions;
+import io.grpc.ClientCall;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import io.odpf.firehose.config.enums.GrpcSinkLoadBalancingPolicy;
+import io.odpf.firehose.consumer.TestGrpcRequest;
+import io.odpf.firehose.consumer.TestGrpcResponse;
+import io.odpf.firehose.consumer.TestServerGrpc;
+import io.odpf.firehose.metrics.FirehoseInstrumentation;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class GrpcChannelPoolTest {
+
+    @Mock
+    private FirehoseInstrumentation firehoseInstrumentation;
+
+    @Mock
+    private ManagedChannel firstChannel;
+
+    @Mock
+    private ManagedChannel secondChannel;
+
+    @Mock
+    private ClientCall<TestGrpcRequest, TestGrpcResponse> firstCall;
+
+    @Mock
+    private ClientCall<TestGrpcRequest, TestGrpcResponse> secondCall;
+
+    private MethodDescriptor<TestGrpcRequest, TestGrpcResponse> methodDescriptor;
+    private Server firstServer;
+    private Server secondServer;
+
+    @Before
+    public void setUp() {
+        initMocks(this);
+        methodDescriptor = TestServerGrpc.METHOD_TEST_RPC_METHOD;
+        when(firstChannel.newCall(methodDescriptor, CallOptions.DEFAULT)).thenReturn(firstCall);
+        when(secondChannel.newCall(methodDescriptor, CallOptions.DEFAULT)).thenReturn(secondCall);
+    }
+
+    @After
+    public void tearDown() {
+        if (firstServer != null) {
+            firstServer.shutdownNow();
+        }
+        if (secondServer != null) {
+            secondServer.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldSpreadCallsRoundRobinAcrossTargets() throws IOException {
+        AtomicInteger firstServerCalls = new AtomicInteger();
+        AtomicInteger secondServerCalls = new AtomicInteger();
+        firstServer = ServerBuilder.forPort(5001).addService(countingService(firstServerCalls)).build().start();
+        secondServer = ServerBuilder.forPort(5002).addService(countingService(secondServerCalls)).build().start();
+        GrpcChannelPool channelPool = new GrpcChannelPool(firehoseInstrumentation, Arrays.asList(
+                ManagedChannelBuilder.forTarget("localhost:5001").usePlaintext().build(),
+                ManagedChannelBuilder.forTarget("localhost:5002").usePlaintext().build()),
+                Arrays.asList("localhost:5001#0", "localhost:5002#0"), GrpcSinkLoadBalancingPolicy.ROUND_ROBIN);
+
+        for (int i = 0; i < 10; i++) {
+            TestServerGrpc.newBlockingStub(channelPool).testRpcMethod(TestGrpcRequest.newBuilder().build());
+        }
+
+        assertEquals(5, firstServerCalls.get());
+        assertEquals(5, secondServerCalls.get());
+        assertEquals(0, channelPool.getInFlightCalls(0));
+        assertEquals(0, channelPool.getInFlightCalls(1));
+        channelPool.shutdownNow();
+    }
+
+    @Test
+    public void shouldPickChannelWithFewestCallsInFlight() {
+        GrpcChannelPool channelPool = new GrpcChannelPool(firehoseInstrumentation, Arrays.asList(firstChannel, secondChannel),
+                Arrays.asList("first", "second"), GrpcSinkLoadBalancingPolicy.LEAST_OUTSTANDING);
+
+        channelPool.newCall(methodDescriptor, CallOptions.DEFAULT).start(mock(ClientCall.Listener.class), new Metadata());
+        channelPool.newCall(methodDescriptor, CallOptions.DEFAULT).start(mock(ClientCall.Listener.class), new Metadata());
+        channelPool.newCall(methodDescriptor, CallOptions.DEFAULT).start(mock(ClientCall.Listener.class), new Metadata());
+
+        assertEquals(3, channelPool.getInFlightCalls(0) + channelPool.getInFlightCalls(1));
+        assertEquals(1, Math.abs(channelPool.getInFlightCalls(0) - channelPool.getInFlightCalls(1)));
+        int lessLoaded = channelPool.getInFlightCalls(0) < channelPool.getInFlightCalls(1) ? 0 : 1;
+        assertEquals(lessLoaded, channelPool.selectChannel());
+        assertEquals(lessLoaded, channelPool.selectChannel());
+    }
+
+    @Test
+    public void shouldReleaseInFlightCallWhenCallCloses() {
+        GrpcChannelPool channelPool = new GrpcChannelPool(firehoseInstrumentation, Arrays.asList(firstChannel, secondChannel),
+                Arrays.asList("first", "second"), GrpcSinkLoadBalancingPolicy.ROUND_ROBIN);
+        ArgumentCaptor<ClientCall.Listener> listener = ArgumentCaptor.forClass(ClientCall.Listener.class);
+
+        channelPool.newCall(methodDescriptor, CallOptions.DEFAULT).start(mock(ClientCall.Listener.class), new Metadata());
+        assertEquals(1, channelPool.getInFlightCalls(0));
+        verify(firstCall).start(listener.capture(), any());
+        listener.getValue().onClose(Status.OK, new Metadata());
+
+        assertEquals(0, channelPool.getInFlightCalls(0));
+        verify(firehoseInstrumentation).captureValue("firehose_sink_grpc_channel_in_flight_calls", 1, "channel=first");
+        verify(firehoseInstrumentation).captureValue("firehose_sink_grpc_channel_in_flight_calls", 0, "channel=first");
+    }
+
+    @Test
+    public void shouldReserveChannelsUpToMaxInFlightPerChannel() {
+        GrpcChannelPool channelPool = new GrpcChannelPool(firehoseInstrumentation, Arrays.asList(firstChannel, secondChannel),
+                Arrays.asList("first", "second"), GrpcSinkLoadBalancingPolicy.ROUND_ROBIN, 2);
+
+        for (int i = 0; i < 4; i++) {
+            assertNotEquals(-1, channelPool.tryAcquireChannel());
+        }
+
+        assertEquals(2, channelPool.getInFlightCalls(0));
+        assertEquals(2, channelPool.getInFlightCalls(1));
+        assertEquals(-1, channelPool.tryAcquireChannel());
+        channelPool.releaseChannel(1);
+        assertEquals(1, channelPool.tryAcquireChannel());
+        assertEquals(-1, channelPool.tryAcquireChannel());
+    }
+
+    @Test
+    public void shouldSkipChannelsAtMaxInFlightWhenPickingFewestCallsInFlight() throws InterruptedException {
+        GrpcChannelPool channelPool = new GrpcChannelPool(firehoseInstrumentation, Arrays.asList(firstChannel, secondChannel),
+                Arrays.asList("first", "second"), GrpcSinkLoadBalancingPolicy.LEAST_OUTSTANDING, 1);
+
+        int first = channelPool.acquireChannel();
+        int second = channelPool.acquireChannel();
+
+        assertNotEquals(first, second);
+        assertEquals(-1, channelPool.tryAcquireChannel());
+    }
+
+    @Test
+    public void shouldPlaceCallWithReservedChannelOnThatChannelWithoutCountingItAgain() {
+        GrpcChannelPool channelPool = new GrpcChannelPool(firehoseInstrumentation, Arrays.asList(firstChannel, secondChannel),
+                Arrays.asList("first", "second"), GrpcSinkLoadBalancingPolicy.ROUND_ROBIN, 1);
+        CallOptions callOptions = CallOptions.DEFAULT.withOption(GrpcChannelPool.CHANNEL_INDEX, 1);
+        when(secondChannel.newCall(methodDescriptor, callOptions)).thenReturn(secondCall);
+
+        ClientCall<TestGrpcRequest, TestGrpcResponse> call = channelPool.newCall(methodDescriptor, callOptions);
+        call.start(mock(ClientCall.Listener.class), new Metadata());
+
+        verify(secondCall).start(any(), any());
+        assertEquals(0, channelPool.getInFlightCalls(1));
+    }
+
+    @Test
+    public void shouldShutdownAllChannels() {
+        GrpcChannelPool channelPool = new GrpcChannelPool(firehoseInstrumentation, Arrays.asList(firstChannel, secondChannel),
+                Arrays.asList("first", "second"), GrpcSinkLoadBalancingPolicy.ROUND_ROBIN);
+
+        channelPool.shutdown();
+
+        verify(firstChannel).shutdown();
+        verify(secondChannel).shutdown();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowWhenPoolHasNoChannels() {
+        new GrpcChannelPool(firehoseInstrumentation, Arrays.asList(), Arrays.asList(), GrpcSinkLoadBalancingPolicy.ROUND_ROBIN);
+    }
+
+    private TestServerGrpc.TestServerImplBase countingService(AtomicInteger calls) {
+        return new TestServerGrpc.TestServerImplBase() {
+            @Override
+            public void testRpcMethod(TestGrpcRequest request, StreamObserver<TestGrpcResponse> responseObserver) {
+                calls.incrementAndGet();
+                responseObserver.onNext(TestGrpcResponse.newBuilder().setSuccess(true).build());
+                responseObserver.onCompleted();
+            }
+        };
+    }
+}
@@ -2,6 +2,7 @@ package io.odpf.firehose.sink.http;
 
 
 import io.odpf.depot.metrics.StatsDReporter;
+import io.odpf.firehose.exception.ConfigurationException;
 import io.odpf.firehose.message.Message;
 import io.odpf.firehose.sink.AbstractSink;
 import io.odpf.stencil.client.StencilClient;
@@ -86,4 +87,14 @@ public class HttpSinkFactoryTest {
 
         mockServer.verify(request().withPath("/oauth2/token"), VerificationTimes.exactly(1));
     }
+
+    @Test(expected = ConfigurationException.class)
+    public void shouldRejectHedgingForNonIdempotentMethod() {
+        Map<String, String> configuration = new HashMap<>();
+        configuration.put("SINK_HTTP_REQUEST_METHOD", "post");
+        configuration.put("SINK_HTTP_HEDGING_ENABLE", "true");
+        configuration.put("SINK_HTTP_SERVICE_URL", "http://127.0.0.1:1080/api");
+
+        HttpSinkFactory.create(configuration, statsDReporter, stencilClient);
+    }
 }
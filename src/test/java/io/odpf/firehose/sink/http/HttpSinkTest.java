@@ -6,6 +6,7 @@ import io.odpf.firehose.message.Message;
 import io.odpf.firehose.exception.DeserializerException;
 import io.odpf.firehose.exception.NeedToRetry;
 import io.odpf.firehose.metrics.FirehoseInstrumentation;
+import io.odpf.firehose.sink.http.auth.OAuth2Credential;
 import io.odpf.firehose.sink.http.request.types.Request;
 import io.odpf.stencil.client.StencilClient;
 import org.apache.http.Header;
@@ -56,6 +57,8 @@ public class HttpSinkTest {
     private Map<Integer, Boolean> retryStatusCodeRange;
     @Mock
     private Map<Integer, Boolean> requestLogStatusCodeRanges;
+    @Mock
+    private OAuth2Credential oAuth2Credential;
 
     private List<Message> messages;
 
@@ -171,6 +174,15 @@ public class HttpSinkTest {
         verify(stencilClient, times(1)).close();
     }
 
+    @Test
+    public void shouldCloseOAuth2Credential() throws IOException {
+        HttpSink httpSink = new HttpSink(firehoseInstrumentation, request, httpClient, stencilClient, retryStatusCodeRange, requestLogStatusCodeRanges,
+                null, null, oAuth2Credential);
+
+        httpSink.close();
+        verify(oAuth2Credential, times(1)).close();
+    }
+
     @Test
     public void shouldLogConnectionClosing() throws IOException {
         HttpSink httpSink = new HttpSink(firehoseInstrumentation, request, httpClient, stencilClient, retryStatusCodeRange, requestLogStatusCodeRanges);
@@ -20,10 +20,19 @@ import org.mockserver.model.HttpRequest;
 import org.mockserver.verify.VerificationTimes;
 
 import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
 import static org.mockserver.integration.ClientAndServer.startClientAndServer;
 import static org.mockserver.model.HttpRequest.request;
 import static org.mockserver.model.HttpResponse.response;
@@ -40,8 +49,15 @@ public class OAuth2CredentialTest {
     @Mock
     private StatsDReporter statsDReporter;
 
+    @Mock
+    private OAuth2Client oAuth2Client;
+
+    @Mock
+    private ScheduledExecutorService refreshScheduler;
+
     @Before
     public void setUp() {
+        initMocks(this);
         DateTimeUtils.setCurrentMillisFixed(System.currentTimeMillis());
         mockServer = startClientAndServer(1080);
         httpRequest = new HttpGet("http://127.0.0.1:1080/api");
@@ -275,6 +291,85 @@ public class OAuth2CredentialTest {
         mockServer.verify(getRequest, VerificationTimes.exactly(2));
     }
 
+    @Test
+    public void shouldRequestTokenOnceWhenCallersObserveSameStaleToken() throws Exception {
+        OAuth2AccessToken token = new OAuth2AccessToken("ACCESSTOKEN", 3600);
+        when(oAuth2Client.requestClientCredentialsGrantAccessToken()).thenReturn(token);
+        OAuth2Credential credential = new OAuth2Credential(new FirehoseInstrumentation(statsDReporter, OAuth2Credential.class), oAuth2Client, null, 120L);
+
+        assertSame(token, credential.refreshAccessToken(null));
+        assertSame(token, credential.refreshAccessToken(null));
+
+        verify(oAuth2Client, times(1)).requestClientCredentialsGrantAccessToken();
+    }
+
+    @Test
+    public void shouldRequestTokenWhenCallerObservedCurrentToken() throws Exception {
+        OAuth2AccessToken token = new OAuth2AccessToken("ACCESSTOKEN", 3600);
+        OAuth2AccessToken newToken = new OAuth2AccessToken("NEWACCESSTOKEN", 3600);
+        when(oAuth2Client.requestClientCredentialsGrantAccessToken()).thenReturn(newToken);
+        OAuth2Credential credential = new OAuth2Credential(new FirehoseInstrumentation(statsDReporter, OAuth2Credential.class), oAuth2Client, null, 120L);
+        credential.setAccessToken(token);
+
+        assertSame(newToken, credential.refreshAccessToken(token));
+
+        verify(oAuth2Client, times(1)).requestClientCredentialsGrantAccessToken();
+    }
+
+    @Test
+    public void shouldScheduleBackgroundRefreshAheadOfExpiry() throws Exception {
+        when(oAuth2Client.requestClientCredentialsGrantAccessToken()).thenReturn(new OAuth2AccessToken("ACCESSTOKEN", 3600));
+        OAuth2Credential credential = new OAuth2Credential(new FirehoseInstrumentation(statsDReporter, OAuth2Credential.class), oAuth2Client, refreshScheduler, 120L);
+
+        credential.requestAccessToken();
+
+        verify(refreshScheduler, times(1)).schedule(any(Runnable.class), eq(3480L), eq(TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldCapRefreshAheadAtHalfTheLifetimeOfShortLivedTokens() throws Exception {
+        when(oAuth2Client.requestClientCredentialsGrantAccessToken()).thenReturn(new OAuth2AccessToken("ACCESSTOKEN", 60));
+        OAuth2Credential credential = new OAuth2Credential(new FirehoseInstrumentation(statsDReporter, OAuth2Credential.class), oAuth2Client, refreshScheduler, 120L);
+
+        credential.requestAccessToken();
+
+        verify(refreshScheduler, times(1)).schedule(any(Runnable.class), eq(30L), eq(TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldNotScheduleRefreshSoonerThanMinimumDelay() throws Exception {
+        when(oAuth2Client.requestClientCredentialsGrantAccessToken()).thenReturn(new OAuth2AccessToken("ACCESSTOKEN", 2));
+        OAuth2Credential credential = new OAuth2Credential(new FirehoseInstrumentation(statsDReporter, OAuth2Credential.class), oAuth2Client, refreshScheduler, 120L);
+
+        credential.requestAccessToken();
+
+        verify(refreshScheduler, times(1)).schedule(any(Runnable.class), eq(5L), eq(TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldNotLoopAgainstTokenEndpointWhenTokenExpiresWithinRefreshAhead() throws Exception {
+        when(oAuth2Client.requestClientCredentialsGrantAccessToken()).thenReturn(new OAuth2AccessToken("ACCESSTOKEN", 60));
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        OAuth2Credential credential = new OAuth2Credential(new FirehoseInstrumentation(statsDReporter, OAuth2Credential.class), oAuth2Client, scheduler, 120L);
+        try {
+            credential.requestAccessToken();
+            Thread.sleep(500);
+
+            verify(oAuth2Client, times(1)).requestClientCredentialsGrantAccessToken();
+        } finally {
+            credential.close();
+        }
+    }
+
+    @Test
+    public void shouldShutdownRefreshSchedulerOnClose() {
+        OAuth2Credential credential = new OAuth2Credential(new FirehoseInstrumentation(statsDReporter, OAuth2Credential.class), oAuth2Client, refreshScheduler, 120L);
+
+        credential.close();
+
+        verify(refreshScheduler, times(1)).shutdownNow();
+    }
+
     private Request transformRequest(org.apache.http.HttpRequest request) {
         Request.Builder builder = new Request.Builder();
         RequestLine requestLine = request.getRequestLine();
@@ -0,0 +1,109 @@
+package io.odpf.firehose.sink.jdbc;
+
+import io.odpf.firehose.message.Message;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JdbcOffsetStoreTest {
+
+    @Mock
+    private JdbcConnectionPool pool;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    private JdbcOffsetStore offsetStore;
+
+    @Before
+    public void setUp() {
+        offsetStore = new JdbcOffsetStore(pool, "offsets", "group");
+    }
+
+    @Test
+    public void shouldTakeTheOffsetAfterTheLastMessageOfEveryPartition() {
+        Map<TopicPartition, Long> nextOffsets = JdbcOffsetStore.nextOffsetsOf(Arrays.asList(
+                new Message(new byte[0], new byte[0], "topic", 0, 101),
+                new Message(new byte[0], new byte[0], "topic", 0, 100),
+                new Message(new byte[0], new byte[0], "topic", 1, 7)));
+
+        Map<TopicPartition, Long> expected = new HashMap<>();
+        expected.put(new TopicPartition("topic", 0), 102L);
+        expected.put(new TopicPartition("topic", 1), 8L);
+        assertEquals(expected, nextOffsets);
+    }
+
+    @Test
+    public void shouldUpsertOffsetsWithTheConnectionOfTheBatch() throws SQLException {
+        when(connection.prepareStatement(contains("ON CONFLICT"))).thenReturn(statement);
+
+        offsetStore.storeOffsets(connection, Collections.singletonMap(new TopicPartition("topic", 3), 42L));
+
+        verify(statement).setString(1, "group");
+        verify(statement).setString(2, "topic");
+        verify(statement).setInt(3, 3);
+        verify(statement).setLong(4, 42L);
+        verify(statement).executeBatch();
+        verify(statement).close();
+        verify(pool, never()).getConnection();
+    }
+
+    @Test
+    public void shouldReadOffsetsOfTheAssignedPartitionsOnly() throws Exception {
+        when(pool.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getString(1)).thenReturn("topic", "topic");
+        when(resultSet.getInt(2)).thenReturn(0, 1);
+        when(resultSet.getLong(3)).thenReturn(10L);
+
+        Map<TopicPartition, Long> nextOffsets = offsetStore.getNextOffsets(Collections.singletonList(new TopicPartition("topic", 0)));
+
+        assertEquals(Collections.singletonMap(new TopicPartition("topic", 0), 10L), nextOffsets);
+        verify(statement).setString(1, "group");
+        verify(pool).release(connection);
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldWrapSqlExceptionWhenOffsetsCannotBeRead() throws Exception {
+        when(pool.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenThrow(new SQLException("relation does not exist"));
+
+        offsetStore.getNextOffsets(Collections.singletonList(new TopicPartition("topic", 0)));
+    }
+
+    @Test
+    public void shouldShutDownThePoolOnClose() throws Exception {
+        offsetStore.close();
+
+        verify(pool).shutdown();
+    }
+}
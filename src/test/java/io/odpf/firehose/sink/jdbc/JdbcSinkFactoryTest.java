@@ -0,0 +1,36 @@
+package io.odpf.firehose.sink.jdbc;
+
+import io.odpf.depot.metrics.StatsDReporter;
+import io.odpf.firehose.exception.ConfigurationException;
+import io.odpf.stencil.client.StencilClient;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class JdbcSinkFactoryTest {
+
+    @Mock
+    private StatsDReporter statsDReporter;
+
+    @Mock
+    private StencilClient stencilClient;
+
+    @Before
+    public void setUp() {
+        initMocks(this);
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void shouldRejectFailureIsolationWithCopyWriteMode() {
+        Map<String, String> config = new HashMap<>();
+        config.put("SINK_JDBC_WRITE_MODE", "COPY");
+        config.put("SINK_JDBC_FAILURE_ISOLATION_ENABLE", "true");
+
+        JdbcSinkFactory.create(config, statsDReporter, stencilClient);
+    }
+}
@@ -1,26 +1,43 @@
 package io.odpf.firehose.sink.jdbc;
 
 
+import io.odpf.depot.error.ErrorType;
+import io.odpf.firehose.config.JdbcSinkConfig;
+import io.odpf.firehose.config.enums.JdbcSinkWriteMode;
 import io.odpf.firehose.message.Message;
 import io.odpf.firehose.exception.DeserializerException;
 import io.odpf.firehose.metrics.FirehoseInstrumentation;
+import io.odpf.firehose.sink.common.UpsertCollapser;
 import io.odpf.stencil.client.StencilClient;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.apache.commons.io.IOUtils;
+import org.apache.kafka.common.TopicPartition;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.fail;
 import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -202,6 +219,310 @@ public class JdbcSinkTest {
         verify(firehoseInstrumentation, times(1)).logDebug("DB response: {}", Arrays.toString(updateCounts));
     }
 
+    @Test
+    public void shouldBindMessagesToPreparedStatementBatch() throws Exception {
+        PreparedStatement preparedStatement = mock(PreparedStatement.class);
+        when(queryTemplate.toPreparedStatementSql()).thenReturn("INSERT INTO table ( col ) values ( ? ) ");
+        when(connection.prepareStatement("INSERT INTO table ( col ) values ( ? ) ")).thenReturn(preparedStatement);
+        when(preparedStatement.executeBatch()).thenReturn(new int[]{1, 1});
+        List<Message> messages = Arrays.asList(new Message(new byte[0], new byte[0], "topic", 0, 100),
+                new Message(new byte[0], new byte[0], "topic", 0, 101));
+        JdbcSink sink = new JdbcSink(firehoseInstrumentation, "db", jdbcConnectionPool, queryTemplate, stencilClient, JdbcSinkWriteMode.PREPARED_STATEMENT);
+
+        sink.pushMessage(messages);
+
+        verify(queryTemplate).bindParameters(preparedStatement, messages.get(0));
+        verify(queryTemplate).bindParameters(preparedStatement, messages.get(1));
+        verify(preparedStatement, times(2)).addBatch();
+        verify(preparedStatement).executeBatch();
+        verify(queryTemplate, never()).toQueryString(any(Message.class));
+        verify(preparedStatement).close();
+        verify(jdbcConnectionPool).release(connection);
+    }
+
+    @Test
+    public void shouldClosePreparedStatementAndReleaseConnectionWhenBindingFails() throws Exception {
+        PreparedStatement preparedStatement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(any())).thenReturn(preparedStatement);
+        doThrow(new SQLException("bad value")).when(queryTemplate).bindParameters(eq(preparedStatement), any(Message.class));
+        JdbcSink sink = new JdbcSink(firehoseInstrumentation, "db", jdbcConnectionPool, queryTemplate, stencilClient, JdbcSinkWriteMode.PREPARED_STATEMENT);
+
+        try {
+            sink.prepare(Arrays.asList(new Message(new byte[0], new byte[0], "topic", 0, 100)));
+            fail("expected the binding failure to be thrown");
+        } catch (SQLException e) {
+            assertEquals("bad value", e.getMessage());
+        }
+
+        verify(preparedStatement).close();
+        verify(jdbcConnectionPool).release(connection);
+    }
+
+    @Test
+    public void shouldCollapseUpsertsOfTheSameUniqueKeyToTheLastOne() throws Exception {
+        PreparedStatement preparedStatement = mock(PreparedStatement.class);
+        when(queryTemplate.isAnUpsertOperation()).thenReturn(true);
+        when(connection.prepareStatement(any())).thenReturn(preparedStatement);
+        when(preparedStatement.executeBatch()).thenReturn(new int[]{1, 1});
+        List<Message> messages = Arrays.asList(new Message(new byte[0], new byte[0], "topic", 0, 100),
+                new Message(new byte[0], new byte[0], "topic", 0, 101),
+                new Message(new byte[0], new byte[0], "topic", 0, 102));
+        when(queryTemplate.getUniqueKeyValues(messages.get(0))).thenReturn(Arrays.asList("1"));
+        when(queryTemplate.getUniqueKeyValues(messages.get(1))).thenReturn(Arrays.asList("2"));
+        when(queryTemplate.getUniqueKeyValues(messages.get(2))).thenReturn(Arrays.asList("1"));
+        JdbcSink sink = new JdbcSink(firehoseInstrumentation, "db", jdbcConnectionPool, queryTemplate, stencilClient,
+                JdbcSinkWriteMode.PREPARED_STATEMENT, new UpsertCollapser(firehoseInstrumentation));
+
+        List<Message> failedMessages = sink.pushMessage(messages);
+
+        assertEquals(0, failedMessages.size());
+        verify(queryTemplate, never()).bindParameters(preparedStatement, messages.get(0));
+        verify(queryTemplate).bindParameters(preparedStatement, messages.get(1));
+        verify(queryTemplate).bindParameters(preparedStatement, messages.get(2));
+        verify(preparedStatement, times(2)).addBatch();
+    }
+
+    @Test
+    public void shouldFailOnlyTheRowRejectedInBatchUpdateCounts() throws Exception {
+        PreparedStatement preparedStatement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(any())).thenReturn(preparedStatement);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(preparedStatement.executeBatch())
+                .thenThrow(new BatchUpdateException("duplicate key", "23505", new int[]{1, Statement.EXECUTE_FAILED, 1}))
+                .thenReturn(new int[]{1})
+                .thenThrow(new SQLException("duplicate key", "23505"))
+                .thenReturn(new int[]{1});
+        List<Message> messages = Arrays.asList(new Message(new byte[0], new byte[0], "topic", 0, 100),
+                new Message(new byte[0], new byte[0], "topic", 0, 101),
+                new Message(new byte[0], new byte[0], "topic", 0, 102));
+        JdbcSink sink = new JdbcSink(firehoseInstrumentation, "db", jdbcConnectionPool, queryTemplate, stencilClient,
+                JdbcSinkWriteMode.PREPARED_STATEMENT, null, true);
+
+        List<Message> failedMessages = sink.pushMessage(messages);
+
+        assertEquals(1, failedMessages.size());
+        assertEquals(messages.get(1), failedMessages.get(0));
+        assertEquals(ErrorType.SINK_4XX_ERROR, failedMessages.get(0).getErrorInfo().getErrorType());
+        verify(preparedStatement, times(4)).executeBatch();
+        verify(connection, times(2)).rollback();
+        verify(connection, times(2)).commit();
+        verify(connection).setAutoCommit(false);
+        verify(connection).setAutoCommit(true);
+        verify(jdbcConnectionPool).release(connection);
+    }
+
+    @Test
+    public void shouldFailTheLaterRowOfDuplicateKeysInTheBatch() throws Exception {
+        PreparedStatement preparedStatement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(any())).thenReturn(preparedStatement);
+        when(connection.getAutoCommit()).thenReturn(true);
+        List<Message> batch = new ArrayList<>();
+        Set<String> insertedKeys = new HashSet<>();
+        doAnswer(invocation -> batch.add(invocation.getArgument(1))).when(queryTemplate).bindParameters(eq(preparedStatement), any(Message.class));
+        doAnswer(invocation -> {
+            batch.clear();
+            return null;
+        }).when(preparedStatement).clearBatch();
+        // a table with a unique key on the message key, reporting the rows executed before the rejected one like pgjdbc
+        when(preparedStatement.executeBatch()).thenAnswer(invocation -> {
+            Set<String> keys = new HashSet<>(insertedKeys);
+            int[] updateCounts = new int[batch.size()];
+            for (int i = 0; i < batch.size(); i++) {
+                if (!keys.add(new String(batch.get(i).getLogKey()))) {
+                    throw new BatchUpdateException("duplicate key", "23505", Arrays.copyOf(updateCounts, i));
+                }
+                updateCounts[i] = 1;
+            }
+            insertedKeys.addAll(keys);
+            return updateCounts;
+        });
+        List<Message> messages = Arrays.asList(new Message("1".getBytes(), "A".getBytes(), "topic", 0, 100),
+                new Message("1".getBytes(), "B".getBytes(), "topic", 0, 101));
+        JdbcSink sink = new JdbcSink(firehoseInstrumentation, "db", jdbcConnectionPool, queryTemplate, stencilClient,
+                JdbcSinkWriteMode.PREPARED_STATEMENT, null, true);
+
+        List<Message> failedMessages = sink.pushMessage(messages);
+
+        assertEquals(1, failedMessages.size());
+        assertEquals(messages.get(1), failedMessages.get(0));
+    }
+
+    @Test
+    public void shouldBisectBatchToFindTheRejectedRowWhenDriverDoesNotReportIt() throws Exception {
+        PreparedStatement preparedStatement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(any())).thenReturn(preparedStatement);
+        when(connection.getAutoCommit()).thenReturn(true);
+        SQLException invalidValue = new SQLException("invalid input syntax for type integer", "22P02");
+        when(preparedStatement.executeBatch())
+                .thenThrow(invalidValue)
+                .thenReturn(new int[]{1, 1})
+                .thenThrow(invalidValue)
+                .thenReturn(new int[]{1})
+                .thenThrow(invalidValue);
+        List<Message> messages = Arrays.asList(new Message(new byte[0], new byte[0], "topic", 0, 100),
+                new Message(new byte[0], new byte[0], "topic", 0, 101),
+                new Message(new byte[0], new byte[0], "topic", 0, 102),
+                new Message(new byte[0], new byte[0], "topic", 0, 103));
+        JdbcSink sink = new JdbcSink(firehoseInstrumentation, "db", jdbcConnectionPool, queryTemplate, stencilClient,
+                JdbcSinkWriteMode.PREPARED_STATEMENT, null, true);
+
+        List<Message> failedMessages = sink.pushMessage(messages);
+
+        assertEquals(1, failedMessages.size());
+        assertEquals(messages.get(3), failedMessages.get(0));
+        verify(preparedStatement, times(5)).executeBatch();
+        verify(connection, times(2)).commit();
+    }
+
+    @Test
+    public void shouldFailWholeBatchWhenErrorIsNotCausedByRows() throws Exception {
+        PreparedStatement preparedStatement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(any())).thenReturn(preparedStatement);
+        when(preparedStatement.executeBatch()).thenThrow(new SQLException("connection lost", "08006"));
+        List<Message> messages = Arrays.asList(new Message(new byte[0], new byte[0], "topic", 0, 100),
+                new Message(new byte[0], new byte[0], "topic", 0, 101));
+        JdbcSink sink = new JdbcSink(firehoseInstrumentation, "db", jdbcConnectionPool, queryTemplate, stencilClient,
+                JdbcSinkWriteMode.PREPARED_STATEMENT, null, true);
+
+        List<Message> failedMessages = sink.pushMessage(messages);
+
+        assertEquals(messages, failedMessages);
+        verify(preparedStatement, times(1)).executeBatch();
+        verify(connection).rollback();
+        verify(jdbcConnectionPool).release(connection);
+    }
+
+    @Test
+    public void shouldReleaseConnectionWhenBindingFails() throws Exception {
+        PreparedStatement preparedStatement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(any())).thenReturn(preparedStatement);
+        doThrow(new SQLException("invalid value")).when(queryTemplate).bindParameters(any(PreparedStatement.class), any(Message.class));
+        JdbcSink sink = new JdbcSink(firehoseInstrumentation, "db", jdbcConnectionPool, queryTemplate, stencilClient, JdbcSinkWriteMode.PREPARED_STATEMENT);
+
+        try {
+            sink.prepare(Arrays.asList(new Message(new byte[0], new byte[0], "topic", 0, 100)));
+        } catch (SQLException e) {
+            assertEquals("invalid value", e.getMessage());
+        }
+
+        verify(jdbcConnectionPool).release(connection);
+    }
+
+    @Test
+    public void shouldCopyBatchIntoTable() throws Exception {
+        PGConnection pgConnection = mock(PGConnection.class);
+        CopyManager copyManager = mock(CopyManager.class);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+        when(queryTemplate.toCopySql()).thenReturn("COPY table ( col ) FROM STDIN WITH ( FORMAT csv )");
+        doAnswer(invocation -> ((StringBuilder) invocation.getArgument(0)).append("row\n")).when(queryTemplate).appendCsvRow(any(StringBuilder.class), any(Message.class), anyInt());
+        ArgumentCaptor<Reader> rows = ArgumentCaptor.forClass(Reader.class);
+        when(copyManager.copyIn(eq("COPY table ( col ) FROM STDIN WITH ( FORMAT csv )"), rows.capture())).thenReturn(2L);
+        List<Message> messages = Arrays.asList(new Message(new byte[0], new byte[0], "topic", 0, 100),
+                new Message(new byte[0], new byte[0], "topic", 0, 101));
+        JdbcSink sink = new JdbcSink(firehoseInstrumentation, "db", jdbcConnectionPool, queryTemplate, stencilClient, JdbcSinkWriteMode.COPY);
+
+        sink.pushMessage(messages);
+
+        assertEquals("row\nrow\n", IOUtils.toString(rows.getValue()));
+        verify(firehoseInstrumentation).logDebug("DB response: copied {} rows", 2L);
+        verify(connection, never()).setAutoCommit(false);
+        verify(jdbcConnectionPool).release(connection);
+    }
+
+    @Test
+    public void shouldCopyUpsertsThroughStagingTableInOneTransaction() throws Exception {
+        PGConnection pgConnection = mock(PGConnection.class);
+        CopyManager copyManager = mock(CopyManager.class);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+        when(queryTemplate.isAnUpsertOperation()).thenReturn(true);
+        when(queryTemplate.toCreateStagingTableSql()).thenReturn("CREATE TEMP TABLE staging");
+        when(queryTemplate.toCopySql()).thenReturn("COPY staging");
+        when(queryTemplate.toMergeStagingTableSql()).thenReturn("INSERT INTO table SELECT FROM staging");
+        when(statement.executeUpdate("INSERT INTO table SELECT FROM staging")).thenReturn(1);
+        JdbcSink sink = new JdbcSink(firehoseInstrumentation, "db", jdbcConnectionPool, queryTemplate, stencilClient, JdbcSinkWriteMode.COPY);
+
+        sink.pushMessage(Arrays.asList(new Message(new byte[0], new byte[0], "topic", 0, 100)));
+
+        InOrder inOrder = inOrder(connection, statement, copyManager);
+        inOrder.verify(connection).setAutoCommit(false);
+        inOrder.verify(statement).execute("CREATE TEMP TABLE staging");
+        inOrder.verify(copyManager).copyIn(eq("COPY staging"), any(Reader.class));
+        inOrder.verify(statement).executeUpdate("INSERT INTO table SELECT FROM staging");
+        inOrder.verify(connection).commit();
+        inOrder.verify(connection).setAutoCommit(true);
+        verify(jdbcConnectionPool).release(connection);
+    }
+
+    @Test
+    public void shouldRollbackStagingTransactionWhenCopyFails() throws Exception {
+        PGConnection pgConnection = mock(PGConnection.class);
+        CopyManager copyManager = mock(CopyManager.class);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+        when(queryTemplate.isAnUpsertOperation()).thenReturn(true);
+        when(copyManager.copyIn(any(), any(Reader.class))).thenThrow(new SQLException("bad row"));
+        JdbcSink sink = new JdbcSink(firehoseInstrumentation, "db", jdbcConnectionPool, queryTemplate, stencilClient, JdbcSinkWriteMode.COPY);
+        sink.prepare(Arrays.asList(new Message(new byte[0], new byte[0], "topic", 0, 100)));
+
+        try {
+            sink.execute();
+        } catch (SQLException e) {
+            assertEquals("bad row", e.getMessage());
+        }
+
+        verify(connection).rollback();
+        verify(connection, never()).commit();
+        verify(connection).setAutoCommit(true);
+        verify(jdbcConnectionPool).release(connection);
+    }
+
+    @Test
+    public void shouldStoreOffsetsInTheTransactionOfTheBatch() throws Exception {
+        JdbcSinkConfig jdbcSinkConfig = mock(JdbcSinkConfig.class);
+        JdbcOffsetStore offsetStore = mock(JdbcOffsetStore.class);
+        when(jdbcSinkConfig.getSinkJdbcWriteMode()).thenReturn(JdbcSinkWriteMode.QUERY_STRING);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(statement.executeBatch()).thenReturn(new int[]{1, 1});
+        JdbcSink sink = new JdbcSink(firehoseInstrumentation, "db", jdbcConnectionPool, queryTemplate, stencilClient, jdbcSinkConfig, null, offsetStore);
+
+        sink.pushMessage(Arrays.asList(new Message(new byte[0], new byte[0], "topic", 0, 100),
+                new Message(new byte[0], new byte[0], "topic", 0, 101)));
+
+        InOrder inOrder = inOrder(connection, statement, offsetStore);
+        inOrder.verify(connection).setAutoCommit(false);
+        inOrder.verify(statement).executeBatch();
+        inOrder.verify(offsetStore).storeOffsets(connection, Collections.singletonMap(new TopicPartition("topic", 0), 102L));
+        inOrder.verify(connection).commit();
+        inOrder.verify(connection).setAutoCommit(true);
+        verify(jdbcConnectionPool).release(connection);
+    }
+
+    @Test
+    public void shouldNotStoreOffsetsWhenTheBatchFails() throws Exception {
+        JdbcSinkConfig jdbcSinkConfig = mock(JdbcSinkConfig.class);
+        JdbcOffsetStore offsetStore = mock(JdbcOffsetStore.class);
+        when(jdbcSinkConfig.getSinkJdbcWriteMode()).thenReturn(JdbcSinkWriteMode.QUERY_STRING);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(statement.executeBatch()).thenThrow(new SQLException("connection lost"));
+        JdbcSink sink = new JdbcSink(firehoseInstrumentation, "db", jdbcConnectionPool, queryTemplate, stencilClient, jdbcSinkConfig, null, offsetStore);
+        sink.prepare(Arrays.asList(new Message(new byte[0], new byte[0], "topic", 0, 100)));
+
+        try {
+            sink.execute();
+        } catch (SQLException e) {
+            assertEquals("connection lost", e.getMessage());
+        }
+
+        verify(offsetStore, never()).storeOffsets(any(), any());
+        verify(connection).rollback();
+        verify(connection, never()).commit();
+        verify(jdbcConnectionPool).release(connection);
+    }
+
     public class JdbcSinkStub extends JdbcSink {
         private List<String> queries;
 
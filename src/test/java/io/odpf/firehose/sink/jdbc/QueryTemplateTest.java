@@ -3,6 +3,7 @@ package io.odpf.firehose.sink.jdbc;
 import io.odpf.firehose.config.JdbcSinkConfig;
 import io.odpf.firehose.message.Message;
 import io.odpf.firehose.proto.ProtoToFieldMapper;
+import com.google.protobuf.ByteString;
 import org.gradle.internal.impldep.org.testng.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -11,11 +12,16 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import java.io.IOException;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
 
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.any;
@@ -157,4 +163,116 @@ public class QueryTemplateTest {
         queryTemplate.toQueryString(mockMessage);
         verify(mockMessage, times(1)).getLogMessage();
     }
+
+    @Test
+    public void shouldBuildPreparedStatementSqlWithPlaceholders() {
+        QueryTemplate queryTemplate = new QueryTemplate(jdbcSinkConfig, protoToFieldMapper);
+
+        String expectedSql = "INSERT INTO table ( feedback_rating,event_timestamp,order_number ) values ( ?, ?, ? ) ";
+
+        Assert.assertEquals(queryTemplate.toPreparedStatementSql(), expectedSql);
+    }
+
+    @Test
+    public void shouldBuildPreparedStatementUpsertUpdatingFromExcludedRow() {
+        addUniqueKeys("order_number");
+        QueryTemplate queryTemplate = new QueryTemplate(jdbcSinkConfig, protoToFieldMapper);
+
+        String expectedSql = "INSERT INTO table ( feedback_rating,event_timestamp,order_number ) values ( ?, ?, ? ) "
+                + "ON CONFLICT ( order_number ) DO UPDATE SET ( feedback_rating,event_timestamp ) = (EXCLUDED.feedback_rating, EXCLUDED.event_timestamp)";
+
+        Assert.assertEquals(queryTemplate.toPreparedStatementSql(), expectedSql);
+    }
+
+    @Test
+    public void shouldBindTypedParameters() throws SQLException {
+        Instant eventTimestamp = Instant.ofEpochSecond(1600000000L, 500);
+        Map<String, Object> columnToValues = new HashMap<>();
+        columnToValues.put("order_number", "it's order_1");
+        columnToValues.put("event_timestamp", eventTimestamp);
+        columnToValues.put("feedback_rating", 5);
+        when(protoToFieldMapper.getFields(any(byte[].class))).thenReturn(columnToValues);
+        when(jdbcSinkConfig.getKafkaRecordParserMode()).thenReturn("message");
+        QueryTemplate queryTemplate = new QueryTemplate(jdbcSinkConfig, protoToFieldMapper);
+        PreparedStatement preparedStatement = mock(PreparedStatement.class);
+
+        queryTemplate.bindParameters(preparedStatement, new Message("key".getBytes(), "msg".getBytes(), "topic1", 0, 100));
+
+        verify(preparedStatement).setObject(1, 5);
+        verify(preparedStatement).setTimestamp(2, Timestamp.from(eventTimestamp));
+        verify(preparedStatement).setObject(3, "it's order_1", Types.OTHER);
+    }
+
+    @Test
+    public void shouldBindNullAndBytesParameters() throws SQLException {
+        Map<String, Object> columnToValues = new HashMap<>();
+        columnToValues.put("order_number", ByteString.copyFromUtf8("order_1"));
+        columnToValues.put("event_timestamp", null);
+        columnToValues.put("feedback_rating", true);
+        when(protoToFieldMapper.getFields(any(byte[].class))).thenReturn(columnToValues);
+        QueryTemplate queryTemplate = new QueryTemplate(jdbcSinkConfig, protoToFieldMapper);
+        PreparedStatement preparedStatement = mock(PreparedStatement.class);
+
+        queryTemplate.bindParameters(preparedStatement, new Message("key".getBytes(), "msg".getBytes(), "topic1", 0, 100));
+
+        verify(preparedStatement).setObject(1, true);
+        verify(preparedStatement).setNull(2, Types.NULL);
+        verify(preparedStatement).setBytes(3, "order_1".getBytes());
+    }
+
+    @Test
+    public void shouldCopyIntoTableWhenNoUniqueKeysArePresent() {
+        QueryTemplate queryTemplate = new QueryTemplate(jdbcSinkConfig, protoToFieldMapper);
+
+        Assert.assertEquals(queryTemplate.toCopySql(), "COPY table ( feedback_rating,event_timestamp,order_number ) FROM STDIN WITH ( FORMAT csv )");
+    }
+
+    @Test
+    public void shouldCopyIntoStagingTableAndMergeForUpserts() {
+        when(jdbcSinkConfig.getSinkJdbcTableName()).thenReturn("public.orders");
+        addUniqueKeys("order_number");
+        QueryTemplate queryTemplate = new QueryTemplate(jdbcSinkConfig, protoToFieldMapper);
+
+        Assert.assertEquals(queryTemplate.toCopySql(),
+                "COPY firehose_staging_public_orders ( feedback_rating,event_timestamp,order_number,firehose_staging_ordinal ) FROM STDIN WITH ( FORMAT csv )");
+        Assert.assertEquals(queryTemplate.toCreateStagingTableSql(),
+                "CREATE TEMP TABLE IF NOT EXISTS firehose_staging_public_orders ( LIKE public.orders INCLUDING DEFAULTS, firehose_staging_ordinal bigint ) ON COMMIT DELETE ROWS");
+        Assert.assertEquals(queryTemplate.toMergeStagingTableSql(), "INSERT INTO public.orders ( feedback_rating,event_timestamp,order_number ) "
+                + "SELECT DISTINCT ON ( order_number ) feedback_rating,event_timestamp,order_number FROM firehose_staging_public_orders ORDER BY order_number, firehose_staging_ordinal DESC "
+                + "ON CONFLICT ( order_number ) DO UPDATE SET ( feedback_rating,event_timestamp ) = (EXCLUDED.feedback_rating, EXCLUDED.event_timestamp)");
+    }
+
+    @Test
+    public void shouldAppendEscapedCsvRow() {
+        Map<String, Object> columnToValues = new HashMap<>();
+        columnToValues.put("order_number", "order \"1\", with comma");
+        columnToValues.put("event_timestamp", Instant.ofEpochSecond(1600000000L));
+        columnToValues.put("feedback_rating", null);
+        when(protoToFieldMapper.getFields(any(byte[].class))).thenReturn(columnToValues);
+        QueryTemplate queryTemplate = new QueryTemplate(jdbcSinkConfig, protoToFieldMapper);
+        StringBuilder csv = new StringBuilder();
+
+        queryTemplate.appendCsvRow(csv, new Message("key".getBytes(), "msg".getBytes(), "topic1", 0, 100), 0);
+        columnToValues.put("order_number", ByteString.copyFrom(new byte[]{1, 10}));
+        columnToValues.put("feedback_rating", 4.5);
+        queryTemplate.appendCsvRow(csv, new Message("key".getBytes(), "msg".getBytes(), "topic1", 0, 101), 1);
+
+        Assert.assertEquals(csv.toString(), ",2020-09-13T12:26:40Z,\"order \"\"1\"\", with comma\"\n4.5,2020-09-13T12:26:40Z,\\x010a\n");
+    }
+
+    @Test
+    public void shouldAppendBatchPositionToCsvRowOfUpserts() {
+        Map<String, Object> columnToValues = new HashMap<>();
+        columnToValues.put("order_number", "order_1");
+        columnToValues.put("event_timestamp", Instant.ofEpochSecond(1600000000L));
+        columnToValues.put("feedback_rating", 4);
+        when(protoToFieldMapper.getFields(any(byte[].class))).thenReturn(columnToValues);
+        addUniqueKeys("order_number");
+        QueryTemplate queryTemplate = new QueryTemplate(jdbcSinkConfig, protoToFieldMapper);
+        StringBuilder csv = new StringBuilder();
+
+        queryTemplate.appendCsvRow(csv, new Message("key".getBytes(), "msg".getBytes(), "topic1", 0, 100), 7);
+
+        Assert.assertEquals(csv.toString(), "4,2020-09-13T12:26:40Z,\"order_1\",7\n");
+    }
 }
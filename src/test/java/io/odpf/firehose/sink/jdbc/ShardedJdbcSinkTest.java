@@ -0,0 +1,146 @@
+package io.odpf.firehose.sink.jdbc;
+
+import io.odpf.firehose.exception.ConfigurationException;
+import io.odpf.firehose.exception.SinkException;
+import io.odpf.firehose.message.Message;
+import io.odpf.firehose.metrics.FirehoseInstrumentation;
+import io.odpf.stencil.client.StencilClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ShardedJdbcSinkTest {
+
+    @Mock
+    private FirehoseInstrumentation firehoseInstrumentation;
+
+    @Mock
+    private JdbcConnectionPool jdbcConnectionPool;
+
+    @Mock
+    private QueryTemplate queryTemplate;
+
+    @Mock
+    private StencilClient stencilClient;
+
+    @Mock
+    private JdbcSink firstShard;
+
+    @Mock
+    private JdbcSink secondShard;
+
+    private ExecutorService shardExecutor;
+
+    private ShardedJdbcSink sink;
+
+    private List<Message> messages;
+
+    @Before
+    public void setUp() throws Exception {
+        when(firehoseInstrumentation.startExecution()).thenReturn(Instant.now());
+        shardExecutor = Executors.newFixedThreadPool(2);
+        sink = new ShardedJdbcSink(firehoseInstrumentation, "db", jdbcConnectionPool, queryTemplate, stencilClient,
+                Arrays.asList(firstShard, secondShard), shardExecutor);
+        messages = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            messages.add(new Message(new byte[0], new byte[0], "topic", 0, 100 + i));
+        }
+        when(firstShard.execute()).thenReturn(new ArrayList<>());
+        when(secondShard.execute()).thenReturn(new ArrayList<>());
+    }
+
+    @After
+    public void tearDown() {
+        shardExecutor.shutdownNow();
+    }
+
+    @Test
+    public void shouldWriteUpsertsOfTheSameUniqueKeysOnTheSameShardInBatchOrder() throws Exception {
+        when(queryTemplate.isAnUpsertOperation()).thenReturn(true);
+        // the hash codes of [1] and [0] are 32 and 31
+        when(queryTemplate.getUniqueKeyValues(messages.get(0))).thenReturn(Collections.singletonList(1));
+        when(queryTemplate.getUniqueKeyValues(messages.get(1))).thenReturn(Collections.singletonList(0));
+        when(queryTemplate.getUniqueKeyValues(messages.get(2))).thenReturn(Collections.singletonList(1));
+        when(queryTemplate.getUniqueKeyValues(messages.get(3))).thenReturn(Collections.singletonList(1));
+
+        List<Message> failedMessages = sink.pushMessage(messages);
+
+        assertEquals(0, failedMessages.size());
+        verify(firstShard).prepare(Arrays.asList(messages.get(0), messages.get(2), messages.get(3)));
+        verify(secondShard).prepare(Collections.singletonList(messages.get(1)));
+    }
+
+    @Test
+    public void shouldSpreadInsertsOverTheShards() throws Exception {
+        when(queryTemplate.isAnUpsertOperation()).thenReturn(false);
+
+        sink.pushMessage(messages);
+
+        verify(firstShard).prepare(Arrays.asList(messages.get(0), messages.get(2)));
+        verify(secondShard).prepare(Arrays.asList(messages.get(1), messages.get(3)));
+        verify(firstShard).execute();
+        verify(secondShard).execute();
+    }
+
+    @Test
+    public void shouldFailOnlyTheMessagesOfTheFailedShard() throws Exception {
+        when(queryTemplate.isAnUpsertOperation()).thenReturn(false);
+        when(secondShard.execute()).thenThrow(new SQLException("deadlock detected"));
+
+        List<Message> failedMessages = sink.pushMessage(messages);
+
+        assertEquals(Arrays.asList(messages.get(1), messages.get(3)), failedMessages);
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void shouldRethrowConfigurationExceptionOfShard() throws Exception {
+        when(queryTemplate.isAnUpsertOperation()).thenReturn(false);
+        when(secondShard.execute()).thenThrow(new ConfigurationException("invalid config"));
+
+        sink.pushMessage(messages);
+    }
+
+    @Test(expected = SinkException.class)
+    public void shouldRethrowSinkExceptionOfShard() throws Exception {
+        when(queryTemplate.isAnUpsertOperation()).thenReturn(false);
+        when(secondShard.execute()).thenThrow(new SinkException("sink failure", new RuntimeException()));
+
+        sink.pushMessage(messages);
+    }
+
+    @Test
+    public void shouldNotWriteEmptyShards() throws Exception {
+        when(queryTemplate.isAnUpsertOperation()).thenReturn(false);
+
+        sink.pushMessage(messages.subList(0, 1));
+
+        verify(firstShard).execute();
+        verify(secondShard, never()).prepare(any());
+        verify(secondShard, never()).execute();
+    }
+
+    @Test
+    public void shouldShutdownShardsAndPoolOnClose() throws Exception {
+        sink.close();
+
+        verify(jdbcConnectionPool).shutdown();
+        verify(stencilClient).close();
+        assertEquals(true, shardExecutor.isTerminated());
+    }
+}
@@ -7,6 +7,7 @@ import com.mongodb.client.model.WriteModel;
 import io.odpf.firehose.config.enums.SinkType;
 import io.odpf.firehose.message.Message;
 import io.odpf.firehose.metrics.FirehoseInstrumentation;
+import io.odpf.firehose.sink.common.UpsertCollapser;
 import io.odpf.firehose.sink.mongodb.client.MongoSinkClient;
 import io.odpf.firehose.sink.mongodb.request.MongoRequestHandler;
 import org.bson.BsonDocument;
@@ -99,6 +100,25 @@ public class MongoSinkTest {
         assertEquals(this.requests.get(1), requestsList.get(1));
     }
 
+    @Test
+    public void shouldCollapseReplacementsOfTheSameDocumentToTheLastOne() throws IllegalAccessException, NoSuchFieldException {
+        MongoSink mongoSink = new MongoSink(firehoseInstrumentation, SinkType.MONGODB.name(), mongoRequestHandler,
+                mongoSinkClient, new UpsertCollapser(firehoseInstrumentation));
+
+        Field requestsField = MongoSink.class.getDeclaredField("requests");
+        requestsField.setAccessible(true);
+        Field messagesField = MongoSink.class.getDeclaredField("messages");
+        messagesField.setAccessible(true);
+        mongoSink.prepare(messages);
+        List<WriteModel<Document>> requestsList = (List<WriteModel<Document>>) requestsField.get(mongoSink);
+        List<Message> messagesList = (List<Message>) messagesField.get(mongoSink);
+
+        assertEquals(1, requestsList.size());
+        assertEquals(this.requests.get(1), requestsList.get(0));
+        assertEquals(1, messagesList.size());
+        assertEquals(this.messages.get(1), messagesList.get(0));
+    }
+
     @Test
     public void shouldReturnFailedMessagesWhenBulkRequestFailed() throws NoSuchFieldException, IllegalAccessException {
         BulkWriteError writeError1 = new BulkWriteError(400, "Duplicate Key Error", new BsonDocument(), 0);